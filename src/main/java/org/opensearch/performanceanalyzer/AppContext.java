@@ -7,13 +7,11 @@ package org.opensearch.performanceanalyzer;
 
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.ClusterMembership;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.store.collector.NodeConfigCache;
 import org.opensearch.performanceanalyzer.reader.ClusterDetailsEventProcessor;
@@ -53,15 +51,11 @@ public class AppContext {
     }
 
     public InstanceDetails getMyInstanceDetails() {
-        InstanceDetails ret = new InstanceDetails(AllMetrics.NodeRole.UNKNOWN);
-
-        if (clusterDetailsEventProcessor != null
-                && clusterDetailsEventProcessor.getCurrentNodeDetails() != null) {
-            ClusterDetailsEventProcessor.NodeDetails nodeDetails =
-                    clusterDetailsEventProcessor.getCurrentNodeDetails();
-            ret = new InstanceDetails(nodeDetails);
+        final List<InstanceDetails> allInstances = getAllClusterInstances();
+        if (allInstances.isEmpty()) {
+            return new InstanceDetails(AllMetrics.NodeRole.UNKNOWN);
         }
-        return ret;
+        return allInstances.get(0);
     }
 
     /**
@@ -71,31 +65,25 @@ public class AppContext {
      *     immutable list of nodes in the cluster.
      */
     public List<InstanceDetails> getAllClusterInstances() {
-        List<InstanceDetails> ret = Collections.EMPTY_LIST;
-
-        if (clusterDetailsEventProcessor != null) {
-            ret = getInstanceDetailsFromNodeDetails(clusterDetailsEventProcessor.getNodesDetails());
-        }
-        return ret;
+        return getMembership().getAllInstances();
     }
 
     public List<InstanceDetails> getDataNodeInstances() {
-        List<InstanceDetails> ret = Collections.EMPTY_LIST;
-        if (clusterDetailsEventProcessor != null) {
-            ret =
-                    getInstanceDetailsFromNodeDetails(
-                            clusterDetailsEventProcessor.getDataNodesDetails());
-        }
-        return ret;
+        return getMembership().getDataNodeInstances();
     }
 
-    private static List<InstanceDetails> getInstanceDetailsFromNodeDetails(
-            final List<ClusterDetailsEventProcessor.NodeDetails> nodeDetails) {
-        ImmutableList.Builder<InstanceDetails> instanceDetails = ImmutableList.builder();
-        for (ClusterDetailsEventProcessor.NodeDetails node : nodeDetails) {
-            instanceDetails.add(new InstanceDetails(node));
+    /**
+     * Gets the current snapshot of the nodes in the cluster. Callers looking up several nodes
+     * should use one snapshot, so that they all see the same cluster.
+     *
+     * @return the snapshot of the nodes in the cluster, empty if the details are not available.
+     */
+    public ClusterMembership getMembership() {
+        final ClusterDetailsEventProcessor processor = clusterDetailsEventProcessor;
+        if (processor == null) {
+            return ClusterMembership.EMPTY;
         }
-        return instanceDetails.build();
+        return processor.getMembership();
     }
 
     @VisibleForTesting
@@ -104,10 +92,7 @@ public class AppContext {
     }
 
     public Set<InstanceDetails> getPeerInstances() {
-        return ImmutableSet.copyOf(
-                getAllClusterInstances().stream()
-                        .skip(1) // Skipping the first instance as it is self.
-                        .collect(Collectors.toSet()));
+        return getMembership().getPeerInstances();
     }
 
     public NodeConfigCache getNodeConfigCache() {
@@ -115,10 +100,7 @@ public class AppContext {
     }
 
     public InstanceDetails getInstanceById(InstanceDetails.Id instanceIdKey) {
-        return getPeerInstances().stream()
-                .filter(x -> x.getInstanceId().equals(instanceIdKey))
-                .findFirst()
-                .orElse(new InstanceDetails(AllMetrics.NodeRole.UNKNOWN));
+        return getMembership().getPeerInstance(instanceIdKey);
     }
 
     public boolean isActionMuted(final String action) {
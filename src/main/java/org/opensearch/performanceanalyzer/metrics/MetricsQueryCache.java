@@ -0,0 +1,210 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metrics;
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.SettingsUtil;
+
+/**
+ * Caches the responses to metrics queries for a short time. A metricsdb does not change once the
+ * reader publishes it, and the monitoring agents polling a node often ask the same question of
+ * the same metricsdb, so the response is built once per metricsdb and question. Concurrent
+ * identical queries wait for the one running instead of running the query again.
+ *
+ * <p>The responses are keyed by the timestamp of the metricsdb, the metrics, the aggregations, the
+ * dimensions and the encoding. The reader drops the responses of the older metricsdbs when it
+ * publishes a new one.
+ */
+public class MetricsQueryCache {
+    public static final String TTL_CONF_NAME = "metrics-query-cache-ttl-millis";
+    // 0 disables the cache.
+    public static final long DEFAULT_TTL_MILLIS = 0;
+    public static final String MAX_ENTRIES_CONF_NAME = "metrics-query-cache-max-entries";
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final MetricsQueryCache INSTANCE =
+            new MetricsQueryCache(
+                    SettingsUtil.readLong(TTL_CONF_NAME, DEFAULT_TTL_MILLIS),
+                    (int) SettingsUtil.readLong(MAX_ENTRIES_CONF_NAME, DEFAULT_MAX_ENTRIES));
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    MetricsQueryCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public static MetricsQueryCache instance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * Returns the response to the query of the metricsdb, running the query only if no response
+     * to it is cached or being built.
+     *
+     * @param dbTimestamp the timestamp of the metricsdb
+     * @param db the metricsdb, null if there is none
+     */
+    public MetricsResponse query(
+            Long dbTimestamp,
+            MetricsDB db,
+            List<String> metricList,
+            List<String> aggList,
+            List<String> dimList,
+            MetricsEncoding encoding)
+            throws Exception {
+        if (!isEnabled() || dbTimestamp == null) {
+            return runQuery(dbTimestamp, db, metricList, aggList, dimList, encoding);
+        }
+        Key key = new Key(dbTimestamp, metricList, aggList, dimList, encoding);
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(now);
+        Entry entry =
+                entries.compute(
+                        key,
+                        (k, cached) -> cached != null && !cached.isExpired(now) ? cached : created);
+        if (entry != created) {
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.METRICS_QUERY_CACHE_HIT, 1);
+            return entry.await();
+        }
+        ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                ReaderMetrics.METRICS_QUERY_CACHE_MISS, 1);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        try {
+            MetricsResponse response =
+                    runQuery(dbTimestamp, db, metricList, aggList, dimList, encoding);
+            entry.response.complete(response);
+            return response;
+        } catch (Exception e) {
+            // The queries waiting for this one fail too, the next query runs again.
+            entries.remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static MetricsResponse runQuery(
+            Long dbTimestamp,
+            MetricsDB db,
+            List<String> metricList,
+            List<String> aggList,
+            List<String> dimList,
+            MetricsEncoding encoding)
+            throws Exception {
+        Result<Record> metricResult = null;
+        if (db != null) {
+            metricResult = db.queryMetric(metricList, aggList, dimList);
+        }
+        return MetricsResponseCodec.buildResponse(dbTimestamp, metricResult, encoding);
+    }
+
+    /** Drops the responses of the metricsdbs older than the given one. */
+    public void invalidateBefore(long dbTimestamp) {
+        entries.keySet().removeIf(key -> key.dbTimestamp < dbTimestamp);
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        if (entries.size() > maxEntries) {
+            // The responses being built stay with the queries waiting for them.
+            entries.clear();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private class Entry {
+        private final long createdAt;
+        private final CompletableFuture<MetricsResponse> response = new CompletableFuture<>();
+
+        Entry(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        /** Whether the response is built and older than the TTL. */
+        boolean isExpired(long now) {
+            return response.isDone() && now - createdAt >= ttlMillis;
+        }
+
+        MetricsResponse await() throws Exception {
+            try {
+                return response.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static class Key {
+        private final long dbTimestamp;
+        private final List<String> metricList;
+        private final List<String> aggList;
+        private final List<String> dimList;
+        private final MetricsEncoding encoding;
+
+        Key(
+                long dbTimestamp,
+                List<String> metricList,
+                List<String> aggList,
+                List<String> dimList,
+                MetricsEncoding encoding) {
+            this.dbTimestamp = dbTimestamp;
+            this.metricList = metricList;
+            this.aggList = aggList;
+            this.dimList = dimList;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return dbTimestamp == key.dbTimestamp
+                    && metricList.equals(key.metricList)
+                    && aggList.equals(key.aggList)
+                    && dimList.equals(key.dimList)
+                    && encoding == key.encoding;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dbTimestamp, metricList, aggList, dimList, encoding);
+        }
+    }
+}
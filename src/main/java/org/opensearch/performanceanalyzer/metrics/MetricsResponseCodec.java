@@ -0,0 +1,208 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metrics;
+
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.grpc.ColumnarMetricsResult;
+import org.opensearch.performanceanalyzer.grpc.MetricsColumn;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+
+/**
+ * Encodes the result of a metrics query for the GetMetrics response, and renders the responses
+ * to JSON.
+ *
+ * <p>The JSON encoding is the result formatted as JSON by the answering node. The columnar
+ * encoding sends the dimension columns as a dictionary of their distinct values and a code per
+ * row, and the metric columns as packed doubles. The coordinating node renders the JSON of all the
+ * nodes once, into the response it sends, and the JSON is the same as with the JSON encoding.
+ *
+ * <p>The requester asks for the columnar encoding in the request. A node that does not know the
+ * encoding, or a result with columns other than strings and doubles, is answered in JSON.
+ */
+public class MetricsResponseCodec {
+    private static final Logger LOG = LogManager.getLogger(MetricsResponseCodec.class);
+
+    public static final String ENCODING_CONF_NAME = "metrics-response-encoding";
+
+    private static final String EMPTY_DATA = "{}";
+
+    // Detached context used to build jOOQ results. It never touches a connection.
+    private static final DSLContext RESULT_CONTEXT = DSL.using(SQLDialect.SQLITE);
+
+    private MetricsResponseCodec() {}
+
+    /** Returns the encoding this node asks the other nodes for. */
+    public static MetricsEncoding encodingFromSettings() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(ENCODING_CONF_NAME, MetricsEncoding.JSON.name());
+        for (MetricsEncoding encoding : MetricsEncoding.values()) {
+            if (encoding != MetricsEncoding.UNRECOGNIZED
+                    && encoding.name().equalsIgnoreCase(value.trim())) {
+                return encoding;
+            }
+        }
+        LOG.warn(
+                "Unknown {} '{}', falling back to {}",
+                ENCODING_CONF_NAME,
+                value,
+                MetricsEncoding.JSON);
+        return MetricsEncoding.JSON;
+    }
+
+    /**
+     * Builds the response to a metrics query in the requested encoding, or in JSON if the result
+     * cannot be encoded in it.
+     *
+     * @param dbTimestamp the timestamp of the metricsdb queried
+     * @param result the result of the query, null if there is none
+     */
+    public static MetricsResponse buildResponse(
+            Long dbTimestamp, Result<Record> result, MetricsEncoding encoding) {
+        if (encoding == MetricsEncoding.COLUMNAR && dbTimestamp != null) {
+            ColumnarMetricsResult columnar = encode(dbTimestamp, result);
+            if (columnar != null) {
+                return MetricsResponse.newBuilder().setColumnarResult(columnar).build();
+            }
+        }
+        return MetricsResponse.newBuilder().setMetricsResult(toJson(dbTimestamp, result)).build();
+    }
+
+    /** Renders the response to the same JSON, whatever its encoding. */
+    public static void writeJson(MetricsResponse response, Writer out) throws IOException {
+        if (!response.hasColumnarResult()) {
+            out.write(response.getMetricsResult());
+            return;
+        }
+        ColumnarMetricsResult columnar = response.getColumnarResult();
+        out.write("{\"timestamp\": ");
+        out.write(Long.toString(columnar.getTimestamp()));
+        out.write(", \"data\": ");
+        if (columnar.getHasData()) {
+            decode(columnar).formatJSON(out);
+        } else {
+            out.write(EMPTY_DATA);
+        }
+        out.write('}');
+    }
+
+    static String toJson(Long dbTimestamp, Result<Record> result) {
+        String data = result == null ? EMPTY_DATA : result.formatJSON();
+        return String.format("{\"timestamp\": %d, \"data\": %s}", dbTimestamp, data);
+    }
+
+    /** Returns the columnar result, or null if a column is neither strings nor doubles. */
+    static ColumnarMetricsResult encode(long dbTimestamp, Result<Record> result) {
+        ColumnarMetricsResult.Builder builder =
+                ColumnarMetricsResult.newBuilder().setTimestamp(dbTimestamp);
+        if (result == null) {
+            return builder.setHasData(false).build();
+        }
+        builder.setHasData(true).setRowCount(result.size());
+        Field<?>[] fields = result.fields();
+        for (int i = 0; i < fields.length; i++) {
+            MetricsColumn.Builder column = MetricsColumn.newBuilder().setName(fields[i].getName());
+            if (fields[i].getType() == String.class) {
+                encodeStrings(result, i, column.setType(MetricsColumn.ColumnType.STRING));
+            } else if (fields[i].getType() == Double.class) {
+                encodeDoubles(result, i, column.setType(MetricsColumn.ColumnType.DOUBLE));
+            } else {
+                LOG.debug("Column {} cannot be encoded in columns", fields[i]);
+                return null;
+            }
+            builder.addColumns(column);
+        }
+        return builder.build();
+    }
+
+    private static void encodeStrings(Result<Record> result, int index, MetricsColumn.Builder out) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (Record record : result) {
+            String value = (String) record.get(index);
+            if (value == null) {
+                out.addCodes(0);
+                continue;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                out.addDictionary(value);
+                code = out.getDictionaryCount();
+                codes.put(value, code);
+            }
+            out.addCodes(code);
+        }
+    }
+
+    private static void encodeDoubles(Result<Record> result, int index, MetricsColumn.Builder out) {
+        for (int row = 0; row < result.size(); row++) {
+            Double value = (Double) result.get(row).get(index);
+            if (value == null) {
+                out.addNullRows(row);
+                out.addValues(0);
+            } else {
+                out.addValues(value);
+            }
+        }
+    }
+
+    /** Rebuilds the result of the query, with the same column names and types. */
+    static Result<Record> decode(ColumnarMetricsResult columnar) {
+        List<MetricsColumn> columns = columnar.getColumnsList();
+        Field<?>[] fields = new Field<?>[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            MetricsColumn column = columns.get(i);
+            Class<?> type =
+                    column.getType() == MetricsColumn.ColumnType.DOUBLE
+                            ? Double.class
+                            : String.class;
+            fields[i] = DSL.field(DSL.name(column.getName()), type);
+        }
+        int rowCount = columnar.getRowCount();
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            rows.add(new Object[fields.length]);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            MetricsColumn column = columns.get(i);
+            if (column.getType() == MetricsColumn.ColumnType.DOUBLE) {
+                for (int row = 0; row < rowCount; row++) {
+                    rows.get(row)[i] = column.getValues(row);
+                }
+                for (int row : column.getNullRowsList()) {
+                    rows.get(row)[i] = null;
+                }
+            } else {
+                for (int row = 0; row < rowCount; row++) {
+                    int code = column.getCodes(row);
+                    rows.get(row)[i] = code == 0 ? null : column.getDictionary(code - 1);
+                }
+            }
+        }
+        Result<Record> result = RESULT_CONTEXT.newResult(fields);
+        for (Object[] values : rows) {
+            Record record = RESULT_CONTEXT.newRecord(fields);
+            record.fromArray(values);
+            result.add(record);
+        }
+        return result;
+    }
+}
@@ -6,6 +6,9 @@
 package org.opensearch.performanceanalyzer.metrics;
 
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
 
 public class MetricsRestUtil {
 
@@ -39,6 +43,32 @@ public class MetricsRestUtil {
         return outputJson.toString();
     }
 
+    /**
+     * Builds the same JSON as {@link #nodeJsonBuilder}, rendering the responses of the nodes, in
+     * whatever encoding they are, straight into the output.
+     */
+    public String nodeResponsesJsonBuilder(Map<String, MetricsResponse> nodeResponses)
+            throws IOException {
+        StringWriter outputJson = new StringWriter();
+        outputJson.append("{");
+        boolean first = true;
+        for (Map.Entry<String, MetricsResponse> entry : nodeResponses.entrySet()) {
+            writeNodeResponse(outputJson, entry.getKey(), entry.getValue(), first);
+            first = false;
+        }
+        outputJson.append("}");
+        return outputJson.toString();
+    }
+
+    /** Writes the response of a node as an entry of the JSON built by {@link #nodeJsonBuilder}. */
+    public void writeNodeResponse(
+            Writer out, String node, MetricsResponse response, boolean first) throws IOException {
+        out.write(first ? "\"" : ", \"");
+        out.write(node);
+        out.write(first ? "\": " : "\" :");
+        MetricsResponseCodec.writeJson(response, out);
+    }
+
     public List<String> parseArrayParam(Map<String, String> params, String name, boolean optional)
             throws InvalidParameterException {
         if (!optional) {
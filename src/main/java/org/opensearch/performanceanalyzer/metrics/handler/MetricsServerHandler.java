@@ -11,10 +11,10 @@ import java.util.List;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jooq.Record;
-import org.jooq.Result;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
 import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
 import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.metrics.MetricsQueryCache;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
 import org.opensearch.performanceanalyzer.reader.ReaderMetricsProcessor;
 
@@ -36,7 +36,14 @@ public class MetricsServerHandler {
             List<String> aggList = request.getAggListList();
             List<String> dimList = request.getDimListList();
 
-            collectStats(db, dbTimestamp, metricList, aggList, dimList, responseObserver);
+            collectStats(
+                    db,
+                    dbTimestamp,
+                    metricList,
+                    aggList,
+                    dimList,
+                    request.getEncoding(),
+                    responseObserver);
         } catch (Exception e) {
             LOG.error("Exception during collecting API data", e);
         }
@@ -50,25 +57,35 @@ public class MetricsServerHandler {
             List<String> dimList,
             StreamObserver<MetricsResponse> responseObserver)
             throws Exception {
-        String localResponse;
-        if (db != null) {
-            Result<Record> metricResult = db.queryMetric(metricList, aggList, dimList);
-            if (metricResult == null) {
-                localResponse = "{}";
-            } else {
-                localResponse = metricResult.formatJSON();
-            }
-        } else {
-            // Empty JSON.
-            localResponse = "{}";
-        }
-        String localResponseWithTimestamp =
-                String.format("{\"timestamp\": %d, \"data\": %s}", dbTimestamp, localResponse);
-        sendResponse(localResponseWithTimestamp, responseObserver);
+        collectStats(
+                db,
+                dbTimestamp,
+                metricList,
+                aggList,
+                dimList,
+                MetricsEncoding.JSON,
+                responseObserver);
+    }
+
+    /** Queries the metrics and responds in the encoding the requester asked for. */
+    public void collectStats(
+            MetricsDB db,
+            Long dbTimestamp,
+            List<String> metricList,
+            List<String> aggList,
+            List<String> dimList,
+            MetricsEncoding encoding,
+            StreamObserver<MetricsResponse> responseObserver)
+            throws Exception {
+        sendResponse(
+                MetricsQueryCache.instance()
+                        .query(dbTimestamp, db, metricList, aggList, dimList, encoding),
+                responseObserver);
     }
 
-    private void sendResponse(String result, StreamObserver<MetricsResponse> responseObserver) {
-        responseObserver.onNext(MetricsResponse.newBuilder().setMetricsResult(result).build());
+    private void sendResponse(
+            MetricsResponse response, StreamObserver<MetricsResponse> responseObserver) {
+        responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
 }
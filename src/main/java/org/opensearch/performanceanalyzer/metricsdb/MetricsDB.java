@@ -99,6 +99,33 @@ public class MetricsDB implements Removable {
         create = DSL.using(conn, SQLDialect.SQLITE);
     }
 
+    /**
+     * Used by subclasses that open their own connection, e.g. {@link PartitionedMetricsDB}.
+     *
+     * @param windowStartTime the timestamp this database holds metrics for
+     * @param conn the connection to run statements on
+     */
+    protected MetricsDB(long windowStartTime, Connection conn) {
+        this.windowStartTime = windowStartTime;
+        this.conn = conn;
+        this.create = DSL.using(conn, SQLDialect.SQLITE);
+    }
+
+    /**
+     * Returns a new MetricsDB handle to write the metrics of a window to, using the storage mode
+     * configured in performance-analyzer.properties.
+     *
+     * @param windowStartTime the timestamp of the window
+     * @return a MetricsDB handle for the window
+     * @throws Exception if the underlying database cannot be opened
+     */
+    public static MetricsDB createForWindow(long windowStartTime) throws Exception {
+        if (PartitionedMetricsDB.isEnabled()) {
+            return new PartitionedMetricsDB(windowStartTime, true);
+        }
+        return new MetricsDB(windowStartTime);
+    }
+
     /**
      * Returns a MetricsDB handle associated with an existing metricsdb file.
      *
@@ -107,6 +134,9 @@ public class MetricsDB implements Removable {
      * @throws Exception if the metricsdb file does not exist or is invalid
      */
     public static MetricsDB fetchExisting(long windowStartTime) throws Exception {
+        if (PartitionedMetricsDB.isEnabled()) {
+            return PartitionedMetricsDB.fetchExisting(windowStartTime);
+        }
         String filePath = getDBFilePath(windowStartTime);
         if (!(new File(filePath)).exists()) {
             StatsCollector.instance()
@@ -209,7 +239,7 @@ public class MetricsDB implements Removable {
             } else {
                 throw new Exception("Unknown agg type");
             }
-            if (!DBUtils.checkIfTableExists(create, metrics.get(i))) {
+            if (!metricExists(metrics.get(i))) {
                 tList.add(null);
             } else {
                 tList.add(
@@ -306,7 +336,7 @@ public class MetricsDB implements Removable {
      */
     public Result<Record> queryMetric(String metric, Collection<String> dimensions, int limit)
             throws DataAccessException {
-        if (!DBUtils.checkIfTableExists(create, metric)) {
+        if (!metricExists(metric)) {
             return null;
         }
         if (limit < 0) {
@@ -335,11 +365,17 @@ public class MetricsDB implements Removable {
     }
 
     /**
-     * Deletes the metricsdb file associated with the given timestamp if it exists.
+     * Deletes the metricsdb file associated with the given timestamp if it exists. With partitioned
+     * storage only the window is dropped, and the partition file is deleted once it holds no more
+     * windows.
      *
      * @param windowStartTime the timestamp associated with an existing metricsdb file
      */
     public static void deleteOnDiskFile(long windowStartTime) {
+        if (PartitionedMetricsDB.isEnabled()) {
+            PartitionedMetricsDB.deleteWindow(windowStartTime);
+            return;
+        }
         Path dbFilePath = Paths.get(getDBFilePath(windowStartTime));
         try {
             Files.delete(dbFilePath);
@@ -355,11 +391,15 @@ public class MetricsDB implements Removable {
     }
 
     /**
-     * Returns the timestamps associated with on-disk files.
+     * Returns the timestamps associated with on-disk files. With partitioned storage these are the
+     * windows held by the partition files.
      *
      * @return the timestamps associated with on-disk files
      */
     public static Set<Long> listOnDiskFiles() {
+        if (PartitionedMetricsDB.isEnabled()) {
+            return PartitionedMetricsDB.listWindows();
+        }
         String prefix = getFilePrefix();
         Path parentPath = Paths.get(prefix).getParent();
         Set<Long> found = new HashSet<Long>();
@@ -0,0 +1,234 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metricsdb;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * LRU pool of open MetricsDB handles keyed by file path, so that repeated reads of the same
+ * metricsdb files do not open and close a JDBC connection every time.
+ *
+ * <p>Every pooled handle carries a fingerprint of the file it was opened on. A handle whose
+ * fingerprint no longer matches, e.g. because the file was deleted and written again, is replaced.
+ * Handles are reference counted: a handle that is evicted while leased is closed when its last
+ * lease is released.
+ */
+public class MetricsDBPool {
+    private static final Logger LOG = LogManager.getLogger(MetricsDBPool.class);
+
+    /** Opens the handle for a path that is not pooled yet. */
+    public interface Loader {
+        MetricsDB load() throws Exception;
+    }
+
+    private int capacity;
+    // Access ordered, the eldest entry is the least recently used one.
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public MetricsDBPool(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Leases the handle pooled for the given path, opening it with the loader if the path is not
+     * pooled or its fingerprint changed. The lease must be closed once the handle is not used
+     * anymore.
+     *
+     * @param path the path of the file the handle reads
+     * @param fingerprint identifies the version of the file the handle must have been opened on
+     * @param loader opens a new handle
+     * @return a lease on the handle
+     * @throws Exception if the loader fails
+     */
+    public Lease lease(String path, Object fingerprint, Loader loader) throws Exception {
+        List<Entry> evicted = new ArrayList<>();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(path);
+            if (entry != null && !Objects.equals(entry.fingerprint, fingerprint)) {
+                entries.remove(path);
+                evicted.add(entry);
+                entry = null;
+            }
+            if (entry != null) {
+                hits++;
+                entry.leases++;
+            } else {
+                misses++;
+            }
+        }
+        if (entry == null) {
+            Entry loaded = new Entry(loader.load(), fingerprint);
+            synchronized (this) {
+                entry = entries.get(path);
+                if (entry != null && Objects.equals(entry.fingerprint, fingerprint)) {
+                    // Another lease opened the same file in the meantime.
+                    loaded.evicted = true;
+                    evicted.add(loaded);
+                } else {
+                    if (entry != null) {
+                        evicted.add(entries.remove(path));
+                    }
+                    entry = loaded;
+                    entries.put(path, entry);
+                }
+                entry.leases++;
+                evicted.addAll(trimToCapacity());
+            }
+        }
+        closeEvicted(evicted);
+        return new Lease(entry);
+    }
+
+    /**
+     * Evicts the handles of all paths not in the given set, e.g. files that have been deleted.
+     *
+     * @param livePaths the paths whose handles should be kept
+     */
+    public void retainOnly(Set<String> livePaths) {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (!livePaths.contains(e.getKey())) {
+                    it.remove();
+                    evicted.add(e.getValue());
+                }
+            }
+        }
+        closeEvicted(evicted);
+    }
+
+    /**
+     * Changes the number of handles the pool keeps, evicting the least recently used ones if it
+     * holds more.
+     *
+     * @param capacity the maximum number of pooled handles
+     */
+    public void setCapacity(int capacity) {
+        List<Entry> evicted;
+        synchronized (this) {
+            this.capacity = Math.max(1, capacity);
+            evicted = trimToCapacity();
+        }
+        closeEvicted(evicted);
+    }
+
+    /** Evicts all the pooled handles. */
+    public void clear() {
+        List<Entry> evicted;
+        synchronized (this) {
+            evicted = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        closeEvicted(evicted);
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private List<Entry> trimToCapacity() {
+        List<Entry> evicted = new ArrayList<>();
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            evicted.add(it.next());
+            it.remove();
+        }
+        return evicted;
+    }
+
+    private void closeEvicted(List<Entry> evicted) {
+        for (Entry entry : evicted) {
+            boolean close;
+            synchronized (this) {
+                entry.evicted = true;
+                close = entry.leases == 0;
+            }
+            if (close) {
+                entry.close();
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        boolean close;
+        synchronized (this) {
+            entry.leases--;
+            close = entry.evicted && entry.leases == 0;
+        }
+        if (close) {
+            entry.close();
+        }
+    }
+
+    /** A leased handle, released to the pool on close. */
+    public class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public MetricsDB getMetricsDB() {
+            return entry.db;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(entry);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final MetricsDB db;
+        private final Object fingerprint;
+        private int leases;
+        private boolean evicted;
+
+        Entry(MetricsDB db, Object fingerprint) {
+            this.db = db;
+            this.fingerprint = fingerprint;
+        }
+
+        void close() {
+            try {
+                db.remove();
+            } catch (Exception e) {
+                LOG.error("Unable to close pooled metricsdb handle", e);
+            }
+        }
+    }
+}
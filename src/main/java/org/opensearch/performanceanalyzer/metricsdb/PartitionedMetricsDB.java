@@ -0,0 +1,686 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metricsdb;
+
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jooq.BatchBindStep;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.opensearch.performanceanalyzer.DBUtils;
+import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+
+/**
+ * MetricsDB that stores many windows in one SQLite file per partition instead of one file per
+ * window. A partition covers metrics-db-partition-minutes worth of windows. Every metric table has
+ * an extra window_ts column, indexed, and rows of all the windows in the partition are appended to
+ * the same table.
+ *
+ * <p>Each handle only exposes its own window. For every metric written in the window a temporary
+ * view with the name of the metric is created on the handle's connection, selecting the window's
+ * rows without the window_ts column. SQLite resolves unqualified names against the temp schema
+ * first, so queries written against the per-window file layout work unchanged. Writes go to the
+ * tables in the main schema.
+ *
+ * <p>Two catalog tables track which windows a partition holds and which metrics, with their
+ * dimensions, every window has. Deleting a window removes its rows and its catalog entries. A
+ * partition file is deleted once it holds no more windows and no new window is written to it.
+ *
+ * <p>Partition files are opened in WAL mode so handles of older windows can be read while the
+ * newest window is written.
+ */
+public class PartitionedMetricsDB extends MetricsDB {
+    private static final Logger LOG = LogManager.getLogger(PartitionedMetricsDB.class);
+
+    public static final String STORAGE_MODE_CONF_NAME = "metrics-db-storage-mode";
+    public static final String STORAGE_MODE_PARTITIONED = "partitioned";
+    public static final String STORAGE_MODE_FILE_PER_WINDOW = "file-per-window";
+    public static final String PARTITION_MINUTES_CONF_NAME = "metrics-db-partition-minutes";
+    public static final int DEFAULT_PARTITION_MINUTES = 10;
+
+    public static final String WINDOW_COLUMN = "window_ts";
+    static final String PARTITION_FILE_INFIX = "p";
+    static final String WINDOWS_TABLE = "metricsdb_windows";
+    static final String TABLES_TABLE = "metricsdb_tables";
+    private static final String TABLE_NAME_COLUMN = "table_name";
+    private static final String DIMENSIONS_COLUMN = "dimensions";
+    private static final String DIMENSION_SEPARATOR = ",";
+    private static final String DB_URL = "jdbc:sqlite:";
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    private static final List<String> AGG_COLUMNS = Arrays.asList(SUM, AVG, MIN, MAX);
+
+    /**
+     * Windows are written shortly after they end, so no window is written to a partition that
+     * ended longer ago than this.
+     */
+    private static final long CLOSE_DELAY_MILLIS = 60 * 1000;
+
+    // Partitions left without windows before they were closed, deleted once they are.
+    private static final Set<String> EMPTY_OPEN_PARTITIONS = ConcurrentHashMap.newKeySet();
+
+    private final long windowStartTime;
+    private final String partitionFilePath;
+    private final DSLContext create;
+    // Metric tables of this window and their dimensions, in creation order.
+    private final Map<String, List<String>> windowTables;
+
+    /**
+     * Opens a handle on the partition of the given window.
+     *
+     * @param windowStartTime the window this handle reads and writes
+     * @param newWindow whether the window is being written, in which case it is registered in the
+     *     partition
+     * @throws Exception if the partition file cannot be opened
+     */
+    PartitionedMetricsDB(long windowStartTime, boolean newWindow) throws Exception {
+        this(windowStartTime, getPartitionFilePath(windowStartTime), newWindow);
+    }
+
+    private PartitionedMetricsDB(long windowStartTime, String partitionFilePath, boolean newWindow)
+            throws Exception {
+        this(windowStartTime, partitionFilePath, openPartition(partitionFilePath), newWindow);
+    }
+
+    private PartitionedMetricsDB(
+            long windowStartTime, String partitionFilePath, Connection conn, boolean newWindow)
+            throws Exception {
+        super(windowStartTime, conn);
+        this.windowStartTime = windowStartTime;
+        this.partitionFilePath = partitionFilePath;
+        this.create = getDSLContext();
+        this.windowTables = new LinkedHashMap<>();
+        try {
+            if (newWindow) {
+                create.execute(
+                        String.format(
+                                "INSERT OR IGNORE INTO main.%s (%s) VALUES (?)",
+                                WINDOWS_TABLE, WINDOW_COLUMN),
+                        windowStartTime);
+            }
+            for (Record r :
+                    create.select(
+                                    DSL.field(DSL.name(TABLE_NAME_COLUMN), String.class),
+                                    DSL.field(DSL.name(DIMENSIONS_COLUMN), String.class))
+                            .from(DSL.table(DSL.name("main", TABLES_TABLE)))
+                            .where(
+                                    DSL.field(DSL.name(WINDOW_COLUMN), Long.class)
+                                            .eq(windowStartTime))
+                            .orderBy(DSL.field("rowid"))
+                            .fetch()) {
+                List<String> dims = splitDimensions(r.get(1, String.class));
+                String tableName = r.get(0, String.class);
+                windowTables.put(tableName, dims);
+                createWindowView(tableName, dims);
+            }
+        } catch (Exception e) {
+            conn.close();
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            throw e;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return STORAGE_MODE_PARTITIONED.equalsIgnoreCase(
+                PluginSettings.instance()
+                        .getSettingValue(STORAGE_MODE_CONF_NAME, STORAGE_MODE_FILE_PER_WINDOW)
+                        .trim());
+    }
+
+    public static long getPartitionMillis() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(
+                                PARTITION_MINUTES_CONF_NAME,
+                                String.valueOf(DEFAULT_PARTITION_MINUTES));
+        long minutes = DEFAULT_PARTITION_MINUTES;
+        try {
+            minutes = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {} '{}'", PARTITION_MINUTES_CONF_NAME, value);
+        }
+        return Math.max(1, minutes) * 60 * 1000;
+    }
+
+    public static long getPartitionStartTime(long windowStartTime) {
+        long partitionMillis = getPartitionMillis();
+        return windowStartTime - Math.floorMod(windowStartTime, partitionMillis);
+    }
+
+    public static String getPartitionFilePath(long windowStartTime) {
+        return getFilePrefix() + PARTITION_FILE_INFIX + getPartitionStartTime(windowStartTime);
+    }
+
+    /** @return the path of the partition file that holds this window. */
+    @Override
+    public String getDBFilePath() {
+        return partitionFilePath;
+    }
+
+    /**
+     * Returns a handle on an existing window.
+     *
+     * @param windowStartTime the timestamp of the window
+     * @return a handle exposing the window's metrics
+     * @throws Exception if the window is not stored in its partition
+     */
+    public static MetricsDB fetchExisting(long windowStartTime) throws Exception {
+        String filePath = getPartitionFilePath(windowStartTime);
+        if (!(new File(filePath)).exists() || !containsWindow(filePath, windowStartTime)) {
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            throw new FileNotFoundException(
+                    String.format(
+                            "MetricsDB window %d could not be found in %s.",
+                            windowStartTime, filePath));
+        }
+        return new PartitionedMetricsDB(windowStartTime, filePath, false);
+    }
+
+    /**
+     * Returns a handle on the partition that holds the given window, to scan the partition's
+     * windows with {@link #scanWindows}. Unlike {@link #fetchExisting(long)} the window itself
+     * does not need to be stored in the partition.
+     *
+     * @param windowStartTime a timestamp within the partition
+     * @return a handle on the partition
+     * @throws Exception if the partition file does not exist or cannot be opened
+     */
+    public static PartitionedMetricsDB fetchPartition(long windowStartTime) throws Exception {
+        String filePath = getPartitionFilePath(windowStartTime);
+        if (!(new File(filePath)).exists()) {
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            throw new FileNotFoundException(
+                    String.format("MetricsDB partition %s could not be found.", filePath));
+        }
+        return new PartitionedMetricsDB(
+                windowStartTime, filePath, openPartition(filePath, true), false);
+    }
+
+    /**
+     * Reads the rows of a metric for several windows of this partition with a single range scan
+     * over the window index. The result of every window has the same fields and rows, in the same
+     * order, as {@link #queryMetric(String, Collection, int)} on a handle of that window. Handles
+     * returned by {@link #fetchPartition(long)} are in auto-commit mode and may be shared by
+     * concurrent readers: every scan is its own read transaction, which sees the windows committed
+     * so far, and nothing is committed on the handle.
+     *
+     * @param metric the metric to read
+     * @param dimensions the dimensions to return
+     * @param windows the windows to read, all within this partition
+     * @param limit the maximum number of rows to read across all the windows
+     * @return the rows per window, for the windows that have the metric
+     * @throws Exception if the partition cannot be read
+     */
+    public Map<Long, Result<Record>> scanWindows(
+            String metric, Collection<String> dimensions, Collection<Long> windows, int limit)
+            throws Exception {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative");
+        }
+        Field<Long> windowField = DSL.field(DSL.name(WINDOW_COLUMN), Long.class);
+        Map<Long, Result<Record>> results = new LinkedHashMap<>();
+        List<Long> windowsWithMetric =
+                create.select(windowField)
+                        .from(DSL.table(DSL.name("main", TABLES_TABLE)))
+                        .where(DSL.field(DSL.name(TABLE_NAME_COLUMN), String.class).eq(metric))
+                        .and(windowField.in(windows))
+                        .orderBy(windowField)
+                        .fetch(0, Long.class);
+        if (windowsWithMetric.isEmpty()) {
+            return results;
+        }
+
+        List<Field<?>> fields = DBUtils.getFieldsFromList(dimensions);
+        fields.add(DSL.field(SUM, Double.class));
+        fields.add(DSL.field(AVG, Double.class));
+        fields.add(DSL.field(MIN, Double.class));
+        fields.add(DSL.field(MAX, Double.class));
+        Field<?>[] resultFields = fields.toArray(new Field<?>[0]);
+        for (Long window : windowsWithMetric) {
+            results.put(window, create.newResult(resultFields));
+        }
+
+        List<Field<?>> selectFields = new ArrayList<>(fields);
+        selectFields.add(windowField);
+        try (Cursor<Record> cursor =
+                create.select(selectFields)
+                        .from(mainTable(metric))
+                        .where(windowField.in(windowsWithMetric))
+                        .orderBy(windowField, DSL.field("rowid"))
+                        .limit(limit)
+                        .fetchLazy()) {
+            for (Record r : cursor) {
+                results.get(r.get(windowField)).add(r.into(resultFields));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Deletes the rows of a window from its partition and returns the pages they used to the file
+     * system. The partition file is deleted if no windows are left and it is closed; an open
+     * partition is deleted by {@link #deleteEmptyPartitions()} once it is closed.
+     *
+     * @param windowStartTime the timestamp of the window
+     */
+    public static void deleteWindow(long windowStartTime) {
+        String filePath = getPartitionFilePath(windowStartTime);
+        if (!(new File(filePath)).exists()) {
+            return;
+        }
+        boolean empty;
+        try (Connection conn = openPartition(filePath)) {
+            DSLContext create = DSL.using(conn, SQLDialect.SQLITE);
+            Field<Long> windowField = DSL.field(DSL.name(WINDOW_COLUMN), Long.class);
+            for (String tableName :
+                    create.select(DSL.field(DSL.name(TABLE_NAME_COLUMN), String.class))
+                            .from(DSL.table(DSL.name("main", TABLES_TABLE)))
+                            .where(windowField.eq(windowStartTime))
+                            .fetch(0, String.class)) {
+                create.deleteFrom(mainTable(tableName))
+                        .where(windowField.eq(windowStartTime))
+                        .execute();
+            }
+            create.deleteFrom(DSL.table(DSL.name("main", TABLES_TABLE)))
+                    .where(windowField.eq(windowStartTime))
+                    .execute();
+            create.deleteFrom(DSL.table(DSL.name("main", WINDOWS_TABLE)))
+                    .where(windowField.eq(windowStartTime))
+                    .execute();
+            conn.commit();
+            returnFreePages(conn);
+            empty = create.fetchCount(DSL.table(DSL.name("main", WINDOWS_TABLE))) == 0;
+        } catch (Exception e) {
+            LOG.error(
+                    "Failed to delete window {} from {} with ExceptionCode: {}",
+                    windowStartTime,
+                    filePath,
+                    StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS,
+                    e);
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            return;
+        }
+        if (!empty) {
+            return;
+        }
+        // The window being written to an open partition may not be committed yet, so an open
+        // partition that looks empty is only deleted once it is closed.
+        if (isClosed(getPartitionStartTime(windowStartTime), System.currentTimeMillis())) {
+            deletePartitionFile(filePath);
+        } else {
+            EMPTY_OPEN_PARTITIONS.add(filePath);
+        }
+    }
+
+    /**
+     * Deletes the partitions that were left without windows before they were closed, once they are
+     * closed and still hold no windows.
+     */
+    public static void deleteEmptyPartitions() {
+        long now = System.currentTimeMillis();
+        for (String filePath : EMPTY_OPEN_PARTITIONS) {
+            if (!isClosed(parsePartitionStartTime(filePath), now)) {
+                continue;
+            }
+            EMPTY_OPEN_PARTITIONS.remove(filePath);
+            if ((new File(filePath)).exists() && listWindows(filePath).isEmpty()) {
+                deletePartitionFile(filePath);
+            }
+        }
+    }
+
+    /**
+     * Lists the windows held by all the partition files on disk. Closed partition files that hold
+     * no windows, e.g. left behind by a restart, are deleted.
+     *
+     * @return the windows held by all the partition files on disk.
+     */
+    public static Set<Long> listWindows() {
+        Set<Long> found = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (Path path : listPartitionFiles()) {
+            String filePath = path.toString();
+            List<Long> windows = listWindows(filePath);
+            if (windows == null) {
+                continue;
+            }
+            if (windows.isEmpty() && isClosed(parsePartitionStartTime(filePath), now)) {
+                deletePartitionFile(filePath);
+            }
+            found.addAll(windows);
+        }
+        return found;
+    }
+
+    /** @return the windows held by the partition file, or null if it cannot be read. */
+    private static List<Long> listWindows(String filePath) {
+        try (Connection conn = openPartition(filePath)) {
+            return DSL.using(conn, SQLDialect.SQLITE)
+                    .select(DSL.field(DSL.name(WINDOW_COLUMN), Long.class))
+                    .from(DSL.table(DSL.name("main", WINDOWS_TABLE)))
+                    .fetch(0, Long.class);
+        } catch (Exception e) {
+            LOG.error("Unable to read metricsdb partition - {}", filePath, e);
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            return null;
+        }
+    }
+
+    /** Whether no new window can be written to the partition starting at the given time. */
+    private static boolean isClosed(long partitionStartTime, long now) {
+        return partitionStartTime + getPartitionMillis() + CLOSE_DELAY_MILLIS <= now;
+    }
+
+    private static long parsePartitionStartTime(String filePath) {
+        return Long.parseLong(filePath.substring(filePath.lastIndexOf(PARTITION_FILE_INFIX) + 1));
+    }
+
+    /** @return the partition files found in the metricsdb directory. */
+    public static List<Path> listPartitionFiles() {
+        String prefix = getFilePrefix();
+        Path parentPath = Paths.get(prefix).getParent();
+        PathMatcher matcher =
+                FileSystems.getDefault()
+                        .getPathMatcher("regex:" + prefix + PARTITION_FILE_INFIX + "\\d+");
+        try (Stream<Path> paths = Files.list(parentPath)) {
+            return paths.filter(matcher::matches).collect(Collectors.toList());
+        } catch (IOException | SecurityException e) {
+            LOG.error(
+                    "Failed to access metricsdb directory - {} with ExceptionCode: {}",
+                    parentPath,
+                    StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS,
+                    e);
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public void createMetric(Metric<?> metric, List<String> dimensions) {
+        String tableName = metric.getName();
+        if (windowTables.containsKey(tableName)) {
+            return;
+        }
+
+        if (!DBUtils.checkIfTableExists(create, tableName)) {
+            List<Field<?>> fields = DBUtils.getFieldsFromList(dimensions);
+            for (String agg : AGG_COLUMNS) {
+                fields.add(DSL.field(agg, metric.getValueType()));
+            }
+            fields.add(DSL.field(WINDOW_COLUMN, Long.class));
+            create.createTable(mainTable(tableName)).columns(fields).execute();
+            create.execute(
+                    String.format(
+                            "CREATE INDEX IF NOT EXISTS main.%s ON %s (%s)",
+                            quote(tableName + "_" + WINDOW_COLUMN),
+                            quote(tableName),
+                            quote(WINDOW_COLUMN)));
+        } else {
+            // Earlier windows may have been written with fewer dimensions.
+            Set<String> columns = new HashSet<>();
+            for (Record r : create.fetch("PRAGMA main.table_info(" + quote(tableName) + ")")) {
+                columns.add(r.get("name", String.class));
+            }
+            for (String dim : dimensions) {
+                if (!columns.contains(dim)) {
+                    create.execute(
+                            String.format(
+                                    "ALTER TABLE main.%s ADD COLUMN %s TEXT",
+                                    quote(tableName), quote(dim)));
+                }
+            }
+        }
+
+        List<String> dims = new ArrayList<>(dimensions);
+        create.insertInto(DSL.table(DSL.name("main", TABLES_TABLE)))
+                .set(DSL.field(DSL.name(WINDOW_COLUMN), Long.class), windowStartTime)
+                .set(DSL.field(DSL.name(TABLE_NAME_COLUMN), String.class), tableName)
+                .set(
+                        DSL.field(DSL.name(DIMENSIONS_COLUMN), String.class),
+                        String.join(DIMENSION_SEPARATOR, dims))
+                .execute();
+        windowTables.put(tableName, dims);
+        createWindowView(tableName, dims);
+    }
+
+    @Override
+    public BatchBindStep startBatchPut(Metric<?> metric, List<String> dimensions) {
+        return startBatchPut(metric.getName(), new ArrayList<>(dimensions));
+    }
+
+    @Override
+    public BatchBindStep startBatchPut(String tableName, int dimNum) {
+        List<String> dims = windowTables.get(tableName);
+        if (dimNum < 1 || dims == null || dims.size() + AGG_COLUMNS.size() != dimNum) {
+            throw new IllegalArgumentException(
+                    String.format("Incorrect arguments %s, %d", tableName, dimNum));
+        }
+        return startBatchPut(tableName, dims);
+    }
+
+    private BatchBindStep startBatchPut(String tableName, List<String> dims) {
+        List<Field<?>> fields = DBUtils.getFieldsFromList(dims);
+        for (String agg : AGG_COLUMNS) {
+            fields.add(DSL.field(DSL.name(agg)));
+        }
+        fields.add(DSL.field(DSL.name(WINDOW_COLUMN)));
+
+        Field<?>[] values = new Field<?>[fields.size()];
+        for (int i = 0; i < values.length - 1; i++) {
+            values[i] = DSL.val(null, Object.class);
+        }
+        // The window is rendered into the statement so that rows are bound exactly as for a
+        // per-window file.
+        values[values.length - 1] = DSL.field(String.valueOf(windowStartTime), Long.class);
+        return create.batch(create.insertInto(mainTable(tableName), fields).values(values));
+    }
+
+    @Override
+    public void putMetric(Metric<Double> metric, Dimensions dimensions, long windowStartTime) {
+        create.insertInto(mainTable(metric.getName()))
+                .set(DSL.field(SUM, Double.class), metric.getSum())
+                .set(DSL.field(AVG, Double.class), metric.getAvg())
+                .set(DSL.field(MIN, Double.class), metric.getMin())
+                .set(DSL.field(MAX, Double.class), metric.getMax())
+                .set(dimensions.getFieldMap())
+                .set(DSL.field(DSL.name(WINDOW_COLUMN), Long.class), this.windowStartTime)
+                .execute();
+    }
+
+    @Override
+    public void deleteMetric(String metricName) {
+        if (!windowTables.containsKey(metricName)) {
+            return;
+        }
+        create.execute("DROP VIEW IF EXISTS temp." + quote(metricName));
+        create.deleteFrom(mainTable(metricName))
+                .where(DSL.field(DSL.name(WINDOW_COLUMN), Long.class).eq(windowStartTime))
+                .execute();
+        create.deleteFrom(DSL.table(DSL.name("main", TABLES_TABLE)))
+                .where(DSL.field(DSL.name(WINDOW_COLUMN), Long.class).eq(windowStartTime))
+                .and(DSL.field(DSL.name(TABLE_NAME_COLUMN), String.class).eq(metricName))
+                .execute();
+        windowTables.remove(metricName);
+    }
+
+    @Override
+    public boolean metricExists(String metric) {
+        return windowTables.containsKey(metric);
+    }
+
+    private void createWindowView(String tableName, List<String> dims) {
+        List<String> columns = new ArrayList<>();
+        for (String dim : dims) {
+            columns.add(quote(dim));
+        }
+        for (String agg : AGG_COLUMNS) {
+            columns.add(quote(agg));
+        }
+        create.execute(
+                String.format(
+                        "CREATE TEMP VIEW IF NOT EXISTS %s AS SELECT %s FROM main.%s WHERE %s = %d",
+                        quote(tableName),
+                        String.join(", ", columns),
+                        quote(tableName),
+                        quote(WINDOW_COLUMN),
+                        windowStartTime));
+    }
+
+    private static Table<Record> mainTable(String tableName) {
+        return DSL.table(DSL.name("main", tableName));
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static List<String> splitDimensions(String dims) {
+        if (dims == null || dims.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(dims.split(DIMENSION_SEPARATOR)));
+    }
+
+    private static boolean containsWindow(String filePath, long windowStartTime) {
+        try (Connection conn = openPartition(filePath)) {
+            return DSL.using(conn, SQLDialect.SQLITE)
+                            .fetchCount(
+                                    DSL.selectFrom(DSL.table(DSL.name("main", WINDOWS_TABLE)))
+                                            .where(
+                                                    DSL.field(DSL.name(WINDOW_COLUMN), Long.class)
+                                                            .eq(windowStartTime)))
+                    > 0;
+        } catch (Exception e) {
+            LOG.error("Unable to read metricsdb partition - {}", filePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * Opens a connection to a partition file, creating the file and its catalog if needed. The
+     * returned connection has auto-commit disabled.
+     */
+    /**
+     * Returns the pages freed by the deleted rows to the file system. The file shrinks once the
+     * write-ahead log is checkpointed.
+     */
+    private static void returnFreePages(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            long freePages;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+                freePages = rs.next() ? rs.getLong(1) : 0;
+            }
+            // incremental_vacuum frees one page per step and the driver steps a statement once.
+            // The loop is bounded as it is a no-op on partitions created without auto_vacuum.
+            for (long i = 0; i < freePages; i++) {
+                stmt.execute("PRAGMA incremental_vacuum");
+            }
+            conn.commit();
+        }
+    }
+
+    private static Connection openPartition(String filePath) throws SQLException {
+        return openPartition(filePath, false);
+    }
+
+    /**
+     * @param autoCommit whether every statement is its own transaction, for handles that are only
+     *     read
+     */
+    private static Connection openPartition(String filePath, boolean autoCommit)
+            throws SQLException {
+        Connection conn;
+        try {
+            conn = DriverManager.getConnection(DB_URL + filePath);
+        } catch (SQLException e) {
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            throw e;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            // Only takes effect on a new partition, before its first table is created.
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.executeUpdate(
+                    String.format(
+                            "CREATE TABLE IF NOT EXISTS main.%s (%s BIGINT PRIMARY KEY)",
+                            WINDOWS_TABLE, WINDOW_COLUMN));
+            stmt.executeUpdate(
+                    String.format(
+                            "CREATE TABLE IF NOT EXISTS main.%s "
+                                    + "(%s BIGINT, %s TEXT, %s TEXT, PRIMARY KEY (%s, %s))",
+                            TABLES_TABLE,
+                            WINDOW_COLUMN,
+                            TABLE_NAME_COLUMN,
+                            DIMENSIONS_COLUMN,
+                            WINDOW_COLUMN,
+                            TABLE_NAME_COLUMN));
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            conn.close();
+            StatsCollector.instance()
+                    .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            throw e;
+        }
+        return conn;
+    }
+
+    private static void deletePartitionFile(String filePath) {
+        for (String suffix : Arrays.asList("", "-wal", "-shm")) {
+            Path path = Paths.get(filePath + suffix);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException | SecurityException e) {
+                LOG.error(
+                        "Failed to delete File - {} with ExceptionCode: {}",
+                        path,
+                        StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS,
+                        e);
+                StatsCollector.instance()
+                        .logException(StatExceptionCode.READER_METRICSDB_ACCESS_ERRORS);
+            }
+        }
+    }
+}
@@ -11,12 +11,14 @@ import io.grpc.stub.StreamObserver;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.grpc.InterNodeRpcServiceGrpc;
 import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
@@ -51,6 +53,10 @@ public class NetClient {
                     ConcurrentMap<String, AtomicReference<StreamObserver<FlowUnitMessage>>>>
             perHostAndNodeOpenDataStreamMap = new ConcurrentHashMap<>();
 
+    /** One stream per host, multiplexing the flow units of all the graph nodes. */
+    private ConcurrentMap<InstanceDetails.Id, StreamObserver<FlowUnitBatchMessage>>
+            perHostOpenBatchStreamMap = new ConcurrentHashMap<>();
+
     // Visible for testing
     protected ConcurrentMap<
                     InstanceDetails.Id,
@@ -59,6 +65,12 @@ public class NetClient {
         return perHostAndNodeOpenDataStreamMap;
     }
 
+    // Visible for testing
+    protected ConcurrentMap<InstanceDetails.Id, StreamObserver<FlowUnitBatchMessage>>
+            getPerHostOpenBatchStreamMap() {
+        return perHostOpenBatchStreamMap;
+    }
+
     /**
      * Sends a subscribe request to a remote host. If the subscribe request fails because the remote
      * host is not ready/encountered an exception, we still retry subscribing when we try reading
@@ -95,8 +107,9 @@ public class NetClient {
      * @param remoteHost The remote host to which we need to send flow units to.
      * @param flowUnitMessage The flow unit to send to the remote host.
      * @param serverResponseStream The stream for the server to communicate back on.
+     * @return false if the flow unit could not be written to the stream.
      */
-    public void publish(
+    public boolean publish(
             final InstanceDetails remoteHost,
             final FlowUnitMessage flowUnitMessage,
             final StreamObserver<PublishResponse> serverResponseStream) {
@@ -110,12 +123,54 @@ public class NetClient {
                     RcaGraphMetrics.NET_BYTES_OUT,
                     flowUnitMessage.getGraphNode(),
                     flowUnitMessage.getSerializedSize());
+            return true;
         } catch (StatusRuntimeException sre) {
             LOG.error(
                     "rca: Encountered an error trying to publish a flow unit. Status: {}",
                     sre.getStatus(),
                     sre);
             StatsCollector.instance().logException(StatExceptionCode.RCA_NETWORK_ERROR);
+            return false;
+        }
+    }
+
+    /**
+     * Sends a batch of flow units to the remote host, on the single batch stream kept open for the
+     * host. Like with {@link #publish}, a failure on the stream makes the caller flush it and the
+     * next batch re-establishes it.
+     *
+     * @param remoteHost The remote host to which we need to send flow units to.
+     * @param batch The flow units of all the graph nodes to send to the remote host.
+     * @param serverResponseStream The stream for the server to communicate back on, only used when
+     *     the stream to the host is opened.
+     * @return false if the batch could not be written to the stream.
+     */
+    public boolean publishBatch(
+            final InstanceDetails remoteHost,
+            final FlowUnitBatchMessage batch,
+            final StreamObserver<PublishResponse> serverResponseStream) {
+        LOG.debug("Publishing {} flow units to {}", batch.getFlowUnitsCount(), remoteHost);
+        try {
+            StreamObserver<FlowUnitBatchMessage> stream =
+                    perHostOpenBatchStreamMap.get(remoteHost.getInstanceId());
+            if (stream == null) {
+                stream = addBatchStreamForHost(remoteHost, serverResponseStream);
+            }
+            stream.onNext(batch);
+            for (FlowUnitMessage flowUnitMessage : batch.getFlowUnitsList()) {
+                ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                        RcaGraphMetrics.NET_BYTES_OUT,
+                        flowUnitMessage.getGraphNode(),
+                        flowUnitMessage.getSerializedSize());
+            }
+            return true;
+        } catch (StatusRuntimeException sre) {
+            LOG.error(
+                    "rca: Encountered an error trying to publish a flow unit batch. Status: {}",
+                    sre.getStatus(),
+                    sre);
+            StatsCollector.instance().logException(StatExceptionCode.RCA_NETWORK_ERROR);
+            return false;
         }
     }
 
@@ -128,6 +183,21 @@ public class NetClient {
         stub.getMetrics(request, responseObserver);
     }
 
+    /**
+     * Gets the metrics of a remote host, failing the call with {@code DEADLINE_EXCEEDED} if the
+     * host has not answered within the deadline.
+     */
+    public void getMetrics(
+            InstanceDetails remoteNodeIP,
+            MetricsRequest request,
+            long deadlineMillis,
+            StreamObserver<MetricsResponse> responseObserver) {
+        InterNodeRpcServiceGrpc.InterNodeRpcServiceStub stub =
+                connectionManager.getClientStubForHost(remoteNodeIP);
+        stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                .getMetrics(request, responseObserver);
+    }
+
     public void stop() {
         LOG.debug("Shutting down client streaming connections..");
         closeAllDataStreams();
@@ -137,6 +207,7 @@ public class NetClient {
     public void flushStream(final InstanceDetails.Id remoteHost) {
         LOG.debug("removing data streams for {} as we are no publishing to it.", remoteHost);
         perHostAndNodeOpenDataStreamMap.remove(remoteHost);
+        perHostOpenBatchStreamMap.remove(remoteHost);
     }
 
     private void closeAllDataStreams() {
@@ -154,6 +225,12 @@ public class NetClient {
             }
             perHostAndNodeOpenDataStreamMap.remove(entry.getKey());
         }
+        for (Map.Entry<InstanceDetails.Id, StreamObserver<FlowUnitBatchMessage>> entry :
+                perHostOpenBatchStreamMap.entrySet()) {
+            LOG.debug("Closing batch stream for host: {}", entry.getKey());
+            entry.getValue().onCompleted();
+            perHostOpenBatchStreamMap.remove(entry.getKey());
+        }
     }
 
     private StreamObserver<FlowUnitMessage> getDataStreamForHost(
@@ -199,4 +276,20 @@ public class NetClient {
                 .set(dataStream);
         return dataStream;
     }
+
+    private synchronized StreamObserver<FlowUnitBatchMessage> addBatchStreamForHost(
+            final InstanceDetails remoteHost,
+            final StreamObserver<PublishResponse> serverResponseStream) {
+        StreamObserver<FlowUnitBatchMessage> existing =
+                perHostOpenBatchStreamMap.get(remoteHost.getInstanceId());
+        if (existing != null) {
+            return existing;
+        }
+        final StreamObserver<FlowUnitBatchMessage> batchStream =
+                connectionManager
+                        .getClientStubForHost(remoteHost)
+                        .publishBatch(serverResponseStream);
+        perHostOpenBatchStreamMap.put(remoteHost.getInstanceId(), batchStream);
+        return batchStream;
+    }
 }
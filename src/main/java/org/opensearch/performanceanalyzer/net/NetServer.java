@@ -7,7 +7,9 @@ package org.opensearch.performanceanalyzer.net;
 
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.grpc.Server;
+import io.grpc.ServerInterceptors;
 import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NettyServerBuilder;
 import io.grpc.stub.StreamObserver;
@@ -17,14 +19,19 @@ import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContextBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.CertificateUtils;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.grpc.InterNodeRpcServiceGrpc;
 import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
@@ -33,24 +40,50 @@ import org.opensearch.performanceanalyzer.grpc.PublishResponse;
 import org.opensearch.performanceanalyzer.grpc.SubscribeMessage;
 import org.opensearch.performanceanalyzer.grpc.SubscribeResponse;
 import org.opensearch.performanceanalyzer.metrics.handler.MetricsServerHandler;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.SettingsUtil;
 import org.opensearch.performanceanalyzer.rca.net.handler.PublishRequestHandler;
 import org.opensearch.performanceanalyzer.rca.net.handler.SubscribeServerHandler;
 
-/** Class that runs the RPC server and implements the RPC methods. */
+/**
+ * Class that runs the RPC server and implements the RPC methods.
+ *
+ * <p>The boss and worker event loop threads, and the threads of the executor running the RPC
+ * handlers, can be set. The executor queues a bounded number of tasks, past which the tasks run
+ * on the event loop thread that received them, which stops that thread reading from its
+ * connections until the executor catches up.
+ */
 public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBase
         implements Runnable {
 
     private static final Logger LOG = LogManager.getLogger(NetServer.class);
 
+    // The boss and worker threads default to the number of server threads.
+    public static final String BOSS_THREADS_CONF_NAME = "rpc-server-boss-threads";
+    public static final String WORKER_THREADS_CONF_NAME = "rpc-server-worker-threads";
+    public static final String EXECUTOR_THREADS_CONF_NAME = "rpc-server-executor-threads";
+    // 0 runs the RPCs on a single thread over HTTP and on the gRPC default executor over HTTPS.
+    public static final int DEFAULT_EXECUTOR_THREADS = 0;
+    public static final String EXECUTOR_QUEUE_SIZE_CONF_NAME = "rpc-server-executor-queue-size";
+    public static final int DEFAULT_EXECUTOR_QUEUE_SIZE = 1024;
+
     /** The RPC server port. */
     private final int port;
 
-    /** Number of threads to be used by the server. */
-    private final int numServerThreads;
-
     /** Flag indicating if a secure channel is to be used or otherwise. */
     private final boolean useHttps;
 
+    private final int bossThreads;
+    private final int workerThreads;
+    private final int executorThreads;
+    private final int executorQueueSize;
+
+    private NioEventLoopGroup bossGroup;
+    private NioEventLoopGroup workerGroup;
+
+    /** The executor running the RPC handlers, null if gRPC provides it. */
+    private ExecutorService rpcExecutor;
+
     /** Handler implementing publish RPC. */
     private PublishRequestHandler sendDataHandler;
 
@@ -67,9 +100,14 @@ public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBa
 
     public NetServer(final int port, final int numServerThreads, final boolean useHttps) {
         this.port = port;
-        this.numServerThreads = numServerThreads;
         this.useHttps = useHttps;
         this.attemptedShutdown = false;
+        this.bossThreads = SettingsUtil.readInt(BOSS_THREADS_CONF_NAME, numServerThreads);
+        this.workerThreads = SettingsUtil.readInt(WORKER_THREADS_CONF_NAME, numServerThreads);
+        this.executorThreads =
+                SettingsUtil.readInt(EXECUTOR_THREADS_CONF_NAME, DEFAULT_EXECUTOR_THREADS);
+        this.executorQueueSize =
+                SettingsUtil.readInt(EXECUTOR_QUEUE_SIZE_CONF_NAME, DEFAULT_EXECUTOR_QUEUE_SIZE);
     }
 
     // postStartHook executes after the NetServer has successfully started its Server
@@ -91,9 +129,12 @@ public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBa
     @Override
     public void run() {
         LOG.info(
-                "Starting the gRPC server on port {} with {} threads. Using HTTPS: {}",
+                "Starting the gRPC server on port {} with {} boss, {} worker and {} executor "
+                        + "threads. Using HTTPS: {}",
                 port,
-                numServerThreads,
+                bossThreads,
+                workerThreads,
+                executorThreads,
                 useHttps);
         try {
             if (useHttps) {
@@ -121,15 +162,50 @@ public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBa
     }
 
     private NettyServerBuilder buildBaseServer() {
-        return NettyServerBuilder.forPort(port)
-                .addService(this)
-                .bossEventLoopGroup(new NioEventLoopGroup(numServerThreads))
-                .workerEventLoopGroup(new NioEventLoopGroup(numServerThreads))
-                .channelType(NioServerSocketChannel.class);
+        bossGroup = new NioEventLoopGroup(Math.max(1, bossThreads));
+        workerGroup = new NioEventLoopGroup(Math.max(1, workerThreads));
+        NettyServerBuilder builder =
+                NettyServerBuilder.forPort(port)
+                        .addService(ServerInterceptors.intercept(this, new RpcLatencyInterceptor()))
+                        .bossEventLoopGroup(bossGroup)
+                        .workerEventLoopGroup(workerGroup)
+                        .channelType(NioServerSocketChannel.class);
+        if (executorThreads > 0) {
+            rpcExecutor = buildRpcExecutor(executorThreads, executorQueueSize);
+            builder.executor(rpcExecutor);
+        }
+        return builder;
+    }
+
+    /**
+     * Builds the executor running the RPC handlers. When its queue is full, a task runs on the
+     * thread handing it over, the event loop thread of the connection, which applies back-pressure
+     * to the connections of that thread.
+     */
+    static ExecutorService buildRpcExecutor(int threads, int queueSize) {
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                new ThreadFactoryBuilder().setNameFormat("rpc-server-%d").setDaemon(true).build(),
+                (task, executor) -> {
+                    ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                            RcaGraphMetrics.RPC_SERVER_EXECUTOR_FULL, 1);
+                    if (!executor.isShutdown()) {
+                        task.run();
+                    }
+                });
     }
 
     private Server buildHttpServer() {
-        return buildBaseServer().executor(Executors.newSingleThreadExecutor()).build();
+        NettyServerBuilder builder = buildBaseServer();
+        if (rpcExecutor == null) {
+            rpcExecutor = Executors.newSingleThreadExecutor();
+            builder.executor(rpcExecutor);
+        }
+        return builder.build();
     }
 
     protected Server buildHttpsServer(File trustedCasFile, File certFile, File pkeyFile)
@@ -162,6 +238,26 @@ public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBa
         throw new UnsupportedOperationException("No rpc handler found for publish/");
     }
 
+    /**
+     *
+     *
+     * <pre>
+     * Sends all the flowunits a host publishes to this host in a tick, on one stream.
+     * </pre>
+     *
+     * @param responseObserver The response stream.
+     */
+    @Override
+    public StreamObserver<FlowUnitBatchMessage> publishBatch(
+            final StreamObserver<PublishResponse> responseObserver) {
+        LOG.debug("publishBatch received");
+        if (sendDataHandler != null) {
+            return sendDataHandler.getBatchClientStream(responseObserver);
+        }
+
+        throw new UnsupportedOperationException("No rpc handler found for publishBatch/");
+    }
+
     /**
      *
      *
@@ -262,6 +358,16 @@ public class NetServer extends InterNodeRpcServiceGrpc.InterNodeRpcServiceImplBa
                 Thread.currentThread().interrupt();
             }
         }
+        // The server does not own the event loop groups and the executor it was given.
+        if (rpcExecutor != null) {
+            rpcExecutor.shutdown();
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+        }
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully();
+        }
     }
 
     public void setAttemptedShutdown() {
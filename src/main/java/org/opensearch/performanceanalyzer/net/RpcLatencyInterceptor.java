@@ -0,0 +1,97 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.net;
+
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+
+/**
+ * Records how long the RPCs of the server take, per method. A unary RPC is timed from its start to
+ * its response. A streaming RPC is timed per message, while the service handles it. Each time is
+ * recorded as a latency, and counted in its latency bucket for a histogram of the method.
+ */
+public class RpcLatencyInterceptor implements ServerInterceptor {
+    /** The upper bounds of the latency buckets, the last bucket has no upper bound. */
+    static final long[] BUCKET_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000};
+
+    /** The names of the buckets of each method, built once per method. */
+    private final ConcurrentMap<String, String[]> bucketNames = new ConcurrentHashMap<>();
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            final ServerCall<ReqT, RespT> call,
+            final Metadata headers,
+            final ServerCallHandler<ReqT, RespT> next) {
+        final MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        final String methodName =
+                MethodDescriptor.extractBareMethodName(method.getFullMethodName());
+        if (method.getType() == MethodDescriptor.MethodType.UNARY) {
+            final long startNanos = System.nanoTime();
+            return next.startCall(
+                    new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+                        @Override
+                        public void close(final Status status, final Metadata trailers) {
+                            record(methodName, System.nanoTime() - startNanos);
+                            super.close(status, trailers);
+                        }
+                    },
+                    headers);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(
+                next.startCall(call, headers)) {
+            @Override
+            public void onMessage(final ReqT message) {
+                final long startNanos = System.nanoTime();
+                try {
+                    super.onMessage(message);
+                } finally {
+                    record(methodName, System.nanoTime() - startNanos);
+                }
+            }
+        };
+    }
+
+    void record(final String methodName, final long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                RcaGraphMetrics.RPC_SERVER_CALL_TIME, methodName, millis);
+        ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                RcaGraphMetrics.RPC_SERVER_CALL_LATENCY_BUCKET, bucketName(methodName, millis), 1);
+    }
+
+    String bucketName(final String methodName, final long millis) {
+        final String[] names =
+                bucketNames.computeIfAbsent(methodName, RpcLatencyInterceptor::buildBucketNames);
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MILLIS[i]) {
+                return names[i];
+            }
+        }
+        return names[BUCKET_BOUNDS_MILLIS.length];
+    }
+
+    private static String[] buildBucketNames(final String methodName) {
+        final String[] names = new String[BUCKET_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            names[i] = methodName + "_le_" + BUCKET_BOUNDS_MILLIS[i] + "ms";
+        }
+        names[BUCKET_BOUNDS_MILLIS.length] =
+                methodName + "_gt_" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + "ms";
+        return names;
+    }
+}
@@ -70,6 +70,10 @@ public class RcaController {
 
     public static final String RCA_ENABLED_CONF_FILE = "rca_enabled.conf";
 
+    public static final String RECONFIGURE_MODE_CONF_NAME = "rca-graph-reconfigure-mode";
+    public static final String RECONFIGURE_MODE_RESTART = "restart";
+    public static final String RECONFIGURE_MODE_IN_PLACE = "in-place";
+
     private final ScheduledExecutorService netOpsExecutorService;
     private final boolean useHttps;
 
@@ -101,6 +105,9 @@ public class RcaController {
     private SubscriptionManager subscriptionManager;
     private volatile RcaConf rcaConf;
 
+    // The rca.conf the running graph was started or last reconfigured with.
+    private volatile RcaConf runningRcaConf;
+
     private final String RCA_ENABLED_CONF_LOCATION;
     private final long rcaStateCheckIntervalMillis;
     private final long roleCheckPeriodicity;
@@ -179,6 +186,8 @@ public class RcaController {
 
             subscriptionManager.setCurrentLocus(rcaConf.getTagMap().get("locus"));
             this.connectedComponents = getRcaGraphComponents(rcaConf);
+            nodeStateManager.registerGraphNodes(
+                    ConnectedComponent.getNodesForAllComponents(connectedComponents));
 
             // Mute the rca nodes after the graph creation and before the scheduler start
             readAndUpdateMutedComponentsDuringStart();
@@ -191,7 +200,8 @@ public class RcaController {
             queryRcaRequestHandler.setPersistable(persistenceProvider);
             addActionsRequestHandler();
             queryActionRequestHandler.setPersistable(persistenceProvider);
-            receivedFlowUnitStore = new ReceivedFlowUnitStore(rcaConf.getPerVertexBufferLength());
+            receivedFlowUnitStore =
+                    ReceivedFlowUnitStore.create(rcaConf.getPerVertexBufferLength());
             WireHopper net =
                     new WireHopper(
                             nodeStateManager,
@@ -215,6 +225,7 @@ public class RcaController {
                             persistenceProvider,
                             net,
                             copyAppContext);
+            this.runningRcaConf = rcaConf;
 
             rcaNetServer.setSendDataHandler(
                     new PublishRequestHandler(
@@ -277,10 +288,50 @@ public class RcaController {
     }
 
     private void restart() {
+        long startTime = System.currentTimeMillis();
         stop();
         start();
+        long duration = System.currentTimeMillis() - startTime;
+        LOG.info("RCA framework restarted in {} ms", duration);
         ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
                 RcaRuntimeMetrics.RCA_SCHEDULER_RESTART, 1);
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.RCA_RESTART_TIME, duration);
+    }
+
+    /**
+     * Hands the current rca.conf and node role to the running graph instead of restarting the RCA
+     * framework. The network client and server, the persistence and the state of the graph nodes
+     * are kept, and the scheduler re-plans only the connected components whose locally executed
+     * nodes changed.
+     */
+    private void reconfigure() {
+        LOG.info("Reconfiguring the running RCA graph for role {}", currentRole);
+        subscriptionManager.setCurrentLocus(rcaConf.getTagMap().get("locus"));
+        rcaScheduler.reconfigure(rcaConf, new AppContext(this.appContext));
+        runningRcaConf = rcaConf;
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.RCA_GRAPH_RECONFIGURED, 1);
+    }
+
+    /**
+     * Whether the running graph can take the current rca.conf without a restart. The graph, the
+     * datastore and the sizes of the network queues are only set up on start.
+     */
+    private boolean canReconfigureInPlace() {
+        String mode =
+                PluginSettings.instance()
+                        .getSettingValue(RECONFIGURE_MODE_CONF_NAME, RECONFIGURE_MODE_RESTART);
+        if (!RECONFIGURE_MODE_IN_PLACE.equalsIgnoreCase(mode.trim())) {
+            return false;
+        }
+        RcaConf running = runningRcaConf;
+        return running != null
+                && Objects.equals(
+                        running.getAnalysisGraphEntryPoint(), rcaConf.getAnalysisGraphEntryPoint())
+                && Objects.equals(running.getDatastore(), rcaConf.getDatastore())
+                && running.getNetworkQueueLength() == rcaConf.getNetworkQueueLength()
+                && running.getPerVertexBufferLength() == rcaConf.getPerVertexBufferLength();
     }
 
     protected RcaConf getRcaConfForMyRole(AllMetrics.NodeRole role) {
@@ -452,7 +503,9 @@ public class RcaController {
      * Starts or stops the RCA runtime. If the RCA runtime is up but the currently RCA is disabled,
      * then this gracefully shuts down the RCA runtime. It restarts the RCA runtime if the node role
      * has changed in the meantime (such as a new elected cluster manager). It also starts the RCA
-     * runtime if it wasn't already running but the current state of the flag expects it to.
+     * runtime if it wasn't already running but the current state of the flag expects it to. With
+     * the {@value #RECONFIGURE_MODE_IN_PLACE} reconfigure mode a new role or rca.conf is instead
+     * handed to the running graph, see {@link #reconfigure()}.
      */
     private void updateRcaState() {
         if (rcaScheduler != null && rcaScheduler.getState() == RcaSchedulerState.STATE_STARTED) {
@@ -463,9 +516,18 @@ public class RcaController {
                         RcaRuntimeMetrics.RCA_STOPPED_BY_OPERATOR, 1);
             } else {
                 if (rcaScheduler.getRole() != currentRole) {
-                    restart();
-                    ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
-                            RcaRuntimeMetrics.RCA_RESTARTED_BY_OPERATOR, 1);
+                    if (canReconfigureInPlace()) {
+                        reconfigure();
+                    } else {
+                        restart();
+                        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                                RcaRuntimeMetrics.RCA_RESTARTED_BY_OPERATOR, 1);
+                    }
+                } else if (runningRcaConf != null
+                        && rcaConf.getLastModifiedTime() > runningRcaConf.getLastModifiedTime()
+                        && canReconfigureInPlace()) {
+                    // The rca.conf was edited, its thresholds and tags are re-read in place.
+                    reconfigure();
                 }
             }
         } else {
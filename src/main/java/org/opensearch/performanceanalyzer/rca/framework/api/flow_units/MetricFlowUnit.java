@@ -12,17 +12,31 @@ import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.rca.framework.core.GenericFlowUnit;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 
+/**
+ * The rows a metric node read from the MetricsDB. A node either emits the query result, or the
+ * columnar {@link MetricTable}. A table is converted to a query result on first use for the
+ * consumers that read one; a query result is not converted to a table.
+ */
 public class MetricFlowUnit extends GenericFlowUnit {
 
-    private Result<Record> data = null;
+    private volatile Result<Record> data = null;
+    private final MetricTable table;
 
     public MetricFlowUnit(long timeStamp) {
         super(timeStamp);
+        this.table = null;
     }
 
     public MetricFlowUnit(long timeStamp, Result<Record> data) {
         super(timeStamp);
         this.data = data;
+        this.table = null;
+        this.empty = false;
+    }
+
+    public MetricFlowUnit(long timeStamp, MetricTable table) {
+        super(timeStamp);
+        this.table = table;
         this.empty = false;
     }
 
@@ -32,7 +46,22 @@ public class MetricFlowUnit extends GenericFlowUnit {
      * @return SQL result
      */
     public Result<Record> getData() {
-        return data;
+        Result<Record> result = data;
+        if (result == null && table != null) {
+            // Racing readers may both convert, the results are equal.
+            result = table.toResult();
+            data = result;
+        }
+        return result;
+    }
+
+    /**
+     * read the rows in columnar form, without going through the records of the SQL result
+     *
+     * @return the table, or null if the node emitted a query result or the flowunit is empty
+     */
+    public MetricTable getTable() {
+        return table;
     }
 
     public static MetricFlowUnit generic() {
@@ -0,0 +1,264 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.api.flow_units;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * Columnar, typed form of the rows a metric node emits. Dimension columns are dictionary encoded:
+ * every row holds the code of its value, and an index maps every value to the rows holding it.
+ * Value columns are plain {@code double} arrays, a missing value is {@link Double#NaN}.
+ *
+ * <p>Lookups by column name are done once, rows are then read by column and row index without
+ * allocating. A table is built by the node that emits it, see {@link Builder}, and is converted to
+ * a query result only for the consumers that read one.
+ *
+ * <p>Tables are immutable and can be read by several nodes concurrently.
+ */
+public final class MetricTable {
+    private static final int[] NO_ROWS = new int[0];
+    private static final DSLContext CONTEXT = DSL.using(SQLDialect.SQLITE);
+
+    private final String[] columnNames;
+    private final Map<String, Integer> columnByName;
+    private final int rowCount;
+    // Per column, null if the column is not a dimension column.
+    private final String[][] dictionaries;
+    private final int[][] codes;
+    private final Map<String, Integer>[] codeByValue;
+    private final int[][][] rowsByCode;
+    // Per column, null if the column is not a value column.
+    private final double[][] values;
+
+    @SuppressWarnings("unchecked")
+    private MetricTable(String[] columnNames, int rowCount, String[][] strings, double[][] values) {
+        this.columnNames = columnNames;
+        this.rowCount = rowCount;
+        this.values = values;
+        this.columnByName = new HashMap<>();
+        for (int col = 0; col < columnNames.length; col++) {
+            columnByName.putIfAbsent(columnNames[col], col);
+        }
+        this.dictionaries = new String[columnNames.length][];
+        this.codes = new int[columnNames.length][];
+        this.codeByValue = new Map[columnNames.length];
+        this.rowsByCode = new int[columnNames.length][][];
+        for (int col = 0; col < columnNames.length; col++) {
+            if (strings[col] != null) {
+                encode(col, strings[col]);
+            }
+        }
+    }
+
+    /** Builds the dictionary of a dimension column and the index from its values to rows. */
+    private void encode(int col, String[] column) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] columnCodes = new int[rowCount];
+        int[] counts = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if (column[row] == null) {
+                columnCodes[row] = -1;
+                continue;
+            }
+            Integer code = dictionary.get(column[row]);
+            if (code == null) {
+                code = entries.size();
+                dictionary.put(column[row], code);
+                entries.add(column[row]);
+            }
+            columnCodes[row] = code;
+            counts[code]++;
+        }
+        int[][] rows = new int[entries.size()][];
+        for (int code = 0; code < rows.length; code++) {
+            rows[code] = new int[counts[code]];
+            counts[code] = 0;
+        }
+        for (int row = 0; row < rowCount; row++) {
+            int code = columnCodes[row];
+            if (code >= 0) {
+                rows[code][counts[code]++] = row;
+            }
+        }
+        dictionaries[col] = entries.toArray(new String[0]);
+        codes[col] = columnCodes;
+        codeByValue[col] = dictionary;
+        rowsByCode[col] = rows;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public List<String> getColumnNames() {
+        return Arrays.asList(columnNames);
+    }
+
+    /** @return the index of the column, or -1 if there is no such column */
+    public int getColumn(String name) {
+        Integer col = columnByName.get(name);
+        return col == null ? -1 : col;
+    }
+
+    public boolean isDimensionColumn(int col) {
+        return dictionaries[col] != null;
+    }
+
+    public boolean isValueColumn(int col) {
+        return values[col] != null;
+    }
+
+    /** @return the value of a dimension column, or null if the row has none */
+    public String getDimension(int col, int row) {
+        int code = codes[col][row];
+        return code < 0 ? null : dictionaries[col][code];
+    }
+
+    /** @return the dictionary code of the row's value in a dimension column, -1 if it has none */
+    public int getCode(int col, int row) {
+        return codes[col][row];
+    }
+
+    /** @return the number of distinct values of a dimension column */
+    public int getCardinality(int col) {
+        return dictionaries[col].length;
+    }
+
+    /** @return the value of the dimension column with the given dictionary code */
+    public String decode(int col, int code) {
+        return dictionaries[col][code];
+    }
+
+    /** @return the value of a value column, NaN if the row has none */
+    public double getValue(int col, int row) {
+        return values[col][row];
+    }
+
+    /**
+     * Returns the rows whose dimension column has the given value, in row order. The array is
+     * shared and must not be modified.
+     */
+    public int[] getRows(int col, String value) {
+        Integer code = codeByValue[col].get(value);
+        return code == null ? NO_ROWS : rowsByCode[col][code];
+    }
+
+    /** @return the first row whose dimension column has the given value, or -1 */
+    public int findRow(int col, String value) {
+        int[] rows = getRows(col, value);
+        return rows.length == 0 ? -1 : rows[0];
+    }
+
+    /**
+     * Reads a value of the first row matching a dimension value, e.g. the max of the row whose
+     * MemType is Heap.
+     *
+     * @return the value, NaN if there is no such column or row
+     */
+    public double getValue(String dimension, String dimensionValue, String valueColumn) {
+        int dimCol = getColumn(dimension);
+        int valueCol = getColumn(valueColumn);
+        if (dimCol < 0 || valueCol < 0 || !isDimensionColumn(dimCol) || !isValueColumn(valueCol)) {
+            return Double.NaN;
+        }
+        int row = findRow(dimCol, dimensionValue);
+        return row < 0 ? Double.NaN : values[valueCol][row];
+    }
+
+    /**
+     * Converts the table to a query result, for nodes that read rows by field name. Dimension
+     * columns become string fields and value columns double fields, a NaN value becomes null.
+     */
+    public Result<Record> toResult() {
+        Field<?>[] fields = new Field<?>[columnNames.length];
+        for (int col = 0; col < columnNames.length; col++) {
+            fields[col] =
+                    isDimensionColumn(col)
+                            ? DSL.field(DSL.name(columnNames[col]), String.class)
+                            : DSL.field(DSL.name(columnNames[col]), Double.class);
+        }
+        Result<Record> result = CONTEXT.newResult(fields);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] rowValues = new Object[columnNames.length];
+            for (int col = 0; col < columnNames.length; col++) {
+                if (isDimensionColumn(col)) {
+                    rowValues[col] = getDimension(col, row);
+                } else if (!Double.isNaN(values[col][row])) {
+                    rowValues[col] = values[col][row];
+                }
+            }
+            Record record = CONTEXT.newRecord(fields);
+            record.fromArray(rowValues);
+            result.add(record);
+        }
+        return result;
+    }
+
+    /** Builds a table row by row, for metric nodes emitting the columnar form directly. */
+    public static class Builder {
+        private final String[] columnNames;
+        private final int dimensionCount;
+        private final List<String[]> dimensionRows = new ArrayList<>();
+        private final List<double[]> valueRows = new ArrayList<>();
+
+        /**
+         * @param dimensionNames the names of the dimension columns, which come first
+         * @param valueNames the names of the value columns
+         */
+        public Builder(List<String> dimensionNames, List<String> valueNames) {
+            this.dimensionCount = dimensionNames.size();
+            this.columnNames = new String[dimensionCount + valueNames.size()];
+            for (int i = 0; i < dimensionCount; i++) {
+                columnNames[i] = dimensionNames.get(i);
+            }
+            for (int i = 0; i < valueNames.size(); i++) {
+                columnNames[dimensionCount + i] = valueNames.get(i);
+            }
+        }
+
+        public Builder addRow(String[] dimensionValues, double[] rowValues) {
+            if (dimensionValues.length != dimensionCount
+                    || rowValues.length != columnNames.length - dimensionCount) {
+                throw new IllegalArgumentException("Row does not match the table columns");
+            }
+            dimensionRows.add(dimensionValues.clone());
+            valueRows.add(rowValues.clone());
+            return this;
+        }
+
+        public MetricTable build() {
+            int rowCount = dimensionRows.size();
+            String[][] strings = new String[columnNames.length][];
+            double[][] values = new double[columnNames.length][];
+            for (int col = 0; col < columnNames.length; col++) {
+                if (col < dimensionCount) {
+                    strings[col] = new String[rowCount];
+                    for (int row = 0; row < rowCount; row++) {
+                        strings[col][row] = dimensionRows.get(row)[col];
+                    }
+                } else {
+                    values[col] = new double[rowCount];
+                    for (int row = 0; row < rowCount; row++) {
+                        values[col][row] = valueRows.get(row)[col - dimensionCount];
+                    }
+                }
+            }
+            return new MetricTable(columnNames.clone(), rowCount, strings, values);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Result;
 import org.jooq.exception.DataTypeException;
+import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.MetricTable;
 
 public class SQLParsingUtil {
     private static final Logger LOG = LogManager.getLogger(SQLParsingUtil.class);
@@ -78,4 +79,43 @@ public class SQLParsingUtil {
         }
         return ret;
     }
+
+    /**
+     * Same as {@link #readDataFromSqlResult(Result, Field, String, String)}, on the columnar form
+     * of the rows: the matching row is found through the index of the dimension column.
+     *
+     * @param table the rows read from metricDB
+     * @param matchedField the field used for name matching
+     * @param matchedFieldName the name to be matched
+     * @param dataField The field to retrieve data from
+     * @return the data read from the table
+     */
+    public static double readDataFromTable(
+            MetricTable table,
+            Field<String> matchedField,
+            String matchedFieldName,
+            String dataField) {
+        if (table == null) {
+            LOG.error("readDataFromTable called with null table");
+            return Double.NaN;
+        }
+        int matchedColumn = table.getColumn(matchedField.getName());
+        int row =
+                matchedColumn < 0 || !table.isDimensionColumn(matchedColumn)
+                        ? -1
+                        : table.findRow(matchedColumn, matchedFieldName);
+        if (row < 0) {
+            LOG.error(
+                    "{} fails to match any row in field {}.",
+                    matchedFieldName,
+                    matchedField.getName());
+            return Double.NaN;
+        }
+        int dataColumn = table.getColumn(dataField);
+        if (dataColumn < 0 || !table.isValueColumn(dataColumn)) {
+            LOG.error("Fail to read {} field from SQL result", dataField);
+            return Double.NaN;
+        }
+        return table.getValue(dataColumn, row);
+    }
 }
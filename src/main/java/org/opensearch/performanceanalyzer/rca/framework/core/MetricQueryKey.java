@@ -0,0 +1,72 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.core;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies a query graph nodes run against a MetricsDB: the table, the dimensions the rows are
+ * grouped by and the aggregation applied. Two nodes asking with equal keys get the same result.
+ */
+public final class MetricQueryKey {
+    /** The aggregation of a query that returns the rows of the table as they are. */
+    public static final String ALL_ROWS = "*";
+
+    private final String table;
+    private final List<String> dimensions;
+    private final String aggregation;
+
+    public MetricQueryKey(String table, List<String> dimensions, String aggregation) {
+        this.table = Objects.requireNonNull(table);
+        this.dimensions = Collections.unmodifiableList(new ArrayList<>(dimensions));
+        this.aggregation = Objects.requireNonNull(aggregation);
+    }
+
+    /** Key of the query returning all the rows of the table. */
+    public static MetricQueryKey allRows(String table) {
+        return new MetricQueryKey(table, Collections.emptyList(), ALL_ROWS);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getDimensions() {
+        return dimensions;
+    }
+
+    public String getAggregation() {
+        return aggregation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricQueryKey)) {
+            return false;
+        }
+        MetricQueryKey that = (MetricQueryKey) o;
+        return table.equals(that.table)
+                && dimensions.equals(that.dimensions)
+                && aggregation.equals(that.aggregation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, dimensions, aggregation);
+    }
+
+    @Override
+    public String toString() {
+        return "MetricQueryKey{" + table + ", " + dimensions + ", " + aggregation + "}";
+    }
+}
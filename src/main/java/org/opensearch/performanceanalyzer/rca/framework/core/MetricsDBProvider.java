@@ -6,8 +6,10 @@
 package org.opensearch.performanceanalyzer.rca.framework.core;
 
 
+import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.Map;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.Record;
@@ -18,18 +20,28 @@ import org.opensearch.performanceanalyzer.reader.ReaderMetricsProcessor;
 public class MetricsDBProvider implements Queryable {
     private static final Logger LOG = LogManager.getLogger(MetricsDBProvider.class);
 
+    private final MetricsDBQueryCache queryCache = new MetricsDBQueryCache();
+
+    // The window the scheduler evaluates the graph against, if it runs per published window.
+    private volatile Map.Entry<Long, MetricsDB> pinnedDBEntry;
+
     @Override
     public MetricsDB getMetricsDB() throws Exception {
-        ReaderMetricsProcessor processor = ReaderMetricsProcessor.getInstance();
-        if (processor == null) {
-            LOG.error("RCA: ReaderMetricsProcessor not initialized");
-            throw new Exception("ReaderMetricsProcessor not initialized");
+        Map.Entry<Long, MetricsDB> dbEntry = pinnedDBEntry;
+        if (dbEntry == null) {
+            ReaderMetricsProcessor processor = ReaderMetricsProcessor.getInstance();
+            if (processor == null) {
+                LOG.error("RCA: ReaderMetricsProcessor not initialized");
+                throw new Exception("ReaderMetricsProcessor not initialized");
+            }
+            dbEntry = processor.getMetricsDB();
         }
-        Map.Entry<Long, MetricsDB> dbEntry = processor.getMetricsDB();
         if (dbEntry == null) {
             LOG.error("RCA: MetricsDB not initialized");
             throw new Exception("Metrics DB not initialized");
         }
+        // A newly published MetricsDB starts a new generation of cached query results.
+        queryCache.advance(dbEntry.getKey(), dbEntry.getValue());
         return dbEntry.getValue();
     }
 
@@ -45,7 +57,8 @@ public class MetricsDBProvider implements Queryable {
      */
     @Override
     public Result<Record> queryMetrics(MetricsDB db, String metricName) {
-        return db.queryMetric(metricName);
+        return queryCache.get(
+                db, MetricQueryKey.allRows(metricName), () -> db.queryMetric(metricName));
     }
 
     @Override
@@ -55,16 +68,34 @@ public class MetricsDBProvider implements Queryable {
             final String dimension,
             final String aggregation)
             throws Exception {
-        Result<Record> queryResult =
-                db.queryMetric(
-                        Collections.singletonList(metricName),
-                        Collections.singletonList(aggregation),
-                        Collections.singletonList(dimension));
-        return queryResult;
+        return queryCache.get(
+                db,
+                new MetricQueryKey(
+                        metricName, Collections.singletonList(dimension), aggregation),
+                () ->
+                        db.queryMetric(
+                                Collections.singletonList(metricName),
+                                Collections.singletonList(aggregation),
+                                Collections.singletonList(dimension)));
+    }
+
+    @Override
+    public Result<Record> queryMetrics(
+            MetricsDB db, MetricQueryKey key, Supplier<Result<Record>> query) {
+        return queryCache.get(db, key, query::get);
     }
 
     @Override
     public long getDBTimestamp(MetricsDB db) {
         return 0;
     }
+
+    @Override
+    public void useMetricsDB(long windowStartTime, MetricsDB db) {
+        pinnedDBEntry = new AbstractMap.SimpleImmutableEntry<>(windowStartTime, db);
+    }
+
+    public MetricsDBQueryCache getQueryCache() {
+        return queryCache;
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.core;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+
+/**
+ * Results of the queries run against the MetricsDB the graph currently reads. Many graph nodes
+ * read the same tables, this makes every distinct query run once per MetricsDB, however many nodes
+ * ask for it. Nodes asking concurrently for the same query wait for the one running it.
+ *
+ * <p>The results belong to a generation, the MetricsDB they were read from. They are dropped as
+ * soon as a newer MetricsDB is handed out to the graph. Queries against any other MetricsDB are
+ * not cached. Failed queries are not cached either.
+ */
+public class MetricsDBQueryCache {
+    /** Runs a query against the MetricsDB. */
+    public interface Query<E extends Exception> {
+        Result<Record> fetch() throws E;
+    }
+
+    private volatile Generation generation;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Makes the given MetricsDB the current generation, dropping the results of the previous one.
+     * This is a no-op if the MetricsDB is already the current generation.
+     *
+     * @param windowStartTime the start time of the window the MetricsDB holds
+     * @param db the published MetricsDB
+     */
+    public void advance(long windowStartTime, MetricsDB db) {
+        Generation current = generation;
+        if (current != null && current.db == db && current.windowStartTime == windowStartTime) {
+            return;
+        }
+        synchronized (this) {
+            current = generation;
+            if (current == null || current.db != db || current.windowStartTime != windowStartTime) {
+                generation = new Generation(windowStartTime, db);
+            }
+        }
+    }
+
+    /** Drops all the cached results. */
+    public synchronized void invalidate() {
+        generation = null;
+    }
+
+    /**
+     * Returns the result of the query, running it only if no equal query ran against the same
+     * MetricsDB generation.
+     *
+     * @param db the MetricsDB the query runs against
+     * @param key identifies the query
+     * @param query runs the query
+     * @return the query result, shared with every caller asking with an equal key
+     * @throws E if the query fails
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> Result<Record> get(
+            MetricsDB db, MetricQueryKey key, Query<E> query) throws E {
+        Generation current = generation;
+        if (current == null || current.db != db) {
+            return query.fetch();
+        }
+        FutureTask<Result<Record>> task = new FutureTask<>(query::fetch);
+        FutureTask<Result<Record>> cached = current.results.putIfAbsent(key, task);
+        if (cached == null) {
+            misses.incrementAndGet();
+            ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                    RcaGraphMetrics.METRIC_QUERY_CACHE_MISS, key.getTable(), 1);
+            task.run();
+            cached = task;
+        } else {
+            hits.incrementAndGet();
+            ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                    RcaGraphMetrics.METRIC_QUERY_CACHE_HIT, key.getTable(), 1);
+        }
+        try {
+            return cached.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for query " + key, e);
+        } catch (ExecutionException e) {
+            current.results.remove(key, cached);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Checked exceptions can only come from the query itself.
+            throw (E) cause;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class Generation {
+        private final long windowStartTime;
+        private final MetricsDB db;
+        private final ConcurrentHashMap<MetricQueryKey, FutureTask<Result<Record>>> results =
+                new ConcurrentHashMap<>();
+
+        Generation(long windowStartTime, MetricsDB db) {
+            this.windowStartTime = windowStartTime;
+            this.db = db;
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package org.opensearch.performanceanalyzer.rca.framework.core;
 
 
+import java.util.function.Supplier;
 import org.jooq.Record;
 import org.jooq.Result;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
@@ -20,4 +21,28 @@ public interface Queryable {
             MetricsDB db, String metricName, String dimension, String aggregation) throws Exception;
 
     long getDBTimestamp(MetricsDB db);
+
+    /**
+     * Pins the MetricsDB {@link #getMetricsDB()} returns to a published window, so that all the
+     * graph nodes of a run read the same window even if a newer one is published meanwhile.
+     * Implementations that do not read published windows ignore this.
+     *
+     * @param windowStartTime The start time of the window.
+     * @param db The MetricsDB holding the window.
+     */
+    default void useMetricsDB(long windowStartTime, MetricsDB db) {}
+
+    /**
+     * Runs a query against the MetricsDB. Implementations may return the result of an earlier
+     * query with an equal key against the same MetricsDB instead of running it again.
+     *
+     * @param db The MetricsDB the query runs against.
+     * @param key Identifies the query.
+     * @param query Runs the query.
+     * @return The query result.
+     */
+    default Result<Record> queryMetrics(
+            MetricsDB db, MetricQueryKey key, Supplier<Result<Record>> query) {
+        return query.get();
+    }
 }
@@ -85,6 +85,44 @@ public enum RcaGraphMetrics implements MeasurementSet {
             StatsType.STATS_DATA,
             Collections.singletonList(Statistics.NAMED_COUNTERS)),
 
+    /** Number of flow units sent as unchanged markers instead of in full, per vertex. */
+    RCA_NODES_FU_UNCHANGED_PUBLISH_COUNT(
+            "RcaFlowUnitUnchangedPublishCount",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of unchanged markers received for which the last flow unit was reused, per vertex. */
+    RCA_NODES_FU_REPLAY_COUNT(
+            "RcaFlowUnitReplayCount",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of unchanged markers dropped as no flow unit was received in full, per vertex. */
+    RCA_NODES_FU_UNRESOLVED_COUNT(
+            "RcaFlowUnitUnresolvedCount",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of received flow units held until their vertex was drained, per vertex. */
+    RCA_NODES_FU_RX_HELD_COUNT(
+            "RcaFlowUnitReceiveHeldCount",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /**
+     * Number of received flow units replaced by a newer one of the same publisher before their
+     * vertex read them, per vertex.
+     */
+    RCA_NODES_FU_RX_OVERWRITE_COUNT(
+            "RcaFlowUnitReceiveOverwriteCount",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
     /** Number of nodes that are currently receiving flow units from upstream nodes. */
     RCA_NODES_FU_CONSUME_COUNT(
             "RcaFlowUnitConsumeCount",
@@ -92,6 +130,13 @@ public enum RcaGraphMetrics implements MeasurementSet {
             StatsType.STATS_DATA,
             Collections.singletonList(Statistics.NAMED_COUNTERS)),
 
+    /** Number of flow units coalesced into one batch sent to a downstream host. */
+    RCA_FU_BATCH_SIZE(
+            "RcaFlowUnitBatchSize",
+            "count",
+            StatsType.STATS_DATA,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN, Statistics.SUM)),
+
     /** Number of subscription requests sent per node. */
     RCA_NODES_SUB_REQ_COUNT(
             "RcaSubscriptionRequestCount",
@@ -104,7 +149,55 @@ public enum RcaGraphMetrics implements MeasurementSet {
             "RcaSubscriptionAckCount",
             "namedCount",
             StatsType.STATS_DATA,
-            Collections.singletonList(Statistics.NAMED_COUNTERS));
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of metric queries per table answered from the results of the same MetricsDB. */
+    METRIC_QUERY_CACHE_HIT(
+            "MetricQueryCacheHit",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of metric queries per table that had to be run against the MetricsDB. */
+    METRIC_QUERY_CACHE_MISS(
+            "MetricQueryCacheMiss",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /**
+     * Time the RPC server took per method: a unary RPC from its start to its response, a
+     * streaming RPC per message.
+     */
+    RPC_SERVER_CALL_TIME(
+            "RpcServerCallTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN, Statistics.SUM)),
+
+    /** Number of RPC server calls per method and latency bucket, e.g. publish_le_10ms. */
+    RPC_SERVER_CALL_LATENCY_BUCKET(
+            "RpcServerCallLatencyBucket",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Collections.singletonList(Statistics.NAMED_COUNTERS)),
+
+    /** Number of RPC server tasks run on the network thread because the executor was full. */
+    RPC_SERVER_EXECUTOR_FULL("RpcServerExecutorFull"),
+
+    /** Time a graph node waited for a worker thread once all its upstream nodes completed. */
+    GRAPH_NODE_QUEUE_WAIT(
+            "GraphNodeQueueWait",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN, Statistics.SUM)),
+
+    /** Time a graph node ran on a worker thread, including sending its data to remote nodes. */
+    GRAPH_NODE_RUN_TIME(
+            "GraphNodeRunTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN, Statistics.SUM));
 
     /** What we want to appear as the metric name. */
     private String name;
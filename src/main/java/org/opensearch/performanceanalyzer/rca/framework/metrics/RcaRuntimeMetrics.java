@@ -6,6 +6,7 @@
 package org.opensearch.performanceanalyzer.rca.framework.metrics;
 
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.opensearch.performanceanalyzer.commons.stats.eval.Statistics;
@@ -58,7 +59,48 @@ public enum RcaRuntimeMetrics implements MeasurementSet {
     MAX_TRANSPORT_THREAD_BLOCKED_TIME(
             "MaxTransportThreadBlockedTime", "seconds", StatsType.LATENCIES, Statistics.MAX),
     MAX_TRANSPORT_THREAD_WAITED_TIME(
-            "MaxTransportThreadWaitedTime", "seconds", StatsType.LATENCIES, Statistics.MAX);
+            "MaxTransportThreadWaitedTime", "seconds", StatsType.LATENCIES, Statistics.MAX),
+
+    /** Number of flow units waiting in the queue of the write-behind persistor. */
+    PERSISTOR_QUEUE_DEPTH("PersistorQueueDepth", "count", StatsType.STATS_DATA, Statistics.MAX),
+
+    /** Flow units per graph node dropped because the persistor queue was full. */
+    PERSISTOR_DROPPED_FLOW_UNITS(
+            "PersistorDroppedFlowUnits",
+            "namedCount",
+            StatsType.STATS_DATA,
+            Statistics.NAMED_COUNTERS),
+
+    /** Number of flow units written in one transaction by the write-behind persistor. */
+    PERSISTOR_BATCH_SIZE(
+            "PersistorBatchSize",
+            "count",
+            StatsType.STATS_DATA,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN)),
+
+    /** Time taken to write a batch of flow units by the write-behind persistor. */
+    PERSISTOR_BATCH_WRITE_TIME(
+            "PersistorBatchWriteTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN, Statistics.SUM)),
+
+    /** Time taken to stop and start the framework at {@link RcaController#restart()}. */
+    RCA_RESTART_TIME(
+            "RcaRestartTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN)),
+
+    /** The number of times the running graph was reconfigured in place instead of restarted. */
+    RCA_GRAPH_RECONFIGURED("RcaGraphReconfigured"),
+
+    /** Time taken to re-plan the running graph for a new rca.conf or node role. */
+    RCA_GRAPH_RECONFIGURE_TIME(
+            "RcaGraphReconfigureTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN));
 
     /** What we want to appear as the metric name. */
     private String name;
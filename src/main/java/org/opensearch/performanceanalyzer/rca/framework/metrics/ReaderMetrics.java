@@ -92,6 +92,42 @@ public enum ReaderMetrics implements MeasurementSet {
             "millis",
             StatsType.LATENCIES,
             Statistics.SUM),
+    /** Events read from the event log that no event processor takes, per window. */
+    READER_UNROUTED_EVENTS("ReaderUnroutedEvents", "count", StatsType.STATS_DATA, Statistics.SUM),
+    /** Windows whose event log could not be memory mapped and was read the buffered way. */
+    READER_EVENT_LOG_MAP_FALLBACK("ReaderEventLogMapFallback"),
+    /** Time spent reading the event log of a window into the snapshots. */
+    READER_PARSE_TIME("ReaderParseTime", "millis", StatsType.LATENCIES, Statistics.SUM),
+    /** With the pipelined reader, how long the read stage waited to hand off events. */
+    READER_READ_STAGE_LAG(
+            "ReaderReadStageLag",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN)),
+    /** With the pipelined reader, how long the reader thread waited for events to dispatch. */
+    READER_DISPATCH_STAGE_LAG(
+            "ReaderDispatchStageLag",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN)),
+    /** Snapshot tables created because the table pool of their type was exhausted. */
+    READER_TABLE_POOL_MISS("ReaderTablePoolMiss"),
+    /** VACUUMs of the reader's in-memory database. */
+    READER_VACUUM_COUNT("ReaderVacuumCount"),
+    /** Time to collect the metrics of all the nodes for a _metrics?nodes=all query. */
+    METRICS_FAN_OUT_TIME(
+            "MetricsFanOutTime",
+            "millis",
+            StatsType.LATENCIES,
+            Arrays.asList(Statistics.MAX, Statistics.MEAN)),
+    /** Nodes left out of a _metrics?nodes=all response because they missed the deadline. */
+    METRICS_FAN_OUT_NODE_TIMEOUT("MetricsFanOutNodeTimeout"),
+    /** Second calls made to nodes slow to answer a _metrics?nodes=all query. */
+    METRICS_FAN_OUT_HEDGED_CALLS("MetricsFanOutHedgedCalls"),
+    /** Metrics queries answered from the query cache, or waiting for the same query running. */
+    METRICS_QUERY_CACHE_HIT("MetricsQueryCacheHit"),
+    /** Metrics queries run against the metricsdb with the query cache enabled. */
+    METRICS_QUERY_CACHE_MISS("MetricsQueryCacheMiss"),
     ;
 
     /** What we want to appear as the metric name. */
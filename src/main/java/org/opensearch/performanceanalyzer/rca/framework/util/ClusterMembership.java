@@ -0,0 +1,143 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.util;
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.reader.ClusterDetailsEventProcessor;
+
+/**
+ * An immutable snapshot of the nodes in the cluster, as of one cluster details event. The first
+ * node is the current node and the others are its peers.
+ *
+ * <p>The network layer looks the nodes up by id for every flow unit and every publisher, so the
+ * snapshot indexes them by id, role and IP. The instances and the indexes are built once, on first
+ * use, and shared by everyone reading the same snapshot. A new snapshot, with a higher version, is
+ * published for every change of the cluster details.
+ */
+public class ClusterMembership {
+    public static final ClusterMembership EMPTY = new ClusterMembership(0, ImmutableList.of());
+
+    private final long version;
+    private final ImmutableList<ClusterDetailsEventProcessor.NodeDetails> nodesDetails;
+
+    // Built on first use, as creating the instances may look up the elected cluster manager.
+    private volatile Index index;
+
+    public ClusterMembership(
+            long version, final List<ClusterDetailsEventProcessor.NodeDetails> nodesDetails) {
+        this.version = version;
+        this.nodesDetails = ImmutableList.copyOf(nodesDetails);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<ClusterDetailsEventProcessor.NodeDetails> getNodesDetails() {
+        return nodesDetails;
+    }
+
+    /** All the nodes in the cluster, the current node first. */
+    public List<InstanceDetails> getAllInstances() {
+        return index().allInstances;
+    }
+
+    /** All the nodes in the cluster but the current node. */
+    public Set<InstanceDetails> getPeerInstances() {
+        return index().peerInstances;
+    }
+
+    /**
+     * The nodes with the data role. An elected cluster manager that also holds data is one of
+     * them, though its instance reports the elected cluster manager role.
+     */
+    public List<InstanceDetails> getDataNodeInstances() {
+        return index().dataNodes;
+    }
+
+    public List<InstanceDetails> getInstancesByRole(final AllMetrics.NodeRole role) {
+        return index().byRole.get(role);
+    }
+
+    public List<InstanceDetails> getInstancesByIp(final InstanceDetails.Ip ip) {
+        return index().byIp.get(ip);
+    }
+
+    /** Whether a node, the current one included, is in the cluster. */
+    public boolean contains(final InstanceDetails.Id instanceId) {
+        return index().byId.containsKey(instanceId);
+    }
+
+    /**
+     * Gets a peer of the current node by its id.
+     *
+     * @return the peer, or an instance of UNKNOWN role if the id is not one of a peer.
+     */
+    public InstanceDetails getPeerInstance(final InstanceDetails.Id instanceId) {
+        InstanceDetails instance = index().byId.get(instanceId);
+        if (instance == null || instance == index().allInstances.get(0)) {
+            return new InstanceDetails(AllMetrics.NodeRole.UNKNOWN);
+        }
+        return instance;
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            // Threads racing here build the same index, and any one of them is kept.
+            current = new Index(nodesDetails);
+            index = current;
+        }
+        return current;
+    }
+
+    private static class Index {
+        private final ImmutableList<InstanceDetails> allInstances;
+        private final ImmutableSet<InstanceDetails> peerInstances;
+        private final ImmutableMap<InstanceDetails.Id, InstanceDetails> byId;
+        private final ImmutableListMultimap<AllMetrics.NodeRole, InstanceDetails> byRole;
+        private final ImmutableList<InstanceDetails> dataNodes;
+        private final ImmutableListMultimap<InstanceDetails.Ip, InstanceDetails> byIp;
+
+        Index(final List<ClusterDetailsEventProcessor.NodeDetails> nodesDetails) {
+            ImmutableList.Builder<InstanceDetails> all = ImmutableList.builder();
+            Map<InstanceDetails.Id, InstanceDetails> ids = new HashMap<>();
+            ImmutableListMultimap.Builder<AllMetrics.NodeRole, InstanceDetails> roles =
+                    ImmutableListMultimap.builder();
+            ImmutableListMultimap.Builder<InstanceDetails.Ip, InstanceDetails> ips =
+                    ImmutableListMultimap.builder();
+            ImmutableList.Builder<InstanceDetails> data = ImmutableList.builder();
+            for (ClusterDetailsEventProcessor.NodeDetails node : nodesDetails) {
+                InstanceDetails instance = new InstanceDetails(node);
+                all.add(instance);
+                ids.putIfAbsent(instance.getInstanceId(), instance);
+                roles.put(instance.getRole(), instance);
+                ips.put(instance.getInstanceIp(), instance);
+                if (AllMetrics.NodeRole.DATA.toString().equals(node.getRole())) {
+                    data.add(instance);
+                }
+            }
+            this.allInstances = all.build();
+            this.peerInstances =
+                    allInstances.isEmpty()
+                            ? ImmutableSet.of()
+                            : ImmutableSet.copyOf(allInstances.subList(1, allInstances.size()));
+            this.byId = ImmutableMap.copyOf(ids);
+            this.byRole = roles.build();
+            this.dataNodes = data.build();
+            this.byIp = ips.build();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.util;
+
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+
+/** Reads the numeric settings of the {@link PluginSettings}. */
+public class SettingsUtil {
+    private static final Logger LOG = LogManager.getLogger(SettingsUtil.class);
+
+    private SettingsUtil() {}
+
+    /**
+     * Reads a long setting.
+     *
+     * @return the value of the setting, or the default value if it is not set or not a number.
+     */
+    public static long readLong(String name, long defaultValue) {
+        String value =
+                PluginSettings.instance().getSettingValue(name, String.valueOf(defaultValue));
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {} '{}', using {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads an int setting.
+     *
+     * @return the value of the setting, or the default value if it is not set or not an int.
+     */
+    public static int readInt(String name, int defaultValue) {
+        String value =
+                PluginSettings.instance().getSettingValue(name, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {} '{}', using {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.AppContext;
+import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.grpc.PublishResponse;
+import org.opensearch.performanceanalyzer.grpc.PublishResponse.PublishResponseStatus;
+import org.opensearch.performanceanalyzer.net.NetClient;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+
+/**
+ * Coalesces the flow units sent to a downstream host into batches.
+ *
+ * <p>Flow units are added to the outbox of their host by the tasks sending them, and stay there
+ * until the scheduler finished running the graph for the tick. The outboxes are then flushed once
+ * the last of the tasks queued in the tick is done, one flush per host on the network thread pool,
+ * so that all the flow units of the tick go out as one {@link FlowUnitBatchMessage} on the single
+ * batch stream to the host.
+ *
+ * <p>Hosts that do not serve the batch RPC yet get the flow units one by one on the per graph node
+ * streams.
+ */
+public class FlowUnitBatcher {
+    private static final Logger LOG = LogManager.getLogger(FlowUnitBatcher.class);
+
+    private final NetClient client;
+    private final SubscriptionManager subscriptionManager;
+    private final AtomicReference<ExecutorService> executorReference;
+    private final AppContext appContext;
+    private final ConcurrentMap<InstanceDetails.Id, Outbox> outboxes = new ConcurrentHashMap<>();
+    // The tasks queued to add flow units that are not done yet.
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    // Set at the end of a tick, until the outboxes are flushed.
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    public FlowUnitBatcher(
+            final NetClient client,
+            final SubscriptionManager subscriptionManager,
+            final AtomicReference<ExecutorService> executorReference,
+            final AppContext appContext) {
+        this.client = client;
+        this.subscriptionManager = subscriptionManager;
+        this.executorReference = executorReference;
+        this.appContext = appContext;
+    }
+
+    /**
+     * Queues a flow unit for a downstream host, until the end of the tick.
+     *
+     * @param downstreamHostId The host subscribed to the graph node of the flow unit.
+     * @param flowUnitMessage The flow unit, serialized once for all its subscribers.
+     */
+    public void add(
+            final InstanceDetails.Id downstreamHostId, final FlowUnitMessage flowUnitMessage) {
+        outboxes.computeIfAbsent(downstreamHostId, Outbox::new).pending.add(flowUnitMessage);
+    }
+
+    /** Counts a task queued to add flow units, the outboxes are not flushed before it is done. */
+    public void taskQueued() {
+        pendingTasks.incrementAndGet();
+    }
+
+    /** Counts a task queued to add flow units as done, or as rejected by the thread pool. */
+    public void taskDone() {
+        if (pendingTasks.decrementAndGet() == 0 && flushRequested.compareAndSet(true, false)) {
+            flushAll();
+        }
+    }
+
+    /**
+     * Flushes the outboxes once the graph ran for the tick, as soon as the tasks queued in the tick
+     * to add flow units are done.
+     */
+    public void endTick() {
+        flushRequested.set(true);
+        if (pendingTasks.get() == 0 && flushRequested.compareAndSet(true, false)) {
+            flushAll();
+        }
+    }
+
+    /** Schedules a flush of each outbox holding flow units on the network thread pool. */
+    private void flushAll() {
+        for (final Outbox outbox : outboxes.values()) {
+            if (outbox.pending.isEmpty() || !outbox.flushScheduled.compareAndSet(false, true)) {
+                continue;
+            }
+            final ExecutorService executor = executorReference.get();
+            if (executor == null) {
+                flush(outbox);
+                continue;
+            }
+            try {
+                executor.execute(() -> flush(outbox));
+            } catch (final RejectedExecutionException ree) {
+                LOG.warn("Sending flow units inline because the threadpool queue is full");
+                StatsCollector.instance()
+                        .logException(StatExceptionCode.RCA_NETWORK_THREADPOOL_QUEUE_FULL_ERROR);
+                flush(outbox);
+            }
+        }
+    }
+
+    /** Sends all the flow units queued for the host. */
+    private void flush(final Outbox outbox) {
+        // Flow units added from now on go out with the next flush.
+        outbox.flushScheduled.set(false);
+        synchronized (outbox) {
+            final List<FlowUnitMessage> drained = new ArrayList<>();
+            FlowUnitMessage message;
+            while ((message = outbox.pending.poll()) != null) {
+                drained.add(message);
+            }
+            if (drained.isEmpty()) {
+                return;
+            }
+            final InstanceDetails remoteHost = appContext.getInstanceById(outbox.hostId);
+            for (final FlowUnitMessage flowUnitMessage : drained) {
+                outbox.graphNodes.add(flowUnitMessage.getGraphNode());
+            }
+            if (outbox.batchUnsupported) {
+                for (final FlowUnitMessage flowUnitMessage : drained) {
+                    if (!client.publish(
+                            remoteHost,
+                            flowUnitMessage,
+                            new PublishResponseObserver(outbox, flowUnitMessage.getGraphNode()))) {
+                        resendInFull(outbox.hostId, flowUnitMessage.getGraphNode());
+                    }
+                }
+                return;
+            }
+            LOG.debug("rca: [pub-tx]: {} flow units -> {}", drained.size(), outbox.hostId);
+            if (!client.publishBatch(
+                    remoteHost,
+                    FlowUnitBatchMessage.newBuilder().addAllFlowUnits(drained).build(),
+                    outbox.batchResponseObserver)) {
+                for (final FlowUnitMessage flowUnitMessage : drained) {
+                    resendInFull(outbox.hostId, flowUnitMessage.getGraphNode());
+                }
+            }
+            ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                    RcaGraphMetrics.RCA_FU_BATCH_SIZE, drained.size());
+        }
+    }
+
+    /**
+     * Has the next flow unit of the graph node sent in full to the host, as the last one recorded
+     * as sent in full by the {@link FlowUnitDeltaTracker} may not have reached it.
+     */
+    private void resendInFull(final InstanceDetails.Id hostId, final String graphNode) {
+        subscriptionManager.getDeltaTracker().forget(graphNode, hostId);
+    }
+
+    /** The flow units waiting to be sent to one host. */
+    private class Outbox {
+        private final InstanceDetails.Id hostId;
+        private final Queue<FlowUnitMessage> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        // The graph nodes sent to the host, to unsubscribe them all if the host shuts down.
+        private final Set<String> graphNodes = ConcurrentHashMap.newKeySet();
+        private final PublishResponseObserver batchResponseObserver =
+                new PublishResponseObserver(this, null);
+        private volatile boolean batchUnsupported;
+
+        Outbox(final InstanceDetails.Id hostId) {
+            this.hostId = hostId;
+        }
+    }
+
+    /**
+     * Handles the responses of a host, for its batch stream or for the stream of a single graph
+     * node.
+     */
+    private class PublishResponseObserver implements StreamObserver<PublishResponse> {
+        private final Outbox outbox;
+        // Null for the batch stream.
+        private final String graphNode;
+
+        PublishResponseObserver(final Outbox outbox, final String graphNode) {
+            this.outbox = outbox;
+            this.graphNode = graphNode;
+        }
+
+        @Override
+        public void onNext(final PublishResponse value) {
+            LOG.debug(
+                    "rca: Received acknowledgement from the server. status: {}",
+                    value.getDataStatus());
+            if (value.getDataStatus() == PublishResponseStatus.NODE_SHUTDOWN) {
+                terminate();
+            }
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            if (graphNode == null
+                    && Status.fromThrowable(t).getCode() == Status.Code.UNIMPLEMENTED) {
+                LOG.info("rca: {} does not accept flow unit batches", outbox.hostId);
+                outbox.batchUnsupported = true;
+                // The flow units of the batch were lost, they go out again one by one.
+                for (final String node : outbox.graphNodes) {
+                    resendInFull(outbox.hostId, node);
+                }
+                client.flushStream(outbox.hostId);
+                return;
+            }
+            for (final String node : sentGraphNodes()) {
+                ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                        RcaGraphMetrics.RCA_NETWORK_ERROR, node, 1);
+            }
+            LOG.error("rca: Encountered an exception at the server: ", t);
+            terminate();
+        }
+
+        @Override
+        public void onCompleted() {
+            LOG.debug("rca: Server closed the data channel!");
+        }
+
+        private Set<String> sentGraphNodes() {
+            return graphNode == null ? outbox.graphNodes : Collections.singleton(graphNode);
+        }
+
+        private void terminate() {
+            for (final String node : sentGraphNodes()) {
+                subscriptionManager.unsubscribeAndTerminateConnection(node, outbox.hostId);
+            }
+            if (graphNode == null) {
+                outbox.graphNodes.clear();
+            }
+            client.flushStream(outbox.hostId);
+        }
+    }
+}
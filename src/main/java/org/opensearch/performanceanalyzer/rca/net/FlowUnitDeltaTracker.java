@@ -0,0 +1,133 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+import org.opensearch.performanceanalyzer.rca.framework.util.SettingsUtil;
+
+/**
+ * Tracks the flow units sent in full to each subscriber of a vertex, for the delta publish mode.
+ *
+ * <p>In the delta mode a flow unit is sent in full only if its content, everything but the
+ * timestamp, differs from the last one sent in full to the subscriber, or if that one was sent
+ * more than the refresh interval ago. Otherwise an unchanged marker is sent, which carries only
+ * the vertex, the node and the timestamp. The marker keeps the receive time of the publisher
+ * current on the subscriber, and the subscriber uses the last flow unit it got in full. A host
+ * that subscribes again, e.g. after a restart, gets the next flow unit in full.
+ *
+ * <p>Nodes of older versions take a marker for an empty flow unit, so the delta mode is only to be
+ * enabled once all the nodes of the cluster understand the markers.
+ */
+public class FlowUnitDeltaTracker {
+    public static final String PUBLISH_MODE_CONF_NAME = "rca-flow-unit-publish-mode";
+    public static final String PUBLISH_MODE_FULL = "full";
+    public static final String PUBLISH_MODE_DELTA = "delta";
+    public static final String FULL_REFRESH_CONF_NAME = "rca-flow-unit-full-refresh-millis";
+    public static final long DEFAULT_FULL_REFRESH_MILLIS = 60000;
+
+    private final boolean enabled;
+    private final long fullRefreshMillis;
+
+    /**
+     * The content of the flow unit last sent in full per vertex. The same content is the same
+     * instance, so that the subscribers of the vertex compare it by reference.
+     */
+    private final ConcurrentMap<String, FlowUnitMessage> lastContent = new ConcurrentHashMap<>();
+
+    /** Per vertex and subscriber, the flow unit last sent in full. */
+    private final ConcurrentMap<String, ConcurrentMap<InstanceDetails.Id, Sent>> sentMap =
+            new ConcurrentHashMap<>();
+
+    public FlowUnitDeltaTracker() {
+        this(
+                isDeltaModeSet(),
+                SettingsUtil.readLong(FULL_REFRESH_CONF_NAME, DEFAULT_FULL_REFRESH_MILLIS));
+    }
+
+    public FlowUnitDeltaTracker(boolean enabled, long fullRefreshMillis) {
+        this.enabled = enabled;
+        this.fullRefreshMillis = fullRefreshMillis;
+    }
+
+    /** Whether the delta publish mode is set in the plugin settings. */
+    public static boolean isDeltaModeSet() {
+        return PUBLISH_MODE_DELTA.equals(
+                PluginSettings.instance()
+                        .getSettingValue(PUBLISH_MODE_CONF_NAME, PUBLISH_MODE_FULL)
+                        .trim());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the content of a flow unit of the vertex, the flow unit without its timestamp.
+     *
+     * @return the content last sent for the vertex if it is equal, else the new content.
+     */
+    public FlowUnitMessage content(final String graphNode, final FlowUnitMessage flowUnitMessage) {
+        final FlowUnitMessage content = flowUnitMessage.toBuilder().clearTimeStamp().build();
+        return lastContent.merge(
+                graphNode, content, (last, current) -> last.equals(current) ? last : current);
+    }
+
+    /**
+     * Checks whether the subscriber already got the content in full within the refresh interval.
+     * If not, the caller sends it in full, and it is recorded as sent. A caller failing to send it
+     * calls {@link #forget(String, InstanceDetails.Id)}.
+     *
+     * @param content The content, as returned by {@link #content(String, FlowUnitMessage)}.
+     * @return true if an unchanged marker is to be sent instead of the flow unit.
+     */
+    public boolean isUnchanged(
+            final String graphNode,
+            final InstanceDetails.Id subscriber,
+            final FlowUnitMessage content,
+            final long now) {
+        final ConcurrentMap<InstanceDetails.Id, Sent> subscribers =
+                sentMap.computeIfAbsent(graphNode, vertex -> new ConcurrentHashMap<>());
+        final Sent last = subscribers.get(subscriber);
+        if (last != null && last.content == content && now - last.sentAt < fullRefreshMillis) {
+            return true;
+        }
+        subscribers.put(subscriber, new Sent(content, now));
+        return false;
+    }
+
+    /** Has the next flow unit of the vertex sent in full to the subscriber. */
+    public void forget(final String graphNode, final InstanceDetails.Id subscriber) {
+        final ConcurrentMap<InstanceDetails.Id, Sent> subscribers = sentMap.get(graphNode);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    /** Builds the marker sent instead of a flow unit whose content is unchanged. */
+    public static FlowUnitMessage unchangedMarker(final FlowUnitMessage flowUnitMessage) {
+        return FlowUnitMessage.newBuilder()
+                .setGraphNode(flowUnitMessage.getGraphNode())
+                .setNode(flowUnitMessage.getNode())
+                .setTimeStamp(flowUnitMessage.getTimeStamp())
+                .setUnchanged(true)
+                .build();
+    }
+
+    private static class Sent {
+        private final FlowUnitMessage content;
+        private final long sentAt;
+
+        Sent(FlowUnitMessage content, long sentAt) {
+            this.content = content;
+            this.sentAt = sentAt;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+
+/**
+ * A received flow unit store that keeps only the latest flow unit of each publisher of a vertex.
+ *
+ * <p>The cluster RCAs use the freshest flow unit of each node. A flow unit that arrives before the
+ * vertex read the previous one of the same publisher replaces it, and the replaced one is counted
+ * as overwritten. The store has no size limit, so no flow unit is dropped or held for a full vertex
+ * buffer. A publisher that sends several flow units for a vertex in one tick only has the last one
+ * read.
+ *
+ * <p>Each publisher of a vertex has a slot, which the network threads swap a flow unit into and the
+ * vertex empties, without locking. A vertex is drained by one scheduler thread at a time, so its
+ * flow units are handed out in a list reused for every drain of the vertex. The list is valid until
+ * the next drain of the same vertex.
+ */
+public class LatestFlowUnitStore extends ReceivedFlowUnitStore {
+
+    /** Map of vertex to the slots of its publishers. */
+    private final ConcurrentMap<String, VertexSlots> vertexMap = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean enqueue(final String graphNode, final FlowUnitMessage flowUnitMessage) {
+        vertexMap
+                .computeIfAbsent(graphNode, vertex -> new VertexSlots())
+                .put(graphNode, flowUnitMessage);
+        return true;
+    }
+
+    /** Stores the flow unit right away, there is always room for it. */
+    @Override
+    public boolean enqueue(
+            final String graphNode,
+            final FlowUnitMessage flowUnitMessage,
+            final Runnable onEnqueued) {
+        enqueue(graphNode, flowUnitMessage);
+        onEnqueued.run();
+        return true;
+    }
+
+    /**
+     * Takes the flow units of the vertex out of their slots.
+     *
+     * @return An unmodifiable list of the flow units, reused for the next drain of the vertex.
+     */
+    @Override
+    public List<FlowUnitMessage> drainNode(final String graphNode) {
+        final VertexSlots slots = vertexMap.get(graphNode);
+        if (slots == null) {
+            return ImmutableList.of();
+        }
+        return slots.drain();
+    }
+
+    @Override
+    public List<FlowUnitMessage> drainAll() {
+        final List<FlowUnitMessage> drained = new ArrayList<>();
+        for (final String graphNode : vertexMap.keySet()) {
+            drained.addAll(drainNode(graphNode));
+        }
+        return drained;
+    }
+
+    @Override
+    public void removePublisher(final String graphNode, final String publisher) {
+        super.removePublisher(graphNode, publisher);
+        final VertexSlots slots = vertexMap.get(graphNode);
+        if (slots != null) {
+            slots.slotMap.remove(publisher);
+        }
+    }
+
+    private static class VertexSlots {
+        /** Map of publisher host id to the flow unit of the publisher not yet read. */
+        private final ConcurrentMap<String, AtomicReference<FlowUnitMessage>> slotMap =
+                new ConcurrentHashMap<>();
+
+        /** The drained flow units, only used by the thread draining the vertex. */
+        private final List<FlowUnitMessage> drained = new ArrayList<>();
+
+        private final List<FlowUnitMessage> drainedView = Collections.unmodifiableList(drained);
+
+        void put(final String graphNode, final FlowUnitMessage flowUnitMessage) {
+            AtomicReference<FlowUnitMessage> slot = slotMap.get(flowUnitMessage.getNode());
+            if (slot == null) {
+                slot =
+                        slotMap.computeIfAbsent(
+                                flowUnitMessage.getNode(), publisher -> new AtomicReference<>());
+            }
+            if (slot.getAndSet(flowUnitMessage) != null) {
+                ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                        RcaGraphMetrics.RCA_NODES_FU_RX_OVERWRITE_COUNT, graphNode, 1);
+            }
+        }
+
+        List<FlowUnitMessage> drain() {
+            drained.clear();
+            for (final AtomicReference<FlowUnitMessage> slot : slotMap.values()) {
+                final FlowUnitMessage flowUnitMessage = slot.getAndSet(null);
+                if (flowUnitMessage != null) {
+                    drained.add(flowUnitMessage);
+                }
+            }
+            return drainedView;
+        }
+    }
+}
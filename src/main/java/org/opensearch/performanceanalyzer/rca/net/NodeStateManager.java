@@ -8,27 +8,40 @@ package org.opensearch.performanceanalyzer.rca.net;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import org.opensearch.performanceanalyzer.AppContext;
 import org.opensearch.performanceanalyzer.grpc.SubscribeResponse.SubscriptionStatus;
+import org.opensearch.performanceanalyzer.rca.framework.util.ClusterMembership;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.util.ClusterUtils;
 
-/** Manages the subscription state for the nodes in the graph. */
+/**
+ * Manages the subscription state for the nodes in the graph.
+ *
+ * <p>The state is kept per (vertex, host) pair and the receive time is updated for every flow unit
+ * received. The vertices and the hosts are interned as integer handles when the graph is built or
+ * when they are first seen, and the state of a vertex is kept in arrays indexed by the handle of
+ * the host, so that updating the state looks up two handles and writes a slot, without building a
+ * key. The handles are never released, there are as many as hosts that ever published.
+ */
 public class NodeStateManager {
 
-    private static final String SEPARATOR = ".";
+    private static final SubscriptionStatus[] SUBSCRIPTION_STATUSES = SubscriptionStatus.values();
+
+    /** Handles of the hosts, by host id. */
+    private final ConcurrentMap<String, Integer> hostHandles = new ConcurrentHashMap<>();
 
-    /** Map of hostID of a remote node to the last time we received a flow unit from that node. */
-    private final ConcurrentMap<String, Long> lastReceivedTimestampMap = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHostHandle = new AtomicInteger();
 
-    /** Map of hostId to the current subscription status of that host. */
-    private final ConcurrentMap<String, AtomicReference<SubscriptionStatus>> subscriptionStatusMap =
-            new ConcurrentHashMap<>();
+    /** The state of the hosts for each vertex, by vertex name. */
+    private final ConcurrentMap<String, VertexState> vertexStates = new ConcurrentHashMap<>();
 
     private final AppContext appContext;
 
@@ -36,6 +49,18 @@ public class NodeStateManager {
         this.appContext = appContext;
     }
 
+    /**
+     * Interns the vertices of the graph, so that the flow units received for them find their state
+     * without creating it.
+     *
+     * @param graphNodes The names of the vertices of the graph.
+     */
+    public void registerGraphNodes(final Collection<String> graphNodes) {
+        for (final String graphNode : graphNodes) {
+            getOrCreateVertexState(graphNode);
+        }
+    }
+
     /**
      * Updates the timestamp for the composite key: (host, vertex) marking when the last successful
      * flow unit reception happened.
@@ -46,8 +71,21 @@ public class NodeStateManager {
      */
     public void updateReceiveTime(
             final InstanceDetails.Id host, final String graphNode, final long timestamp) {
-        final String compositeKey = graphNode + SEPARATOR + host;
-        lastReceivedTimestampMap.put(compositeKey, timestamp);
+        updateReceiveTime(host.toString(), graphNode, timestamp);
+    }
+
+    /**
+     * Updates the timestamp for the composite key: (host, vertex). The flow unit receive path
+     * passes the host id from the message as is.
+     *
+     * @param hostId The id of the host that sent the flow unit.
+     * @param graphNode The vertex for which the flow unit was sent for.
+     * @param timestamp The timestamp at which we received.
+     */
+    public void updateReceiveTime(
+            final String hostId, final String graphNode, final long timestamp) {
+        getOrCreateVertexState(graphNode)
+                .set(getOrCreateHostHandle(hostId), VertexState.RECEIVE_TIME, timestamp);
     }
 
     /**
@@ -60,20 +98,13 @@ public class NodeStateManager {
      *     present, a timestamp in the distant past(0) otherwise.
      */
     public long getLastReceivedTimestamp(String graphNode, InstanceDetails.Id host) {
-        final String compositeKey = graphNode + SEPARATOR + host;
-        // Return the last received value or a value that is in the distant past.
-        return lastReceivedTimestampMap.getOrDefault(compositeKey, 0L);
+        return get(vertexStates.get(graphNode), host, VertexState.RECEIVE_TIME);
     }
 
     @VisibleForTesting
     SubscriptionStatus getSubscriptionStatus(String graphNode, InstanceDetails.Id host) {
-        final String compositeKey = graphNode + SEPARATOR + host;
-        // Return the last received value or a value that is in the distant past.
-        AtomicReference<SubscriptionStatus> ref = subscriptionStatusMap.get(compositeKey);
-        if (ref == null) {
-            return null;
-        }
-        return ref.get();
+        return toSubscriptionStatus(
+                get(vertexStates.get(graphNode), host, VertexState.SUBSCRIPTION_STATUS));
     }
 
     /**
@@ -83,13 +114,47 @@ public class NodeStateManager {
      * @param host The host.
      * @param status The subscription status.
      */
-    public synchronized void updateSubscriptionState(
+    public void updateSubscriptionState(
             final String graphNode,
             final InstanceDetails.Id host,
             final SubscriptionStatus status) {
-        final String compositeKey = graphNode + SEPARATOR + host;
-        subscriptionStatusMap.putIfAbsent(compositeKey, new AtomicReference<>());
-        subscriptionStatusMap.get(compositeKey).set(status);
+        // The status is stored as its ordinal plus one, 0 meaning no status.
+        getOrCreateVertexState(graphNode)
+                .set(
+                        getOrCreateHostHandle(host.toString()),
+                        VertexState.SUBSCRIPTION_STATUS,
+                        status.ordinal() + 1);
+    }
+
+    private long get(final VertexState state, final InstanceDetails.Id host, final int field) {
+        if (state == null) {
+            return 0;
+        }
+        final Integer hostHandle = hostHandles.get(host.toString());
+        if (hostHandle == null) {
+            return 0;
+        }
+        return state.get(hostHandle, field);
+    }
+
+    private static SubscriptionStatus toSubscriptionStatus(final long value) {
+        return value == 0 ? null : SUBSCRIPTION_STATUSES[(int) value - 1];
+    }
+
+    private VertexState getOrCreateVertexState(final String graphNode) {
+        final VertexState state = vertexStates.get(graphNode);
+        if (state != null) {
+            return state;
+        }
+        return vertexStates.computeIfAbsent(graphNode, key -> new VertexState());
+    }
+
+    private int getOrCreateHostHandle(final String hostId) {
+        final Integer hostHandle = hostHandles.get(hostId);
+        if (hostHandle != null) {
+            return hostHandle;
+        }
+        return hostHandles.computeIfAbsent(hostId, key -> nextHostHandle.getAndIncrement());
     }
 
     /**
@@ -108,9 +173,11 @@ public class NodeStateManager {
             Set<InstanceDetails.Id> publishers) {
         final long currentTime = System.currentTimeMillis();
         final Set<InstanceDetails> hostsToSubscribeTo = new HashSet<>();
+        final ClusterMembership membership = appContext.getMembership();
+        final VertexState state = vertexStates.get(graphNode);
 
         for (final InstanceDetails.Id publisher : publishers) {
-            long lastRxTimestamp = getLastReceivedTimestamp(graphNode, publisher);
+            long lastRxTimestamp = get(state, publisher, VertexState.RECEIVE_TIME);
 
             // If we haven't received FlowUnits from the Instance for a certain amount of time
             // (enough to consider it stale)
@@ -119,9 +186,8 @@ public class NodeStateManager {
             // something and forgot that we want to subscribe to its data.
             if (lastRxTimestamp > 0
                     && currentTime - lastRxTimestamp > maxIdleDuration
-                    && ClusterUtils.isHostIdInCluster(
-                            publisher, appContext.getAllClusterInstances())) {
-                hostsToSubscribeTo.add(appContext.getInstanceById(publisher));
+                    && ClusterUtils.isHostIdInCluster(publisher, membership)) {
+                hostsToSubscribeTo.add(membership.getPeerInstance(publisher));
             }
         }
 
@@ -130,11 +196,10 @@ public class NodeStateManager {
         // that are evaluating the graph nodes whose data we are interested in. So, we want to send
         // them a subscription
         // message as well.
-        final Set<InstanceDetails> peers = appContext.getPeerInstances();
+        final Set<InstanceDetails> peers = membership.getPeerInstances();
         if (peers != null) {
             for (final InstanceDetails peerHost : peers) {
-                String compositeKey = graphNode + SEPARATOR + peerHost.getInstanceId();
-                if (!subscriptionStatusMap.containsKey(compositeKey)) {
+                if (get(state, peerHost.getInstanceId(), VertexState.SUBSCRIPTION_STATUS) == 0) {
                     hostsToSubscribeTo.add(peerHost);
                 }
             }
@@ -147,4 +212,49 @@ public class NodeStateManager {
     public AppContext getAppContext() {
         return appContext;
     }
+
+    /**
+     * The state of the hosts for a vertex: for each host handle, the last receive time and the
+     * subscription status. The slots are kept in chunks that are never copied when the table
+     * grows, so that a slot written while another thread grows the table is not lost.
+     */
+    private static class VertexState {
+        static final int RECEIVE_TIME = 0;
+        static final int SUBSCRIPTION_STATUS = 1;
+        private static final int FIELDS = 2;
+        private static final int CHUNK_SLOTS = 64 * FIELDS;
+
+        private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+        long get(final int hostHandle, final int field) {
+            final int slot = hostHandle * FIELDS + field;
+            final AtomicLongArray[] current = chunks;
+            if (slot / CHUNK_SLOTS >= current.length) {
+                return 0;
+            }
+            return current[slot / CHUNK_SLOTS].get(slot % CHUNK_SLOTS);
+        }
+
+        void set(final int hostHandle, final int field, final long value) {
+            final int slot = hostHandle * FIELDS + field;
+            AtomicLongArray[] current = chunks;
+            if (slot / CHUNK_SLOTS >= current.length) {
+                current = grow(slot / CHUNK_SLOTS);
+            }
+            current[slot / CHUNK_SLOTS].set(slot % CHUNK_SLOTS, value);
+        }
+
+        private synchronized AtomicLongArray[] grow(final int chunk) {
+            final AtomicLongArray[] current = chunks;
+            if (chunk < current.length) {
+                return current;
+            }
+            final AtomicLongArray[] grown = Arrays.copyOf(current, chunk + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new AtomicLongArray(CHUNK_SLOTS);
+            }
+            chunks = grown;
+            return grown;
+        }
+    }
 }
@@ -8,39 +8,91 @@ package org.opensearch.performanceanalyzer.rca.net;
 
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
 import org.opensearch.performanceanalyzer.rca.framework.util.RcaConsts;
 
 /**
  * An intermediate buffer that holds flow units received for different vertices from across the
  * cluster.
+ *
+ * <p>In the delta publish mode, the last flow unit received in full from each publisher of a vertex
+ * is kept for the unchanged markers, see {@link FlowUnitDeltaTracker}.
+ *
+ * <p>This store queues the flow units of each vertex. {@link LatestFlowUnitStore} keeps only the
+ * latest flow unit of each publisher instead.
  */
 public class ReceivedFlowUnitStore {
 
     private static final Logger LOG = LogManager.getLogger(ReceivedFlowUnitStore.class);
 
+    public static final String STORE_CONF_NAME = "rca-received-flow-unit-store";
+    public static final String STORE_QUEUE = "queue";
+    public static final String STORE_LATEST = "latest";
+
     /** Map of vertex to a queue of flow units received for that vertex. */
     private ConcurrentMap<String, BlockingQueue<FlowUnitMessage>> flowUnitMap =
             new ConcurrentHashMap<>();
 
+    /**
+     * Map of vertex to the flow units waiting for room in its queue, with what to run once they
+     * are enqueued. These come from the streams that are flow controlled, and are enqueued when
+     * the vertex is drained.
+     */
+    private final ConcurrentMap<String, Queue<Parked>> parkedMap = new ConcurrentHashMap<>();
+
+    /** Map of vertex to the last flow unit received in full from each publisher, by host id. */
+    private final ConcurrentMap<String, ConcurrentMap<String, FlowUnitMessage>> lastReceivedMap =
+            new ConcurrentHashMap<>();
+
     /** The per vertex flow unit queue size. */
     private final int perNodeFlowUnitQSize;
 
+    /** Whether the last flow unit of each publisher is kept, in the delta publish mode only. */
+    private final boolean deltaMode;
+
     public ReceivedFlowUnitStore() {
         this(RcaConsts.DEFAULT_PER_NODE_FLOWUNIT_Q_SIZE);
     }
 
     public ReceivedFlowUnitStore(final int perNodeFlowUnitQSize) {
+        this(perNodeFlowUnitQSize, FlowUnitDeltaTracker.isDeltaModeSet());
+    }
+
+    public ReceivedFlowUnitStore(final int perNodeFlowUnitQSize, final boolean deltaMode) {
         this.perNodeFlowUnitQSize = perNodeFlowUnitQSize;
+        this.deltaMode = deltaMode;
+    }
+
+    /**
+     * Creates the store set in the plugin settings.
+     *
+     * @param perNodeFlowUnitQSize The per vertex flow unit queue size, for the queueing store.
+     */
+    public static ReceivedFlowUnitStore create(final int perNodeFlowUnitQSize) {
+        final String store =
+                PluginSettings.instance().getSettingValue(STORE_CONF_NAME, STORE_QUEUE).trim();
+        if (STORE_LATEST.equals(store)) {
+            return new LatestFlowUnitStore();
+        }
+        if (!STORE_QUEUE.equals(store)) {
+            LOG.warn("Invalid {} '{}', using {}", STORE_CONF_NAME, store, STORE_QUEUE);
+        }
+        return new ReceivedFlowUnitStore(perNodeFlowUnitQSize);
     }
 
     /**
@@ -67,32 +119,144 @@ public class ReceivedFlowUnitStore {
         return retValue;
     }
 
+    /**
+     * Adds the received flow unit to the queue of the vertex, or if the queue is full, holds it
+     * until the vertex is drained instead of dropping it. The caller stops taking flow units from
+     * the sender until the flow unit is enqueued, which holds the sender back. At most as many
+     * flow units as the queue holds are held per vertex, past that the oldest held one is dropped.
+     *
+     * @param graphNode The vertex for which we need to store the remote flow units for.
+     * @param flowUnitMessage The flow unit message received from the network.
+     * @param onEnqueued Run once the flow unit is enqueued or dropped, right away or once the
+     *     vertex is drained.
+     * @return true if the flow unit was enqueued without waiting.
+     */
+    public boolean enqueue(
+            final String graphNode,
+            final FlowUnitMessage flowUnitMessage,
+            final Runnable onEnqueued) {
+        final BlockingQueue<FlowUnitMessage> queue =
+                flowUnitMap.computeIfAbsent(
+                        graphNode, s -> new ArrayBlockingQueue<>(perNodeFlowUnitQSize));
+        final Queue<Parked> parked =
+                parkedMap.computeIfAbsent(graphNode, s -> new ConcurrentLinkedQueue<>());
+        if (parked.isEmpty() && queue.offer(flowUnitMessage)) {
+            onEnqueued.run();
+            return true;
+        }
+        parked.add(new Parked(flowUnitMessage, onEnqueued));
+        ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                RcaGraphMetrics.RCA_NODES_FU_RX_HELD_COUNT, graphNode, 1);
+        if (parked.size() > perNodeFlowUnitQSize) {
+            // The vertex is not drained, e.g. it is no longer run, let the senders go on.
+            final Parked dropped = parked.poll();
+            if (dropped != null) {
+                LOG.warn("Dropped flow unit because per vertex queue is full");
+                StatsCollector.instance()
+                        .logException(StatExceptionCode.RCA_VERTEX_RX_BUFFER_FULL_ERROR);
+                dropped.onEnqueued.run();
+            }
+        }
+        // The vertex may have been drained since the queue was found full.
+        unpark(queue, parked);
+        return false;
+    }
+
+    /** Moves the held flow units of a vertex to its queue, as long as there is room. */
+    private static void unpark(
+            final BlockingQueue<FlowUnitMessage> queue, final Queue<Parked> parked) {
+        final List<Runnable> enqueued = new ArrayList<>();
+        synchronized (parked) {
+            for (Parked next = parked.peek();
+                    next != null && queue.offer(next.flowUnitMessage);
+                    next = parked.peek()) {
+                parked.poll();
+                enqueued.add(next.onEnqueued);
+            }
+        }
+        enqueued.forEach(Runnable::run);
+    }
+
+    /**
+     * Resolves a received flow unit to the one to enqueue. In the delta publish mode, a flow unit
+     * sent in full is kept as the last one of its publisher, and an unchanged marker is replaced
+     * with the last flow unit of its publisher, with the timestamp of the marker. In the full mode
+     * the flow unit is enqueued as is, and nothing is kept.
+     *
+     * @param flowUnitMessage The flow unit message received from the network.
+     * @return The flow unit to enqueue, or null for an unchanged marker if no flow unit of the
+     *     publisher was received in full, e.g. as this node restarted.
+     */
+    public FlowUnitMessage resolve(final FlowUnitMessage flowUnitMessage) {
+        if (!deltaMode) {
+            // Nothing is kept for the markers, which are only sent between nodes in delta mode.
+            return flowUnitMessage.getUnchanged() ? null : flowUnitMessage;
+        }
+        final ConcurrentMap<String, FlowUnitMessage> publishers =
+                lastReceivedMap.computeIfAbsent(
+                        flowUnitMessage.getGraphNode(), vertex -> new ConcurrentHashMap<>());
+        if (!flowUnitMessage.getUnchanged()) {
+            publishers.put(flowUnitMessage.getNode(), flowUnitMessage);
+            return flowUnitMessage;
+        }
+        final FlowUnitMessage last = publishers.get(flowUnitMessage.getNode());
+        if (last == null) {
+            return null;
+        }
+        return last.toBuilder().setTimeStamp(flowUnitMessage.getTimeStamp()).build();
+    }
+
+    /** Drops the last flow unit received from a publisher that left the vertex. */
+    public void removePublisher(final String graphNode, final String publisher) {
+        final ConcurrentMap<String, FlowUnitMessage> publishers = lastReceivedMap.get(graphNode);
+        if (publishers != null) {
+            publishers.remove(publisher);
+        }
+    }
+
     /**
      * Drain the flow units enqueued for the vertex.
      *
      * @param graphNode The vertex whose flow units needed to be drained.
-     * @return An immutable list containing the flow units received from the network for the vertex.
+     * @return An unmodifiable list containing the flow units received from the network for the
+     *     vertex.
      */
-    public ImmutableList<FlowUnitMessage> drainNode(final String graphNode) {
+    public List<FlowUnitMessage> drainNode(final String graphNode) {
         LOG.debug("Draining flow units for vertex: {}", graphNode);
-        final List<FlowUnitMessage> tempList = new ArrayList<>();
         BlockingQueue<FlowUnitMessage> existing = flowUnitMap.get(graphNode);
         if (existing == null) {
             return ImmutableList.of();
         }
 
+        final List<FlowUnitMessage> tempList = new ArrayList<>(existing.size());
         existing.drainTo(tempList);
+        final Queue<Parked> parked = parkedMap.get(graphNode);
+        if (parked != null && !parked.isEmpty()) {
+            // The flow units held for room in the queue are handed out with the others.
+            unpark(existing, parked);
+            existing.drainTo(tempList);
+        }
 
-        return ImmutableList.copyOf(tempList);
+        return Collections.unmodifiableList(tempList);
     }
 
     /** Drains out all the flow units for all nodes. */
     public List<FlowUnitMessage> drainAll() {
         List<FlowUnitMessage> drained = new ArrayList<>();
         for (final String graphNode : flowUnitMap.keySet()) {
-            ImmutableList<FlowUnitMessage> messages = drainNode(graphNode);
+            List<FlowUnitMessage> messages = drainNode(graphNode);
             drained.addAll(messages);
         }
         return drained;
     }
+
+    private static class Parked {
+        private final FlowUnitMessage flowUnitMessage;
+        private final Runnable onEnqueued;
+
+        Parked(FlowUnitMessage flowUnitMessage, Runnable onEnqueued) {
+            this.flowUnitMessage = flowUnitMessage;
+            this.onEnqueued = onEnqueued;
+        }
+    }
 }
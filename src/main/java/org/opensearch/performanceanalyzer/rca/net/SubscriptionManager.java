@@ -7,9 +7,8 @@ package org.opensearch.performanceanalyzer.rca.net;
 
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,7 +20,12 @@ import org.opensearch.performanceanalyzer.net.GRPCConnectionManager;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.framework.util.RcaConsts;
 
-/** Handles adding and removing of subscriptions for the vertices in the analysis graph. */
+/**
+ * Handles adding and removing of subscriptions for the vertices in the analysis graph.
+ *
+ * <p>The publishers and subscribers of a vertex are immutable sets, replaced atomically on every
+ * change, so that the flow unit send and receive paths read them without copying or locking.
+ */
 public class SubscriptionManager {
 
     private static final Logger LOG = LogManager.getLogger(SubscriptionManager.class);
@@ -30,21 +34,31 @@ public class SubscriptionManager {
     private final GRPCConnectionManager connectionManager;
 
     /** Map of vertex to a set of hostId that are publishing flow units for that vertex. */
-    private final ConcurrentMap<String, Set<InstanceDetails.Id>> publisherMap =
+    private final ConcurrentMap<String, ImmutableSet<InstanceDetails.Id>> publisherMap =
             new ConcurrentHashMap<>();
 
     /**
      * Map of graph node to a set of hostIDs that are interested in consuming the flow units for
      * that vertex.
      */
-    private final ConcurrentMap<String, Set<InstanceDetails.Id>> subscriberMap =
+    private final ConcurrentMap<String, ImmutableSet<InstanceDetails.Id>> subscriberMap =
             new ConcurrentHashMap<>();
 
+    /** The flow units sent in full to the subscribers, for the delta publish mode. */
+    private final FlowUnitDeltaTracker deltaTracker;
+
     /** The current locus of the node. */
     private volatile String currentLocus;
 
     public SubscriptionManager(final GRPCConnectionManager connectionManager) {
+        this(connectionManager, new FlowUnitDeltaTracker());
+    }
+
+    public SubscriptionManager(
+            final GRPCConnectionManager connectionManager,
+            final FlowUnitDeltaTracker deltaTracker) {
         this.connectionManager = connectionManager;
+        this.deltaTracker = deltaTracker;
     }
 
     /**
@@ -58,15 +72,9 @@ public class SubscriptionManager {
             final String graphNode, final InstanceDetails.Id remoteHost) {
         LOG.debug("Unsubscribing {} from {} updates", remoteHost, graphNode);
 
-        if (subscriberMap.containsKey(graphNode)) {
-            final Set<InstanceDetails.Id> subscribers = subscriberMap.get(graphNode);
-            subscribers.remove(remoteHost);
-            if (subscribers.size() > 0) {
-                subscriberMap.put(graphNode, subscribers);
-            } else {
-                subscriberMap.remove(graphNode);
-            }
-        }
+        subscriberMap.computeIfPresent(
+                graphNode, (vertex, subscribers) -> without(subscribers, remoteHost));
+        deltaTracker.forget(graphNode, remoteHost);
         connectionManager.terminateConnection(remoteHost);
     }
 
@@ -79,7 +87,7 @@ public class SubscriptionManager {
      * @return A SubscriptionStatus protobuf message that contains the status for the subscription
      *     request.
      */
-    public synchronized SubscriptionStatus addSubscriber(
+    public SubscriptionStatus addSubscriber(
             final String graphNode, final InstanceDetails.Id subscriberHostId, final String loci) {
         final List<String> vertexLoci =
                 Arrays.asList(loci.split(RcaConsts.RcaTagConstants.SEPARATOR));
@@ -91,13 +99,13 @@ public class SubscriptionManager {
             return SubscriptionStatus.TAG_MISMATCH;
         }
 
-        Set<InstanceDetails.Id> currentSubscribers =
-                subscriberMap.getOrDefault(graphNode, new HashSet<>());
-        currentSubscribers.add(subscriberHostId);
         // happens-before: update to a java.util.concurrent collection. Updated value will be
         // visible
         // to subsequent reads.
-        subscriberMap.put(graphNode, currentSubscribers);
+        subscriberMap.compute(
+                graphNode, (vertex, subscribers) -> with(subscribers, subscriberHostId));
+        // The host may have lost the flow units it got, e.g. on a restart, send the next in full.
+        deltaTracker.forget(graphNode, subscriberHostId);
 
         LOG.debug("locus matched. Added subscriber {} for {}", subscriberHostId, graphNode);
         return SubscriptionStatus.SUCCESS;
@@ -124,7 +132,7 @@ public class SubscriptionManager {
     public ImmutableSet<InstanceDetails.Id> getSubscribersFor(final String graphNode) {
         // happens-before: ImmutableSet - final field semantics. Reading from java.util.concurrent
         // collection.
-        return ImmutableSet.copyOf(subscriberMap.getOrDefault(graphNode, new HashSet<>()));
+        return subscriberMap.getOrDefault(graphNode, ImmutableSet.of());
     }
 
     /**
@@ -133,14 +141,35 @@ public class SubscriptionManager {
      * @param graphNode The vertex for which a publisher is being added.
      * @param publisherHostId The host address of the publisher node.
      */
-    public synchronized void addPublisher(
-            final String graphNode, final InstanceDetails.Id publisherHostId) {
+    public void addPublisher(final String graphNode, final InstanceDetails.Id publisherHostId) {
         LOG.info("Added publisher: {} for graphNode: {}", publisherHostId, graphNode);
+        publisherMap.compute(graphNode, (vertex, publishers) -> with(publishers, publisherHostId));
+    }
+
+    private static ImmutableSet<InstanceDetails.Id> with(
+            final ImmutableSet<InstanceDetails.Id> hosts, final InstanceDetails.Id host) {
+        if (hosts == null) {
+            return ImmutableSet.of(host);
+        }
+        if (hosts.contains(host)) {
+            return hosts;
+        }
+        return ImmutableSet.<InstanceDetails.Id>builder().addAll(hosts).add(host).build();
+    }
+
+    /** Returns the hosts without the host, or null if no host is left. */
+    private static ImmutableSet<InstanceDetails.Id> without(
+            final ImmutableSet<InstanceDetails.Id> hosts, final InstanceDetails.Id host) {
+        if (!hosts.contains(host)) {
+            return hosts;
+        }
+        final ImmutableSet<InstanceDetails.Id> remaining =
+                ImmutableSet.copyOf(Sets.difference(hosts, ImmutableSet.of(host)));
+        return remaining.isEmpty() ? null : remaining;
+    }
 
-        final Set<InstanceDetails.Id> currentPublishers =
-                publisherMap.getOrDefault(graphNode, new HashSet<>());
-        currentPublishers.add(publisherHostId);
-        publisherMap.put(graphNode, currentPublishers);
+    public FlowUnitDeltaTracker getDeltaTracker() {
+        return deltaTracker;
     }
 
     public void setCurrentLocus(String currentLocus) {
@@ -148,6 +177,6 @@ public class SubscriptionManager {
     }
 
     public Set<InstanceDetails.Id> getPublishersForNode(String graphNode) {
-        return publisherMap.getOrDefault(graphNode, Collections.emptySet());
+        return publisherMap.getOrDefault(graphNode, ImmutableSet.of());
     }
 }
@@ -21,6 +21,7 @@ import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCod
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.net.NetClient;
 import org.opensearch.performanceanalyzer.rca.framework.core.Node;
+import org.opensearch.performanceanalyzer.rca.framework.util.ClusterMembership;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.messages.DataMsg;
 import org.opensearch.performanceanalyzer.rca.messages.IntentMsg;
@@ -42,6 +43,7 @@ public class WireHopper {
 
     private final ReceivedFlowUnitStore receivedFlowUnitStore;
     private final AppContext appContext;
+    private final FlowUnitBatcher flowUnitBatcher;
 
     public WireHopper(
             final NodeStateManager nodeStateManager,
@@ -56,6 +58,8 @@ public class WireHopper {
         this.executorReference = executorReference;
         this.receivedFlowUnitStore = receivedFlowUnitStore;
         this.appContext = appContext;
+        this.flowUnitBatcher =
+                new FlowUnitBatcher(netClient, subscriptionManager, executorReference, appContext);
     }
 
     public void sendIntent(IntentMsg msg) {
@@ -76,10 +80,13 @@ public class WireHopper {
     public void sendData(DataMsg msg) {
         ExecutorService executor = executorReference.get();
         if (executor != null) {
+            flowUnitBatcher.taskQueued();
             try {
                 executor.execute(
-                        new FlowUnitTxTask(netClient, subscriptionManager, msg, appContext));
+                        new FlowUnitTxTask(
+                                flowUnitBatcher, subscriptionManager, msg, appContext));
             } catch (final RejectedExecutionException ree) {
+                flowUnitBatcher.taskDone();
                 LOG.warn("Dropped sending flow unit because the threadpool queue is full");
                 StatsCollector.instance()
                         .logException(StatExceptionCode.RCA_NETWORK_THREADPOOL_QUEUE_FULL_ERROR);
@@ -87,6 +94,14 @@ public class WireHopper {
         }
     }
 
+    /**
+     * Sends the flow units the graph published in the tick, once the tasks queued to send them are
+     * done. Called by the scheduler after each run of the graph.
+     */
+    public void flush() {
+        flowUnitBatcher.endTick();
+    }
+
     @VisibleForTesting
     public AppContext getAppContext() {
         return appContext;
@@ -95,8 +110,7 @@ public class WireHopper {
     public List<FlowUnitMessage> readFromWire(Node<?> node) {
         final String nodeName = node.name();
         final long intervalInSeconds = node.getEvaluationIntervalSeconds();
-        final ImmutableList<FlowUnitMessage> remoteFlowUnits =
-                receivedFlowUnitStore.drainNode(nodeName);
+        final List<FlowUnitMessage> remoteFlowUnits = receivedFlowUnitStore.drainNode(nodeName);
 
         // Publishers are a set of cluster-instances that send out flowUnits for the corresponding
         // graph node,
@@ -104,9 +118,11 @@ public class WireHopper {
         final Set<InstanceDetails.Id> publisherSet =
                 subscriptionManager.getPublishersForNode(nodeName);
 
+        final ClusterMembership membership = appContext.getMembership();
         for (final InstanceDetails.Id publisher : publisherSet) {
-            if (!ClusterUtils.isHostIdInCluster(publisher, appContext.getAllClusterInstances())) {
+            if (!ClusterUtils.isHostIdInCluster(publisher, membership)) {
                 subscriptionManager.unsubscribeAndTerminateConnection(nodeName, publisher);
+                receivedFlowUnitStore.removePublisher(nodeName, publisher.toString());
             }
         }
 
@@ -6,33 +6,53 @@
 package org.opensearch.performanceanalyzer.rca.net.handler;
 
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.grpc.PublishResponse;
 import org.opensearch.performanceanalyzer.grpc.PublishResponse.PublishResponseStatus;
 import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.SettingsUtil;
 import org.opensearch.performanceanalyzer.rca.net.NodeStateManager;
 import org.opensearch.performanceanalyzer.rca.net.ReceivedFlowUnitStore;
 import org.opensearch.performanceanalyzer.rca.net.tasks.FlowUnitRxTask;
 
-/** Service handler for the /sendData RPC. */
+/**
+ * Service handler for the /sendData RPC.
+ *
+ * <p>With a stream window set, the streams are flow controlled: a stream takes at most that many
+ * flow units that are not yet buffered, and the flow units a full vertex buffer cannot take are
+ * held until the vertex is drained. gRPC flow control then holds the publisher back, instead of
+ * the flow units being dropped.
+ */
 public class PublishRequestHandler {
 
     private static final Logger LOG = LogManager.getLogger(PublishRequestHandler.class);
+
+    public static final String STREAM_WINDOW_CONF_NAME = "rca-flow-unit-stream-window";
+    // 0 leaves the flow control to gRPC, and drops the flow units a vertex buffer cannot take.
+    public static final int DEFAULT_STREAM_WINDOW = 0;
+
     private final AtomicReference<ExecutorService> executorReference;
     private final NodeStateManager nodeStateManager;
     private final ReceivedFlowUnitStore receivedFlowUnitStore;
+
+    /** The flow units a stream takes that are not yet buffered, 0 if not flow controlled. */
+    private final int streamWindow;
+
     private List<SendDataClientStreamUpdateConsumer> dataClientStreamList =
             Collections.synchronizedList(new ArrayList<>());
 
@@ -40,19 +60,67 @@ public class PublishRequestHandler {
             NodeStateManager nodeStateManager,
             ReceivedFlowUnitStore receivedFlowUnitStore,
             final AtomicReference<ExecutorService> executorReference) {
+        this(
+                nodeStateManager,
+                receivedFlowUnitStore,
+                executorReference,
+                SettingsUtil.readInt(STREAM_WINDOW_CONF_NAME, DEFAULT_STREAM_WINDOW));
+    }
+
+    public PublishRequestHandler(
+            NodeStateManager nodeStateManager,
+            ReceivedFlowUnitStore receivedFlowUnitStore,
+            final AtomicReference<ExecutorService> executorReference,
+            final int streamWindow) {
         this.executorReference = executorReference;
         this.nodeStateManager = nodeStateManager;
         this.receivedFlowUnitStore = receivedFlowUnitStore;
+        this.streamWindow = streamWindow;
+    }
+
+    /**
+     * Takes over the flow control of a stream if a stream window is set.
+     *
+     * @return what to run once a message of the stream is handled, or null if gRPC controls the
+     *     flow of the stream.
+     */
+    private Runnable startFlowControl(final StreamObserver<PublishResponse> serviceResponse) {
+        if (streamWindow <= 0 || !(serviceResponse instanceof ServerCallStreamObserver)) {
+            return null;
+        }
+        final ServerCallStreamObserver<PublishResponse> call =
+                (ServerCallStreamObserver<PublishResponse>) serviceResponse;
+        call.disableAutoRequest();
+        call.request(streamWindow);
+        return () -> {
+            if (!call.isCancelled()) {
+                call.request(1);
+            }
+        };
     }
 
     public StreamObserver<FlowUnitMessage> getClientStream(
             final StreamObserver<PublishResponse> serviceResponse) {
         SendDataClientStreamUpdateConsumer streamUpdateConsumer =
-                new SendDataClientStreamUpdateConsumer(serviceResponse);
+                new SendDataClientStreamUpdateConsumer(
+                        serviceResponse, startFlowControl(serviceResponse));
         dataClientStreamList.add(streamUpdateConsumer);
         return streamUpdateConsumer;
     }
 
+    /**
+     * Returns the stream for a client sending batches of flow units. The flow units of a batch are
+     * handed to the receive path one by one, as if they came on their own streams.
+     */
+    public StreamObserver<FlowUnitBatchMessage> getBatchClientStream(
+            final StreamObserver<PublishResponse> serviceResponse) {
+        SendDataClientStreamUpdateConsumer streamUpdateConsumer =
+                new SendDataClientStreamUpdateConsumer(
+                        serviceResponse, startFlowControl(serviceResponse));
+        dataClientStreamList.add(streamUpdateConsumer);
+        return new SendBatchClientStreamUpdateConsumer(streamUpdateConsumer);
+    }
+
     public void terminateUpstreamConnections() {
         for (final SendDataClientStreamUpdateConsumer streamUpdateConsumer : dataClientStreamList) {
             StreamObserver<PublishResponse> responseStream =
@@ -80,10 +148,23 @@ public class PublishRequestHandler {
     protected class SendDataClientStreamUpdateConsumer implements StreamObserver<FlowUnitMessage> {
 
         private final StreamObserver<PublishResponse> serviceResponse;
+
+        /** Asks for the next message of a flow controlled stream, null otherwise. */
+        private final Runnable requestNext;
+
         private boolean isCompleted;
 
-        SendDataClientStreamUpdateConsumer(final StreamObserver<PublishResponse> serviceResponse) {
+        SendDataClientStreamUpdateConsumer(
+                final StreamObserver<PublishResponse> serviceResponse, final Runnable requestNext) {
             this.serviceResponse = serviceResponse;
+            this.requestNext = requestNext;
+        }
+
+        /** Lets a flow controlled stream go on once a message is handled or dropped. */
+        void messageDone() {
+            if (requestNext != null) {
+                requestNext.run();
+            }
         }
 
         public StreamObserver<PublishResponse> getServiceResponse() {
@@ -102,7 +183,10 @@ public class PublishRequestHandler {
                 try {
                     executorService.execute(
                             new FlowUnitRxTask(
-                                    nodeStateManager, receivedFlowUnitStore, flowUnitMessage));
+                                    nodeStateManager,
+                                    receivedFlowUnitStore,
+                                    flowUnitMessage,
+                                    requestNext));
                     ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
                             RcaGraphMetrics.NET_BYTES_IN,
                             flowUnitMessage.getGraphNode(),
@@ -114,7 +198,10 @@ public class PublishRequestHandler {
                     StatsCollector.instance()
                             .logException(
                                     StatExceptionCode.RCA_NETWORK_THREADPOOL_QUEUE_FULL_ERROR);
+                    messageDone();
                 }
+            } else {
+                messageDone();
             }
         }
 
@@ -144,4 +231,77 @@ public class PublishRequestHandler {
             return PublishResponse.newBuilder().setDataStatus(status).build();
         }
     }
+
+    /** Unbatches the flow units a client streams in batches. */
+    protected class SendBatchClientStreamUpdateConsumer
+            implements StreamObserver<FlowUnitBatchMessage> {
+
+        private final SendDataClientStreamUpdateConsumer delegate;
+
+        SendBatchClientStreamUpdateConsumer(final SendDataClientStreamUpdateConsumer delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Persist the flow units of the batch, in one task on the network thread pool.
+         *
+         * @param batch The flow units that the client just streamed to the server.
+         */
+        @Override
+        public void onNext(FlowUnitBatchMessage batch) {
+            final ExecutorService executorService = executorReference.get();
+            if (executorService != null) {
+                try {
+                    executorService.execute(() -> handle(batch));
+                    for (FlowUnitMessage flowUnitMessage : batch.getFlowUnitsList()) {
+                        ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                                RcaGraphMetrics.NET_BYTES_IN,
+                                flowUnitMessage.getGraphNode(),
+                                flowUnitMessage.getSerializedSize());
+                    }
+                } catch (final RejectedExecutionException ree) {
+                    LOG.warn(
+                            "Dropped handling received flow unit batch because the network "
+                                    + "threadpool queue is full");
+                    StatsCollector.instance()
+                            .logException(
+                                    StatExceptionCode.RCA_NETWORK_THREADPOOL_QUEUE_FULL_ERROR);
+                    delegate.messageDone();
+                }
+            } else {
+                delegate.messageDone();
+            }
+        }
+
+        private void handle(FlowUnitBatchMessage batch) {
+            Runnable onDone = null;
+            if (delegate.requestNext != null) {
+                // The stream goes on once all the flow units of the batch are buffered.
+                final AtomicInteger remaining = new AtomicInteger(batch.getFlowUnitsCount());
+                if (remaining.get() == 0) {
+                    delegate.messageDone();
+                }
+                onDone =
+                        () -> {
+                            if (remaining.decrementAndGet() == 0) {
+                                delegate.messageDone();
+                            }
+                        };
+            }
+            for (FlowUnitMessage flowUnitMessage : batch.getFlowUnitsList()) {
+                new FlowUnitRxTask(nodeStateManager, receivedFlowUnitStore, flowUnitMessage, onDone)
+                        .run();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            delegate.onCompleted();
+        }
+    }
 }
@@ -11,7 +11,6 @@ import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
-import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.net.NodeStateManager;
 import org.opensearch.performanceanalyzer.rca.net.ReceivedFlowUnitStore;
 
@@ -28,13 +27,28 @@ public class FlowUnitRxTask implements Runnable {
     /** The flow unit message object to buffer. */
     private final FlowUnitMessage flowUnitMessage;
 
+    /**
+     * Run once the flow unit is buffered or dropped, for the streams that are flow controlled.
+     * Null if the flow unit is dropped when the vertex buffer is full.
+     */
+    private final Runnable onDone;
+
     public FlowUnitRxTask(
             final NodeStateManager nodeStateManager,
             final ReceivedFlowUnitStore receivedFlowUnitStore,
             final FlowUnitMessage flowUnitMessage) {
+        this(nodeStateManager, receivedFlowUnitStore, flowUnitMessage, null);
+    }
+
+    public FlowUnitRxTask(
+            final NodeStateManager nodeStateManager,
+            final ReceivedFlowUnitStore receivedFlowUnitStore,
+            final FlowUnitMessage flowUnitMessage,
+            final Runnable onDone) {
         this.nodeStateManager = nodeStateManager;
         this.receivedFlowUnitStore = receivedFlowUnitStore;
         this.flowUnitMessage = flowUnitMessage;
+        this.onDone = onDone;
     }
 
     /**
@@ -44,12 +58,34 @@ public class FlowUnitRxTask implements Runnable {
      */
     @Override
     public void run() {
-        final InstanceDetails.Id host = new InstanceDetails.Id(flowUnitMessage.getNode());
+        // The host id is used as is, to not parse and allocate an InstanceDetails.Id per flow unit.
+        final String host = flowUnitMessage.getNode();
         final String vertex = flowUnitMessage.getGraphNode();
 
+        final FlowUnitMessage resolved = receivedFlowUnitStore.resolve(flowUnitMessage);
+        if (resolved == null) {
+            // The host sent an unchanged marker, but its last flow unit is not known here. The
+            // receive time is left as is, so the host turns stale and is subscribed to again,
+            // which has it send the next flow unit in full.
+            LOG.debug("rca: [pub-rx]: unresolved unchanged flow unit {} <- {}", vertex, host);
+            ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                    RcaGraphMetrics.RCA_NODES_FU_UNRESOLVED_COUNT, vertex, 1);
+            if (onDone != null) {
+                onDone.run();
+            }
+            return;
+        }
+        if (resolved != flowUnitMessage) {
+            ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                    RcaGraphMetrics.RCA_NODES_FU_REPLAY_COUNT, vertex, 1);
+        }
+
         nodeStateManager.updateReceiveTime(host, vertex, System.currentTimeMillis());
         LOG.debug("rca: [pub-rx]: {} <- {}", vertex, host);
-        if (!receivedFlowUnitStore.enqueue(vertex, flowUnitMessage)) {
+        if (onDone != null) {
+            // A full vertex buffer holds the flow unit, and the stream, until it is drained.
+            receivedFlowUnitStore.enqueue(vertex, resolved, onDone);
+        } else if (!receivedFlowUnitStore.enqueue(vertex, resolved)) {
             LOG.warn(
                     "Dropped a flow unit because the vertex buffer was full for vertex: {}",
                     vertex);
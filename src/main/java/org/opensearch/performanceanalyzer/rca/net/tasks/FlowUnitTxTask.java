@@ -6,28 +6,32 @@
 package org.opensearch.performanceanalyzer.rca.net.tasks;
 
 
-import io.grpc.stub.StreamObserver;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.AppContext;
 import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
-import org.opensearch.performanceanalyzer.grpc.PublishResponse;
-import org.opensearch.performanceanalyzer.grpc.PublishResponse.PublishResponseStatus;
-import org.opensearch.performanceanalyzer.net.NetClient;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.rca.framework.core.GenericFlowUnit;
 import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.messages.DataMsg;
+import org.opensearch.performanceanalyzer.rca.net.FlowUnitBatcher;
+import org.opensearch.performanceanalyzer.rca.net.FlowUnitDeltaTracker;
 import org.opensearch.performanceanalyzer.rca.net.SubscriptionManager;
 
-/** Task that sends a flow unit to a remote host. */
+/**
+ * Task that sends a flow unit to the remote hosts subscribed to it. The flow unit is handed to the
+ * {@link FlowUnitBatcher}, which sends it along with the other flow units for the same host. In
+ * the delta publish mode, a flow unit whose content the host already got is sent as an unchanged
+ * marker, see {@link FlowUnitDeltaTracker}.
+ */
 public class FlowUnitTxTask implements Runnable {
 
     private static final Logger LOG = LogManager.getLogger(FlowUnitTxTask.class);
 
-    /** The client object to make the publish RPC call. */
-    private final NetClient client;
+    /** The batcher coalescing the flow units sent to each host. */
+    private final FlowUnitBatcher batcher;
 
     /** The subscription manager for getting who to send the flow unit to. */
     private final SubscriptionManager subscriptionManager;
@@ -38,11 +42,11 @@ public class FlowUnitTxTask implements Runnable {
     private final AppContext appContext;
 
     public FlowUnitTxTask(
-            final NetClient client,
+            final FlowUnitBatcher batcher,
             final SubscriptionManager subscriptionManager,
             final DataMsg dataMsg,
             final AppContext appContext) {
-        this.client = client;
+        this.batcher = batcher;
         this.subscriptionManager = subscriptionManager;
         this.dataMsg = dataMsg;
         this.appContext = appContext;
@@ -55,6 +59,14 @@ public class FlowUnitTxTask implements Runnable {
      */
     @Override
     public void run() {
+        try {
+            send();
+        } finally {
+            batcher.taskDone();
+        }
+    }
+
+    private void send() {
         final String sourceGraphNode = dataMsg.getSourceGraphNode();
         final InstanceDetails openSearchInstanceDetails = appContext.getMyInstanceDetails();
 
@@ -62,42 +74,37 @@ public class FlowUnitTxTask implements Runnable {
             final Set<InstanceDetails.Id> downstreamHostIds =
                     subscriptionManager.getSubscribersFor(sourceGraphNode);
             LOG.debug("{} has downstream subscribers: {}", sourceGraphNode, downstreamHostIds);
-            for (final InstanceDetails.Id downstreamHostId : downstreamHostIds) {
-                for (final GenericFlowUnit flowUnit : dataMsg.getFlowUnits()) {
+            final FlowUnitDeltaTracker deltaTracker = subscriptionManager.getDeltaTracker();
+            // The last flow unit is tracked per vertex, so only vertices sending one flow unit
+            // at a time are sent as deltas.
+            final boolean delta = deltaTracker.isEnabled() && dataMsg.getFlowUnits().size() == 1;
+            for (final GenericFlowUnit flowUnit : dataMsg.getFlowUnits()) {
+                // The message is the same for all the subscribers, build it once.
+                final FlowUnitMessage flowUnitMessage =
+                        flowUnit.buildFlowUnitMessage(
+                                sourceGraphNode, openSearchInstanceDetails.getInstanceId());
+                FlowUnitMessage content = null;
+                FlowUnitMessage unchangedMarker = null;
+                if (delta) {
+                    content = deltaTracker.content(sourceGraphNode, flowUnitMessage);
+                    unchangedMarker = FlowUnitDeltaTracker.unchangedMarker(flowUnitMessage);
+                }
+                for (final InstanceDetails.Id downstreamHostId : downstreamHostIds) {
                     LOG.debug("rca: [pub-tx]: {} -> {}", sourceGraphNode, downstreamHostId);
-                    client.publish(
-                            appContext.getInstanceById(downstreamHostId),
-                            flowUnit.buildFlowUnitMessage(
-                                    sourceGraphNode, openSearchInstanceDetails.getInstanceId()),
-                            new StreamObserver<PublishResponse>() {
-                                @Override
-                                public void onNext(final PublishResponse value) {
-                                    LOG.debug(
-                                            "rca: Received acknowledgement from the server. status: {}",
-                                            value.getDataStatus());
-                                    if (value.getDataStatus()
-                                            == PublishResponseStatus.NODE_SHUTDOWN) {
-                                        subscriptionManager.unsubscribeAndTerminateConnection(
-                                                sourceGraphNode, downstreamHostId);
-                                        client.flushStream(downstreamHostId);
-                                    }
-                                }
-
-                                @Override
-                                public void onError(final Throwable t) {
-                                    ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
-                                            RcaGraphMetrics.RCA_NETWORK_ERROR, sourceGraphNode, 1);
-                                    LOG.error("rca: Encountered an exception at the server: ", t);
-                                    subscriptionManager.unsubscribeAndTerminateConnection(
-                                            sourceGraphNode, downstreamHostId);
-                                    client.flushStream(downstreamHostId);
-                                }
-
-                                @Override
-                                public void onCompleted() {
-                                    LOG.debug("rca: Server closed the data channel!");
-                                }
-                            });
+                    if (delta
+                            && deltaTracker.isUnchanged(
+                                    sourceGraphNode,
+                                    downstreamHostId,
+                                    content,
+                                    flowUnitMessage.getTimeStamp())) {
+                        batcher.add(downstreamHostId, unchangedMarker);
+                        ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                                RcaGraphMetrics.RCA_NODES_FU_UNCHANGED_PUBLISH_COUNT,
+                                sourceGraphNode,
+                                1);
+                    } else {
+                        batcher.add(downstreamHostId, flowUnitMessage);
+                    }
                     ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
                             RcaGraphMetrics.RCA_NODES_FU_PUBLISH_COUNT, sourceGraphNode, 1);
                 }
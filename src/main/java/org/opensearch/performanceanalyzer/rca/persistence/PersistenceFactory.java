@@ -9,6 +9,9 @@ package org.opensearch.performanceanalyzer.rca.persistence;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
 import org.opensearch.performanceanalyzer.rca.exceptions.MalformedConfig;
 import org.opensearch.performanceanalyzer.rca.framework.core.RcaConf;
 import org.opensearch.performanceanalyzer.rca.framework.util.RcaConsts;
@@ -23,20 +26,81 @@ import org.opensearch.performanceanalyzer.rca.framework.util.RcaConsts;
  * OSS can write an adaptor to their favorite data store.
  */
 public class PersistenceFactory {
+    private static final Logger LOG = LogManager.getLogger(PersistenceFactory.class);
+
+    public static final String WRITE_MODE_CONF_NAME = "rca-persistor-write-mode";
+    public static final String WRITE_MODE_SYNC = "sync";
+    public static final String WRITE_MODE_WRITE_BEHIND = "write-behind";
+    public static final String QUEUE_CAPACITY_CONF_NAME = "rca-persistor-queue-capacity";
+    public static final String QUEUE_FULL_POLICY_CONF_NAME = "rca-persistor-queue-full-policy";
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    // Flow units written in one transaction at most.
+    private static final int MAX_BATCH_SIZE = 256;
+
     public static Persistable create(RcaConf rcaConf)
             throws MalformedConfig, SQLException, IOException {
         Map<String, String> datastore = rcaConf.getDatastore();
         switch (datastore.get(RcaConsts.DATASTORE_TYPE_KEY).toLowerCase()) {
             case "sqlite":
-                return new SQLitePersistor(
-                        datastore.get(RcaConsts.DATASTORE_LOC_KEY),
-                        datastore.get(RcaConsts.DATASTORE_FILENAME),
-                        datastore.get(RcaConsts.DATASTORE_STORAGE_FILE_RETENTION_COUNT),
-                        RcaConsts.DB_FILE_ROTATION_TIME_UNIT,
-                        RcaConsts.ROTATION_PERIOD);
+                SQLitePersistor sqlitePersistor =
+                        new SQLitePersistor(
+                                datastore.get(RcaConsts.DATASTORE_LOC_KEY),
+                                datastore.get(RcaConsts.DATASTORE_FILENAME),
+                                datastore.get(RcaConsts.DATASTORE_STORAGE_FILE_RETENTION_COUNT),
+                                RcaConsts.DB_FILE_ROTATION_TIME_UNIT,
+                                RcaConsts.ROTATION_PERIOD);
+                if (!WRITE_MODE_WRITE_BEHIND.equals(getWriteMode())) {
+                    return sqlitePersistor;
+                }
+                return new WriteBehindPersistor(
+                        sqlitePersistor,
+                        getQueueCapacity(),
+                        MAX_BATCH_SIZE,
+                        getQueueFullPolicy());
             default:
                 String err = "The datastore value can only be sqlite in any case format";
                 throw new MalformedConfig(rcaConf.getConfigFileLoc(), err);
         }
     }
+
+    private static String getWriteMode() {
+        String mode =
+                PluginSettings.instance().getSettingValue(WRITE_MODE_CONF_NAME, WRITE_MODE_SYNC);
+        if (!WRITE_MODE_SYNC.equals(mode) && !WRITE_MODE_WRITE_BEHIND.equals(mode)) {
+            LOG.error("Invalid {}: {}, using {}", WRITE_MODE_CONF_NAME, mode, WRITE_MODE_SYNC);
+            return WRITE_MODE_SYNC;
+        }
+        return mode;
+    }
+
+    private static int getQueueCapacity() {
+        String capacity =
+                PluginSettings.instance()
+                        .getSettingValue(
+                                QUEUE_CAPACITY_CONF_NAME, String.valueOf(DEFAULT_QUEUE_CAPACITY));
+        try {
+            int parsed = Integer.parseInt(capacity);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default.
+        }
+        LOG.error("Invalid {}: {}", QUEUE_CAPACITY_CONF_NAME, capacity);
+        return DEFAULT_QUEUE_CAPACITY;
+    }
+
+    private static WriteBehindPersistor.QueueFullPolicy getQueueFullPolicy() {
+        String policy =
+                PluginSettings.instance()
+                        .getSettingValue(
+                                QUEUE_FULL_POLICY_CONF_NAME,
+                                WriteBehindPersistor.QueueFullPolicy.DROP.name());
+        try {
+            return WriteBehindPersistor.QueueFullPolicy.valueOf(policy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOG.error("Invalid {}: {}", QUEUE_FULL_POLICY_CONF_NAME, policy);
+            return WriteBehindPersistor.QueueFullPolicy.DROP;
+        }
+    }
 }
@@ -198,6 +198,53 @@ public abstract class PersistorBase implements Persistable {
         }
     }
 
+    /**
+     * Persists several flow units in one transaction, so that they share one commit to the DB
+     * file instead of one each.
+     *
+     * <p>Like a single write, the file is rotated if it is past the rotation period. If the
+     * transaction fails, it is rolled back and the batch is written again to a new DB file.
+     *
+     * @param batch The flow units to persist, each with the name of the node that produced it.
+     * @throws SQLException If the batch could not be written to the new DB file either.
+     * @throws IOException If we are unable to delete the old database files.
+     */
+    public synchronized void writeBatch(List<Map.Entry<String, ResourceFlowUnit>> batch)
+            throws SQLException, IOException {
+        rotateRegisterGarbageThenCreateNewDB(RotationType.TRY_ROTATE);
+        try {
+            tryWriteBatch(batch);
+        } catch (SQLException | DataAccessException e) {
+            LOG.info(
+                    "RCA: Fail to write a batch of {} flow units, creating a new DB file and "
+                            + "retrying",
+                    batch.size(),
+                    e);
+            rotateRegisterGarbageThenCreateNewDB(RotationType.FORCE_ROTATE);
+            tryWriteBatch(batch);
+        }
+    }
+
+    private synchronized void tryWriteBatch(List<Map.Entry<String, ResourceFlowUnit>> batch)
+            throws SQLException, DataAccessException {
+        conn.setAutoCommit(false);
+        try {
+            for (Map.Entry<String, ResourceFlowUnit> entry : batch) {
+                tryWriteFlowUnit(entry.getValue(), entry.getKey());
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackException) {
+                LOG.error("RCA: Failed to roll back the batch", rollbackException);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
     public synchronized <T> void write(T obj)
             throws SQLException, IOException, IllegalAccessException, NoSuchMethodException,
                     InvocationTargetException {
@@ -0,0 +1,301 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.persistence;
+
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.JsonElement;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.exception.DataAccessException;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.ResourceFlowUnit;
+import org.opensearch.performanceanalyzer.rca.framework.core.Node;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ExceptionsAndErrors;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaRuntimeMetrics;
+
+/**
+ * Persists flow units in the background. The graph nodes only queue their flow units, and a single
+ * writer thread drains the queue and writes what it took in one transaction, instead of every node
+ * waiting on the persistor lock and on a commit of its own.
+ *
+ * <p>The queue is bounded. When it is full, a flow unit is either dropped right away or, with the
+ * blocking policy, the node waits for room for a bounded time before the flow unit is dropped.
+ *
+ * <p>Only the writer thread takes from the queue, so the flow units are written in the order they
+ * were queued. A read that has flow units still to be written queues a flush marker and waits for
+ * the writer to reach it, so that it sees the same data as with synchronous writes. Objects other
+ * than flow units are written synchronously, after the flow units queued before them.
+ */
+public class WriteBehindPersistor implements Persistable {
+    private static final Logger LOG = LogManager.getLogger(WriteBehindPersistor.class);
+
+    /** What to do with a flow unit when the queue is full. */
+    public enum QueueFullPolicy {
+        DROP,
+        BLOCK
+    }
+
+    // How long a read waits for the flow units queued before it to be written.
+    private static final long FLUSH_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    // How long a node waits for room in the queue with the blocking policy.
+    private static final long BLOCK_TIMEOUT_MILLIS = 500;
+
+    private final PersistorBase delegate;
+    // The flow units and the flush markers, in order. The markers do not take up room.
+    private final BlockingQueue<Map.Entry<String, ResourceFlowUnit>> queue;
+    // The room left for flow units in the queue.
+    private final Semaphore room;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final QueueFullPolicy queueFullPolicy;
+    private final Thread writer;
+
+    // Flow units being queued or queued, and not written yet.
+    private final AtomicInteger unwritten = new AtomicInteger();
+    // Queued on close, the writer stops once it wrote the flow units queued before.
+    private final FlushMarker stopMarker = new FlushMarker();
+    private volatile boolean closed;
+
+    public WriteBehindPersistor(
+            PersistorBase delegate,
+            int queueCapacity,
+            int maxBatchSize,
+            QueueFullPolicy queueFullPolicy) {
+        this.delegate = delegate;
+        this.queue = new LinkedBlockingQueue<>();
+        this.room = new Semaphore(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.queueFullPolicy = queueFullPolicy;
+        this.writer = new Thread(this::runWriter, "rca-persistor-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public <T extends ResourceFlowUnit> void write(Node<?> node, T flowUnit) {
+        if (flowUnit.isEmpty()) {
+            LOG.debug("RCA: Flow unit isEmpty");
+            return;
+        }
+        // Counted before it is queued, so that a read waits for it.
+        unwritten.incrementAndGet();
+        boolean queued;
+        if (closed) {
+            queued = false;
+        } else if (queueFullPolicy == QueueFullPolicy.BLOCK) {
+            try {
+                queued = room.tryAcquire(BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+        } else {
+            queued = room.tryAcquire();
+        }
+        if (queued) {
+            queue.add(new AbstractMap.SimpleImmutableEntry<>(node.name(), flowUnit));
+        } else {
+            unwritten.decrementAndGet();
+            LOG.warn(
+                    "RCA: Dropped the flow unit of {} because the persistor queue is full",
+                    node.name());
+            ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                    RcaRuntimeMetrics.PERSISTOR_DROPPED_FLOW_UNITS, node.name(), 1);
+        }
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.PERSISTOR_QUEUE_DEPTH, getQueueDepth());
+    }
+
+    private void runWriter() {
+        List<Map.Entry<String, ResourceFlowUnit>> taken = new ArrayList<>(maxBatchSize);
+        List<Map.Entry<String, ResourceFlowUnit>> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                taken.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(taken, maxBatchSize - 1);
+            for (Map.Entry<String, ResourceFlowUnit> entry : taken) {
+                if (!(entry instanceof FlushMarker)) {
+                    batch.add(entry);
+                    continue;
+                }
+                // The flow units queued before the marker are written before it is reached.
+                writeBatch(batch);
+                ((FlushMarker) entry).reached.countDown();
+                if (entry == stopMarker) {
+                    releaseFlushMarkers(taken);
+                    return;
+                }
+            }
+            writeBatch(batch);
+            taken.clear();
+        }
+    }
+
+    /** Lets the reads still waiting once the writer stops go on. */
+    private void releaseFlushMarkers(List<Map.Entry<String, ResourceFlowUnit>> taken) {
+        List<Map.Entry<String, ResourceFlowUnit>> left = new ArrayList<>(taken);
+        queue.drainTo(left);
+        for (Map.Entry<String, ResourceFlowUnit> entry : left) {
+            if (entry instanceof FlushMarker) {
+                ((FlushMarker) entry).reached.countDown();
+            }
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<String, ResourceFlowUnit>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final int size = batch.size();
+        // The flow units are out of the queue, make room for the next ones while they are written.
+        room.release(size);
+        long startTime = System.currentTimeMillis();
+        try {
+            delegate.writeBatch(batch);
+        } catch (SQLException | IOException | DataAccessException e) {
+            LOG.error("RCA: Failed to persist a batch of {} flow units", size, e);
+            for (Map.Entry<String, ResourceFlowUnit> entry : batch) {
+                ServiceMetrics.ERRORS_AND_EXCEPTIONS_AGGREGATOR.updateStat(
+                        ExceptionsAndErrors.EXCEPTION_IN_PERSIST, entry.getKey(), 1);
+            }
+        } finally {
+            batch.clear();
+            unwritten.addAndGet(-size);
+        }
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.PERSISTOR_BATCH_SIZE, size);
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.PERSISTOR_BATCH_WRITE_TIME,
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Waits until the flow units queued so far are written. Returns right away if there are none,
+     * else queues a flush marker behind them for the writer thread to reach.
+     */
+    @VisibleForTesting
+    void flush() {
+        if (unwritten.get() == 0 || closed) {
+            return;
+        }
+        FlushMarker marker = new FlushMarker();
+        queue.add(marker);
+        try {
+            if (!marker.reached.await(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("RCA: Timed out waiting for the queued flow units to be persisted");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @VisibleForTesting
+    int getQueueDepth() {
+        return queueCapacity - room.availablePermits();
+    }
+
+    @Override
+    public List<ResourceFlowUnit> read(Node<?> node) {
+        flush();
+        return delegate.read(node);
+    }
+
+    @Override
+    public String read() {
+        flush();
+        return delegate.read();
+    }
+
+    @Override
+    public JsonElement read(String rca) {
+        flush();
+        return delegate.read(rca);
+    }
+
+    @Override
+    public <T> @Nullable T read(Class<T> clz)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException,
+                    InstantiationException, DataAccessException {
+        flush();
+        return delegate.read(clz);
+    }
+
+    @Override
+    public <T, E> @Nullable List<T> readAllForMaxField(
+            Class<T> clz, String fieldName, Class<E> fieldClz)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException,
+                    InstantiationException, DataAccessException {
+        flush();
+        return delegate.readAllForMaxField(clz, fieldName, fieldClz);
+    }
+
+    @Override
+    public <T> void write(@NonNull T object)
+            throws SQLException, IOException, IllegalAccessException, NoSuchMethodException,
+                    InvocationTargetException {
+        flush();
+        delegate.write(object);
+    }
+
+    /** Has the writer thread write the flow units still queued, and closes the DB file. */
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        queue.add(stopMarker);
+        try {
+            writer.join(FLUSH_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    @Override
+    public List<String> getAllPersistedRcas() {
+        flush();
+        return delegate.getAllPersistedRcas();
+    }
+
+    @Override
+    public Map<String, Result<Record>> getRecordsForAllTables() {
+        flush();
+        return delegate.getRecordsForAllTables();
+    }
+
+    /** Queued behind the flow units a read waits for, and reached once they are written. */
+    @SuppressWarnings("serial")
+    private static class FlushMarker
+            extends AbstractMap.SimpleImmutableEntry<String, ResourceFlowUnit> {
+        private final CountDownLatch reached = new CountDownLatch(1);
+
+        FlushMarker() {
+            super(null, null);
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class MetricsDBFileSampler implements ISampler {
     private static final Path targetDirectoryPath;
     private static final DirectoryStream.Filter<Path> metricsdbFilter;
     private static final DirectoryStream.Filter<Path> metricsdbTarFilter;
+    private static final DirectoryStream.Filter<Path> metricsdbPartitionFilter;
     private final AppContext appContext;
 
     static {
@@ -42,11 +43,16 @@ public class MetricsDBFileSampler implements ISampler {
                 "regex:"
                         + metricsdbPrefix.substring(0, metricsdbPrefix.length() - 1)
                         + ".tar.\\d+-\\d+-\\d+-\\d+-\\d+.gz";
+        // Matches the partition files written with partitioned storage
+        // Example: /tmp/metricsdb_p1607650200000
+        String metricsdbPartitionPattern = "regex:" + metricsdbPrefix + "p\\d+";
         PathMatcher metricsdbMatcher = FileSystems.getDefault().getPathMatcher(metricsdbPattern);
         PathMatcher metricsdbTarMatcher =
                 FileSystems.getDefault().getPathMatcher(metricsdbTarPattern);
         metricsdbFilter = metricsdbMatcher::matches;
         metricsdbTarFilter = metricsdbTarMatcher::matches;
+        metricsdbPartitionFilter =
+                FileSystems.getDefault().getPathMatcher(metricsdbPartitionPattern)::matches;
     }
 
     public MetricsDBFileSampler(final AppContext appContext) {
@@ -64,11 +70,17 @@ public class MetricsDBFileSampler implements ISampler {
         try (DirectoryStream<Path> metricsdbStream =
                         Files.newDirectoryStream(targetDirectoryPath, metricsdbFilter);
                 DirectoryStream<Path> metricsdbTarStream =
-                        Files.newDirectoryStream(targetDirectoryPath, metricsdbTarFilter)) {
+                        Files.newDirectoryStream(targetDirectoryPath, metricsdbTarFilter);
+                DirectoryStream<Path> metricsdbPartitionStream =
+                        Files.newDirectoryStream(targetDirectoryPath, metricsdbPartitionFilter)) {
             for (Path entry : metricsdbStream) {
                 sizeUncompressedMetricsdbFiles += Files.size(entry);
                 numUncompressedMetricsdbFiles += 1;
             }
+            for (Path entry : metricsdbPartitionStream) {
+                sizeUncompressedMetricsdbFiles += Files.size(entry);
+                numUncompressedMetricsdbFiles += 1;
+            }
             for (Path entry : metricsdbTarStream) {
                 sizeMetricsdbFiles += Files.size(entry);
                 numMetricsdbFiles += 1;
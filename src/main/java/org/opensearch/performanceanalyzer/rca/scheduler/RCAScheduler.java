@@ -14,19 +14,27 @@ import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.AppContext;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.commons.metrics.MetricsConfiguration;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.rca.framework.core.ConnectedComponent;
 import org.opensearch.performanceanalyzer.rca.framework.core.Queryable;
 import org.opensearch.performanceanalyzer.rca.framework.core.RcaConf;
 import org.opensearch.performanceanalyzer.rca.framework.core.ThresholdMain;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaRuntimeMetrics;
 import org.opensearch.performanceanalyzer.rca.net.WireHopper;
 import org.opensearch.performanceanalyzer.rca.persistence.Persistable;
+import org.opensearch.performanceanalyzer.reader.MetricsDBPublisher;
 
 /**
  * This is the top level class for the RCA Scheduler. This initializes all the required objects such
@@ -36,21 +44,28 @@ import org.opensearch.performanceanalyzer.rca.persistence.Persistable;
  * newScheduledThreadPool takes an instance of RCASchedulerTask which is a wrapper to execute the
  * actual Graph nodes. RCASchedulerTask has its own thread pool which is used to execute the
  * Analysis graph nodes in parallel.
+ *
+ * <p>By default the graph is evaluated every second. With the {@value #SCHEDULER_MODE_ON_PUBLISH}
+ * scheduler mode it is instead evaluated once for every MetricsDB window the reader publishes,
+ * against exactly that window.
  */
 public class RCAScheduler {
 
     private WireHopper net;
     private boolean shutdownRequested;
     private volatile RcaSchedulerState schedulerState = RcaSchedulerState.STATE_NOT_STARTED;
-    private final AllMetrics.NodeRole role;
-    private final AppContext appContext;
+    private volatile AllMetrics.NodeRole role;
+    private volatile AppContext appContext;
 
     private RCASchedulerTask schedulerTask = null;
 
+    /** The rca.conf and AppContext to rebuild the task with before its next run. */
+    private final AtomicReference<Reconfiguration> pendingReconfiguration =
+            new AtomicReference<>();
+
     final ThreadFactory schedThreadFactory;
 
-    // TODO: Fix number of threads based on config.
-    final ThreadFactory taskThreadFactory;
+    final ForkJoinPool.ForkJoinWorkerThreadFactory taskThreadFactory;
 
     ExecutorService rcaSchedulerPeriodicExecutor;
     ScheduledExecutorService scheduledPool;
@@ -62,6 +77,16 @@ public class RCAScheduler {
     Persistable persistable;
     static final int PERIODICITY_SECONDS = 1;
     static final int PERIODICITY_IN_MS = PERIODICITY_SECONDS * 1000;
+    // The ticks after which the scheduler task wraps around its tick count.
+    static final int MAX_TICKS = 10000;
+
+    public static final String WORKER_THREADS_CONF_NAME = "rca-scheduler-worker-threads";
+    public static final int DEFAULT_WORKER_THREADS = 2;
+    public static final int MAX_WORKER_THREADS = 32;
+
+    public static final String SCHEDULER_MODE_CONF_NAME = "rca-scheduler-mode";
+    public static final String SCHEDULER_MODE_PERIODIC = "periodic";
+    public static final String SCHEDULER_MODE_ON_PUBLISH = "metricsdb-publish";
 
     private static final Logger LOG = LogManager.getLogger(RCAScheduler.class);
 
@@ -82,12 +107,14 @@ public class RCAScheduler {
                         .setDaemon(true)
                         .build();
 
-        // TODO: Fix number of threads based on config.
         this.taskThreadFactory =
-                new ThreadFactoryBuilder()
-                        .setNameFormat(instanceId + "-task-%d-")
-                        .setDaemon(true)
-                        .build();
+                pool -> {
+                    ForkJoinWorkerThread thread =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName(instanceId + "-task-" + thread.getPoolIndex() + "-");
+                    thread.setDaemon(true);
+                    return thread;
+                };
 
         this.connectedComponents = connectedComponents;
         this.db = db;
@@ -123,7 +150,7 @@ public class RCAScheduler {
 
         schedulerTask =
                 new RCASchedulerTask(
-                        10000,
+                        MAX_TICKS,
                         rcaSchedulerPeriodicExecutor,
                         connectedComponents,
                         db,
@@ -140,9 +167,18 @@ public class RCAScheduler {
             schedulerTrackingLatch.countDown();
         }
 
+        if (isOnPublishMode()) {
+            runOnPublish();
+        } else {
+            runPeriodically();
+        }
+    }
+
+    private void runPeriodically() {
         while (schedulerState == RcaSchedulerState.STATE_STARTED) {
             try {
                 long startTime = System.currentTimeMillis();
+                applyPendingReconfiguration();
                 schedulerTask.run();
                 long duration = System.currentTimeMillis() - startTime;
                 if (duration < PERIODICITY_IN_MS) {
@@ -158,6 +194,86 @@ public class RCAScheduler {
         }
     }
 
+    /**
+     * Evaluates the graph once per published MetricsDB window. Every run accounts for the seconds
+     * elapsed between the previous window and the current one, so that the evaluation intervals
+     * of the graph nodes map onto windows.
+     */
+    private void runOnPublish() {
+        final int windowTicks = MetricsConfiguration.SAMPLING_INTERVAL / 1000;
+        long lastGeneration = 0;
+        long lastWindowStartTime = 0;
+        while (schedulerState == RcaSchedulerState.STATE_STARTED) {
+            try {
+                // Wake up now and then even if nothing is published, to notice a shutdown.
+                MetricsDBPublisher.Publication publication =
+                        MetricsDBPublisher.instance()
+                                .awaitNewer(lastGeneration, MetricsConfiguration.SAMPLING_INTERVAL);
+                if (publication == null || schedulerState != RcaSchedulerState.STATE_STARTED) {
+                    continue;
+                }
+                // Windows the scheduler missed while busy are accounted for as elapsed ticks.
+                int elapsedTicks = windowTicks;
+                if (lastWindowStartTime != 0) {
+                    long elapsedMillis = publication.getWindowStartTime() - lastWindowStartTime;
+                    elapsedTicks = (int) Math.max(1, elapsedMillis / 1000);
+                }
+                lastGeneration = publication.getGeneration();
+                lastWindowStartTime = publication.getWindowStartTime();
+                applyPendingReconfiguration();
+                schedulerTask.run(publication, elapsedTicks);
+            } catch (InterruptedException ie) {
+                LOG.error("**ERR: Rca scheduler thread sleep interrupted.", ie);
+                shutdown();
+                schedulerState = RcaSchedulerState.STATE_STOPPED_DUE_TO_EXCEPTION;
+            } catch (Exception ex) {
+                LOG.error("**ERR Scheduler failed: ", ex);
+            }
+        }
+    }
+
+    /**
+     * Reconfigures the running graph for a new rca.conf or node role without stopping the
+     * scheduler. The task is rebuilt on the scheduler thread before its next run, keeping the
+     * network connections, the persistence and the state of the graph nodes.
+     *
+     * @param rcaConf The rca.conf for the role of the node.
+     * @param appContext The copy of the AppContext for the scheduler, with the new node role.
+     */
+    public void reconfigure(final RcaConf rcaConf, final AppContext appContext) {
+        this.role = appContext.getMyInstanceDetails().getRole();
+        pendingReconfiguration.set(new Reconfiguration(rcaConf, appContext));
+    }
+
+    /**
+     * Rebuilds the task for a pending reconfiguration. Only the graph nodes get the copy of the
+     * AppContext; the WireHopper keeps the live one, so the network sees nodes join and leave.
+     */
+    @VisibleForTesting
+    void applyPendingReconfiguration() {
+        Reconfiguration reconfiguration = pendingReconfiguration.getAndSet(null);
+        if (reconfiguration == null) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        this.rcaConf = reconfiguration.rcaConf;
+        this.appContext = reconfiguration.appContext;
+        schedulerTask =
+                new RCASchedulerTask(
+                        MAX_TICKS,
+                        rcaSchedulerPeriodicExecutor,
+                        connectedComponents,
+                        db,
+                        persistable,
+                        rcaConf,
+                        net,
+                        appContext,
+                        schedulerTask);
+        ServiceMetrics.RCA_RUNTIME_METRICS_AGGREGATOR.updateStat(
+                RcaRuntimeMetrics.RCA_GRAPH_RECONFIGURE_TIME,
+                System.currentTimeMillis() - startTime);
+    }
+
     /**
      * Signal a shutdown on the scheduled pool first and then to the executor pool. Calling a
      * shutdown on them does not lead to immediate shutdown instead, they stop taking new tasks and
@@ -196,13 +312,35 @@ public class RCAScheduler {
         }
     }
 
+    private static int getWorkerThreads() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(
+                                WORKER_THREADS_CONF_NAME, String.valueOf(DEFAULT_WORKER_THREADS));
+        try {
+            return Math.max(1, Math.min(MAX_WORKER_THREADS, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            LOG.error("Invalid value {} for {}", value, WORKER_THREADS_CONF_NAME);
+            return DEFAULT_WORKER_THREADS;
+        }
+    }
+
+    private static boolean isOnPublishMode() {
+        String mode =
+                PluginSettings.instance()
+                        .getSettingValue(SCHEDULER_MODE_CONF_NAME, SCHEDULER_MODE_PERIODIC);
+        return SCHEDULER_MODE_ON_PUBLISH.equalsIgnoreCase(mode.trim());
+    }
+
     public RcaSchedulerState getState() {
         return this.schedulerState;
     }
 
     private void createExecutorPools() {
         scheduledPool = Executors.newScheduledThreadPool(1, schedThreadFactory);
-        rcaSchedulerPeriodicExecutor = Executors.newFixedThreadPool(2, taskThreadFactory);
+        // Graph vertices are run as a DAG on a work-stealing pool, see TaskletGraphExecutor.
+        rcaSchedulerPeriodicExecutor =
+                new ForkJoinPool(getWorkerThreads(), taskThreadFactory, null, false);
     }
 
     /**
@@ -240,4 +378,14 @@ public class RCAScheduler {
     public AppContext getAppContext() {
         return this.appContext;
     }
+
+    private static class Reconfiguration {
+        private final RcaConf rcaConf;
+        private final AppContext appContext;
+
+        Reconfiguration(RcaConf rcaConf, AppContext appContext) {
+            this.rcaConf = rcaConf;
+            this.appContext = appContext;
+        }
+    }
 }
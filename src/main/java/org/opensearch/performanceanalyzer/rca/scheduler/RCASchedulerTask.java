@@ -12,10 +12,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,6 +33,7 @@ import org.opensearch.performanceanalyzer.rca.framework.util.RcaUtil;
 import org.opensearch.performanceanalyzer.rca.messages.IntentMsg;
 import org.opensearch.performanceanalyzer.rca.net.WireHopper;
 import org.opensearch.performanceanalyzer.rca.persistence.Persistable;
+import org.opensearch.performanceanalyzer.reader.MetricsDBPublisher;
 
 public class RCASchedulerTask implements Runnable {
 
@@ -42,6 +43,9 @@ public class RCASchedulerTask implements Runnable {
     // This is to be used for tests only.
     private Queryable newDb = null;
 
+    /** The Queryable the tasklets read metrics from. */
+    private Queryable db;
+
     /**
      * This is a wrapper class for return type of createTaskletAndSendIntent method. This is
      * required because this method usually returns the tasklet created for a given graphNode.
@@ -71,6 +75,12 @@ public class RCASchedulerTask implements Runnable {
     /** The thread pool to execute the tasklets. */
     private final ExecutorService executorPool;
 
+    /** The network proxy, flushed with the flow units published in each run. */
+    private final WireHopper hopper;
+
+    /** Runs the locally executable tasklets on the executorPool. */
+    private final TaskletGraphExecutor graphExecutor;
+
     /**
      * List of locally executable nodes whose data might be needed by downstream remote nodes. We
      * keep track of such nodes, so that the data can be sent to the network thread (wireHopper) as
@@ -85,6 +95,23 @@ public class RCASchedulerTask implements Runnable {
      */
     private final List<List<Tasklet>> locallyExecutableTasklets;
 
+    /**
+     * The plan of each connected component, kept so that a reconfigured task only plans again the
+     * components whose locally executable nodes changed.
+     */
+    private final Map<ConnectedComponent, ComponentPlan> componentPlans;
+
+    /** The locally executable nodes of a connected component and their levelled tasklets. */
+    private static class ComponentPlan {
+        final Set<Node<?>> localNodes;
+        final List<List<Tasklet>> orderedTasklets;
+
+        ComponentPlan(Set<Node<?>> localNodes, List<List<Tasklet>> orderedTasklets) {
+            this.localNodes = localNodes;
+            this.orderedTasklets = orderedTasklets;
+        }
+    }
+
     // TODO: Q/ : maybe the max Ticks should be determined by what the max periodicity the user has
     // specified for a
     //  graph node? If this periodicity is lower than that, then some nodes may never get executed.
@@ -101,30 +128,129 @@ public class RCASchedulerTask implements Runnable {
             final RcaConf conf,
             final WireHopper hopper,
             final AppContext appContext) {
+        this(
+                maxTicks,
+                executorPool,
+                connectedComponents,
+                db,
+                persistable,
+                conf,
+                hopper,
+                appContext,
+                null);
+    }
+
+    /**
+     * Creates the task for a new rca.conf or node role, from the task running the same graph. The
+     * nodes read the new rca.conf in place. A connected component whose locally executable nodes
+     * are the same keeps its tasklets, and with them their ticks, and only the other components
+     * are planned again, sending intents for their new remote upstreams.
+     *
+     * @param previous the task being replaced, null to plan every component.
+     */
+    public RCASchedulerTask(
+            int maxTicks,
+            final ExecutorService executorPool,
+            final List<ConnectedComponent> connectedComponents,
+            final Queryable db,
+            final Persistable persistable,
+            final RcaConf conf,
+            final WireHopper hopper,
+            final AppContext appContext,
+            final RCASchedulerTask previous) {
         this.maxTicks = maxTicks;
         this.executorPool = executorPool;
-        this.remotelyDesirableNodeSet = new HashMap<>();
-        Map<Node<?>, Tasklet> nodeTaskletMap = new HashMap<>();
+        this.hopper = hopper;
+        this.db = db;
+        this.remotelyDesirableNodeSet =
+                previous == null ? new HashMap<>() : previous.remotelyDesirableNodeSet;
+        this.componentPlans = new IdentityHashMap<>();
+        if (previous != null) {
+            this.currTick = previous.currTick;
+        }
 
+        int replanned = 0;
         List<List<Tasklet>> dependencyOrderedLocallyExecutables = Collections.emptyList();
         for (ConnectedComponent component : connectedComponents) {
-            List<List<Tasklet>> orderedTasklets =
-                    getLocallyExecutableNodes(
-                            component.getAllNodesByDependencyOrder(),
-                            conf,
-                            hopper,
-                            db,
-                            persistable,
-                            nodeTaskletMap,
-                            appContext);
-
-            // Merge the list across connected components.
+            List<List<Node<?>>> orderedNodes = component.getAllNodesByDependencyOrder();
+            Set<Node<?>> localNodes = getLocalNodes(orderedNodes, conf);
+            ComponentPlan plan = previous == null ? null : previous.componentPlans.get(component);
+            if (plan != null && plan.localNodes.equals(localNodes)) {
+                reapplyConf(plan, orderedNodes, conf, db, appContext);
+            } else {
+                if (plan != null) {
+                    // The remote downstreams of this component are found again while planning.
+                    orderedNodes.forEach(level -> level.forEach(remotelyDesirableNodeSet::remove));
+                }
+                plan =
+                        new ComponentPlan(
+                                localNodes,
+                                getLocallyExecutableNodes(
+                                        orderedNodes,
+                                        conf,
+                                        hopper,
+                                        db,
+                                        persistable,
+                                        new HashMap<>(),
+                                        appContext));
+                replanned++;
+            }
+            componentPlans.put(component, plan);
+
+            // Merge the list across connected components. The plans are kept, so merge copies.
             dependencyOrderedLocallyExecutables =
-                    mergeLists(orderedTasklets, dependencyOrderedLocallyExecutables);
+                    mergeLists(
+                            copyLevels(plan.orderedTasklets), dependencyOrderedLocallyExecutables);
         }
         this.locallyExecutableTasklets =
                 Collections.unmodifiableList(dependencyOrderedLocallyExecutables);
+        this.graphExecutor = new TaskletGraphExecutor(executorPool, locallyExecutableTasklets);
         LOG.debug("rca: locally executable tasklet size: {}", locallyExecutableTasklets.size());
+        if (previous != null) {
+            LOG.info(
+                    "rca: reconfigured the graph, planned {} of {} connected components again",
+                    replanned,
+                    connectedComponents.size());
+        }
+    }
+
+    private static Set<Node<?>> getLocalNodes(
+            final List<List<Node<?>>> orderedNodes, final RcaConf conf) {
+        Set<Node<?>> localNodes = new HashSet<>();
+        for (List<Node<?>> levelNodes : orderedNodes) {
+            for (Node<?> node : levelNodes) {
+                if (RcaUtil.shouldExecuteLocally(node, conf)) {
+                    localNodes.add(node);
+                }
+            }
+        }
+        return localNodes;
+    }
+
+    /** Hands the new rca.conf and AppContext to the nodes of a component that is not planned. */
+    private static void reapplyConf(
+            final ComponentPlan plan,
+            final List<List<Node<?>>> orderedNodes,
+            final RcaConf conf,
+            final Queryable db,
+            final AppContext appContext) {
+        for (List<Node<?>> levelNodes : orderedNodes) {
+            for (Node<?> node : levelNodes) {
+                node.setAppContext(appContext);
+                if (plan.localNodes.contains(node)) {
+                    node.readRcaConf(conf);
+                }
+            }
+        }
+        plan.orderedTasklets.forEach(level -> level.forEach(tasklet -> tasklet.setDb(db)));
+    }
+
+    private static List<List<Tasklet>> copyLevels(final List<List<Tasklet>> orderedTasklets) {
+        List<List<Tasklet>> copy = new ArrayList<>(orderedTasklets.size());
+        for (List<Tasklet> level : orderedTasklets) {
+            copy.add(new ArrayList<>(level));
+        }
+        return copy;
     }
 
     /**
@@ -373,16 +499,37 @@ public class RCASchedulerTask implements Runnable {
     }
 
     public void run() {
-        currTick = currTick + 1;
+        run(1);
+    }
+
+    /**
+     * Evaluates the graph against exactly the given published window. The run accounts for all
+     * the ticks elapsed since the previous window, so nodes are evaluated at the same intervals as
+     * with one run per tick.
+     *
+     * @param publication The published MetricsDB window.
+     * @param elapsedTicks The number of ticks, in seconds, since the previous run.
+     */
+    public void run(MetricsDBPublisher.Publication publication, int elapsedTicks) {
+        changeDbForTasklets();
+        db.useMetricsDB(publication.getWindowStartTime(), publication.getMetricsDB());
+        run(elapsedTicks);
+    }
+
+    private void run(int elapsedTicks) {
+        currTick = currTick + elapsedTicks;
         long runStartTime = System.currentTimeMillis();
 
         SampleAggregator test = ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR;
         test.updateStat(RcaGraphMetrics.NUM_GRAPH_NODES, Stats.getInstance().getTotalNodesCount());
 
         changeDbForTasklets();
-        List<CompletableFuture<Void>> lastLevelTasks = createAsyncTasks();
+        TaskletGraphExecutor.Run graphRun = graphExecutor.start(elapsedTicks);
         preWait();
-        lastLevelTasks.forEach(CompletableFuture::join);
+        graphRun.await();
+        if (hopper != null) {
+            hopper.flush();
+        }
         postCompletion(runStartTime);
     }
 
@@ -400,6 +547,7 @@ public class RCASchedulerTask implements Runnable {
                     tasklet.setDb(newDb);
                 }
             }
+            db = newDb;
             // We change the newDB back to null, so that we don't go over the loop unless the
             // metricsDB
             // is changed again.
@@ -407,25 +555,10 @@ public class RCASchedulerTask implements Runnable {
         }
     }
 
-    protected List<CompletableFuture<Void>> createAsyncTasks() {
-        Map<Tasklet, CompletableFuture<Void>> taskletFutureMap = new HashMap<>();
-        List<CompletableFuture<Void>> lastLevel = new ArrayList<>();
-        for (List<Tasklet> taskletsAtThisLevel : locallyExecutableTasklets) {
-            lastLevel.clear();
-            for (Tasklet tasklet : taskletsAtThisLevel) {
-                CompletableFuture<Void> taskletFuture =
-                        tasklet.execute(executorPool, taskletFutureMap);
-                lastLevel.add(taskletFuture);
-                taskletFutureMap.put(tasklet, taskletFuture);
-            }
-        }
-        return lastLevel;
-    }
-
     protected void preWait() {}
 
     protected void postCompletion(long runStartTime) {
-        if (currTick == maxTicks) {
+        if (currTick >= maxTicks) {
             currTick = 0;
             locallyExecutableTasklets.forEach(l -> l.forEach(Tasklet::resetTicks));
             LOG.debug("Finished ticking.");
@@ -444,4 +577,9 @@ public class RCASchedulerTask implements Runnable {
     public void setNewDb(Queryable newDb) {
         this.newDb = newDb;
     }
+
+    @VisibleForTesting
+    List<List<Tasklet>> getLocallyExecutableTasklets() {
+        return locallyExecutableTasklets;
+    }
 }
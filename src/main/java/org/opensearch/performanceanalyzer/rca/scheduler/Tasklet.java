@@ -85,12 +85,20 @@ public class Tasklet {
     public CompletableFuture<Void> execute(
             ExecutorService executorPool,
             Map<Tasklet, CompletableFuture<Void>> taskletToFutureMap) {
-        ticks += 1;
-        if (ticks % node.getEvaluationIntervalSeconds() != 0) {
-            // If its not time to run this tasklet, return an isEmpty flowUnit.
-            node.setEmptyFlowUnitList();
-            node.setEmptyLocalFlowUnit();
-            return CompletableFuture.supplyAsync(() -> null);
+        return execute(executorPool, taskletToFutureMap, 1);
+    }
+
+    /**
+     * Executes the node if its evaluation interval elapsed within the last elapsedTicks ticks. A
+     * tick is a second, when the scheduler runs once per MetricsDB window a run covers all the
+     * seconds of the window, and a node is evaluated at most once per run.
+     */
+    public CompletableFuture<Void> execute(
+            ExecutorService executorPool,
+            Map<Tasklet, CompletableFuture<Void>> taskletToFutureMap,
+            int elapsedTicks) {
+        if (!advanceTicks(elapsedTicks)) {
+            return CompletableFuture.completedFuture(null);
         }
 
         // Create a list of the Futures that corresponds to my predecessor nodes.
@@ -105,17 +113,41 @@ public class Tasklet {
 
         // Now execute me and send the response to remote if there are subscribers.
         CompletableFuture<Void> retCompletableFuture =
-                completedPredecessorTasks.thenAcceptAsync(
-                        a -> {
-                            exec.accept(
-                                    new FlowUnitOperationArgWrapper(node, db, persistable, hopper));
-                            sendToRemote();
-                        },
-                        executorPool);
+                completedPredecessorTasks.thenAcceptAsync(a -> run(), executorPool);
         LOG.debug("RCA: Finished creating executable future for tasklet: {}", node.name());
         return retCompletableFuture;
     }
 
+    /**
+     * Advances the ticks of the tasklet by elapsedTicks and tells whether the node is due for
+     * evaluation. A node that is not due gets empty flow units for this run.
+     *
+     * @param elapsedTicks The number of ticks since the last call.
+     * @return true if the node has to be evaluated in this run.
+     */
+    boolean advanceTicks(int elapsedTicks) {
+        int previousTicks = ticks;
+        ticks += elapsedTicks;
+        long interval = node.getEvaluationIntervalSeconds();
+        if (ticks / interval == previousTicks / interval) {
+            // If its not time to run this tasklet, return an isEmpty flowUnit.
+            node.setEmptyFlowUnitList();
+            node.setEmptyLocalFlowUnit();
+            return false;
+        }
+        return true;
+    }
+
+    /** Evaluates the node and sends the result to remote subscribers, if there are any. */
+    void run() {
+        exec.accept(new FlowUnitOperationArgWrapper(node, db, persistable, hopper));
+        sendToRemote();
+    }
+
+    List<Tasklet> getPredecessors() {
+        return predecessors;
+    }
+
     private void sendToRemote() {
         if (remotelyDesirableNodeSet.containsKey(node)) {
             LOG.debug("Publishing to subscribers: {}", node.name());
@@ -0,0 +1,279 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.scheduler;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.RcaGraphMetrics;
+
+/**
+ * Executes the tasklets of the graph as a DAG: a tasklet is handed to a worker as soon as all its
+ * predecessors completed, instead of chaining futures level by level.
+ *
+ * <p>Tasklets that are not due in a run are not submitted at all. When several tasklets become
+ * ready at once, the ones on the longest remaining path of the graph go first: the worker that
+ * completed their predecessor runs the most critical one itself and queues the others. On a
+ * {@link ForkJoinPool}, those are pushed onto the worker's own deque so that idle workers steal
+ * them. The length of a path is estimated from the run times observed in the previous runs.
+ *
+ * <p>The time each tasklet waited for a worker and the time it ran are reported per node to
+ * {@link RcaGraphMetrics}.
+ */
+class TaskletGraphExecutor {
+    private static final Logger LOG = LogManager.getLogger(TaskletGraphExecutor.class);
+
+    // Weight of the latest run time in the moving average of a vertex's run time.
+    private static final double RUN_TIME_SMOOTHING = 0.3;
+
+    private final ExecutorService executor;
+    private final List<Vertex> vertices;
+
+    /**
+     * @param executor The pool the tasklets run on.
+     * @param levels The tasklets ordered by level, the predecessors of a tasklet are in the lower
+     *     levels.
+     */
+    TaskletGraphExecutor(ExecutorService executor, List<List<Tasklet>> levels) {
+        this.executor = executor;
+        this.vertices = new ArrayList<>();
+        Map<Tasklet, Vertex> vertexByTasklet = new HashMap<>();
+        for (List<Tasklet> level : levels) {
+            for (Tasklet tasklet : level) {
+                Vertex vertex = new Vertex(vertices.size(), tasklet);
+                vertices.add(vertex);
+                vertexByTasklet.put(tasklet, vertex);
+            }
+        }
+        for (Vertex vertex : vertices) {
+            for (Tasklet predecessor : vertex.tasklet.getPredecessors()) {
+                Vertex upstream = vertexByTasklet.get(predecessor);
+                if (upstream != null) {
+                    upstream.successors.add(vertex);
+                    vertex.predecessors.add(upstream);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a run of the graph. The due tasklets are submitted before this returns.
+     *
+     * @param elapsedTicks The ticks elapsed since the previous run.
+     * @return The run, to wait for its completion.
+     */
+    Run start(int elapsedTicks) {
+        Run run = new Run();
+        for (Vertex vertex : vertices) {
+            run.due[vertex.id] = vertex.tasklet.advanceTicks(elapsedTicks);
+        }
+        List<Vertex> roots = new ArrayList<>();
+        int dueCount = 0;
+        for (Vertex vertex : vertices) {
+            if (!run.due[vertex.id]) {
+                continue;
+            }
+            dueCount++;
+            int duePredecessors = 0;
+            for (Vertex predecessor : vertex.predecessors) {
+                if (run.due[predecessor.id]) {
+                    duePredecessors++;
+                }
+            }
+            run.pending[vertex.id] = new AtomicInteger(duePredecessors);
+            if (duePredecessors == 0) {
+                roots.add(vertex);
+            }
+        }
+        updatePriorities(run);
+        run.remaining.set(dueCount);
+        if (dueCount == 0) {
+            run.done.countDown();
+            return run;
+        }
+        // External submissions are taken in order, the most critical roots go first.
+        roots.sort(run.byPriority.reversed());
+        long now = System.nanoTime();
+        for (Vertex root : roots) {
+            run.readyNanos[root.id] = now;
+            submit(run, root);
+        }
+        return run;
+    }
+
+    /**
+     * Computes the length of the longest path from each due vertex to the end of the graph, going
+     * over the vertices in reverse topological order.
+     */
+    private void updatePriorities(Run run) {
+        for (int i = vertices.size() - 1; i >= 0; i--) {
+            Vertex vertex = vertices.get(i);
+            if (!run.due[vertex.id]) {
+                continue;
+            }
+            double longestSuccessor = 0;
+            for (Vertex successor : vertex.successors) {
+                if (run.due[successor.id]) {
+                    longestSuccessor = Math.max(longestSuccessor, run.priority[successor.id]);
+                }
+            }
+            run.priority[vertex.id] = vertex.runTimeNanos + longestSuccessor;
+        }
+    }
+
+    private void submit(Run run, Vertex vertex) {
+        Runnable task = () -> execute(run, vertex);
+        try {
+            if (executor instanceof ForkJoinPool && ForkJoinTask.getPool() == executor) {
+                ForkJoinTask.adapt(task).fork();
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            LOG.error(
+                    "RCA: Unable to submit tasklet for node: {}", vertex.tasklet.getNode().name());
+            run.abort(e);
+        }
+    }
+
+    /**
+     * Runs the vertex and then, as long as completing a vertex makes others ready, the most
+     * critical of the ready ones.
+     */
+    private void execute(Run run, Vertex vertex) {
+        while (vertex != null) {
+            long startNanos = System.nanoTime();
+            String nodeName = vertex.tasklet.getNode().name();
+            boolean succeeded = !run.failed[vertex.id];
+            if (succeeded) {
+                ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                        RcaGraphMetrics.GRAPH_NODE_QUEUE_WAIT,
+                        nodeName,
+                        toMillis(startNanos - run.readyNanos[vertex.id]));
+                try {
+                    vertex.tasklet.run();
+                } catch (Throwable t) {
+                    LOG.error("RCA: Tasklet for node {} failed", nodeName, t);
+                    run.fail(t);
+                    succeeded = false;
+                }
+                long runNanos = System.nanoTime() - startNanos;
+                vertex.runTimeNanos += RUN_TIME_SMOOTHING * (runNanos - vertex.runTimeNanos);
+                ServiceMetrics.RCA_GRAPH_METRICS_AGGREGATOR.updateStat(
+                        RcaGraphMetrics.GRAPH_NODE_RUN_TIME, nodeName, toMillis(runNanos));
+            }
+
+            List<Vertex> ready = new ArrayList<>();
+            for (Vertex successor : vertex.successors) {
+                if (!run.due[successor.id]) {
+                    continue;
+                }
+                if (!succeeded) {
+                    // Like a failed upstream future, a failed vertex fails its downstream ones.
+                    run.failed[successor.id] = true;
+                }
+                if (run.pending[successor.id].decrementAndGet() == 0) {
+                    ready.add(successor);
+                }
+            }
+            Vertex next = null;
+            if (!ready.isEmpty()) {
+                ready.sort(run.byPriority);
+                next = ready.remove(ready.size() - 1);
+                long now = System.nanoTime();
+                run.readyNanos[next.id] = now;
+                // The least critical is pushed first so that the worker takes the most critical
+                // one back first.
+                for (Vertex other : ready) {
+                    run.readyNanos[other.id] = now;
+                    submit(run, other);
+                }
+            }
+            if (run.remaining.decrementAndGet() == 0) {
+                run.done.countDown();
+            }
+            vertex = next;
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** A tasklet and its position in the graph. */
+    private static class Vertex {
+        private final int id;
+        private final Tasklet tasklet;
+        private final List<Vertex> predecessors = new ArrayList<>();
+        private final List<Vertex> successors = new ArrayList<>();
+        // Moving average of the run time. It is only updated by the worker running the vertex
+        // and read by the next run, which starts after this one completed.
+        private double runTimeNanos = 1;
+
+        Vertex(int id, Tasklet tasklet) {
+            this.id = id;
+            this.tasklet = tasklet;
+        }
+    }
+
+    /** The state of one run of the graph. */
+    class Run {
+        private final boolean[] due = new boolean[vertices.size()];
+        private final boolean[] failed = new boolean[vertices.size()];
+        private final AtomicInteger[] pending = new AtomicInteger[vertices.size()];
+        private final double[] priority = new double[vertices.size()];
+        private final long[] readyNanos = new long[vertices.size()];
+        private final AtomicInteger remaining = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final Comparator<Vertex> byPriority =
+                Comparator.<Vertex>comparingDouble(v -> priority[v.id])
+                        .thenComparingInt(v -> -v.id);
+
+        private void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+
+        private void abort(Throwable t) {
+            fail(t);
+            done.countDown();
+        }
+
+        /**
+         * Waits for all the due tasklets to complete.
+         *
+         * @throws CompletionException if a tasklet failed, the tasklets downstream of it are not
+         *     run
+         */
+        void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            Throwable t = failure.get();
+            if (t != null) {
+                throw new CompletionException(t);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.jooq.impl.DSL;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
 import org.opensearch.performanceanalyzer.rca.framework.api.Metric;
 import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.MetricFlowUnit;
+import org.opensearch.performanceanalyzer.rca.framework.core.MetricQueryKey;
 import org.opensearch.performanceanalyzer.rca.framework.core.Queryable;
 
 /**
@@ -97,6 +98,17 @@ public class AggregateMetric extends Metric {
         return getAggDimension(numDimension, this.aggregateFunction);
     }
 
+    /**
+     * Identifies the query this metric runs. Metrics with equal keys share one query result per
+     * MetricsDB. Subclasses may build their own query, so the class is part of the aggregation.
+     */
+    protected MetricQueryKey getQueryKey() {
+        return new MetricQueryKey(
+                tableName,
+                groupByFieldsName,
+                getClass().getName() + ":" + aggregateFunction + "(" + metricsDBAggrColumn + ")");
+    }
+
     @Override
     public MetricFlowUnit gather(final Queryable queryable) {
         LOG.debug("Metric: Trying to gather metrics for {}", tableName);
@@ -111,8 +123,16 @@ public class AggregateMetric extends Metric {
             selectFieldsList = getSelectFieldsList(groupByFieldsList, aggDimension);
 
             result =
-                    createDslAndFetch(
-                            context, tableName, aggDimension, groupByFieldsList, selectFieldsList);
+                    queryable.queryMetrics(
+                            db,
+                            getQueryKey(),
+                            () ->
+                                    createDslAndFetch(
+                                            context,
+                                            tableName,
+                                            aggDimension,
+                                            groupByFieldsList,
+                                            selectFieldsList));
         } catch (Exception e) {
             // TODO: Emit log/stats that gathering failed.
             LOG.error("RCA: Caught an exception while getting the DB {}", e.getMessage());
@@ -7,6 +7,7 @@ package org.opensearch.performanceanalyzer.rca.util;
 
 
 import java.util.List;
+import org.opensearch.performanceanalyzer.rca.framework.util.ClusterMembership;
 import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 
 /** Utility class to get details about the nodes in the cluster. */
@@ -15,4 +16,9 @@ public class ClusterUtils {
             final InstanceDetails.Id hostId, final List<InstanceDetails> clusterInstances) {
         return clusterInstances.stream().anyMatch(x -> hostId.equals(x.getInstanceId()));
     }
+
+    public static boolean isHostIdInCluster(
+            final InstanceDetails.Id hostId, final ClusterMembership membership) {
+        return membership.contains(hostId);
+    }
 }
@@ -8,16 +8,17 @@ package org.opensearch.performanceanalyzer.reader;
 
 import java.sql.Connection;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 
-public class AdmissionControlProcessor implements EventProcessor {
+public class AdmissionControlProcessor implements KeyRoutedEventProcessor {
 
     private AdmissionControlSnapshot admissionControlSnapshot;
     private BatchBindStep handle;
@@ -92,6 +93,11 @@ public class AdmissionControlProcessor implements EventProcessor {
                 : ((Number) rejectionCountObject).longValue();
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sAdmissionControlMetricsPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sAdmissionControlMetricsPath);
@@ -8,6 +8,7 @@ package org.opensearch.performanceanalyzer.reader;
 
 import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -19,17 +20,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 import org.opensearch.performanceanalyzer.config.overrides.ConfigOverridesApplier;
 import org.opensearch.performanceanalyzer.rca.RcaControllerHelper;
+import org.opensearch.performanceanalyzer.rca.framework.util.ClusterMembership;
 
-public class ClusterDetailsEventProcessor implements EventProcessor {
+public class ClusterDetailsEventProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG = LogManager.getLogger(ClusterDetailsEventProcessor.class);
-    /** keep a volatile immutable list to make the read/write to this list thread safe. */
-    private volatile ImmutableList<NodeDetails> nodesDetails = null;
+    /**
+     * Keep a volatile immutable snapshot to make the read/write of the node details thread safe. A
+     * new snapshot is published for every change.
+     */
+    private volatile ClusterMembership membership = ClusterMembership.EMPTY;
 
     private final ConfigOverridesApplier overridesApplier;
 
@@ -42,12 +46,12 @@ public class ClusterDetailsEventProcessor implements EventProcessor {
     }
 
     public ClusterDetailsEventProcessor(final ClusterDetailsEventProcessor other) {
-        if (other.nodesDetails != null) {
+        if (other.membership != ClusterMembership.EMPTY) {
             ImmutableList.Builder builder = new ImmutableList.Builder<NodeDetails>();
-            for (final NodeDetails oldDetails : other.nodesDetails) {
+            for (final NodeDetails oldDetails : other.membership.getNodesDetails()) {
                 builder.add(new NodeDetails(oldDetails));
             }
-            this.nodesDetails = builder.build();
+            this.membership = new ClusterMembership(other.membership.getVersion(), builder.build());
             this.overridesApplier = other.getOverridesApplier();
         } else {
             this.overridesApplier = new ConfigOverridesApplier();
@@ -107,6 +111,11 @@ public class ClusterDetailsEventProcessor implements EventProcessor {
         setNodesDetails(tmpNodesDetails);
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sNodesPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sNodesPath);
@@ -116,15 +125,15 @@ public class ClusterDetailsEventProcessor implements EventProcessor {
     public void commitBatchIfRequired() {}
 
     public void setNodesDetails(final List<NodeDetails> nodesDetails) {
-        this.nodesDetails = ImmutableList.copyOf(nodesDetails);
+        this.membership = new ClusterMembership(membership.getVersion() + 1, nodesDetails);
     }
 
     public List<NodeDetails> getNodesDetails() {
-        if (nodesDetails != null) {
-            return nodesDetails.asList();
-        } else {
-            return Collections.emptyList();
-        }
+        return membership.getNodesDetails();
+    }
+
+    public ClusterMembership getMembership() {
+        return membership;
     }
 
     public ConfigOverridesApplier getOverridesApplier() {
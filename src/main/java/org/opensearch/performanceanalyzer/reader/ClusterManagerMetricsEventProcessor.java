@@ -8,17 +8,18 @@ package org.opensearch.performanceanalyzer.reader;
 
 import java.io.File;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 
-public class ClusterManagerMetricsEventProcessor implements EventProcessor {
+public class ClusterManagerMetricsEventProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG =
             LogManager.getLogger(ClusterManagerMetricsEventProcessor.class);
     private ClusterManagerEventMetricsSnapshot clusterManagerSnap;
@@ -78,6 +79,11 @@ public class ClusterManagerMetricsEventProcessor implements EventProcessor {
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sClusterManagerTaskPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sClusterManagerTaskPath);
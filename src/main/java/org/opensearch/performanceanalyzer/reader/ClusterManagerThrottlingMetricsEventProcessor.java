@@ -10,6 +10,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -17,11 +19,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 
-public class ClusterManagerThrottlingMetricsEventProcessor implements EventProcessor {
+public class ClusterManagerThrottlingMetricsEventProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG =
             LogManager.getLogger(ClusterManagerThrottlingMetricsEventProcessor.class);
     private final ClusterManagerThrottlingMetricsSnapshot clusterManagerThrottlingMetricsSnapshot;
@@ -99,6 +100,12 @@ public class ClusterManagerThrottlingMetricsEventProcessor implements EventProce
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(
+                PerformanceAnalyzerMetrics.sClusterManagerThrottledTasksPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sClusterManagerThrottledTasksPath);
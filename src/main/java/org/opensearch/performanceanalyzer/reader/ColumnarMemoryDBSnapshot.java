@@ -0,0 +1,369 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+
+/**
+ * A {@link MemoryDBSnapshot} that keeps its rows in the JVM instead of a table of the in-memory
+ * SQLite database. Dimension columns are dictionary encoded into int arrays and metric columns are
+ * stored in direct buffers, so creating, filling and dropping a snapshot does not run any DDL.
+ *
+ * <p>Null metric values are stored as NaN. SQLite stores NaN as NULL as well, so aggregations
+ * skip the same values in both backends.
+ */
+public class ColumnarMemoryDBSnapshot extends MemoryDBSnapshot {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NULL_CODE = -1;
+
+    // Detached context used to build jOOQ results. It never touches a connection.
+    private static final DSLContext RESULT_CONTEXT = DSL.using(SQLDialect.SQLITE);
+
+    private final int numDimensions;
+    private final int numMetrics;
+    private final List<String> metadataTableNames;
+
+    private final List<List<String>> dictionaries;
+    private final List<Map<String, Integer>> dictionaryIndexes;
+    private int[][] dimensionCodes;
+    private DoubleBuffer[] metricColumns;
+    private int capacity;
+    private int rowCount;
+
+    public ColumnarMemoryDBSnapshot(
+            Connection conn,
+            AllMetrics.MetricName tableNamePrefix,
+            long windowEndTime,
+            boolean aligned) {
+        super(conn, tableNamePrefix, windowEndTime, aligned, false);
+        this.numDimensions = getDimensions().size();
+        this.numMetrics = getMetrics().size();
+        this.metadataTableNames =
+                MetricPropertiesConfig.getInstance()
+                        .getProperty(tableNamePrefix)
+                        .getMetadataTableNames();
+        this.dictionaries = new ArrayList<>(numDimensions);
+        this.dictionaryIndexes = new ArrayList<>(numDimensions);
+        for (int i = 0; i < numDimensions; i++) {
+            dictionaries.add(new ArrayList<>());
+            dictionaryIndexes.add(new HashMap<>());
+        }
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public ColumnarMemoryDBSnapshot(
+            Connection conn, AllMetrics.MetricName tableNamePrefix, long windowEndTime) {
+        this(conn, tableNamePrefix, windowEndTime, false);
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public void remove() {
+        rowCount = 0;
+        for (int i = 0; i < numDimensions; i++) {
+            dictionaries.get(i).clear();
+            dictionaryIndexes.get(i).clear();
+        }
+        // Drop the references so the direct buffers can be reclaimed.
+        allocate(0);
+    }
+
+    @Override
+    protected boolean dbTableExists() {
+        return false;
+    }
+
+    @Override
+    public RowBatch startRowBatch() {
+        return new RowBatch() {
+            private int pending = 0;
+
+            @Override
+            public void bind(Object... row) {
+                appendRow(row);
+                pending++;
+            }
+
+            @Override
+            public int size() {
+                return pending;
+            }
+
+            @Override
+            public void execute() {
+                // Rows are visible as soon as they are bound.
+                pending = 0;
+            }
+        };
+    }
+
+    @Override
+    public void insertMultiRows(Object[][] values) {
+        if (values == null) {
+            return;
+        }
+        for (Object[] row : values) {
+            appendRow(row);
+        }
+    }
+
+    @Override
+    public Result<Record> fetchAll() {
+        List<Field<?>> fields = new ArrayList<>(numDimensions + numMetrics);
+        fields.addAll(getDimensions());
+        fields.addAll(getMetrics());
+        Field<?>[] fieldArray = fields.toArray(new Field<?>[0]);
+        Result<Record> result = RESULT_CONTEXT.newResult(fieldArray);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] values = new Object[numDimensions + numMetrics];
+            for (int i = 0; i < numDimensions; i++) {
+                values[i] = decode(i, dimensionCodes[i][row]);
+            }
+            for (int j = 0; j < numMetrics; j++) {
+                values[numDimensions + j] = toObject(metricColumns[j].get(row));
+            }
+            Record record = RESULT_CONTEXT.newRecord(fieldArray);
+            record.fromArray(values);
+            result.add(record);
+        }
+        return result;
+    }
+
+    /**
+     * Same semantics as {@link MemoryDBSnapshot#alignWindow}: every metric is the sum of the
+     * time-weighted values of the group divided by the sum of the weights of the group.
+     */
+    @Override
+    public void alignWindow(
+            MemoryDBSnapshot leftWindow, MemoryDBSnapshot rightWindow, long t, long a, long b) {
+        ColumnarMemoryDBSnapshot left = asColumnar(leftWindow);
+        ColumnarMemoryDBSnapshot right = asColumnar(rightWindow);
+
+        Map<List<String>, GroupAccumulator> groups = new LinkedHashMap<>();
+        left.accumulateWeighted(groups, t - a);
+        right.accumulateWeighted(groups, b - t);
+
+        if (groups.isEmpty() && numDimensions == 0) {
+            // An aggregate without GROUP BY yields a single row even over no input.
+            groups.put(new ArrayList<>(), new GroupAccumulator(numMetrics));
+        }
+
+        Object[] row = new Object[numDimensions + numMetrics];
+        for (Map.Entry<List<String>, GroupAccumulator> entry : groups.entrySet()) {
+            List<String> key = entry.getKey();
+            GroupAccumulator acc = entry.getValue();
+            for (int i = 0; i < numDimensions; i++) {
+                row[i] = key.get(i);
+            }
+            for (int j = 0; j < numMetrics; j++) {
+                row[numDimensions + j] =
+                        acc.hasValue[j] && acc.weight != 0 ? acc.sum[j] / acc.weight : null;
+            }
+            appendRow(row);
+        }
+    }
+
+    @Override
+    public Result<Record> fetchAggregatedMetadata(String tableName) {
+        int metricIndex = metadataTableNames.indexOf(tableName);
+        if (metricIndex < 0) {
+            throw new IllegalArgumentException("Unknown metric table " + tableName);
+        }
+        List<Field<?>> fields = new ArrayList<>();
+        for (Field<?> field : getTableSelectFieldsMap().get(tableName)) {
+            if (fields.size() < numDimensions) {
+                fields.add(DSL.field(DSL.name(field.getName()), String.class));
+            } else {
+                fields.add(DSL.field(DSL.name(field.getName()), Double.class));
+            }
+        }
+
+        Field<?>[] fieldArray = fields.toArray(new Field<?>[0]);
+
+        // key: dictionary codes of the dimensions, value: sum, count, min, max
+        Map<List<Integer>, double[]> groups = new LinkedHashMap<>();
+        DoubleBuffer column = metricColumns[metricIndex];
+        for (int row = 0; row < rowCount; row++) {
+            double value = column.get(row);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            List<Integer> key = new ArrayList<>(numDimensions);
+            for (int i = 0; i < numDimensions; i++) {
+                key.add(dimensionCodes[i][row]);
+            }
+            double[] agg = groups.get(key);
+            if (agg == null) {
+                groups.put(key, new double[] {value, 1, value, value});
+            } else {
+                agg[0] += value;
+                agg[1] += 1;
+                agg[2] = Math.min(agg[2], value);
+                agg[3] = Math.max(agg[3], value);
+            }
+        }
+
+        Result<Record> result = RESULT_CONTEXT.newResult(fieldArray);
+        for (Map.Entry<List<Integer>, double[]> entry : groups.entrySet()) {
+            Object[] values = new Object[numDimensions + 4];
+            for (int i = 0; i < numDimensions; i++) {
+                values[i] = decode(i, entry.getKey().get(i));
+            }
+            double[] agg = entry.getValue();
+            values[numDimensions] = agg[0];
+            values[numDimensions + 1] = agg[0] / agg[1];
+            values[numDimensions + 2] = agg[2];
+            values[numDimensions + 3] = agg[3];
+            Record record = RESULT_CONTEXT.newRecord(fieldArray);
+            record.fromArray(values);
+            result.add(record);
+        }
+        return result;
+    }
+
+    private void accumulateWeighted(Map<List<String>, GroupAccumulator> groups, long weight) {
+        for (int row = 0; row < rowCount; row++) {
+            String[] key = new String[numDimensions];
+            for (int i = 0; i < numDimensions; i++) {
+                key[i] = decode(i, dimensionCodes[i][row]);
+            }
+            GroupAccumulator acc =
+                    groups.computeIfAbsent(Arrays.asList(key), k -> new GroupAccumulator(numMetrics));
+            acc.weight += weight;
+            for (int j = 0; j < numMetrics; j++) {
+                double value = metricColumns[j].get(row);
+                if (!Double.isNaN(value)) {
+                    acc.sum[j] += value * weight;
+                    acc.hasValue[j] = true;
+                }
+            }
+        }
+    }
+
+    private void appendRow(Object[] row) {
+        if (row.length != numDimensions + numMetrics) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Expected %d values for %s, got %d",
+                            numDimensions + numMetrics, tableName, row.length));
+        }
+        if (rowCount == capacity) {
+            grow();
+        }
+        for (int i = 0; i < numDimensions; i++) {
+            dimensionCodes[i][rowCount] = encode(i, row[i]);
+        }
+        for (int j = 0; j < numMetrics; j++) {
+            metricColumns[j].put(rowCount, toDouble(row[numDimensions + j]));
+        }
+        rowCount++;
+    }
+
+    private int encode(int dimension, Object value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        String str = value.toString();
+        Map<String, Integer> index = dictionaryIndexes.get(dimension);
+        Integer code = index.get(str);
+        if (code == null) {
+            List<String> dictionary = dictionaries.get(dimension);
+            code = dictionary.size();
+            dictionary.add(str);
+            index.put(str, code);
+        }
+        return code;
+    }
+
+    private String decode(int dimension, int code) {
+        return code == NULL_CODE ? null : dictionaries.get(dimension).get(code);
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static Double toObject(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private void allocate(int newCapacity) {
+        capacity = newCapacity;
+        dimensionCodes = new int[numDimensions][newCapacity];
+        metricColumns = new DoubleBuffer[numMetrics];
+        for (int j = 0; j < numMetrics; j++) {
+            metricColumns[j] = ByteBuffer.allocateDirect(newCapacity * Double.BYTES).asDoubleBuffer();
+        }
+    }
+
+    private void grow() {
+        int[][] oldCodes = dimensionCodes;
+        DoubleBuffer[] oldColumns = metricColumns;
+        int newCapacity = Math.max(INITIAL_CAPACITY, capacity * 2);
+        dimensionCodes = new int[numDimensions][];
+        for (int i = 0; i < numDimensions; i++) {
+            dimensionCodes[i] = Arrays.copyOf(oldCodes[i], newCapacity);
+        }
+        metricColumns = new DoubleBuffer[numMetrics];
+        for (int j = 0; j < numMetrics; j++) {
+            DoubleBuffer column =
+                    ByteBuffer.allocateDirect(newCapacity * Double.BYTES).asDoubleBuffer();
+            DoubleBuffer old = oldColumns[j].duplicate();
+            old.position(0).limit(rowCount);
+            column.put(old);
+            metricColumns[j] = column;
+        }
+        capacity = newCapacity;
+    }
+
+    private static ColumnarMemoryDBSnapshot asColumnar(MemoryDBSnapshot snapshot) {
+        if (!(snapshot instanceof ColumnarMemoryDBSnapshot)) {
+            throw new IllegalArgumentException(
+                    "Cannot align " + snapshot.getTableName() + " with a columnar snapshot");
+        }
+        return (ColumnarMemoryDBSnapshot) snapshot;
+    }
+
+    private static class GroupAccumulator {
+        private final double[] sum;
+        private final boolean[] hasValue;
+        private long weight;
+
+        GroupAccumulator(int numMetrics) {
+            this.sum = new double[numMetrics];
+            this.hasValue = new boolean[numMetrics];
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+
+/**
+ * A reusable view of one event of an event log file, over the bytes of the file. The same view is
+ * moved from event to event by {@link MappedEventLogReader}, so it must not be kept once the
+ * processor returns.
+ *
+ * <p>The key and value are only turned into Strings on request. The value is read line by line
+ * with {@link #nextLine()}, and the numbers of a line are parsed from the bytes.
+ */
+public final class EventView {
+    private static final byte SEPARATOR = (byte) File.separatorChar;
+    private static final byte NEW_LINE = '\n';
+    // The powers of ten that are exact doubles.
+    private static final double[] POWERS_OF_TEN = new double[23];
+    // Integers up to this many digits are exact doubles.
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private ByteBuffer buffer;
+    private int keyStart;
+    private int keyEnd;
+    private int valueStart;
+    private int valueEnd;
+    private long epoch;
+
+    // The current value line.
+    private int lineStart;
+    private int lineEnd;
+
+    void set(
+            ByteBuffer buffer, int keyStart, int keyEnd, int valueStart, int valueEnd, long epoch) {
+        this.buffer = buffer;
+        this.keyStart = keyStart;
+        this.keyEnd = keyEnd;
+        this.valueStart = valueStart;
+        this.valueEnd = valueEnd;
+        this.epoch = epoch;
+        rewind();
+    }
+
+    /** Moves back to before the first line of the value. */
+    void rewind() {
+        lineStart = -1;
+        lineEnd = -1;
+    }
+
+    public int keyLength() {
+        return keyEnd - keyStart;
+    }
+
+    /** Returns the byte at index of the key, the paths of the event keys are ASCII. */
+    public int keyByteAt(int index) {
+        return buffer.get(keyStart + index) & 0xff;
+    }
+
+    public String key() {
+        return string(keyStart, keyEnd);
+    }
+
+    public String value() {
+        return string(valueStart, valueEnd);
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /** Materializes the event, for the processors that only take Strings. */
+    public Event toEvent() {
+        return new Event(key(), value(), epoch);
+    }
+
+    /**
+     * Returns the segment at index of the key split on the file separator, or null if the key has
+     * fewer segments.
+     */
+    public String keySegment(int index) {
+        int start = keyStart;
+        for (int i = 0; i < index; i++) {
+            start = indexOf(SEPARATOR, start, keyEnd);
+            if (start < 0) {
+                return null;
+            }
+            start++;
+        }
+        int end = indexOf(SEPARATOR, start, keyEnd);
+        return string(start, end < 0 ? keyEnd : end);
+    }
+
+    /**
+     * Moves to the next line of the value.
+     *
+     * @return false if there are no more lines
+     */
+    public boolean nextLine() {
+        int start = lineEnd < 0 ? valueStart : lineEnd + 1;
+        if (start >= valueEnd) {
+            return false;
+        }
+        int end = indexOf(NEW_LINE, start, valueEnd);
+        lineStart = start;
+        lineEnd = end < 0 ? valueEnd : end;
+        return true;
+    }
+
+    public int lineStart() {
+        return lineStart;
+    }
+
+    public int lineEnd() {
+        return lineEnd;
+    }
+
+    public byte byteAt(int index) {
+        return buffer.get(index);
+    }
+
+    /** Returns the index of the first b in the current line, or -1. */
+    public int lineIndexOf(byte b) {
+        return indexOf(b, lineStart, lineEnd);
+    }
+
+    /** Whether the bytes from start to end are the ASCII bytes of expected. */
+    public boolean equalsAscii(int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String string(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Parses the bytes from start to end the same way as {@link Long#parseLong(String)}. */
+    public long parseLong(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        // Up to 18 digits cannot overflow.
+        if (i == end || end - i > 18) {
+            return Long.parseLong(string(start, end));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(string(start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the bytes from start to end the same way as {@link Double#parseDouble(String)}. Plain
+     * decimals with few digits are parsed from the bytes, where dividing two exact doubles gives
+     * the correctly rounded value, anything else goes through a String.
+     */
+    public double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_EXACT_DIGITS) {
+                return Double.parseDouble(string(start, end));
+            }
+            mantissa = mantissa * 10 + digit;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(string(start, end));
+        }
+        double value =
+                fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : (double) mantissa;
+        return negative ? -value : value;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
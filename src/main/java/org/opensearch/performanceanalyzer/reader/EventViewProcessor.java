@@ -0,0 +1,24 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+
+/**
+ * A routed event processor that can read an event from the bytes of the event log, without the
+ * key and value Strings of an {@link Event}. Used when the event log is read by {@link
+ * MappedEventLogReader}.
+ */
+public interface EventViewProcessor extends KeyRoutedEventProcessor {
+    /**
+     * Processes the event the view is on. It is processed the same way as the event of {@link
+     * EventView#toEvent()} would be by {@link #processEvent}.
+     *
+     * @param view the event, only valid until this returns
+     */
+    void processEventView(EventView view);
+}
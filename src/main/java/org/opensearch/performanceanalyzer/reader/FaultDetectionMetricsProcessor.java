@@ -8,6 +8,8 @@ package org.opensearch.performanceanalyzer.reader;
 
 import java.io.File;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
@@ -15,12 +17,11 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 
-public class FaultDetectionMetricsProcessor implements EventProcessor {
+public class FaultDetectionMetricsProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG = LogManager.getLogger(FaultDetectionMetricsProcessor.class);
     private FaultDetectionMetricsSnapshot faultDetectionMetricsSnapshot;
     private long startTime;
@@ -83,6 +84,11 @@ public class FaultDetectionMetricsProcessor implements EventProcessor {
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sFaultDetection);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sFaultDetection);
@@ -7,18 +7,19 @@ package org.opensearch.performanceanalyzer.reader;
 
 
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 
-public class GarbageCollectorInfoProcessor implements EventProcessor {
+public class GarbageCollectorInfoProcessor implements KeyRoutedEventProcessor {
 
     private static final Logger LOG = LogManager.getLogger(GarbageCollectorInfoProcessor.class);
 
@@ -92,6 +93,11 @@ public class GarbageCollectorInfoProcessor implements EventProcessor {
         handle.bind(bindVals);
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sGcInfoPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sGcInfoPath);
@@ -0,0 +1,25 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.util.Collection;
+import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
+
+/**
+ * An event processor that takes the events whose key contains one of a fixed set of paths. The
+ * {@link RoutingEventDispatcher} indexes these paths once and routes each event to its processors
+ * without calling {@link #shouldProcessEvent} on every processor.
+ */
+public interface KeyRoutedEventProcessor extends EventProcessor {
+    /**
+     * The paths this processor takes events for. {@link #shouldProcessEvent} must be true exactly
+     * for the events whose key contains one of them.
+     *
+     * @return the paths of the event keys this processor handles
+     */
+    Collection<String> getEventKeyPaths();
+}
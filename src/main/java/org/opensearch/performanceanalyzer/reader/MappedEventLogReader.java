@@ -0,0 +1,134 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.event_process.EventLogFileHandler;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+
+/**
+ * Reads the event log file of a window by memory mapping it, instead of reading it into a String
+ * per line and a key and value String per event as {@link EventLogFileHandler} does. Each event is
+ * handed to the dispatcher as an {@link EventView} over the mapped bytes, the view is reused from
+ * event to event.
+ *
+ * <p>An event in the file is a line with '^' and the key, then the value, then '$' and a new line.
+ *
+ * <p>If the file cannot be mapped, the caller falls back to {@link EventLogFileHandler}.
+ */
+public class MappedEventLogReader {
+    private static final Logger LOG = LogManager.getLogger(MappedEventLogReader.class);
+
+    public static final String EVENT_LOG_MODE_CONF_NAME = "reader-event-log-mode";
+    public static final String BUFFERED_MODE = "buffered";
+    public static final String MAPPED_MODE = "mapped";
+
+    private static final byte START_OF_EVENT = '^';
+    private static final byte END_OF_EVENT = '$';
+    private static final byte NEW_LINE = '\n';
+
+    private final String rootLocation;
+    private final EventView view = new EventView();
+
+    public MappedEventLogReader(String rootLocation) {
+        this.rootLocation = rootLocation;
+    }
+
+    static boolean isMappedEnabled() {
+        String mode =
+                PluginSettings.instance().getSettingValue(EVENT_LOG_MODE_CONF_NAME, BUFFERED_MODE);
+        return MAPPED_MODE.equals(mode.trim());
+    }
+
+    /**
+     * Dispatches the events of the file of the window starting at timestamp.
+     *
+     * @return false if the file could not be mapped and no event was dispatched
+     */
+    public boolean read(long timestamp, RoutingEventDispatcher dispatcher) {
+        Path path = Paths.get(rootLocation, String.valueOf(timestamp));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                LOG.warn("Event log {} is too large to map: {} bytes", path, size);
+                ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                        ReaderMetrics.READER_EVENT_LOG_MAP_FALLBACK, 1);
+                return false;
+            }
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            // A missing file is left to the buffered reader, which reports it.
+            if (Files.exists(path)) {
+                LOG.warn("Unable to map event log {}", path, e);
+                ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                        ReaderMetrics.READER_EVENT_LOG_MAP_FALLBACK, 1);
+            }
+            return false;
+        }
+        dispatch(buffer, timestamp, dispatcher);
+        return true;
+    }
+
+    /** Dispatches the events in the buffer, skipping incomplete events. */
+    void dispatch(ByteBuffer buffer, long epoch, RoutingEventDispatcher dispatcher) {
+        int limit = buffer.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int lineEnd = indexOf(buffer, NEW_LINE, pos, limit);
+            if (lineEnd < 0) {
+                return;
+            }
+            if (buffer.get(pos) != START_OF_EVENT) {
+                // Not the start of an event, skip to the next line.
+                pos = lineEnd + 1;
+                continue;
+            }
+            int valueStart = lineEnd + 1;
+            int valueEnd = findEndOfEvent(buffer, valueStart, limit);
+            if (valueEnd < 0) {
+                LOG.debug("Incomplete event at the end of the event log");
+                return;
+            }
+            view.set(buffer, pos + 1, lineEnd, valueStart, valueEnd, epoch);
+            dispatcher.processEventView(view);
+            pos = Math.min(valueEnd + 2, limit);
+        }
+    }
+
+    /** Returns the index of the '$' that ends the event, at the end of a line or of the file. */
+    private static int findEndOfEvent(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == END_OF_EVENT
+                    && (i + 1 == limit || buffer.get(i + 1) == NEW_LINE)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
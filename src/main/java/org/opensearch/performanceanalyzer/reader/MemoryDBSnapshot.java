@@ -60,6 +60,11 @@ public class MemoryDBSnapshot implements Removable {
 
     private final boolean isAligned;
 
+    // The pool the table is taken from, null if the snapshot owns its table.
+    private final SnapshotTablePool tablePool;
+    private final String tablePoolType;
+    private boolean released = false;
+
     /**
      * @param conn In-memory database connection
      * @param tableNamePrefix db table name prefix
@@ -78,10 +83,21 @@ public class MemoryDBSnapshot implements Removable {
             AllMetrics.MetricName tableNamePrefix,
             long windowEndTime,
             boolean aligned) {
+        this(conn, tableNamePrefix, windowEndTime, aligned, true);
+    }
+
+    /**
+     * @param createTable whether to back this snapshot with a table in the in-memory database.
+     *     Snapshots that keep their rows elsewhere pass false.
+     */
+    protected MemoryDBSnapshot(
+            Connection conn,
+            AllMetrics.MetricName tableNamePrefix,
+            long windowEndTime,
+            boolean aligned,
+            boolean createTable) {
         this.create = DSL.using(conn, SQLDialect.SQLITE);
         this.isAligned = aligned;
-        String tableNameSuffix = aligned ? "_aligned" : "";
-        this.tableName = tableNamePrefix.toString() + windowEndTime + tableNameSuffix;
         lastUpdatedTime = -1;
 
         dimensionNames =
@@ -108,10 +124,25 @@ public class MemoryDBSnapshot implements Removable {
                         .getProperty(tableNamePrefix)
                         .getTableWhereClauseMap();
 
+        // Aligned and unaligned snapshots of a metric have the same columns, they share a pool.
+        this.tablePool = createTable ? SnapshotTablePool.of(conn) : null;
+        this.tablePoolType = tableNamePrefix.toString();
+        if (tablePool != null) {
+            this.tableName = tablePool.acquire(tablePoolType, this::createTable);
+        } else {
+            String tableNameSuffix = aligned ? "_aligned" : "";
+            this.tableName = tableNamePrefix.toString() + windowEndTime + tableNameSuffix;
+            if (createTable) {
+                createTable(tableName);
+            }
+        }
+    }
+
+    private void createTable(String name) {
         // the tables should have columns in order:
         // dimensions columns, metrics columns
-        LOG.debug("Creating a new snapshot table - {}", tableName);
-        create.createTable(this.tableName).columns(dimensionsFields).columns(metadata).execute();
+        LOG.debug("Creating a new snapshot table - {}", name);
+        create.createTable(name).columns(dimensionsFields).columns(metadata).execute();
     }
 
     public MemoryDBSnapshot(
@@ -125,6 +156,15 @@ public class MemoryDBSnapshot implements Removable {
 
     @Override
     public void remove() {
+        if (tablePool != null) {
+            // The table may be taken by another snapshot once it is given back.
+            if (!released) {
+                released = true;
+                LOG.debug("Releasing {}", this.tableName);
+                tablePool.release(tablePoolType, this.tableName);
+            }
+            return;
+        }
         LOG.debug("Dropping {}", this.tableName);
         if (dbTableExists()) {
             create.dropTable(DSL.table(this.tableName)).execute();
@@ -167,6 +207,40 @@ public class MemoryDBSnapshot implements Removable {
         return create.batch(create.insertInto(DSL.table(this.tableName)).values(dummyValues));
     }
 
+    /**
+     * Same as {@link #startBatchPut()}, but hides the storage of the snapshot from the caller. The
+     * returned batch can be reused after {@link RowBatch#execute()}.
+     *
+     * @return a batch whose rows land in this snapshot when executed
+     */
+    public RowBatch startRowBatch() {
+        if (tablePool != null) {
+            return tablePool.newRowBatch(
+                    this.tableName, this.dimensionsFields.size() + this.metadata.size());
+        }
+        return new RowBatch() {
+            private BatchBindStep handle = startBatchPut();
+
+            @Override
+            public void bind(Object... row) {
+                handle.bind(row);
+            }
+
+            @Override
+            public int size() {
+                return handle.size();
+            }
+
+            @Override
+            public void execute() {
+                if (handle.size() > 0) {
+                    handle.execute();
+                }
+                handle = startBatchPut();
+            }
+        };
+    }
+
     public List<Field<String>> getDimensions() {
         return dimensionsFields;
     }
@@ -240,7 +314,7 @@ public class MemoryDBSnapshot implements Removable {
         if (values == null || values.length == 0) {
             return;
         }
-        BatchBindStep batchHandle = startBatchPut();
+        RowBatch batchHandle = startRowBatch();
         for (int i = 0; i < values.length; i++) {
             batchHandle.bind(values[i]);
         }
@@ -276,6 +350,21 @@ public class MemoryDBSnapshot implements Removable {
         return selectFromTable;
     }
 
+    /**
+     * Aggregates one metric column of this snapshot by all dimensions. The result has the columns
+     * listed in getTableSelectFieldsMap().get(tableName).
+     *
+     * @param tableName the on-disk table the aggregated metric is written to
+     * @return sum, avg, min and max of the metric per dimension combination
+     */
+    public Result<Record> fetchAggregatedMetadata(String tableName) {
+        return create.select(tableSelectFieldsMap.get(tableName))
+                .from(this.tableName)
+                .where(tableWhereClauseMap.get(tableName))
+                .groupBy(tableGroupByFieldsMap.get(tableName))
+                .fetch();
+    }
+
     public Map<String, List<Field<?>>> getTableSelectFieldsMap() {
         return tableSelectFieldsMap;
     }
@@ -21,7 +21,6 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jooq.BatchBindStep;
 import org.jooq.Condition;
 import org.jooq.Field;
 import org.jooq.impl.DSL;
@@ -143,7 +142,7 @@ public class MetricProperties {
             MemoryDBSnapshot snap,
             long startTime,
             long lastSnapTimestamp,
-            BatchBindStep batchHandle)
+            RowBatch batchHandle)
             throws IOException {
 
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(file))) {
@@ -205,7 +204,7 @@ public class MetricProperties {
             MemoryDBSnapshot snap,
             long startTime,
             long lastSnapTimestamp,
-            BatchBindStep batchHandle) {
+            RowBatch batchHandle) {
 
         if (event.value.isEmpty()) {
             return false;
@@ -288,7 +287,7 @@ public class MetricProperties {
         return processed;
     }
 
-    boolean processJsonLine(String line, BatchBindStep batchHandle, Object[] templateMetricVals) {
+    boolean processJsonLine(String line, RowBatch batchHandle, Object[] templateMetricVals) {
         Map<String, Object> map = JsonConverter.createMapFrom(line);
 
         if (map.isEmpty()) {
@@ -329,7 +328,7 @@ public class MetricProperties {
         long prevThirtySecondBucket =
                 startTimeThirtySecondBucket - MetricsConfiguration.ROTATION_INTERVAL;
 
-        BatchBindStep handle = snap.startBatchPut();
+        RowBatch handle = snap.startRowBatch();
 
         boolean metricProcessed = false;
 
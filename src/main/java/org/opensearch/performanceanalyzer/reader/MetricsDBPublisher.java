@@ -0,0 +1,88 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+/**
+ * Signals consumers such as the RCA scheduler whenever the reader publishes a new MetricsDB
+ * window, so that they can run once per window instead of polling for new data. Every published
+ * window is a new generation; consumers remember the last generation they saw and wait for a newer
+ * one.
+ */
+public class MetricsDBPublisher {
+    private static final MetricsDBPublisher INSTANCE = new MetricsDBPublisher();
+
+    private Publication latest;
+
+    public static MetricsDBPublisher instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Publishes a window and wakes up everyone waiting for it.
+     *
+     * @param windowStartTime the start time of the window the MetricsDB holds
+     * @param db the committed MetricsDB
+     */
+    public synchronized void publish(long windowStartTime, MetricsDB db) {
+        long generation = latest == null ? 1 : latest.generation + 1;
+        latest = new Publication(generation, windowStartTime, db);
+        notifyAll();
+    }
+
+    /** @return the latest published window, or null if nothing was published yet */
+    public synchronized Publication getLatest() {
+        return latest;
+    }
+
+    /**
+     * Waits for a window newer than the given generation.
+     *
+     * @param lastGeneration the generation the caller already processed, 0 if none
+     * @param timeoutMillis how long to wait at most
+     * @return the latest window if it is newer than lastGeneration, or null on timeout
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized Publication awaitNewer(long lastGeneration, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (latest == null || latest.generation <= lastGeneration) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            wait(remaining);
+        }
+        return latest;
+    }
+
+    /** A published MetricsDB window. */
+    public static class Publication {
+        private final long generation;
+        private final long windowStartTime;
+        private final MetricsDB metricsDB;
+
+        Publication(long generation, long windowStartTime, MetricsDB metricsDB) {
+            this.generation = generation;
+            this.windowStartTime = windowStartTime;
+            this.metricsDB = metricsDB;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public long getWindowStartTime() {
+            return windowStartTime;
+        }
+
+        public MetricsDB getMetricsDB() {
+            return metricsDB;
+        }
+    }
+}
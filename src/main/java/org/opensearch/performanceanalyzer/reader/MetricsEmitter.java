@@ -96,7 +96,77 @@ public class MetricsEmitter {
             final OSMetricsSnapshot osMetricsSnap,
             final ShardRequestMetricsSnapshot rqMetricsSnap)
             throws Exception {
+        long mCurrT = System.currentTimeMillis();
+        Result<Record> res;
+        if (rqMetricsSnap.isStreaming()) {
+            // The requests are already paired, only the OS metrics are read from the table.
+            res = rqMetricsSnap.fetchAggregatedOSMetrics(osMetricsSnap);
+        } else {
+            res = correlateOSMetrics(create, osMetricsSnap, rqMetricsSnap);
+        }
+        long mFinalT = System.currentTimeMillis();
+        LOG.debug("Total time taken for tid corelation: {}", mFinalT - mCurrT);
+
+        Set<String> metricColumns = osMetricsSnap.getMetricColumns();
+
+        mCurrT = System.currentTimeMillis();
+        for (String metricColumn : metricColumns) {
+            List<String> dims =
+                    new ArrayList<String>() {
+                        {
+                            this.add(AllMetrics.CommonDimension.SHARD_ID.toString());
+                            this.add(AllMetrics.CommonDimension.INDEX_NAME.toString());
+                            this.add(AllMetrics.CommonDimension.OPERATION.toString());
+                            this.add(AllMetrics.CommonDimension.SHARD_ROLE.toString());
+                            this.add(AllMetrics.CommonDimension.THREAD_NAME.toString());
+                        }
+                    };
+            db.createMetric(new Metric<Double>(metricColumn, 0d), dims);
+            BatchBindStep handle = db.startBatchPut(new Metric<Double>(metricColumn, 0d), dims);
+            for (Record r : res) {
+                if (r.get(MetricsDB.SUM + "_" + metricColumn) == null
+                        || r.get(OSMetricsSnapshot.Fields.tName.toString()) == null) {
+                    continue;
+                }
+
+                Double sumMetric =
+                        Double.parseDouble(r.get(MetricsDB.SUM + "_" + metricColumn).toString());
+                Double avgMetric =
+                        Double.parseDouble(r.get(MetricsDB.AVG + "_" + metricColumn).toString());
+                Double minMetric =
+                        Double.parseDouble(r.get(MetricsDB.MIN + "_" + metricColumn).toString());
+                Double maxMetric =
+                        Double.parseDouble(r.get(MetricsDB.MAX + "_" + metricColumn).toString());
+                handle.bind(
+                        r.get(ShardRequestMetricsSnapshot.Fields.SHARD_ID.toString()).toString(),
+                        r.get(ShardRequestMetricsSnapshot.Fields.INDEX_NAME.toString()).toString(),
+                        r.get(ShardRequestMetricsSnapshot.Fields.OPERATION.toString()).toString(),
+                        r.get(ShardRequestMetricsSnapshot.Fields.SHARD_ROLE.toString()).toString(),
+                        r.get(OSMetricsSnapshot.Fields.tName.toString()).toString(),
+                        sumMetric,
+                        avgMetric,
+                        minMetric,
+                        maxMetric);
+            }
+
+            if (handle.size() > 0) {
+                handle.execute();
+            }
+        }
+        mFinalT = System.currentTimeMillis();
+        LOG.debug("Total time taken for writing resource metrics metricsdb: {}", mFinalT - mCurrT);
+        ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                ReaderMetrics.AGGREGATED_OS_METRICS_EMITTER_EXECUTION_TIME, mFinalT - mCurrT);
+    }
 
+    /**
+     * Joins the thread utilization of every shard request with the OS metrics of its thread and
+     * aggregates the attributed metrics per shard, index, operation and role.
+     */
+    static Result<Record> correlateOSMetrics(
+            final DSLContext create,
+            final OSMetricsSnapshot osMetricsSnap,
+            final ShardRequestMetricsSnapshot rqMetricsSnap) {
         SelectHavingStep<Record> rqTable = rqMetricsSnap.fetchThreadUtilizationRatioTable();
         SelectHavingStep<Record> osTable = osMetricsSnap.selectAll();
 
@@ -220,7 +290,6 @@ public class MetricsEmitter {
                             .as(MetricsDB.MAX + "_" + metric.toString()));
         }
 
-        long mCurrT = System.currentTimeMillis();
         Result<Record> res =
                 create.select(aggFields)
                         .from(
@@ -239,60 +308,8 @@ public class MetricsEmitter {
                                                                         String.class))))
                         .groupBy(groupByFields)
                         .fetch();
-        long mFinalT = System.currentTimeMillis();
-        LOG.debug("Total time taken for tid corelation: {}", mFinalT - mCurrT);
         checkInvalidData(rqTable, osTable, create);
-
-        Set<String> metricColumns = osMetricsSnap.getMetricColumns();
-
-        mCurrT = System.currentTimeMillis();
-        for (String metricColumn : metricColumns) {
-            List<String> dims =
-                    new ArrayList<String>() {
-                        {
-                            this.add(AllMetrics.CommonDimension.SHARD_ID.toString());
-                            this.add(AllMetrics.CommonDimension.INDEX_NAME.toString());
-                            this.add(AllMetrics.CommonDimension.OPERATION.toString());
-                            this.add(AllMetrics.CommonDimension.SHARD_ROLE.toString());
-                            this.add(AllMetrics.CommonDimension.THREAD_NAME.toString());
-                        }
-                    };
-            db.createMetric(new Metric<Double>(metricColumn, 0d), dims);
-            BatchBindStep handle = db.startBatchPut(new Metric<Double>(metricColumn, 0d), dims);
-            for (Record r : res) {
-                if (r.get(MetricsDB.SUM + "_" + metricColumn) == null
-                        || r.get(OSMetricsSnapshot.Fields.tName.toString()) == null) {
-                    continue;
-                }
-
-                Double sumMetric =
-                        Double.parseDouble(r.get(MetricsDB.SUM + "_" + metricColumn).toString());
-                Double avgMetric =
-                        Double.parseDouble(r.get(MetricsDB.AVG + "_" + metricColumn).toString());
-                Double minMetric =
-                        Double.parseDouble(r.get(MetricsDB.MIN + "_" + metricColumn).toString());
-                Double maxMetric =
-                        Double.parseDouble(r.get(MetricsDB.MAX + "_" + metricColumn).toString());
-                handle.bind(
-                        r.get(ShardRequestMetricsSnapshot.Fields.SHARD_ID.toString()).toString(),
-                        r.get(ShardRequestMetricsSnapshot.Fields.INDEX_NAME.toString()).toString(),
-                        r.get(ShardRequestMetricsSnapshot.Fields.OPERATION.toString()).toString(),
-                        r.get(ShardRequestMetricsSnapshot.Fields.SHARD_ROLE.toString()).toString(),
-                        r.get(OSMetricsSnapshot.Fields.tName.toString()).toString(),
-                        sumMetric,
-                        avgMetric,
-                        minMetric,
-                        maxMetric);
-            }
-
-            if (handle.size() > 0) {
-                handle.execute();
-            }
-        }
-        mFinalT = System.currentTimeMillis();
-        LOG.debug("Total time taken for writing resource metrics metricsdb: {}", mFinalT - mCurrT);
-        ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
-                ReaderMetrics.AGGREGATED_OS_METRICS_EMITTER_EXECUTION_TIME, mFinalT - mCurrT);
+        return res;
     }
 
     /**
@@ -1174,17 +1191,14 @@ public class MetricsEmitter {
             final DSLContext create, final MetricsDB db, final MemoryDBSnapshot snap)
             throws Exception {
 
-        Map<String, SelectHavingStep<Record>> metadataTable = snap.selectMetadataSource();
-
         Map<String, List<Field<?>>> selectField = snap.getTableSelectFieldsMap();
 
         List<String> dimensionNames = snap.getDimensionNames();
 
-        for (Map.Entry<String, SelectHavingStep<Record>> entry : metadataTable.entrySet()) {
+        for (String tableName : selectField.keySet()) {
             long mCurrT = System.currentTimeMillis();
 
-            String tableName = entry.getKey();
-            Result<Record> fetchedData = entry.getValue().fetch();
+            Result<Record> fetchedData = snap.fetchAggregatedMetadata(tableName);
 
             long mFinalT = System.currentTimeMillis();
             LOG.debug("Total time taken for aggregating {} : {}", tableName, mFinalT - mCurrT);
@@ -10,26 +10,25 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 import org.opensearch.performanceanalyzer.commons.util.JsonPathNotFoundException;
 
-public class NodeMetricsEventProcessor implements EventProcessor {
+public class NodeMetricsEventProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG = LogManager.getLogger(NodeMetricsEventProcessor.class);
 
     private Map<AllMetrics.MetricName, MemoryDBSnapshot> metricsSnapshotMap;
-    private Map<AllMetrics.MetricName, BatchBindStep> metricsBatchBindMap;
+    private Map<AllMetrics.MetricName, RowBatch> metricsBatchBindMap;
     private long startTime;
     private long endTime;
     private AllMetrics.MetricName lastUpdatedMetric;
@@ -46,13 +45,24 @@ public class NodeMetricsEventProcessor implements EventProcessor {
             Connection conn,
             Map<AllMetrics.MetricName, NavigableMap<Long, MemoryDBSnapshot>> nodeMetricsMap)
             throws Exception {
+        return buildNodeMetricEventsProcessor(
+                currTimestamp, conn, nodeMetricsMap, SnapshotBackend.SQLITE);
+    }
+
+    static NodeMetricsEventProcessor buildNodeMetricEventsProcessor(
+            long currTimestamp,
+            Connection conn,
+            Map<AllMetrics.MetricName, NavigableMap<Long, MemoryDBSnapshot>> nodeMetricsMap,
+            SnapshotBackend snapshotBackend)
+            throws Exception {
         Map<AllMetrics.MetricName, MemoryDBSnapshot> metricSnapshotMap = new HashMap<>();
 
         for (AllMetrics.MetricName metric : AllMetrics.MetricName.values()) {
             NavigableMap<Long, MemoryDBSnapshot> currMetricMap = nodeMetricsMap.get(metric);
             MemoryDBSnapshot currSnap = currMetricMap.get(currTimestamp);
             if (currSnap == null) {
-                currSnap = new MemoryDBSnapshot(conn, metric, currTimestamp);
+                currSnap =
+                        snapshotBackend.newNodeMetricsSnapshot(conn, metric, currTimestamp, false);
                 currMetricMap.put(currTimestamp, currSnap);
             }
             metricSnapshotMap.put(metric, currSnap);
@@ -73,14 +83,14 @@ public class NodeMetricsEventProcessor implements EventProcessor {
         this.endTime = endTime;
         for (AllMetrics.MetricName metric : AllMetrics.MetricName.values()) {
             MemoryDBSnapshot dbSnap = metricsSnapshotMap.get(metric);
-            metricsBatchBindMap.put(metric, dbSnap.startBatchPut());
+            metricsBatchBindMap.put(metric, dbSnap.startRowBatch());
         }
     }
 
     @Override
     public void finalizeProcessing() {
         for (AllMetrics.MetricName metric : AllMetrics.MetricName.values()) {
-            BatchBindStep batchHandle = metricsBatchBindMap.get(metric);
+            RowBatch batchHandle = metricsBatchBindMap.get(metric);
             MemoryDBSnapshot dbSnap = metricsSnapshotMap.get(metric);
             if (batchHandle != null && batchHandle.size() > 0) {
                 batchHandle.execute();
@@ -90,6 +100,11 @@ public class NodeMetricsEventProcessor implements EventProcessor {
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return MetricPropertiesConfig.getInstance().getMetricPathMap().values();
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         for (String metric : MetricPropertiesConfig.getInstance().getMetricPathMap().values()) {
@@ -103,25 +118,27 @@ public class NodeMetricsEventProcessor implements EventProcessor {
     @Override
     public void commitBatchIfRequired() {
         if (lastUpdatedMetric != null) {
-            BatchBindStep handle = metricsBatchBindMap.get(lastUpdatedMetric);
+            RowBatch handle = metricsBatchBindMap.get(lastUpdatedMetric);
             if (handle.size() > BATCH_LIMIT) {
                 handle.execute();
                 metricsBatchBindMap.put(
                         lastUpdatedMetric,
-                        metricsSnapshotMap.get(lastUpdatedMetric).startBatchPut());
+                        metricsSnapshotMap.get(lastUpdatedMetric).startRowBatch());
             }
         }
     }
 
     @Override
     public void processEvent(Event nodeMetric) {
-        String key = nodeMetric.key.split(File.separatorChar == '\\' ? "\\\\" : File.separator)[0];
+        // The metric path is the first segment of the key.
+        int separator = nodeMetric.key.indexOf(File.separatorChar);
+        String key = separator < 0 ? nodeMetric.key : nodeMetric.key.substring(0, separator);
         AllMetrics.MetricName name =
                 MetricPropertiesConfig.getInstance().getEventKeyToMetricNameMap().get(key);
 
         MemoryDBSnapshot snap = metricsSnapshotMap.get(name);
-        BatchBindStep batchHandler =
-                metricsBatchBindMap.computeIfAbsent(name, k -> snap.startBatchPut());
+        RowBatch batchHandler =
+                metricsBatchBindMap.computeIfAbsent(name, k -> snap.startRowBatch());
         MetricProperties currParser = MetricPropertiesConfig.getInstance().getProperty(name);
         if (processEvent(nodeMetric, snap, startTime, batchHandler, currParser)) {
             lastUpdatedMetric = name;
@@ -132,7 +149,7 @@ public class NodeMetricsEventProcessor implements EventProcessor {
             Event event,
             MemoryDBSnapshot snap,
             long startTime,
-            BatchBindStep batchHandle,
+            RowBatch batchHandle,
             MetricProperties metricProperties) {
 
         String[] lines = event.value.split(System.getProperty("line.separator"));
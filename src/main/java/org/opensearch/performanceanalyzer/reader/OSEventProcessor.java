@@ -7,32 +7,56 @@ package org.opensearch.performanceanalyzer.reader;
 
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.collectors.OSMetricsCollector;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
 import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 
-public class OSEventProcessor implements EventProcessor {
+public class OSEventProcessor implements EventViewProcessor {
 
     private static final Logger LOG = LogManager.getLogger(OSEventProcessor.class);
     private List<String> tidToDelete;
     private OSMetricsSnapshot osSnap;
-    private BatchBindStep handle;
+    private RowBatch handle;
     private long startTime;
     private long endTime;
     private Map<String, Long> lastUpdateTimePerTid;
 
+    // The names of the fields of an OS event, to find them in the bytes of a view.
+    private static final AllMetrics.OSMetrics[] METRICS = AllMetrics.OSMetrics.values();
+    private static final byte[][] METRIC_NAMES = new byte[METRICS.length][];
+    private static final byte[] CURRENT_TIME_NAME =
+            PerformanceAnalyzerMetrics.METRIC_CURRENT_TIME.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] THREAD_NAME_NAME =
+            OSMetricsCollector.MetaDataFields.threadName
+                    .toString()
+                    .getBytes(StandardCharsets.US_ASCII);
+    private static final byte DELIMITER =
+            (byte) PerformanceAnalyzerMetrics.sKeyValueDelimitor.charAt(0);
+
+    static {
+        for (int i = 0; i < METRICS.length; i++) {
+            METRIC_NAMES[i] = METRICS[i].toString().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // Where the values of the fields are in the view being processed, -1 if missing.
+    private final int[] metricValueStarts = new int[METRICS.length];
+    private final int[] metricValueEnds = new int[METRICS.length];
+
     private OSEventProcessor(OSMetricsSnapshot osSnap) {
         this.osSnap = osSnap;
         tidToDelete = new ArrayList<>();
@@ -53,7 +77,7 @@ public class OSEventProcessor implements EventProcessor {
     }
 
     public void initializeProcessing(long startTime, long endTime) {
-        handle = osSnap.startBatchPut();
+        handle = osSnap.startRowBatch();
         this.startTime = startTime;
         this.endTime = endTime;
         lastUpdateTimePerTid = osSnap.getLastUpdateTimePerTid();
@@ -73,10 +97,25 @@ public class OSEventProcessor implements EventProcessor {
         // Flush data to sqlite when batch size is 500
         if (handle.size() == 500) {
             handle.execute();
-            handle = osSnap.startBatchPut();
+            handle = osSnap.startRowBatch();
+        }
+    }
+
+    @Override
+    public void processEventView(EventView view) {
+        processOSEvent(view, view.keySegment(1));
+        // Flush data to sqlite when batch size is 500
+        if (handle.size() == 500) {
+            handle.execute();
+            handle = osSnap.startRowBatch();
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sOSPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sOSPath);
@@ -86,7 +125,7 @@ public class OSEventProcessor implements EventProcessor {
     public void commitBatchIfRequired() {
         if (handle.size() > BATCH_LIMIT) {
             handle.execute();
-            handle = osSnap.startBatchPut();
+            handle = osSnap.startRowBatch();
         }
     }
 
@@ -112,27 +151,10 @@ public class OSEventProcessor implements EventProcessor {
                         processedData.computeIfAbsent(
                                 PerformanceAnalyzerMetrics.METRIC_CURRENT_TIME,
                                 k -> String.valueOf(0)));
-        if (opFileLastModified > endTime) {
-            LOG.info(
-                    "File last modified {} time is greater than endTime - {}",
-                    opFileLastModified,
-                    endTime);
-            opFileLastModified = endTime;
-        }
-        // Discard os metrics if the file has not been updated in the 5 second window.
-        if (opFileLastModified < startTime) {
+        Long lastModified = checkLastModified(threadID, opFileLastModified);
+        if (lastModified == null) {
             return false;
         }
-        // Only put data when opFile.lastModified() is newer than the lastUpdateTime in database.
-        // If there is an update, We'll delete existing data and insert new data.
-        if (lastUpdateTimePerTid.containsKey(threadID)) {
-            if (lastUpdateTimePerTid.get(threadID) == opFileLastModified) {
-                // TODO: Check why this is happening.
-                LOG.debug("Skipping OS metrics");
-                return false;
-            }
-            tidToDelete.add(threadID);
-        }
 
         AllMetrics.OSMetrics[] metrics = AllMetrics.OSMetrics.values();
         for (AllMetrics.OSMetrics metric : metrics) {
@@ -157,9 +179,95 @@ public class OSEventProcessor implements EventProcessor {
         for (int i = 2; i < numMetrics - 1; i++) {
             metricVals[i] = osMetrics.get(metrics[i - 2].toString());
         }
-        metricVals[numMetrics - 1] = opFileLastModified;
+        metricVals[numMetrics - 1] = lastModified;
 
         handle.bind(metricVals);
         return true;
     }
+
+    /**
+     * Same as {@link #processOSEvent(String, String)}, with the fields found and parsed in the
+     * bytes of the view. As there, a field that is repeated takes its last value and the
+     * delimiters at the end of a value are dropped.
+     */
+    private boolean processOSEvent(EventView view, String threadID) {
+        Arrays.fill(metricValueStarts, -1);
+        int timeStart = -1;
+        int timeEnd = -1;
+        int threadNameStart = -1;
+        int threadNameEnd = -1;
+        while (view.nextLine()) {
+            int delimiter = view.lineIndexOf(DELIMITER);
+            int nameEnd = delimiter < 0 ? view.lineEnd() : delimiter;
+            int valueStart = delimiter < 0 ? view.lineEnd() : delimiter + 1;
+            int valueEnd = view.lineEnd();
+            while (valueEnd > valueStart && view.byteAt(valueEnd - 1) == DELIMITER) {
+                valueEnd--;
+            }
+            if (view.equalsAscii(view.lineStart(), nameEnd, CURRENT_TIME_NAME)) {
+                timeStart = valueStart;
+                timeEnd = valueEnd;
+            } else if (view.equalsAscii(view.lineStart(), nameEnd, THREAD_NAME_NAME)) {
+                threadNameStart = valueStart;
+                threadNameEnd = valueEnd;
+            } else {
+                for (int i = 0; i < METRIC_NAMES.length; i++) {
+                    if (view.equalsAscii(view.lineStart(), nameEnd, METRIC_NAMES[i])) {
+                        metricValueStarts[i] = valueStart;
+                        metricValueEnds[i] = valueEnd;
+                        break;
+                    }
+                }
+            }
+        }
+
+        long opFileLastModified = timeStart < 0 ? 0 : view.parseLong(timeStart, timeEnd);
+        Long lastModified = checkLastModified(threadID, opFileLastModified);
+        if (lastModified == null) {
+            return false;
+        }
+
+        // Laid out as in processOSEvent(String, String).
+        Object[] metricVals = new Object[METRICS.length + 3];
+        metricVals[0] = threadID;
+        metricVals[1] = threadNameStart < 0 ? null : view.string(threadNameStart, threadNameEnd);
+        for (int i = 0; i < METRICS.length; i++) {
+            if (metricValueStarts[i] >= 0) {
+                metricVals[i + 2] = view.parseDouble(metricValueStarts[i], metricValueEnds[i]);
+            }
+        }
+        metricVals[METRICS.length + 2] = lastModified;
+
+        handle.bind(metricVals);
+        return true;
+    }
+
+    /**
+     * Returns the last modified time to store for the OS metrics of a thread, or null if they are
+     * not put.
+     */
+    private Long checkLastModified(String threadID, long opFileLastModified) {
+        if (opFileLastModified > endTime) {
+            LOG.info(
+                    "File last modified {} time is greater than endTime - {}",
+                    opFileLastModified,
+                    endTime);
+            opFileLastModified = endTime;
+        }
+        // Discard os metrics if the file has not been updated in the 5 second window.
+        if (opFileLastModified < startTime) {
+            return null;
+        }
+        // Only put data when opFile.lastModified() is newer than the lastUpdateTime in database.
+        // If there is an update, We'll delete existing data and insert new data.
+        if (lastUpdateTimePerTid.containsKey(threadID)) {
+            if (lastUpdateTimePerTid.get(threadID) == opFileLastModified) {
+                // TODO: Check why this is happening.
+                LOG.debug("Skipping OS metrics");
+                return null;
+            }
+            tidToDelete.add(threadID);
+        }
+        return opFileLastModified;
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jooq.Record;
+import org.jooq.Result;
+
+/**
+ * Aligns two OS metrics windows in the JVM instead of with the UNION ALL queries of {@link
+ * OSMetricsSnapshot#alignWindow}. Each window is read with a single select, the rows are joined on
+ * the thread id through one hash map and the time-weighted blend is computed over double columns,
+ * then the aligned rows are batch inserted.
+ *
+ * <p>The output is the same as the SQL version's:
+ *
+ * <ul>
+ *   <li>a thread in both windows gets ((l_lastUpdateTime - a) * l_metric + (b - l_lastUpdateTime)
+ *       * r_metric) / (b - a) for every metric, and the left window's update time
+ *   <li>a thread in one window only gets the metrics of that window, and the left window's update
+ *       time, which is null for a thread of the right window only
+ *   <li>a thread whose rows have no update time is not in that window
+ *   <li>several rows of a thread in one window are merged by taking the max of every column
+ * </ul>
+ *
+ * <p>A null metric is stored as NaN while aligning and makes the blend null, as in SQL.
+ */
+public final class OSMetricsAligner {
+    private static final int TID = 0;
+    private static final int TNAME = 1;
+    private static final int FIRST_METRIC = 2;
+
+    private final int numMetrics;
+    private final Map<String, Integer> slotByTid;
+    private final List<String> tids;
+    private final List<String> tNames;
+    private final Window left;
+    private final Window right;
+
+    private OSMetricsAligner(int numMetrics, int capacity) {
+        this.numMetrics = numMetrics;
+        this.slotByTid = new HashMap<>(capacity * 2);
+        this.tids = new ArrayList<>(capacity);
+        this.tNames = new ArrayList<>(capacity);
+        this.left = new Window(numMetrics, capacity);
+        this.right = new Window(numMetrics, capacity);
+    }
+
+    /**
+     * Aligns leftWindow and rightWindow into alignedWindow for the window [a, b].
+     *
+     * @param leftWindow a snapshot of the left window metrics
+     * @param rightWindow a snapshot of the right window metrics
+     * @param alignedWindow the empty snapshot the aligned metrics are written to
+     * @param a aligned window start time.
+     * @param b aligned window end time.
+     */
+    public static void alignWindow(
+            OSMetricsSnapshot leftWindow,
+            OSMetricsSnapshot rightWindow,
+            OSMetricsSnapshot alignedWindow,
+            long a,
+            long b) {
+        Result<Record> leftRows = leftWindow.selectAll().fetch();
+        Result<Record> rightRows = rightWindow.selectAll().fetch();
+        OSMetricsAligner aligner =
+                new OSMetricsAligner(
+                        leftWindow.getMetricColumns().size(), leftRows.size() + rightRows.size());
+        aligner.load(leftRows, aligner.left);
+        aligner.load(rightRows, aligner.right);
+        aligner.write(alignedWindow, a, b);
+    }
+
+    private void load(Result<Record> rows, Window window) {
+        int updateTimeIndex = FIRST_METRIC + numMetrics;
+        for (Record record : rows) {
+            String tid = (String) record.get(TID);
+            Integer slot = slotByTid.get(tid);
+            if (slot == null) {
+                slot = tids.size();
+                slotByTid.put(tid, slot);
+                tids.add(tid);
+                tNames.add(null);
+            }
+            String tName = (String) record.get(TNAME);
+            if (tName != null) {
+                // The right window is loaded last, it has the most recent thread name.
+                tNames.set(slot, tName);
+            }
+            Object updateTime = record.get(updateTimeIndex);
+            if (updateTime != null) {
+                long time = ((Number) updateTime).longValue();
+                if (!window.present[slot] || time > window.updateTimes[slot]) {
+                    window.updateTimes[slot] = time;
+                }
+                window.present[slot] = true;
+            }
+            for (int m = 0; m < numMetrics; m++) {
+                Object value = record.get(FIRST_METRIC + m);
+                if (value == null) {
+                    continue;
+                }
+                double v = ((Number) value).doubleValue();
+                double[] column = window.metrics[m];
+                if (Double.isNaN(column[slot]) || v > column[slot]) {
+                    column[slot] = v;
+                }
+            }
+        }
+    }
+
+    private void write(OSMetricsSnapshot alignedWindow, long a, long b) {
+        Integer[] slots = new Integer[tids.size()];
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = slot;
+        }
+        // Same order as the SQL version: by tid, threads in both windows first.
+        Arrays.sort(slots, (x, y) -> tids.get(x).compareTo(tids.get(y)));
+
+        RowBatch batch = alignedWindow.startRowBatch();
+        Object[] row = new Object[FIRST_METRIC + numMetrics + 1];
+        int rowCount = 0;
+        for (int slot : slots) {
+            if (left.present[slot] && right.present[slot]) {
+                long leftTime = left.updateTimes[slot];
+                double leftWeight = leftTime - a;
+                double rightWeight = b - leftTime;
+                for (int m = 0; m < numMetrics; m++) {
+                    double blended =
+                            (leftWeight * left.metrics[m][slot]
+                                            + rightWeight * right.metrics[m][slot])
+                                    / (b - a);
+                    row[FIRST_METRIC + m] = toObject(blended);
+                }
+                bind(batch, row, slot, leftTime);
+                rowCount++;
+            }
+        }
+        for (int slot : slots) {
+            if (left.present[slot] && !right.present[slot]) {
+                copy(left, slot, row);
+                bind(batch, row, slot, left.updateTimes[slot]);
+                rowCount++;
+            }
+        }
+        for (int slot : slots) {
+            if (!left.present[slot] && right.present[slot]) {
+                copy(right, slot, row);
+                bind(batch, row, slot, null);
+                rowCount++;
+            }
+        }
+        if (rowCount > 0) {
+            batch.execute();
+        }
+    }
+
+    private void copy(Window window, int slot, Object[] row) {
+        for (int m = 0; m < numMetrics; m++) {
+            row[FIRST_METRIC + m] = toObject(window.metrics[m][slot]);
+        }
+    }
+
+    private void bind(RowBatch batch, Object[] row, int slot, Long updateTime) {
+        row[TID] = tids.get(slot);
+        row[TNAME] = tNames.get(slot);
+        row[FIRST_METRIC + numMetrics] = updateTime;
+        batch.bind(row);
+    }
+
+    private static Double toObject(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /** The rows of one window, per thread slot. */
+    private static class Window {
+        private final boolean[] present;
+        private final long[] updateTimes;
+        // Per metric column, NaN if the thread has no value.
+        private final double[][] metrics;
+
+        Window(int numMetrics, int capacity) {
+            this.present = new boolean[capacity];
+            this.updateTimes = new long[capacity];
+            this.metrics = new double[numMetrics][capacity];
+            for (double[] column : metrics) {
+                Arrays.fill(column, Double.NaN);
+            }
+        }
+    }
+}
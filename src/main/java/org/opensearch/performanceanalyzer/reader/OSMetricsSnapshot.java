@@ -38,6 +38,12 @@ public class OSMetricsSnapshot implements Removable {
     private static final String LAST_UPDATE_TIME_FIELD = "lastUpdateTime";
 
     private static final LinkedHashSet<String> METRIC_COLUMNS;
+    // The os_ and os_aligned_ snapshots have the same columns, they share a pool.
+    private static final String TABLE_POOL_TYPE = "os";
+
+    // The pool the table is taken from, null if the snapshot owns its table.
+    private final SnapshotTablePool tablePool;
+    private boolean released = false;
 
     public enum Fields {
         tid,
@@ -57,7 +63,6 @@ public class OSMetricsSnapshot implements Removable {
     }
 
     public OSMetricsSnapshot(Connection conn, String tableNamePrefix, Long windowEndTime) {
-        this.tableName = tableNamePrefix + windowEndTime;
         this.create = DSL.using(conn, SQLDialect.SQLITE);
 
         this.dimensionColumns =
@@ -68,8 +73,18 @@ public class OSMetricsSnapshot implements Removable {
                     }
                 };
 
-        LOG.debug("Creating a new os snapshot table - {}", tableName);
-        create.createTable(this.tableName).columns(getFields()).execute();
+        this.tablePool = SnapshotTablePool.of(conn);
+        if (tablePool != null) {
+            this.tableName = tablePool.acquire(TABLE_POOL_TYPE, this::createTable);
+        } else {
+            this.tableName = tableNamePrefix + windowEndTime;
+            createTable(tableName);
+        }
+    }
+
+    private void createTable(String name) {
+        LOG.debug("Creating a new os snapshot table - {}", name);
+        create.createTable(name).columns(getFields()).execute();
     }
 
     public OSMetricsSnapshot(Connection conn, Long windowEndTime) {
@@ -129,6 +144,38 @@ public class OSMetricsSnapshot implements Removable {
         return create.batch(create.insertInto(DSL.table(this.tableName)).values(dummyValues));
     }
 
+    /**
+     * Same as {@link #startBatchPut()}, through the cached insert of the table when the table is
+     * pooled. The returned batch can be reused after {@link RowBatch#execute()}.
+     */
+    public RowBatch startRowBatch() {
+        if (tablePool != null) {
+            return tablePool.newRowBatch(
+                    this.tableName, dimensionColumns.size() + METRIC_COLUMNS.size() + 1);
+        }
+        return new RowBatch() {
+            private BatchBindStep handle = startBatchPut();
+
+            @Override
+            public void bind(Object... row) {
+                handle.bind(row);
+            }
+
+            @Override
+            public int size() {
+                return handle.size();
+            }
+
+            @Override
+            public void execute() {
+                if (handle.size() > 0) {
+                    handle.execute();
+                }
+                handle = startBatchPut();
+            }
+        };
+    }
+
     public void deleteByTid(List<String> tids) {
         create.delete(DSL.table(this.tableName))
                 .where(DSL.field(Fields.tid.name(), String.class).in(tids))
@@ -162,6 +209,15 @@ public class OSMetricsSnapshot implements Removable {
 
     @Override
     public void remove() {
+        if (tablePool != null) {
+            // The table may be taken by another snapshot once it is given back.
+            if (!released) {
+                released = true;
+                LOG.debug("Releasing {}", this.tableName);
+                tablePool.release(TABLE_POOL_TYPE, this.tableName);
+            }
+            return;
+        }
         LOG.debug("Dropping {}", this.tableName);
         create.dropTable(DSL.table(this.tableName)).execute();
     }
@@ -35,7 +35,6 @@ import org.jooq.impl.DSL;
 import org.opensearch.performanceanalyzer.AppContext;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
-import org.opensearch.performanceanalyzer.commons.event_process.EventDispatcher;
 import org.opensearch.performanceanalyzer.commons.event_process.EventLog;
 import org.opensearch.performanceanalyzer.commons.event_process.EventLogFileHandler;
 import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
@@ -46,7 +45,9 @@ import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 import org.opensearch.performanceanalyzer.config.overrides.ConfigOverridesApplier;
 import org.opensearch.performanceanalyzer.core.Util;
+import org.opensearch.performanceanalyzer.metrics.MetricsQueryCache;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.metricsdb.PartitionedMetricsDB;
 import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
 
 public class ReaderMetricsProcessor implements Runnable {
@@ -97,6 +98,14 @@ public class ReaderMetricsProcessor implements Runnable {
 
     private final boolean processNewFormat;
     private final EventLogFileHandler eventLogFileHandler;
+    // Null if the event log is not memory mapped.
+    private final MappedEventLogReader mappedEventLogReader;
+    private final SnapshotBackend snapshotBackend;
+    private final boolean streamingShardRequests;
+    // Null unless the snapshot tables are pooled.
+    private final SnapshotTablePool tablePool;
+    // Null unless the event log is read on a second thread.
+    private volatile ReaderPipeline readerPipeline;
     // This needs to be volatile to avoid failure caused by thread local cached values.
     private static volatile ReaderMetricsProcessor current = null;
 
@@ -138,10 +147,21 @@ public class ReaderMetricsProcessor implements Runnable {
             nodeMetricsMap.put(names[i], new TreeMap<>());
         }
         eventLogFileHandler = new EventLogFileHandler(new EventLog(), rootLocation);
+        mappedEventLogReader =
+                MappedEventLogReader.isMappedEnabled()
+                        ? new MappedEventLogReader(rootLocation)
+                        : null;
         this.processNewFormat = processNewFormat;
         this.appContext = appContext;
         batchMetricsEnabled = defaultBatchMetricsEnabled;
         batchMetricsDBSet = new ConcurrentSkipListSet<>();
+        snapshotBackend = SnapshotBackend.fromSettings();
+        LOG.info("Using {} backend for node metrics snapshots", snapshotBackend);
+        streamingShardRequests = ShardRequestAggregator.isStreamingEnabled();
+        LOG.info("Pairing shard request events in streaming mode: {}", streamingShardRequests);
+        LOG.info("Memory mapping the event log: {}", mappedEventLogReader != null);
+        tablePool = SnapshotTablePool.registerFromSettings(conn);
+        LOG.info("Pooling the snapshot tables: {}", tablePool != null);
         readBatchMetricsEnabledFromConf();
         restoreBatchMetricsState();
     }
@@ -162,16 +182,16 @@ public class ReaderMetricsProcessor implements Runnable {
 
             long runInterval = MetricsConfiguration.SAMPLING_INTERVAL / 2;
 
+            if (ReaderPipeline.isPipelinedEnabled()) {
+                LOG.info("Reading the event log on a second thread");
+                readerPipeline =
+                        new ReaderPipeline(
+                                ReaderPipeline.capacityFromSettings(), this::readEventLog);
+            }
+
             while (true) {
                 // Create snapshots.
-                Statement vacuumStmt = conn.createStatement();
-                try {
-                    vacuumStmt.executeUpdate("VACUUM");
-                } catch (Exception e) {
-                    LOG.error("Unable to run Vacuum.");
-                } finally {
-                    vacuumStmt.close();
-                }
+                vacuum();
                 conn.setAutoCommit(false);
                 startTime = System.currentTimeMillis();
                 processMetrics(rootLocation, startTime);
@@ -214,7 +234,32 @@ public class ReaderMetricsProcessor implements Runnable {
         }
     }
 
+    private void vacuum() throws Exception {
+        // Pooled tables are emptied instead of dropped, the database is only vacuumed once enough
+        // of it is free pages.
+        if (tablePool != null && !tablePool.isVacuumNeeded()) {
+            return;
+        }
+        Statement vacuumStmt = conn.createStatement();
+        try {
+            vacuumStmt.executeUpdate("VACUUM");
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.READER_VACUUM_COUNT, 1);
+        } catch (Exception e) {
+            LOG.error("Unable to run Vacuum.");
+        } finally {
+            vacuumStmt.close();
+        }
+    }
+
     public void shutdown() {
+        ReaderPipeline pipeline = readerPipeline;
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        if (tablePool != null) {
+            tablePool.close();
+        }
         try {
             if (!conn.isClosed()) {
                 conn.close();
@@ -337,6 +382,9 @@ public class ReaderMetricsProcessor implements Runnable {
                 MetricsDB.deleteOnDiskFile(timestamp);
             }
         }
+        if (deleteDBFiles && PartitionedMetricsDB.isEnabled()) {
+            PartitionedMetricsDB.deleteEmptyPartitions();
+        }
     }
 
     /** Deletes the lowest entries in the map till the size of the map is equal to maxSize. */
@@ -406,6 +454,8 @@ public class ReaderMetricsProcessor implements Runnable {
 
         metricsDB.commit();
         metricsDBMap.put(prevWindowStartTime, metricsDB);
+        MetricsQueryCache.instance().invalidateBefore(prevWindowStartTime);
+        MetricsDBPublisher.instance().publish(prevWindowStartTime, metricsDB);
         ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
                 ReaderMetrics.METRICSDB_FILE_SIZE, new File(metricsDB.getDBFilePath()).length());
         if (batchMetricsEnabled) {
@@ -506,7 +556,8 @@ public class ReaderMetricsProcessor implements Runnable {
             // reader cycle.
 
             MemoryDBSnapshot alignedSnapshotHolder =
-                    new MemoryDBSnapshot(getConnection(), metricName, currWindowStartTime, true);
+                    snapshotBackend.newNodeMetricsSnapshot(
+                            getConnection(), metricName, currWindowStartTime, true);
             MemoryDBSnapshot alignedSnapshot =
                     alignNodeMetrics(
                             metricName,
@@ -655,14 +706,24 @@ public class ReaderMetricsProcessor implements Runnable {
             20.01. So race condition occurs. We have to add one additional window
             on reader to avoid this.
         */
-        long mCurrT = System.currentTimeMillis();
+        emitWindow(parseWindow(currTimestamp));
+    }
+
+    /** Returns the start of the window read at currTimestamp, see {@link #processMetrics}. */
+    private static long getWindowStartTime(long currTimestamp) {
         // Step 2 from above.
         long currWindowStartTime =
                 PerformanceAnalyzerMetrics.getTimeInterval(
                         currTimestamp, MetricsConfiguration.SAMPLING_INTERVAL);
 
         // Step 3 from above.
-        currWindowStartTime = currWindowStartTime - (3 * MetricsConfiguration.SAMPLING_INTERVAL);
+        return currWindowStartTime - (3 * MetricsConfiguration.SAMPLING_INTERVAL);
+    }
+
+    /** Reads the events of the window read at currTimestamp into the snapshots of the window. */
+    private ParsedWindow parseWindow(long currTimestamp) throws Exception {
+        long mCurrT = System.currentTimeMillis();
+        long currWindowStartTime = getWindowStartTime(currTimestamp);
         long currWindowEndTime = currWindowStartTime + MetricsConfiguration.SAMPLING_INTERVAL;
 
         EventProcessor osProcessor =
@@ -670,7 +731,11 @@ public class ReaderMetricsProcessor implements Runnable {
                         currWindowStartTime, currWindowEndTime, conn, osMetricsMap);
         EventProcessor requestProcessor =
                 RequestEventProcessor.buildRequestMetricEventsProcessor(
-                        currWindowStartTime, currWindowEndTime, conn, shardRqMetricsMap);
+                        currWindowStartTime,
+                        currWindowEndTime,
+                        conn,
+                        shardRqMetricsMap,
+                        streamingShardRequests);
         EventProcessor httpProcessor =
                 HttpRequestEventProcessor.buildHttpRequestMetricEventsProcessor(
                         currWindowStartTime, currWindowEndTime, conn, httpRqMetricsMap);
@@ -682,7 +747,7 @@ public class ReaderMetricsProcessor implements Runnable {
                         currWindowStartTime, conn, clusterManagerEventMetricsMap);
         EventProcessor nodeEventsProcessor =
                 NodeMetricsEventProcessor.buildNodeMetricEventsProcessor(
-                        currWindowStartTime, conn, nodeMetricsMap);
+                        currWindowStartTime, conn, nodeMetricsMap, snapshotBackend);
         EventProcessor shardStateMetricsProcessor =
                 ShardStateMetricsProcessor.buildShardStateMetricEventsProcessor(
                         currWindowStartTime, conn, shardStateMetricsMap);
@@ -711,7 +776,8 @@ public class ReaderMetricsProcessor implements Runnable {
         // is
         // called.
         // After all events have been processed, we call the finalizeProcessing function.
-        EventDispatcher eventDispatcher = new EventDispatcher();
+        // The dispatcher routes each event by its key to the processors that declare its path.
+        RoutingEventDispatcher eventDispatcher = new RoutingEventDispatcher();
 
         eventDispatcher.registerEventProcessor(osProcessor);
         eventDispatcher.registerEventProcessor(requestProcessor);
@@ -729,11 +795,32 @@ public class ReaderMetricsProcessor implements Runnable {
         eventDispatcher.initializeProcessing(
                 currWindowStartTime, currWindowStartTime + MetricsConfiguration.SAMPLING_INTERVAL);
 
-        eventLogFileHandler.read(currWindowStartTime, eventDispatcher);
+        ReaderPipeline pipeline = readerPipeline;
+        if (pipeline != null) {
+            pipeline.dispatch(currWindowStartTime, eventDispatcher);
+        } else {
+            readEventLog(currWindowStartTime, eventDispatcher);
+        }
 
         eventDispatcher.finalizeProcessing();
+        ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                ReaderMetrics.READER_PARSE_TIME, (double) (System.currentTimeMillis() - mCurrT));
+        return new ParsedWindow(currWindowStartTime, clusterDetailsEventsProcessor, mCurrT);
+    }
+
+    private void readEventLog(long windowStartTime, RoutingEventDispatcher eventDispatcher) {
+        // The mapped reader hands the processors views of the event log bytes, if it cannot map
+        // the file the events are read as Strings.
+        if (mappedEventLogReader == null
+                || !mappedEventLogReader.read(windowStartTime, eventDispatcher)) {
+            eventLogFileHandler.read(windowStartTime, eventDispatcher);
+        }
+    }
 
-        emitMetrics(currWindowStartTime);
+    /** Emits the metrics of the window before the parsed window. */
+    private void emitWindow(ParsedWindow window) throws Exception {
+        emitMetrics(window.windowStartTime);
+        ClusterDetailsEventProcessor clusterDetailsEventsProcessor = window.clusterDetails;
 
         // There are cases, such as tests where appContext may not be initialized.
         // We always create a new ClusterDetailsEventsProcessor object above but we may not always
@@ -744,9 +831,10 @@ public class ReaderMetricsProcessor implements Runnable {
             appContext.setClusterDetailsEventProcessor(clusterDetailsEventsProcessor);
         }
         long mFinalT = System.currentTimeMillis();
-        LOG.debug("Total time taken for processing Metrics: {}", mFinalT - mCurrT);
+        LOG.debug("Total time taken for processing Metrics: {}", mFinalT - window.parseStartTime);
         ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
-                ReaderMetrics.READER_METRICS_PROCESS_TIME, (double) (mFinalT - mCurrT));
+                ReaderMetrics.READER_METRICS_PROCESS_TIME,
+                (double) (mFinalT - window.parseStartTime));
     }
 
     /**
@@ -816,8 +904,7 @@ public class ReaderMetricsProcessor implements Runnable {
         LOG.debug("Adding new scaled OS snapshot- actualTime {}", startTime);
         OSMetricsSnapshot leftWindow = osMetricsMap.get(t1);
         OSMetricsSnapshot rightWindow = osMetricsMap.get(t2);
-        OSMetricsSnapshot.alignWindow(
-                leftWindow, rightWindow, alignedWindow.getTableName(), startTime, endTime);
+        snapshotBackend.alignOSMetrics(leftWindow, rightWindow, alignedWindow, startTime, endTime);
         return alignedWindow;
     }
 
@@ -961,7 +1048,7 @@ public class ReaderMetricsProcessor implements Runnable {
     }
 
     public MetricsDB createMetricsDB(long timestamp) throws Exception {
-        MetricsDB db = new MetricsDB(timestamp);
+        MetricsDB db = MetricsDB.createForWindow(timestamp);
         return db;
     }
 
@@ -1099,4 +1186,20 @@ public class ReaderMetricsProcessor implements Runnable {
     public void readBatchMetricsEnabledFromConfShim() {
         readBatchMetricsEnabledFromConf();
     }
+
+    /** A window whose events have been parsed, waiting to be emitted. */
+    private static class ParsedWindow {
+        private final long windowStartTime;
+        private final ClusterDetailsEventProcessor clusterDetails;
+        private final long parseStartTime;
+
+        ParsedWindow(
+                long windowStartTime,
+                ClusterDetailsEventProcessor clusterDetails,
+                long parseStartTime) {
+            this.windowStartTime = windowStartTime;
+            this.clusterDetails = clusterDetails;
+            this.parseStartTime = parseStartTime;
+        }
+    }
 }
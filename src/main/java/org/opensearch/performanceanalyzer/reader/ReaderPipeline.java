@@ -0,0 +1,223 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+
+/**
+ * Reads the event log of a window on a second thread while the reader thread dispatches its
+ * events. The second thread only reads the file and splits it into events. The events are
+ * dispatched to the processors on the reader thread, so every statement on the reader's in-memory
+ * database still runs on one thread.
+ *
+ * <p>The events are handed over in batches through a bounded queue. When the reader thread falls
+ * behind, the read stage waits for room, and the time it waits is reported as {@link
+ * ReaderMetrics#READER_READ_STAGE_LAG}. The time the reader thread waits for the next batch is
+ * reported as {@link ReaderMetrics#READER_DISPATCH_STAGE_LAG}.
+ */
+public class ReaderPipeline implements AutoCloseable {
+    private static final Logger LOG = LogManager.getLogger(ReaderPipeline.class);
+
+    public static final String PIPELINE_MODE_CONF_NAME = "reader-pipeline-mode";
+    public static final String SEQUENTIAL_MODE = "sequential";
+    public static final String PIPELINED_MODE = "pipelined";
+    public static final String CAPACITY_CONF_NAME = "reader-pipeline-capacity";
+    public static final int DEFAULT_CAPACITY = 4;
+
+    static final int BATCH_SIZE = 1024;
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+    /** Reads the event log of a window into the dispatcher. It must not use the database. */
+    public interface ReadStage {
+        void read(long windowStartTime, RoutingEventDispatcher dispatcher) throws Exception;
+    }
+
+    private final int capacity;
+    private final ReadStage readStage;
+    private final ExecutorService reader;
+
+    public ReaderPipeline(int capacity, ReadStage readStage) {
+        this.capacity = Math.max(1, capacity);
+        this.readStage = readStage;
+        this.reader =
+                Executors.newSingleThreadExecutor(
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("pa-reader-read-stage")
+                                .setDaemon(true)
+                                .build());
+    }
+
+    static boolean isPipelinedEnabled() {
+        String mode =
+                PluginSettings.instance().getSettingValue(PIPELINE_MODE_CONF_NAME, SEQUENTIAL_MODE);
+        return PIPELINED_MODE.equals(mode.trim());
+    }
+
+    static int capacityFromSettings() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(CAPACITY_CONF_NAME, String.valueOf(DEFAULT_CAPACITY));
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {} '{}', using {}", CAPACITY_CONF_NAME, value, DEFAULT_CAPACITY);
+            return DEFAULT_CAPACITY;
+        }
+    }
+
+    /**
+     * Reads the event log of a window on the read stage and dispatches its events, in order, on
+     * the calling thread.
+     *
+     * @throws Exception what the read stage failed with, if it did
+     */
+    public void dispatch(long windowStartTime, RoutingEventDispatcher dispatcher)
+            throws Exception {
+        WindowRead read = new WindowRead(capacity);
+        Future<?> future = reader.submit(() -> read.run(readStage, windowStartTime));
+        long waited = 0;
+        try {
+            while (true) {
+                long startTime = System.currentTimeMillis();
+                Batch batch = read.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                waited += System.currentTimeMillis() - startTime;
+                if (batch == null) {
+                    if (future.isDone() && read.queue.isEmpty()) {
+                        throw new IllegalStateException("The read stage stopped unexpectedly");
+                    }
+                    continue;
+                }
+                for (Event event : batch.events) {
+                    dispatcher.processEvent(event);
+                }
+                if (batch.last) {
+                    rethrow(batch.failure);
+                    return;
+                }
+            }
+        } finally {
+            // Lets a read stage waiting for room give up when the dispatch failed.
+            read.abandoned = true;
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.READER_DISPATCH_STAGE_LAG, waited);
+        }
+    }
+
+    private static void rethrow(Throwable t) throws Exception {
+        if (t instanceof Exception) {
+            throw (Exception) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /** Stops the read stage once it is done with the window it is on. */
+    @Override
+    public void close() {
+        reader.shutdown();
+        try {
+            if (!reader.awaitTermination(5, TimeUnit.SECONDS)) {
+                reader.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            reader.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The events of one window, on their way from the read stage to the reader thread. */
+    private static class WindowRead extends RoutingEventDispatcher {
+        private final BlockingQueue<Batch> queue;
+        private List<Event> events = new ArrayList<>(BATCH_SIZE);
+        private long waited;
+        private volatile boolean abandoned;
+
+        WindowRead(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void run(ReadStage readStage, long windowStartTime) {
+            Throwable failure = null;
+            try {
+                readStage.read(windowStartTime, this);
+            } catch (Throwable t) {
+                if (!abandoned) {
+                    LOG.error("Reader read stage failed", t);
+                }
+                failure = t;
+            }
+            try {
+                handOff(new Batch(events, true, failure));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IllegalStateException e) {
+                LOG.debug("The reader thread gave up on the window");
+            }
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.READER_READ_STAGE_LAG, waited);
+        }
+
+        @Override
+        public void processEvent(Event event) {
+            events.add(event);
+            if (events.size() < BATCH_SIZE) {
+                return;
+            }
+            try {
+                handOff(new Batch(events, false, null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading the event log", e);
+            }
+            events = new ArrayList<>(BATCH_SIZE);
+        }
+
+        @Override
+        public void processEventView(EventView view) {
+            // The view is reused for the next event, so the event is materialized here.
+            processEvent(view.toEvent());
+        }
+
+        private void handOff(Batch batch) throws InterruptedException {
+            long startTime = System.currentTimeMillis();
+            while (!queue.offer(batch, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (abandoned) {
+                    throw new IllegalStateException("The reader thread stopped dispatching");
+                }
+            }
+            waited += System.currentTimeMillis() - startTime;
+        }
+    }
+
+    private static class Batch {
+        private final List<Event> events;
+        private final boolean last;
+        private final Throwable failure;
+
+        Batch(List<Event> events, boolean last, Throwable failure) {
+            this.events = events;
+            this.last = last;
+            this.failure = failure;
+        }
+    }
+}
@@ -8,17 +8,18 @@ package org.opensearch.performanceanalyzer.reader;
 
 import java.io.File;
 import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 
-public class RequestEventProcessor implements EventProcessor {
+public class RequestEventProcessor implements KeyRoutedEventProcessor {
 
     private static final Logger LOG = LogManager.getLogger(RequestEventProcessor.class);
 
@@ -35,11 +36,12 @@ public class RequestEventProcessor implements EventProcessor {
             long currWindowStartTime,
             long currWindowEndTime,
             Connection conn,
-            NavigableMap<Long, ShardRequestMetricsSnapshot> shardRqMetricsMap)
+            NavigableMap<Long, ShardRequestMetricsSnapshot> shardRqMetricsMap,
+            boolean streaming)
             throws Exception {
         if (shardRqMetricsMap.get(currWindowStartTime) == null) {
             ShardRequestMetricsSnapshot rqSnap =
-                    new ShardRequestMetricsSnapshot(conn, currWindowStartTime);
+                    new ShardRequestMetricsSnapshot(conn, currWindowStartTime, streaming);
             Map.Entry<Long, ShardRequestMetricsSnapshot> entry = shardRqMetricsMap.lastEntry();
             if (entry != null) {
                 rqSnap.rolloverInflightRequests(entry.getValue());
@@ -52,6 +54,14 @@ public class RequestEventProcessor implements EventProcessor {
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Arrays.asList(
+                PerformanceAnalyzerMetrics.sShardBulkPath,
+                PerformanceAnalyzerMetrics.sShardFetchPath,
+                PerformanceAnalyzerMetrics.sShardQueryPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         if (event.key.contains(PerformanceAnalyzerMetrics.sShardBulkPath)
@@ -131,6 +141,12 @@ public class RequestEventProcessor implements EventProcessor {
         String threadId = metricKeyPathElements[1];
         String operation = metricKeyPathElements[2];
         String rid = metricKeyPathElements[3];
+        ShardRequestAggregator aggregator = rqSnap.getAggregator();
+        if (aggregator != null) {
+            aggregator.start(
+                    shardId, indexName, rid, threadId, operation, primary, startTime, docCount);
+            return;
+        }
         handle.bind(
                 shardId, indexName, rid, threadId, operation, primary, startTime, null, docCount);
     }
@@ -152,6 +168,11 @@ public class RequestEventProcessor implements EventProcessor {
         String threadId = metricKeyPathElements[1];
         String operation = metricKeyPathElements[2];
         String rid = metricKeyPathElements[3];
+        ShardRequestAggregator aggregator = rqSnap.getAggregator();
+        if (aggregator != null) {
+            aggregator.finish(shardId, indexName, rid, threadId, operation, primary, finishTime);
+            return;
+        }
         handle.bind(shardId, indexName, rid, threadId, operation, primary, null, finishTime, null);
     }
 }
@@ -0,0 +1,269 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+import org.opensearch.performanceanalyzer.commons.event_process.EventDispatcher;
+import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+
+/**
+ * An event dispatcher that routes every event to its processors with a single scan of the event
+ * key, instead of asking every registered processor whether it takes the event.
+ *
+ * <p>The paths of all the {@link KeyRoutedEventProcessor}s are compiled into one Aho-Corasick
+ * automaton when processing is initialized. The processors match any occurrence of their paths in
+ * the key, not only a prefix, so the automaton finds every path contained in the key and the
+ * routing is the same as with {@link EventProcessor#shouldProcessEvent}. Processors that do not
+ * declare their paths are still asked for every event.
+ *
+ * <p>Events that no processor takes are counted and reported once per window.
+ */
+public class RoutingEventDispatcher extends EventDispatcher {
+    // Processors past this index are not indexed, the matches of a state are a long bit mask.
+    private static final int MAX_ROUTED_PROCESSORS = Long.SIZE;
+    // Path characters are ASCII, a path with other characters is not indexed.
+    private static final int ALPHABET = 128;
+
+    private final List<EventProcessor> processors = new ArrayList<>();
+    // Whether processors.get(i) is routed by the automaton.
+    private boolean[] routed = new boolean[0];
+
+    // The automaton: the next state per state and character class, and the processors matched
+    // when reaching a state.
+    private final int[] charClasses = new int[ALPHABET];
+    private int[][] transitions;
+    private long[] matches;
+
+    private long unroutedEvents;
+
+    @Override
+    public void registerEventProcessor(EventProcessor processor) {
+        super.registerEventProcessor(processor);
+        processors.add(processor);
+        transitions = null;
+    }
+
+    @Override
+    public void initializeProcessing(long startTime, long endTime) {
+        buildIndex();
+        unroutedEvents = 0;
+        super.initializeProcessing(startTime, endTime);
+    }
+
+    @Override
+    public void finalizeProcessing() {
+        super.finalizeProcessing();
+        if (unroutedEvents > 0) {
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.READER_UNROUTED_EVENTS, unroutedEvents);
+        }
+    }
+
+    @Override
+    public void processEvent(Event event) {
+        if (transitions == null) {
+            buildIndex();
+        }
+        long matched = match(event.key);
+        boolean processed = false;
+        for (int i = 0; i < processors.size(); i++) {
+            EventProcessor processor = processors.get(i);
+            boolean takes =
+                    routed[i] ? (matched & (1L << i)) != 0 : processor.shouldProcessEvent(event);
+            if (takes) {
+                processor.processEvent(event);
+                processor.commitBatchIfRequired();
+                processed = true;
+            }
+        }
+        if (!processed) {
+            unroutedEvents++;
+        }
+    }
+
+    /**
+     * Dispatches the event a view is on. The processors that read views get the view, the others
+     * get the event materialized once.
+     */
+    public void processEventView(EventView view) {
+        if (transitions == null) {
+            buildIndex();
+        }
+        long matched = match(view);
+        Event event = null;
+        boolean processed = false;
+        for (int i = 0; i < processors.size(); i++) {
+            EventProcessor processor = processors.get(i);
+            boolean takes;
+            if (routed[i]) {
+                takes = (matched & (1L << i)) != 0;
+            } else {
+                if (event == null) {
+                    event = view.toEvent();
+                }
+                takes = processor.shouldProcessEvent(event);
+            }
+            if (!takes) {
+                continue;
+            }
+            if (processor instanceof EventViewProcessor) {
+                view.rewind();
+                ((EventViewProcessor) processor).processEventView(view);
+            } else {
+                if (event == null) {
+                    event = view.toEvent();
+                }
+                processor.processEvent(event);
+            }
+            processor.commitBatchIfRequired();
+            processed = true;
+        }
+        if (!processed) {
+            unroutedEvents++;
+        }
+    }
+
+    /** Returns the bit mask of the routed processors whose paths the key contains. */
+    private long match(String key) {
+        long matched = 0;
+        int state = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            state = transitions[state][c < ALPHABET ? charClasses[c] : 0];
+            matched |= matches[state];
+        }
+        return matched;
+    }
+
+    private long match(EventView view) {
+        long matched = 0;
+        int state = 0;
+        for (int i = 0; i < view.keyLength(); i++) {
+            int c = view.keyByteAt(i);
+            state = transitions[state][c < ALPHABET ? charClasses[c] : 0];
+            matched |= matches[state];
+        }
+        return matched;
+    }
+
+    private void buildIndex() {
+        routed = new boolean[processors.size()];
+        Arrays.fill(charClasses, 0);
+        List<String> paths = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        int numClasses = 1;
+        for (int i = 0; i < processors.size() && i < MAX_ROUTED_PROCESSORS; i++) {
+            EventProcessor processor = processors.get(i);
+            if (!(processor instanceof KeyRoutedEventProcessor)) {
+                continue;
+            }
+            List<String> processorPaths =
+                    new ArrayList<>(((KeyRoutedEventProcessor) processor).getEventKeyPaths());
+            if (!isIndexable(processorPaths)) {
+                continue;
+            }
+            routed[i] = true;
+            for (String path : processorPaths) {
+                for (int j = 0; j < path.length(); j++) {
+                    char c = path.charAt(j);
+                    if (charClasses[c] == 0) {
+                        charClasses[c] = numClasses++;
+                    }
+                }
+                paths.add(path);
+                owners.add(i);
+            }
+        }
+
+        // The trie of the paths, then the fail links to complete it into an automaton.
+        List<int[]> goTo = new ArrayList<>();
+        List<Long> output = new ArrayList<>();
+        goTo.add(newState(numClasses));
+        output.add(0L);
+        for (int p = 0; p < paths.size(); p++) {
+            String path = paths.get(p);
+            int state = 0;
+            for (int j = 0; j < path.length(); j++) {
+                int cls = charClasses[path.charAt(j)];
+                if (goTo.get(state)[cls] < 0) {
+                    goTo.get(state)[cls] = goTo.size();
+                    goTo.add(newState(numClasses));
+                    output.add(0L);
+                }
+                state = goTo.get(state)[cls];
+            }
+            output.set(state, output.get(state) | (1L << owners.get(p)));
+        }
+
+        int numStates = goTo.size();
+        int[][] next = new int[numStates][];
+        long[] out = new long[numStates];
+        int[] fail = new int[numStates];
+        Deque<Integer> queue = new ArrayDeque<>();
+        next[0] = goTo.get(0);
+        out[0] = output.get(0);
+        for (int cls = 0; cls < numClasses; cls++) {
+            if (next[0][cls] < 0) {
+                next[0][cls] = 0;
+            } else {
+                fail[next[0][cls]] = 0;
+                queue.add(next[0][cls]);
+            }
+        }
+        // Breadth first, so the fail state of a state is complete before the state.
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            next[state] = goTo.get(state);
+            out[state] = output.get(state) | out[fail[state]];
+            for (int cls = 0; cls < numClasses; cls++) {
+                int child = next[state][cls];
+                if (child < 0) {
+                    next[state][cls] = next[fail[state]][cls];
+                } else {
+                    fail[child] = next[fail[state]][cls];
+                    queue.add(child);
+                }
+            }
+        }
+        transitions = next;
+        matches = out;
+    }
+
+    private static boolean isIndexable(List<String> paths) {
+        for (String path : paths) {
+            // An empty path would match every key.
+            if (path == null || path.isEmpty()) {
+                return false;
+            }
+            for (int j = 0; j < path.length(); j++) {
+                if (path.charAt(j) >= ALPHABET) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] newState(int numClasses) {
+        int[] state = new int[numClasses];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    @VisibleForTesting
+    long getUnroutedEvents() {
+        return unroutedEvents;
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+/**
+ * Accumulates rows for an in-memory snapshot and writes them out in bulk. The order of the values
+ * in each row must match the column order of the snapshot: dimension columns first, followed by
+ * metric columns.
+ */
+public interface RowBatch {
+    void bind(Object... row);
+
+    /** @return the number of rows bound since the last {@link #execute()}. */
+    int size();
+
+    void execute();
+}
@@ -8,18 +8,19 @@ package org.opensearch.performanceanalyzer.reader;
 
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 
-public class SearchBackPressureMetricsProcessor implements EventProcessor {
+public class SearchBackPressureMetricsProcessor implements KeyRoutedEventProcessor {
 
     private static final Logger LOG =
             LogManager.getLogger(SearchBackPressureMetricsProcessor.class);
@@ -74,6 +75,11 @@ public class SearchBackPressureMetricsProcessor implements EventProcessor {
         }
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sSearchBackPressureMetricsPath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sSearchBackPressureMetricsPath);
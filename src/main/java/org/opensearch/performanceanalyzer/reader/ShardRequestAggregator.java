@@ -0,0 +1,482 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.opensearch.performanceanalyzer.DBUtils;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+/**
+ * Pairs the start and finish events of shard requests as they are read, instead of storing every
+ * event in a table and pairing them with group-bys and joins when the window is emitted.
+ *
+ * <p>Requests are kept in an open-request table keyed by (rid, operation). When both events of a
+ * request are seen, its latency is added to the aggregates of its (shard, index, operation, role)
+ * group and the time it spent in the window is added to the aggregates of its group and thread.
+ * When the window is emitted, only the requests still missing an event are visited, so the results
+ * are the same as the queries of {@link ShardRequestMetricsSnapshot}:
+ *
+ * <ul>
+ *   <li>{@link #fetchLatencyByOp()} matches {@link ShardRequestMetricsSnapshot#fetchLatencyByOp()}
+ *   <li>{@link #fetchAggregatedOSMetrics(OSMetricsSnapshot)} matches the join of the thread
+ *       utilization table with the OS metrics done by {@link
+ *       MetricsEmitter#emitAggregatedOSMetrics}
+ *   <li>{@link #rolloverInflightRequests(ShardRequestAggregator)} matches {@link
+ *       ShardRequestMetricsSnapshot#fetchInflightSelect()}
+ * </ul>
+ *
+ * <p>Events received for a request after both its events were seen are ignored.
+ */
+public class ShardRequestAggregator {
+    private static final Logger LOG = LogManager.getLogger(ShardRequestAggregator.class);
+
+    public static final String SHARD_REQUEST_MODE_CONF_NAME = "reader-shard-request-mode";
+    public static final String SQL_MODE = "sql";
+    public static final String STREAMING_MODE = "streaming";
+
+    private static final Long EXPIRE_AFTER = 600000L;
+    private static final DSLContext RESULT_CONTEXT = DSL.using(SQLDialect.SQLITE);
+
+    private final long windowStartTime;
+    private final long windowEndTime;
+    // operation -> rid -> request. Keyed in two levels to not build a key per event.
+    private final Map<String, Map<String, Request>> requestsByOp = new HashMap<>();
+    // The latest start time seen on each thread, to tell the inflight requests apart.
+    private final Map<String, Long> latestStartByTid = new HashMap<>();
+    private final Map<List<String>, LatencyAggregate> latencyByGroup = new LinkedHashMap<>();
+    private final Map<List<String>, Map<String, TimeSpent>> timeSpentByGroupAndTid =
+            new LinkedHashMap<>();
+    private final Map<String, Double> timeSpentByTid = new HashMap<>();
+
+    public ShardRequestAggregator(long windowStartTime, long windowEndTime) {
+        this.windowStartTime = windowStartTime;
+        this.windowEndTime = windowEndTime;
+    }
+
+    /** @return true if the reader-shard-request-mode setting asks for the streaming mode */
+    public static boolean isStreamingEnabled() {
+        String mode =
+                PluginSettings.instance().getSettingValue(SHARD_REQUEST_MODE_CONF_NAME, SQL_MODE);
+        if (STREAMING_MODE.equalsIgnoreCase(mode.trim())) {
+            return true;
+        }
+        if (!SQL_MODE.equalsIgnoreCase(mode.trim())) {
+            LOG.warn(
+                    "Unknown {} '{}', falling back to {}",
+                    SHARD_REQUEST_MODE_CONF_NAME,
+                    mode,
+                    SQL_MODE);
+        }
+        return false;
+    }
+
+    public synchronized void start(
+            String shardId,
+            String indexName,
+            String rid,
+            String tid,
+            String operation,
+            String role,
+            long startTime,
+            Long docCount) {
+        Request request = getOrCreate(shardId, indexName, rid, tid, operation, role);
+        if (request.done) {
+            return;
+        }
+        if (!request.hasStart || startTime > request.startTime) {
+            request.startTime = startTime;
+        }
+        request.hasStart = true;
+        if (docCount != null && (request.docCount == null || docCount > request.docCount)) {
+            request.docCount = docCount;
+        }
+        Long latest = latestStartByTid.get(request.tid);
+        if (latest == null || request.startTime > latest) {
+            latestStartByTid.put(request.tid, request.startTime);
+        }
+        completeIfPaired(request);
+    }
+
+    public synchronized void finish(
+            String shardId,
+            String indexName,
+            String rid,
+            String tid,
+            String operation,
+            String role,
+            long finishTime) {
+        Request request = getOrCreate(shardId, indexName, rid, tid, operation, role);
+        if (request.done) {
+            return;
+        }
+        if (!request.hasEnd || finishTime > request.endTime) {
+            request.endTime = finishTime;
+        }
+        request.hasEnd = true;
+        completeIfPaired(request);
+    }
+
+    private Request getOrCreate(
+            String shardId,
+            String indexName,
+            String rid,
+            String tid,
+            String operation,
+            String role) {
+        Map<String, Request> requests =
+                requestsByOp.computeIfAbsent(operation, k -> new HashMap<>());
+        Request request = requests.get(rid);
+        if (request == null) {
+            request = new Request(Arrays.asList(shardId, indexName, operation, role), tid);
+            requests.put(rid, request);
+        }
+        return request;
+    }
+
+    private void completeIfPaired(Request request) {
+        if (!request.hasStart || !request.hasEnd) {
+            return;
+        }
+        request.done = true;
+        latencyByGroup
+                .computeIfAbsent(request.group, k -> new LatencyAggregate())
+                .add(request.endTime - request.startTime, request.docCount);
+        addTimeSpent(timeSpentByGroupAndTid, timeSpentByTid, request);
+    }
+
+    /**
+     * Adds the time the request spent in the window: from its start, or the window start if it
+     * started earlier or its start was not seen, to its finish, or the window end if it finished
+     * later or its finish was not seen.
+     */
+    private void addTimeSpent(
+            Map<List<String>, Map<String, TimeSpent>> byGroupAndTid,
+            Map<String, Double> byTid,
+            Request request) {
+        long st = request.hasStart ? Math.max(request.startTime, windowStartTime) : windowStartTime;
+        long et = request.hasEnd ? Math.min(request.endTime, windowEndTime) : windowEndTime;
+        double lat = et - st;
+        byGroupAndTid
+                .computeIfAbsent(request.group, k -> new LinkedHashMap<>())
+                .computeIfAbsent(request.tid, k -> new TimeSpent())
+                .add(lat);
+        byTid.merge(request.tid, lat, Double::sum);
+    }
+
+    /**
+     * Carries the requests still inflight at the end of the previous window over to this window.
+     * Only the latest request of a thread is carried over if it started before the previous
+     * window, as a thread runs a single request at a time, and requests older than 10 minutes are
+     * dropped.
+     */
+    public synchronized void rolloverInflightRequests(ShardRequestAggregator prev) {
+        synchronized (prev) {
+            for (Map.Entry<String, Map<String, Request>> byOp : prev.requestsByOp.entrySet()) {
+                for (Map.Entry<String, Request> byRid : byOp.getValue().entrySet()) {
+                    Request request = byRid.getValue();
+                    if (!request.hasStart
+                            || request.hasEnd
+                            || request.startTime <= prev.windowStartTime - EXPIRE_AFTER) {
+                        continue;
+                    }
+                    Long latest = prev.latestStartByTid.get(request.tid);
+                    if (request.startTime <= prev.windowStartTime
+                            && (latest == null || request.startTime != latest)) {
+                        continue;
+                    }
+                    List<String> group = request.group;
+                    start(
+                            group.get(0),
+                            group.get(1),
+                            byRid.getKey(),
+                            request.tid,
+                            byOp.getKey(),
+                            group.get(3),
+                            request.startTime,
+                            request.docCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the latency aggregates of the requests whose start and finish were both seen, one row
+     * per shard, index, operation and role.
+     */
+    public synchronized Result<Record> fetchLatencyByOp() {
+        String lat = ShardRequestMetricsSnapshot.Fields.LAT.toString();
+        List<Field<?>> fields = dimensionFields();
+        fields.add(DSL.field(DSL.name(DBUtils.getAggFieldName(lat, MetricsDB.SUM)), Double.class));
+        fields.add(DSL.field(DSL.name(DBUtils.getAggFieldName(lat, MetricsDB.AVG)), Double.class));
+        fields.add(DSL.field(DSL.name(DBUtils.getAggFieldName(lat, MetricsDB.MIN)), Double.class));
+        fields.add(DSL.field(DSL.name(DBUtils.getAggFieldName(lat, MetricsDB.MAX)), Double.class));
+        fields.add(
+                DSL.field(
+                        DSL.name(AllMetrics.ShardOperationMetric.SHARD_OP_COUNT.toString()),
+                        Integer.class));
+        fields.add(
+                DSL.field(DSL.name(AllMetrics.ShardBulkMetric.DOC_COUNT.toString()), Double.class));
+        Field<?>[] fieldArray = fields.toArray(new Field<?>[0]);
+
+        Result<Record> result = RESULT_CONTEXT.newResult(fieldArray);
+        for (Map.Entry<List<String>, LatencyAggregate> entry : latencyByGroup.entrySet()) {
+            List<String> group = entry.getKey();
+            LatencyAggregate agg = entry.getValue();
+            Record record = RESULT_CONTEXT.newRecord(fieldArray);
+            record.fromArray(
+                    group.get(0),
+                    group.get(1),
+                    group.get(2),
+                    group.get(3),
+                    agg.sum,
+                    agg.sum / agg.count,
+                    agg.min,
+                    agg.max,
+                    agg.count,
+                    agg.hasDocCount ? agg.docCount : null);
+            result.add(record);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the OS metrics of the threads attributed to the requests they ran, one row per shard,
+     * index, operation and role. The share of a request in a metric of its thread is the time the
+     * request spent on the thread over the time all the requests of the thread spent in the window.
+     *
+     * @param osMetricsSnap the aligned OS metrics of the window
+     * @return the tName column and the sum, avg, min and max of every OS metric, as named by {@link
+     *     MetricsEmitter#emitAggregatedOSMetrics}
+     */
+    public synchronized Result<Record> fetchAggregatedOSMetrics(OSMetricsSnapshot osMetricsSnap) {
+        // Add the requests still missing an event to copies of the aggregates.
+        Map<List<String>, Map<String, TimeSpent>> byGroupAndTid = new LinkedHashMap<>();
+        for (Map.Entry<List<String>, Map<String, TimeSpent>> entry :
+                timeSpentByGroupAndTid.entrySet()) {
+            Map<String, TimeSpent> byTid = new LinkedHashMap<>();
+            entry.getValue().forEach((tid, timeSpent) -> byTid.put(tid, timeSpent.copy()));
+            byGroupAndTid.put(entry.getKey(), byTid);
+        }
+        Map<String, Double> totalByTid = new HashMap<>(timeSpentByTid);
+        for (Map<String, Request> requests : requestsByOp.values()) {
+            for (Request request : requests.values()) {
+                if (!request.done) {
+                    addTimeSpent(byGroupAndTid, totalByTid, request);
+                }
+            }
+        }
+
+        Set<String> metricColumns = osMetricsSnap.getMetricColumns();
+        String[] metrics = metricColumns.toArray(new String[0]);
+        Map<String, List<Record>> osRowsByTid = new HashMap<>();
+        for (Record record : osMetricsSnap.getOSMetrics()) {
+            osRowsByTid
+                    .computeIfAbsent(
+                            (String) record.get(OSMetricsSnapshot.Fields.tid.toString()),
+                            k -> new ArrayList<>())
+                    .add(record);
+        }
+
+        List<Field<?>> fields = dimensionFields();
+        fields.add(DSL.field(DSL.name(OSMetricsSnapshot.Fields.tName.toString()), String.class));
+        for (String metric : metrics) {
+            fields.add(DSL.field(DSL.name(MetricsDB.SUM + "_" + metric), Double.class));
+            fields.add(DSL.field(DSL.name(MetricsDB.AVG + "_" + metric), Double.class));
+            fields.add(DSL.field(DSL.name(MetricsDB.MIN + "_" + metric), Double.class));
+            fields.add(DSL.field(DSL.name(MetricsDB.MAX + "_" + metric), Double.class));
+        }
+        Field<?>[] fieldArray = fields.toArray(new Field<?>[0]);
+        Result<Record> result = RESULT_CONTEXT.newResult(fieldArray);
+
+        for (Map.Entry<List<String>, Map<String, TimeSpent>> entry : byGroupAndTid.entrySet()) {
+            String tName = null;
+            boolean joined = false;
+            MetricAggregate[] aggs = new MetricAggregate[metrics.length];
+            for (int m = 0; m < metrics.length; m++) {
+                aggs[m] = new MetricAggregate();
+            }
+            for (Map.Entry<String, TimeSpent> byTid : entry.getValue().entrySet()) {
+                List<Record> osRows = osRowsByTid.get(byTid.getKey());
+                if (osRows == null) {
+                    continue;
+                }
+                double total = totalByTid.get(byTid.getKey());
+                for (Record osRow : osRows) {
+                    if (!joined) {
+                        tName = (String) osRow.get(OSMetricsSnapshot.Fields.tName.toString());
+                        joined = true;
+                    }
+                    if (total == 0) {
+                        // The utilization is a division by zero, null in SQL.
+                        continue;
+                    }
+                    for (int m = 0; m < metrics.length; m++) {
+                        Object value = osRow.get(metrics[m]);
+                        if (value != null) {
+                            aggs[m].add(
+                                    ((Number) value).doubleValue() / total, byTid.getValue());
+                        }
+                    }
+                }
+            }
+            if (!joined) {
+                continue;
+            }
+            Object[] values = new Object[fieldArray.length];
+            List<String> group = entry.getKey();
+            for (int i = 0; i < group.size(); i++) {
+                values[i] = group.get(i);
+            }
+            values[4] = tName;
+            for (int m = 0; m < metrics.length; m++) {
+                aggs[m].copyTo(values, 5 + 4 * m);
+            }
+            Record record = RESULT_CONTEXT.newRecord(fieldArray);
+            record.fromArray(values);
+            result.add(record);
+        }
+        return result;
+    }
+
+    private static List<Field<?>> dimensionFields() {
+        List<Field<?>> fields = new ArrayList<>();
+        fields.add(
+                DSL.field(
+                        DSL.name(ShardRequestMetricsSnapshot.Fields.SHARD_ID.toString()),
+                        String.class));
+        fields.add(
+                DSL.field(
+                        DSL.name(ShardRequestMetricsSnapshot.Fields.INDEX_NAME.toString()),
+                        String.class));
+        fields.add(
+                DSL.field(
+                        DSL.name(ShardRequestMetricsSnapshot.Fields.OPERATION.toString()),
+                        String.class));
+        fields.add(
+                DSL.field(
+                        DSL.name(ShardRequestMetricsSnapshot.Fields.SHARD_ROLE.toString()),
+                        String.class));
+        return fields;
+    }
+
+    /** @return the number of requests in the open-request table, paired or not */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<String, Request> requests : requestsByOp.values()) {
+            size += requests.size();
+        }
+        return size;
+    }
+
+    private static class Request {
+        // shard, index, operation, role
+        private final List<String> group;
+        private final String tid;
+        private boolean hasStart;
+        private long startTime;
+        private boolean hasEnd;
+        private long endTime;
+        private Long docCount;
+        private boolean done;
+
+        Request(List<String> group, String tid) {
+            this.group = group;
+            this.tid = tid;
+        }
+    }
+
+    private static class LatencyAggregate {
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+        private double docCount;
+        private boolean hasDocCount;
+
+        void add(double latency, Long requestDocCount) {
+            sum += latency;
+            min = Math.min(min, latency);
+            max = Math.max(max, latency);
+            count++;
+            if (requestDocCount != null) {
+                docCount += requestDocCount;
+                hasDocCount = true;
+            }
+        }
+    }
+
+    /** The time spent in the window by the requests of a group on a thread. */
+    private static class TimeSpent {
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+
+        void add(double latency) {
+            sum += latency;
+            min = Math.min(min, latency);
+            max = Math.max(max, latency);
+            count++;
+        }
+
+        TimeSpent copy() {
+            TimeSpent copy = new TimeSpent();
+            copy.sum = sum;
+            copy.min = min;
+            copy.max = max;
+            copy.count = count;
+            return copy;
+        }
+    }
+
+    /** Sum, count, min and max of a metric share over the requests of a group. */
+    private static class MetricAggregate {
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private int count;
+
+        /**
+         * Adds the shares of the requests of a thread, whose share is their time spent times the
+         * thread's metric over the thread's total time spent.
+         */
+        void add(double metricPerTime, TimeSpent timeSpent) {
+            sum += metricPerTime * timeSpent.sum;
+            double low = metricPerTime * timeSpent.min;
+            double high = metricPerTime * timeSpent.max;
+            min = Math.min(min, Math.min(low, high));
+            max = Math.max(max, Math.max(low, high));
+            count += timeSpent.count;
+        }
+
+        void copyTo(Object[] values, int offset) {
+            if (count == 0) {
+                return;
+            }
+            values[offset] = sum;
+            values[offset + 1] = sum / count;
+            values[offset + 2] = min;
+            values[offset + 3] = max;
+        }
+    }
+}
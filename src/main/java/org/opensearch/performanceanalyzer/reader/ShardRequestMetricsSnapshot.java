@@ -29,7 +29,13 @@ import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.MetricsConfiguration;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
 
-/** Snapshot of start/end events generated by per shard operations like shardBulk/shardSearch. */
+/**
+ * Snapshot of start/end events generated by per shard operations like shardBulk/shardSearch.
+ *
+ * <p>In the streaming mode, the events are paired as they are put by a {@link
+ * ShardRequestAggregator} instead of being stored in the table, and the latency and OS metrics
+ * aggregates are read from it. The table is then never created.
+ */
 @SuppressWarnings("serial")
 public class ShardRequestMetricsSnapshot implements Removable {
     private static final Logger LOG = LogManager.getLogger(ShardRequestMetricsSnapshot.class);
@@ -47,6 +53,8 @@ public class ShardRequestMetricsSnapshot implements Removable {
     private final String tableName;
     private static final Long EXPIRE_AFTER = 600000L;
     private List<Field<?>> columns;
+    // Null unless the snapshot is in the streaming mode.
+    private final ShardRequestAggregator aggregator;
 
     public enum Fields {
         SHARD_ID(AllMetrics.CommonDimension.SHARD_ID.toString()),
@@ -76,7 +84,18 @@ public class ShardRequestMetricsSnapshot implements Removable {
     }
 
     public ShardRequestMetricsSnapshot(Connection conn, Long windowStartTime) throws Exception {
+        this(conn, windowStartTime, false);
+    }
+
+    public ShardRequestMetricsSnapshot(Connection conn, Long windowStartTime, boolean streaming)
+            throws Exception {
         this.create = DSL.using(conn, SQLDialect.SQLITE);
+        this.aggregator =
+                streaming
+                        ? new ShardRequestAggregator(
+                                windowStartTime,
+                                windowStartTime + MetricsConfiguration.SAMPLING_INTERVAL)
+                        : null;
         this.windowStartTime = windowStartTime;
         this.tableName = "shard_rq_" + windowStartTime;
 
@@ -97,10 +116,33 @@ public class ShardRequestMetricsSnapshot implements Removable {
                     }
                 };
 
-        create.createTable(this.tableName).columns(this.columns).execute();
+        if (!streaming) {
+            create.createTable(this.tableName).columns(this.columns).execute();
+        }
+    }
+
+    public boolean isStreaming() {
+        return aggregator != null;
+    }
+
+    /** @return the aggregator pairing the events in the streaming mode, null otherwise */
+    public ShardRequestAggregator getAggregator() {
+        return aggregator;
     }
 
     public void putStartMetric(Long startTime, Map<String, String> dimensions) {
+        if (aggregator != null) {
+            aggregator.start(
+                    dimensions.get(Fields.SHARD_ID.toString()),
+                    dimensions.get(Fields.INDEX_NAME.toString()),
+                    dimensions.get(Fields.RID.toString()),
+                    dimensions.get(Fields.TID.toString()),
+                    dimensions.get(Fields.OPERATION.toString()),
+                    dimensions.get(Fields.SHARD_ROLE.toString()),
+                    startTime,
+                    null);
+            return;
+        }
         Map<Field<?>, String> dimensionMap = new HashMap<Field<?>, String>();
         for (Map.Entry<String, String> dimension : dimensions.entrySet()) {
             dimensionMap.put(
@@ -121,6 +163,17 @@ public class ShardRequestMetricsSnapshot implements Removable {
     }
 
     public void putEndMetric(Long endTime, Map<String, String> dimensions) {
+        if (aggregator != null) {
+            aggregator.finish(
+                    dimensions.get(Fields.SHARD_ID.toString()),
+                    dimensions.get(Fields.INDEX_NAME.toString()),
+                    dimensions.get(Fields.RID.toString()),
+                    dimensions.get(Fields.TID.toString()),
+                    dimensions.get(Fields.OPERATION.toString()),
+                    dimensions.get(Fields.SHARD_ROLE.toString()),
+                    endTime);
+            return;
+        }
         Map<Field<?>, String> dimensionMap = new HashMap<Field<?>, String>();
         for (Map.Entry<String, String> dimension : dimensions.entrySet()) {
             dimensionMap.put(
@@ -201,6 +254,9 @@ public class ShardRequestMetricsSnapshot implements Removable {
      * @return aggrated latency by ShardID, IndexName, Operation, and ShardRole.
      */
     public Result<Record> fetchLatencyByOp() {
+        if (aggregator != null) {
+            return aggregator.fetchLatencyByOp();
+        }
         ArrayList<SelectField<?>> fields =
                 new ArrayList<SelectField<?>>() {
                     {
@@ -520,16 +576,35 @@ public class ShardRequestMetricsSnapshot implements Removable {
         return create.select(tUtilFields).from(requestAndTotalThreadTimeSelect);
     }
 
+    /**
+     * Returns the OS metrics attributed to the shard requests, in the streaming mode. In the SQL
+     * mode, {@link MetricsEmitter#emitAggregatedOSMetrics} joins {@link
+     * #fetchThreadUtilizationRatioTable()} with the OS metrics table instead.
+     */
+    public Result<Record> fetchAggregatedOSMetrics(OSMetricsSnapshot osMetricsSnap) {
+        if (aggregator == null) {
+            throw new IllegalStateException(tableName + " is not in the streaming mode");
+        }
+        return aggregator.fetchAggregatedOSMetrics(osMetricsSnap);
+    }
+
     public String getTableName() {
         return this.tableName;
     }
 
     @Override
     public void remove() {
+        if (aggregator != null) {
+            return;
+        }
         create.dropTable(DSL.table(this.tableName)).execute();
     }
 
     public void rolloverInflightRequests(ShardRequestMetricsSnapshot prevSnap) {
+        if (aggregator != null && prevSnap.aggregator != null) {
+            aggregator.rolloverInflightRequests(prevSnap.aggregator);
+            return;
+        }
         create.insertInto(DSL.table(this.tableName))
                 .select(prevSnap.fetchInflightSelect())
                 .execute();
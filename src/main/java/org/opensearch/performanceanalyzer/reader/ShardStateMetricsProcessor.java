@@ -10,6 +10,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -18,11 +20,10 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.BatchBindStep;
 import org.jooq.tools.StringUtils;
 import org.opensearch.performanceanalyzer.commons.event_process.Event;
-import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
 import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
 import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
 
-public class ShardStateMetricsProcessor implements EventProcessor {
+public class ShardStateMetricsProcessor implements KeyRoutedEventProcessor {
     private static final Logger LOG = LogManager.getLogger(ShardStateMetricsProcessor.class);
     private ShardStateMetricsSnapshot shardStateMetricsSnapshot;
     private BatchBindStep handle;
@@ -102,6 +103,11 @@ public class ShardStateMetricsProcessor implements EventProcessor {
         return new HashMap<>();
     }
 
+    @Override
+    public Collection<String> getEventKeyPaths() {
+        return Collections.singletonList(PerformanceAnalyzerMetrics.sShardStatePath);
+    }
+
     @Override
     public boolean shouldProcessEvent(Event event) {
         return event.key.contains(PerformanceAnalyzerMetrics.sShardStatePath);
@@ -0,0 +1,100 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.sql.Connection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+
+/**
+ * Storage used by the reader for the per-window node metrics snapshots. The backend is picked with
+ * the reader-snapshot-backend setting in performance-analyzer.properties; sqlite is the default and
+ * the fallback for unknown values. The backend also picks how the OS metrics windows are aligned.
+ */
+public enum SnapshotBackend {
+    /** One table per snapshot in the reader's in-memory SQLite database. */
+    SQLITE {
+        @Override
+        public MemoryDBSnapshot newNodeMetricsSnapshot(
+                Connection conn,
+                AllMetrics.MetricName metricName,
+                long windowEndTime,
+                boolean aligned) {
+            return new MemoryDBSnapshot(conn, metricName, windowEndTime, aligned);
+        }
+
+        @Override
+        public void alignOSMetrics(
+                OSMetricsSnapshot leftWindow,
+                OSMetricsSnapshot rightWindow,
+                OSMetricsSnapshot alignedWindow,
+                long a,
+                long b) {
+            OSMetricsSnapshot.alignWindow(
+                    leftWindow, rightWindow, alignedWindow.getTableName(), a, b);
+        }
+    },
+
+    /** Primitive dimension codes and off-heap metric columns held in the JVM. */
+    COLUMNAR {
+        @Override
+        public MemoryDBSnapshot newNodeMetricsSnapshot(
+                Connection conn,
+                AllMetrics.MetricName metricName,
+                long windowEndTime,
+                boolean aligned) {
+            return new ColumnarMemoryDBSnapshot(conn, metricName, windowEndTime, aligned);
+        }
+
+        @Override
+        public void alignOSMetrics(
+                OSMetricsSnapshot leftWindow,
+                OSMetricsSnapshot rightWindow,
+                OSMetricsSnapshot alignedWindow,
+                long a,
+                long b) {
+            OSMetricsAligner.alignWindow(leftWindow, rightWindow, alignedWindow, a, b);
+        }
+    };
+
+    private static final Logger LOG = LogManager.getLogger(SnapshotBackend.class);
+
+    public static final String SNAPSHOT_BACKEND_CONF_NAME = "reader-snapshot-backend";
+
+    public abstract MemoryDBSnapshot newNodeMetricsSnapshot(
+            Connection conn,
+            AllMetrics.MetricName metricName,
+            long windowEndTime,
+            boolean aligned);
+
+    /** Aligns two OS metrics windows into alignedWindow for the window [a, b]. */
+    public abstract void alignOSMetrics(
+            OSMetricsSnapshot leftWindow,
+            OSMetricsSnapshot rightWindow,
+            OSMetricsSnapshot alignedWindow,
+            long a,
+            long b);
+
+    public static SnapshotBackend fromSettings() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(SNAPSHOT_BACKEND_CONF_NAME, SQLITE.toString());
+        return fromString(value);
+    }
+
+    public static SnapshotBackend fromString(String value) {
+        for (SnapshotBackend backend : values()) {
+            if (backend.toString().equalsIgnoreCase(value == null ? "" : value.trim())) {
+                return backend;
+            }
+        }
+        LOG.warn("Unknown {} '{}', falling back to {}", SNAPSHOT_BACKEND_CONF_NAME, value, SQLITE);
+        return SQLITE;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+
+/**
+ * A ring of pre-created tables per snapshot type in the reader's in-memory database. Without the
+ * pool every snapshot creates its table and drops it when removed, so each window creates and drops
+ * a table per node metric, plus the aligned holder tables. With the pool, a snapshot takes a free
+ * table of its type and gives it back emptied, so no DDL runs once the rings are created.
+ *
+ * <p>The inserts into a pooled table use a prepared statement cached per table, instead of
+ * rendering and preparing the insert for every batch.
+ *
+ * <p>Emptying tables leaves free pages in the database, instead of the pages of dropped tables.
+ * The pool measures the share of free pages, and the reader only vacuums past a threshold.
+ *
+ * <p>A pool is registered for a connection, snapshots created on that connection use it.
+ */
+public class SnapshotTablePool {
+    private static final Logger LOG = LogManager.getLogger(SnapshotTablePool.class);
+
+    public static final String POOL_SIZE_CONF_NAME = "reader-table-pool-size";
+    // Tables per snapshot type, 0 disables the pool.
+    public static final int DEFAULT_POOL_SIZE = 0;
+    public static final String VACUUM_THRESHOLD_CONF_NAME = "reader-vacuum-fragmentation-threshold";
+    public static final double DEFAULT_VACUUM_THRESHOLD = 0.25;
+
+    private static final String POOLED_TABLE_INFIX = "_pool_";
+
+    private static final Map<Connection, SnapshotTablePool> POOLS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Connection conn;
+    private final DSLContext create;
+    private final int size;
+    private final double vacuumThreshold;
+    // The free tables per snapshot type, taken from the head and given back at the tail.
+    private final Map<String, Deque<String>> freeTables = new HashMap<>();
+    // The tables per snapshot type, in use or free.
+    private final Map<String, Integer> tableCounts = new HashMap<>();
+    // Used to name the tables of a type.
+    private final Map<String, Integer> createdTables = new HashMap<>();
+    private final Map<String, PreparedStatement> insertStatements = new ConcurrentHashMap<>();
+
+    SnapshotTablePool(Connection conn, int size, double vacuumThreshold) {
+        this.conn = conn;
+        this.create = DSL.using(conn, SQLDialect.SQLITE);
+        this.size = size;
+        this.vacuumThreshold = vacuumThreshold;
+    }
+
+    /**
+     * Registers a pool for the connection, if the pool is enabled in the settings.
+     *
+     * @return the pool, or null if the pool is disabled
+     */
+    public static SnapshotTablePool registerFromSettings(Connection conn) {
+        int size = sizeFromSettings();
+        if (size <= 0) {
+            return null;
+        }
+        return register(conn, size, vacuumThresholdFromSettings());
+    }
+
+    public static SnapshotTablePool register(Connection conn, int size, double vacuumThreshold) {
+        SnapshotTablePool pool = new SnapshotTablePool(conn, size, vacuumThreshold);
+        POOLS.put(conn, pool);
+        return pool;
+    }
+
+    /** Returns the pool of the connection, or null if its snapshots own their tables. */
+    static SnapshotTablePool of(Connection conn) {
+        return POOLS.get(conn);
+    }
+
+    static int sizeFromSettings() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(POOL_SIZE_CONF_NAME, String.valueOf(DEFAULT_POOL_SIZE));
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid {} '{}', using {}", POOL_SIZE_CONF_NAME, value, DEFAULT_POOL_SIZE);
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+
+    static double vacuumThresholdFromSettings() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(
+                                VACUUM_THRESHOLD_CONF_NAME,
+                                String.valueOf(DEFAULT_VACUUM_THRESHOLD));
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn(
+                    "Invalid {} '{}', using {}",
+                    VACUUM_THRESHOLD_CONF_NAME,
+                    value,
+                    DEFAULT_VACUUM_THRESHOLD);
+            return DEFAULT_VACUUM_THRESHOLD;
+        }
+    }
+
+    /**
+     * Takes a free table of the type. The ring of the type is created the first time, and a table
+     * is added when the ring is exhausted.
+     *
+     * @param type the snapshot type, snapshots of a type have the same columns
+     * @param createTable creates the table of the given name
+     * @return the name of the table, which is empty
+     */
+    public synchronized String acquire(String type, Consumer<String> createTable) {
+        Deque<String> free = freeTables.get(type);
+        if (free == null) {
+            free = new ArrayDeque<>(size);
+            freeTables.put(type, free);
+            for (int i = 0; i < size; i++) {
+                free.add(newTable(type, createTable));
+            }
+        }
+        String tableName = free.poll();
+        if (tableName == null) {
+            LOG.debug("Table pool of {} exhausted", type);
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.READER_TABLE_POOL_MISS, 1);
+            tableName = newTable(type, createTable);
+        }
+        return tableName;
+    }
+
+    /**
+     * Empties a table taken from the pool and gives it back. Tables added past the size of the ring
+     * are dropped instead.
+     */
+    public void release(String type, String tableName) {
+        // Without a where clause SQLite empties the table without visiting the rows.
+        create.delete(DSL.table(tableName)).execute();
+        synchronized (this) {
+            int count = tableCounts.getOrDefault(type, 0);
+            if (count <= size) {
+                freeTables.computeIfAbsent(type, k -> new ArrayDeque<>(size)).add(tableName);
+                return;
+            }
+            tableCounts.put(type, count - 1);
+        }
+        closeInsertStatement(tableName);
+        create.dropTable(DSL.table(tableName)).execute();
+    }
+
+    private String newTable(String type, Consumer<String> createTable) {
+        tableCounts.merge(type, 1, Integer::sum);
+        int index = createdTables.merge(type, 1, Integer::sum) - 1;
+        String tableName = type + POOLED_TABLE_INFIX + index;
+        LOG.debug("Creating a pooled snapshot table - {}", tableName);
+        // A table left behind by an earlier pool on this connection is dropped first.
+        create.dropTableIfExists(DSL.table(tableName)).execute();
+        createTable.accept(tableName);
+        return tableName;
+    }
+
+    /**
+     * Returns a batch of inserts into a pooled table, through the cached insert of the table. Only
+     * one batch of a table may be in use at a time.
+     */
+    public RowBatch newRowBatch(String tableName, int numColumns) {
+        PreparedStatement insert = insertStatements.get(tableName);
+        if (insert == null) {
+            try {
+                insert = conn.prepareStatement(insertSql(tableName, numColumns));
+            } catch (SQLException e) {
+                throw new DataAccessException("Unable to prepare the insert into " + tableName, e);
+            }
+            insertStatements.put(tableName, insert);
+        }
+        return new PreparedRowBatch(insert, tableName);
+    }
+
+    private static String insertSql(String tableName, int numColumns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO \"").append(tableName);
+        sql.append("\" VALUES (");
+        for (int i = 0; i < numColumns; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    private void closeInsertStatement(String tableName) {
+        PreparedStatement insert = insertStatements.remove(tableName);
+        if (insert != null) {
+            try {
+                insert.close();
+            } catch (SQLException e) {
+                LOG.warn("Unable to close the insert into {}", tableName, e);
+            }
+        }
+    }
+
+    /** Returns the share of the pages of the database that are free. */
+    public double getFragmentation() throws SQLException {
+        long pageCount = pragma("page_count");
+        return pageCount == 0 ? 0 : (double) pragma("freelist_count") / pageCount;
+    }
+
+    /** Whether enough of the database is free pages to be worth a VACUUM. */
+    public boolean isVacuumNeeded() {
+        try {
+            return getFragmentation() >= vacuumThreshold;
+        } catch (SQLException e) {
+            LOG.warn("Unable to measure the fragmentation of the database", e);
+            return true;
+        }
+    }
+
+    private long pragma(String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Closes the cached statements and unregisters the pool. */
+    public void close() {
+        POOLS.remove(conn);
+        for (String tableName : insertStatements.keySet()) {
+            closeInsertStatement(tableName);
+        }
+    }
+
+    private static class PreparedRowBatch implements RowBatch {
+        private final PreparedStatement insert;
+        private final String tableName;
+        private int pending = 0;
+
+        PreparedRowBatch(PreparedStatement insert, String tableName) {
+            this.insert = insert;
+            this.tableName = tableName;
+        }
+
+        @Override
+        public void bind(Object... row) {
+            try {
+                for (int i = 0; i < row.length; i++) {
+                    insert.setObject(i + 1, row[i]);
+                }
+                insert.addBatch();
+            } catch (SQLException e) {
+                throw new DataAccessException("Unable to bind a row of " + tableName, e);
+            }
+            pending++;
+        }
+
+        @Override
+        public int size() {
+            return pending;
+        }
+
+        @Override
+        public void execute() {
+            if (pending == 0) {
+                return;
+            }
+            pending = 0;
+            try {
+                insert.executeBatch();
+            } catch (SQLException e) {
+                try {
+                    insert.clearBatch();
+                } catch (SQLException clearException) {
+                    e.addSuppressed(clearException);
+                }
+                throw new DataAccessException("Unable to insert into " + tableName, e);
+            }
+        }
+    }
+}
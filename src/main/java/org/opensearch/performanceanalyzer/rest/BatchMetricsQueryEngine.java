@@ -0,0 +1,354 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rest;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.commons.io.output.StringBuilderWriter;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDBPool;
+import org.opensearch.performanceanalyzer.metricsdb.PartitionedMetricsDB;
+import org.opensearch.performanceanalyzer.model.MetricsModel;
+
+/**
+ * Serves batch metrics queries over a time range. A cursor walks the batch metrics windows in the
+ * range, keeping the first window of every sampling period, and the response is written as the
+ * windows are read.
+ *
+ * <p>Open metricsdb handles are kept in an LRU pool across requests, so dashboards polling the
+ * same range repeatedly do not reopen every file. The pool is sized to hold every file of the
+ * retained batch metrics, and never less than batch-metrics-db-pool-size handles. The handles are
+ * shared by concurrent requests and are only read. With partitioned storage all the windows of a
+ * partition are read with one range scan per metric instead of one query per window.
+ *
+ * <p>The query results are formatted straight into the response, which is built once. The response
+ * is the same as reading every window on its own.
+ */
+public class BatchMetricsQueryEngine {
+    public static final String POOL_SIZE_CONF_NAME = "batch-metrics-db-pool-size";
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private final int minPoolSize;
+    private final MetricsDBPool pool;
+
+    public BatchMetricsQueryEngine() {
+        this(readPoolSize());
+    }
+
+    /** @param minPoolSize the number of handles kept even if fewer files are retained */
+    public BatchMetricsQueryEngine(int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+        this.pool = new MetricsDBPool(minPoolSize);
+    }
+
+    MetricsDBPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Requires non-empty batchMetrics, valid non-empty metrics, valid startTime, valid endTime,
+     * valid samplingPeriod (in milliseconds), and non-negative maxDatapoints.
+     */
+    public String query(
+            NavigableSet<Long> batchMetrics,
+            List<String> metrics,
+            long startTime,
+            long endTime,
+            long samplingPeriod,
+            int maxDatapoints)
+            throws Exception {
+        boolean partitioned = PartitionedMetricsDB.isEnabled();
+        Set<String> livePaths = livePaths(batchMetrics, partitioned);
+        pool.retainOnly(livePaths);
+        pool.setCapacity(Math.max(minPoolSize, livePaths.size()));
+
+        StringBuilder responseJson = new StringBuilder();
+        StringBuilderWriter out = new StringBuilderWriter(responseJson);
+        responseJson.append("{");
+        WindowCursor cursor = new WindowCursor(batchMetrics, startTime, endTime, samplingPeriod);
+        if (!partitioned) {
+            boolean first = true;
+            while (cursor.hasNext()) {
+                if (!first) {
+                    responseJson.append(",");
+                }
+                maxDatapoints = appendWindow(cursor.next(), metrics, out, maxDatapoints);
+                first = false;
+            }
+        } else {
+            List<Long> partitionWindows = new ArrayList<>();
+            String partition = null;
+            boolean first = true;
+            while (cursor.hasNext()) {
+                long window = cursor.next();
+                String windowPartition = PartitionedMetricsDB.getPartitionFilePath(window);
+                if (partition != null && !partition.equals(windowPartition)) {
+                    maxDatapoints =
+                            appendPartition(partitionWindows, metrics, out, maxDatapoints, first);
+                    partitionWindows.clear();
+                    first = false;
+                }
+                partition = windowPartition;
+                partitionWindows.add(window);
+            }
+            if (!partitionWindows.isEmpty()) {
+                maxDatapoints =
+                        appendPartition(partitionWindows, metrics, out, maxDatapoints, first);
+            }
+        }
+        responseJson.append("}");
+        return responseJson.toString();
+    }
+
+    /**
+     * Appends the metrics of a single window to the builder.
+     *
+     * @return the number of datapoints that can still be returned
+     */
+    public int appendMetrics(
+            long timestamp, List<String> metrics, StringBuilder builder, int maxDatapoints)
+            throws Exception {
+        StringBuilderWriter out = new StringBuilderWriter(builder);
+        if (PartitionedMetricsDB.isEnabled()) {
+            return appendPartition(Arrays.asList(timestamp), metrics, out, maxDatapoints, true);
+        }
+        return appendWindow(timestamp, metrics, out, maxDatapoints);
+    }
+
+    /** Releases all the pooled handles. */
+    public void close() {
+        pool.clear();
+    }
+
+    private int appendWindow(
+            long timestamp, List<String> metrics, StringBuilderWriter out, int maxDatapoints)
+            throws Exception {
+        String path = MetricsDB.getDBFilePath(timestamp);
+        Object fingerprint = fingerprint(path, true);
+        if (fingerprint == null) {
+            // Let fetchExisting report the missing file.
+            MetricsDB.fetchExisting(timestamp).remove();
+        }
+        try (MetricsDBPool.Lease lease =
+                pool.lease(path, fingerprint, () -> MetricsDB.fetchExisting(timestamp))) {
+            MetricsDB db = lease.getMetricsDB();
+            return appendWindow(
+                    timestamp,
+                    metrics,
+                    (metric, limit) ->
+                            db.queryMetric(
+                                    metric,
+                                    MetricsModel.ALL_METRICS.get(metric).dimensionNames,
+                                    limit),
+                    out,
+                    maxDatapoints);
+        }
+    }
+
+    /**
+     * Appends windows that all belong to the same partition, separated by commas.
+     *
+     * @param first whether these are the first windows of the response
+     * @return the number of datapoints that can still be returned
+     */
+    private int appendPartition(
+            List<Long> windows,
+            List<String> metrics,
+            StringBuilderWriter out,
+            int maxDatapoints,
+            boolean first)
+            throws Exception {
+        long firstWindow = windows.get(0);
+        String path = PartitionedMetricsDB.getPartitionFilePath(firstWindow);
+        Object fingerprint = fingerprint(path, false);
+        if (fingerprint == null) {
+            // Let fetchPartition report the missing file.
+            PartitionedMetricsDB.fetchPartition(firstWindow).remove();
+        }
+        Map<String, Map<Long, Result<Record>>> scans = new HashMap<>();
+        try (MetricsDBPool.Lease lease =
+                pool.lease(
+                        path,
+                        fingerprint,
+                        () -> PartitionedMetricsDB.fetchPartition(firstWindow))) {
+            PartitionedMetricsDB db = (PartitionedMetricsDB) lease.getMetricsDB();
+            for (String metric : metrics) {
+                // One row more than allowed is enough to tell the limit was exceeded.
+                scans.put(
+                        metric,
+                        db.scanWindows(
+                                metric,
+                                MetricsModel.ALL_METRICS.get(metric).dimensionNames,
+                                windows,
+                                maxDatapoints + 1));
+            }
+        }
+        for (Long window : windows) {
+            if (!first) {
+                out.append(",");
+            }
+            first = false;
+            maxDatapoints =
+                    appendWindow(
+                            window,
+                            metrics,
+                            (metric, limit) -> scans.get(metric).get(window),
+                            out,
+                            maxDatapoints);
+        }
+        return maxDatapoints;
+    }
+
+    private static int appendWindow(
+            long timestamp,
+            List<String> metrics,
+            MetricSource source,
+            StringBuilderWriter out,
+            int maxDatapoints)
+            throws Exception {
+        StringBuilder builder = out.getBuilder();
+        maxDatapoints += 1;
+        builder.append("\"");
+        builder.append(timestamp);
+        builder.append("\":{");
+        boolean first = true;
+        for (String metric : metrics) {
+            Result<Record> results = source.fetch(metric, maxDatapoints);
+            if (results == null) {
+                continue;
+            }
+            maxDatapoints -= results.size();
+            if (maxDatapoints <= 0) {
+                StatsCollector.instance()
+                        .logException(StatExceptionCode.BATCH_METRICS_EXCEEDED_MAX_DATAPOINTS);
+                throw new InvalidParameterException(
+                        String.format(
+                                "requested data exceeds the %d datapoints limit",
+                                QueryBatchRequestHandler.DEFAULT_MAX_DATAPOINTS));
+            }
+            builder.append(first ? "\"" : ",\"");
+            builder.append(metric);
+            builder.append("\":");
+            results.formatJSON(out);
+            first = false;
+        }
+        builder.append("}");
+        return maxDatapoints - 1;
+    }
+
+    /**
+     * Identifies the version of a file, or returns null if it does not exist. Windows are not
+     * modified once written, so for per-window files a changed modification time means the file
+     * was written again. Partition files are appended to and are only identified by the file.
+     */
+    private static Object fingerprint(String path, boolean includeModificationTime)
+            throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(Paths.get(path), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (includeModificationTime) {
+            return Arrays.asList(
+                    attributes.fileKey(),
+                    attributes.creationTime(),
+                    attributes.lastModifiedTime(),
+                    attributes.size());
+        }
+        return Arrays.asList(attributes.fileKey(), attributes.creationTime());
+    }
+
+    private static Set<String> livePaths(NavigableSet<Long> batchMetrics, boolean partitioned) {
+        Set<String> paths = new HashSet<>();
+        for (Long window : batchMetrics) {
+            paths.add(
+                    partitioned
+                            ? PartitionedMetricsDB.getPartitionFilePath(window)
+                            : MetricsDB.getDBFilePath(window));
+        }
+        return paths;
+    }
+
+    private static int readPoolSize() {
+        String value =
+                PluginSettings.instance()
+                        .getSettingValue(POOL_SIZE_CONF_NAME, String.valueOf(DEFAULT_POOL_SIZE));
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+
+    private interface MetricSource {
+        Result<Record> fetch(String metric, int limit) throws Exception;
+    }
+
+    /**
+     * Walks the windows in [startTime, endTime), returning the first window of every sampling
+     * period.
+     */
+    static class WindowCursor implements Iterator<Long> {
+        private final NavigableSet<Long> batchMetrics;
+        private final long endTime;
+        private final long samplingPeriod;
+        private Long next;
+
+        WindowCursor(
+                NavigableSet<Long> batchMetrics,
+                long startTime,
+                long endTime,
+                long samplingPeriod) {
+            this.batchMetrics = batchMetrics;
+            this.endTime = endTime;
+            this.samplingPeriod = samplingPeriod;
+            this.next = bounded(batchMetrics.ceiling(startTime));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Long next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Long current = next;
+            next =
+                    bounded(
+                            batchMetrics.ceiling(
+                                    current - current % samplingPeriod + samplingPeriod));
+            return current;
+        }
+
+        private Long bounded(Long timestamp) {
+            return timestamp != null && timestamp < endTime ? timestamp : null;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rest;
+
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
+import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
+import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.net.NetClient;
+import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+import org.opensearch.performanceanalyzer.rca.framework.util.SettingsUtil;
+
+/**
+ * Collects the metrics of the other nodes for a _metrics?nodes=all query.
+ *
+ * <p>The calls to the nodes are asynchronous, and the calling thread hands each response on as it
+ * arrives. A query has a deadline, and the calls still running when it passes are cancelled and
+ * their nodes left out of the response, so the response never waits for the slowest node past
+ * the deadline.
+ *
+ * <p>A query runs at most a number of calls at a time, and all the queries together at most a
+ * number of calls, the other nodes waiting for a call to finish. A node that has not answered
+ * within the hedge delay is asked a second time if a call is free, and the first answer is used.
+ * The other call to the node is then cancelled, which frees its call right away.
+ */
+public class MetricsFanOut {
+    private static final Logger LOG = LogManager.getLogger(MetricsFanOut.class);
+
+    public static final String REQUEST_CONCURRENCY_CONF_NAME = "metrics-fanout-request-concurrency";
+    public static final int DEFAULT_REQUEST_CONCURRENCY = 16;
+    public static final String MAX_IN_FLIGHT_CONF_NAME = "metrics-fanout-max-in-flight";
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    public static final String DEADLINE_CONF_NAME = "metrics-fanout-deadline-millis";
+    public static final long DEFAULT_DEADLINE_MILLIS = 2000;
+    public static final String HEDGE_DELAY_CONF_NAME = "metrics-fanout-hedge-delay-millis";
+    // 0 disables the hedged calls.
+    public static final long DEFAULT_HEDGE_DELAY_MILLIS = 0;
+
+    /** Takes the response of a node, on the thread collecting the metrics. */
+    public interface ResponseConsumer {
+        void accept(String nodeId, MetricsResponse response) throws IOException;
+    }
+
+    private final NetClient netClient;
+    private final int requestConcurrency;
+    // The calls of all the queries.
+    private final Semaphore inFlight;
+    private final long deadlineMillis;
+    private final long hedgeDelayMillis;
+
+    public MetricsFanOut(NetClient netClient) {
+        this(
+                netClient,
+                (int)
+                        SettingsUtil.readLong(
+                                REQUEST_CONCURRENCY_CONF_NAME, DEFAULT_REQUEST_CONCURRENCY),
+                (int) SettingsUtil.readLong(MAX_IN_FLIGHT_CONF_NAME, DEFAULT_MAX_IN_FLIGHT),
+                SettingsUtil.readLong(DEADLINE_CONF_NAME, DEFAULT_DEADLINE_MILLIS),
+                SettingsUtil.readLong(HEDGE_DELAY_CONF_NAME, DEFAULT_HEDGE_DELAY_MILLIS));
+    }
+
+    public MetricsFanOut(
+            NetClient netClient,
+            int requestConcurrency,
+            int maxInFlight,
+            long deadlineMillis,
+            long hedgeDelayMillis) {
+        this.netClient = netClient;
+        this.requestConcurrency = Math.max(1, requestConcurrency);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.deadlineMillis = deadlineMillis;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+    }
+
+    /**
+     * Asks the nodes for their metrics, and hands each response to the consumer as it arrives,
+     * until all the nodes answered or the deadline passed.
+     *
+     * @return the number of nodes that answered
+     */
+    public int collect(
+            List<InstanceDetails> nodes, MetricsRequest request, ResponseConsumer consumer)
+            throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + deadlineMillis;
+        Deque<InstanceDetails> pending = new ArrayDeque<>(nodes);
+        Map<String, NodeCall> running = new HashMap<>();
+        BlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+        int answered = 0;
+        while (!pending.isEmpty() || !running.isEmpty()) {
+            long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                break;
+            }
+            while (!pending.isEmpty() && running.size() < requestConcurrency) {
+                // Waits for a call of any query to finish, the calls of this query included.
+                boolean acquired = inFlight.tryAcquire(deadline - now, TimeUnit.MILLISECONDS);
+                now = System.currentTimeMillis();
+                if (!acquired) {
+                    break;
+                }
+                NodeCall call = new NodeCall(pending.poll(), now);
+                running.put(call.nodeId, call);
+                call(call, request, Math.max(1, deadline - now), finished);
+            }
+            if (now >= deadline) {
+                break;
+            }
+            long wait = deadline - now;
+            if (hedgeDelayMillis > 0) {
+                wait = Math.min(wait, hedge(running.values(), request, now, deadline, finished));
+            }
+            Attempt attempt = finished.poll(Math.max(1, wait), TimeUnit.MILLISECONDS);
+            for (; attempt != null; attempt = finished.poll()) {
+                NodeCall call = running.get(attempt.call.nodeId);
+                if (call != attempt.call) {
+                    // The other call to the node answered first.
+                    continue;
+                }
+                if (attempt.response != null) {
+                    running.remove(call.nodeId);
+                    call.cancel();
+                    consumer.accept(call.nodeId, attempt.response);
+                    answered++;
+                } else if (--call.outstanding == 0) {
+                    running.remove(call.nodeId);
+                }
+            }
+        }
+        for (NodeCall call : running.values()) {
+            call.cancel();
+        }
+        int missed = pending.size() + running.size();
+        if (missed > 0) {
+            LOG.debug("Timeout while collecting remote stats of {} nodes", missed);
+            StatsCollector.instance().logException(StatExceptionCode.REQUEST_REMOTE_ERROR);
+            ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                    ReaderMetrics.METRICS_FAN_OUT_NODE_TIMEOUT, missed);
+        }
+        ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                ReaderMetrics.METRICS_FAN_OUT_TIME, System.currentTimeMillis() - startTime);
+        return answered;
+    }
+
+    /**
+     * Makes the second call to the nodes slow to answer. A node due a second call while no call is
+     * free is asked again once the query is woken up by an answer or the next node due.
+     *
+     * @return how long until the next node is due a second call
+     */
+    private long hedge(
+            Iterable<NodeCall> running,
+            MetricsRequest request,
+            long now,
+            long deadline,
+            BlockingQueue<Attempt> finished) {
+        long nextHedge = Long.MAX_VALUE;
+        for (NodeCall call : running) {
+            if (call.hedged) {
+                continue;
+            }
+            long dueIn = call.startTime + hedgeDelayMillis - now;
+            if (dueIn > 0) {
+                nextHedge = Math.min(nextHedge, dueIn);
+            } else if (inFlight.tryAcquire()) {
+                call.hedged = true;
+                call.outstanding++;
+                ServiceMetrics.READER_METRICS_AGGREGATOR.updateStat(
+                        ReaderMetrics.METRICS_FAN_OUT_HEDGED_CALLS, 1);
+                call(call, request, deadline - now, finished);
+            }
+        }
+        return nextHedge;
+    }
+
+    /** Makes a call holding a permit, which is given back when the call finishes. */
+    private void call(
+            NodeCall call, MetricsRequest request, long timeout, BlockingQueue<Attempt> finished) {
+        AttemptObserver observer = new AttemptObserver(call, finished);
+        call.attempts.add(observer);
+        try {
+            netClient.getMetrics(call.node, request, timeout, observer);
+        } catch (Exception e) {
+            LOG.error(
+                    "Unable to collect stats for node, addr:{}, exception: {} ExceptionCode: {}",
+                    call.node.getInstanceIp(),
+                    e,
+                    StatExceptionCode.REQUEST_REMOTE_ERROR.toString());
+            StatsCollector.instance().logException(StatExceptionCode.REQUEST_REMOTE_ERROR);
+            observer.onError(e);
+        }
+    }
+
+    /** The calls made to one node for a query. */
+    private static class NodeCall {
+        private final InstanceDetails node;
+        private final String nodeId;
+        private final long startTime;
+        private boolean hedged;
+        // Calls to the node that have not finished.
+        private int outstanding = 1;
+        private final List<AttemptObserver> attempts = new ArrayList<>(2);
+
+        NodeCall(InstanceDetails node, long startTime) {
+            this.node = node;
+            this.nodeId = node.getInstanceId().toString();
+            this.startTime = startTime;
+        }
+
+        /** Cancels the calls to the node still running, once one answered or at the deadline. */
+        void cancel() {
+            for (AttemptObserver attempt : attempts) {
+                attempt.cancel();
+            }
+        }
+    }
+
+    /** A finished call, with the response of the node or null if the call failed. */
+    private static class Attempt {
+        private final NodeCall call;
+        private final MetricsResponse response;
+
+        Attempt(NodeCall call, MetricsResponse response) {
+            this.call = call;
+            this.response = response;
+        }
+    }
+
+    private class AttemptObserver
+            implements ClientResponseObserver<MetricsRequest, MetricsResponse> {
+        private final NodeCall call;
+        private final BlockingQueue<Attempt> finished;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile MetricsResponse response;
+        private volatile ClientCallStreamObserver<MetricsRequest> requestStream;
+
+        AttemptObserver(NodeCall call, BlockingQueue<Attempt> finished) {
+            this.call = call;
+            this.finished = finished;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<MetricsRequest> requestStream) {
+            this.requestStream = requestStream;
+        }
+
+        @Override
+        public void onNext(MetricsResponse value) {
+            response = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            LOG.info(
+                    "Metrics : Error occurred while getting Metrics for {}: {}",
+                    call.node.getInstanceIp(),
+                    t.getMessage());
+            finish(null);
+        }
+
+        @Override
+        public void onCompleted() {
+            finish(response);
+        }
+
+        private void finish(MetricsResponse value) {
+            if (done.compareAndSet(false, true)) {
+                inFlight.release();
+                finished.add(new Attempt(call, value));
+            }
+        }
+
+        /** Cancels the call if it is still running, and gives its permit back. */
+        void cancel() {
+            if (done.compareAndSet(false, true)) {
+                inFlight.release();
+                ClientCallStreamObserver<MetricsRequest> stream = requestStream;
+                if (stream != null) {
+                    stream.cancel("The metrics of the node are no longer needed", null);
+                }
+            }
+        }
+    }
+}
@@ -22,15 +22,12 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jooq.Record;
-import org.jooq.Result;
 import org.jooq.exception.DataAccessException;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
 import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
 import org.opensearch.performanceanalyzer.commons.stats.ServiceMetrics;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 import org.opensearch.performanceanalyzer.metrics.MetricsRestUtil;
-import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
 import org.opensearch.performanceanalyzer.model.MetricsModel;
 import org.opensearch.performanceanalyzer.net.NetClient;
 import org.opensearch.performanceanalyzer.rca.framework.metrics.ReaderMetrics;
@@ -56,6 +53,7 @@ public class QueryBatchRequestHandler extends MetricsHandler implements HttpHand
     private static final TimeUnit TIME_OUT_UNIT = TimeUnit.SECONDS;
     private NetClient netClient;
     MetricsRestUtil metricsRestUtil;
+    private final BatchMetricsQueryEngine queryEngine;
 
     public static final int DEFAULT_MAX_DATAPOINTS = 100800; // Must be non-negative
     public static final long DEFAULT_SAMPLING_PERIOD_MILLIS = 5000; // Must be a multiple of 5000
@@ -63,6 +61,7 @@ public class QueryBatchRequestHandler extends MetricsHandler implements HttpHand
     public QueryBatchRequestHandler(NetClient netClient, MetricsRestUtil metricsRestUtil) {
         this.netClient = netClient;
         this.metricsRestUtil = metricsRestUtil;
+        this.queryEngine = new BatchMetricsQueryEngine();
     }
 
     @Override
@@ -242,64 +241,7 @@ public class QueryBatchRequestHandler extends MetricsHandler implements HttpHand
     private int appendMetrics(
             Long timestamp, List<String> metrics, StringBuilder builder, int maxDatapoints)
             throws Exception {
-        maxDatapoints += 1;
-        builder.append("\"");
-        builder.append(timestamp);
-        builder.append("\":{");
-        MetricsDB db = MetricsDB.fetchExisting(timestamp);
-        for (int metricIndex = 0, numMetrics = metrics.size();
-                metricIndex < numMetrics;
-                metricIndex++) {
-            String metric = metrics.get(metricIndex);
-            Result<Record> results =
-                    db.queryMetric(
-                            metric,
-                            MetricsModel.ALL_METRICS.get(metric).dimensionNames,
-                            maxDatapoints);
-            if (results != null) {
-                maxDatapoints -= results.size();
-                if (maxDatapoints <= 0) {
-                    StatsCollector.instance()
-                            .logException(StatExceptionCode.BATCH_METRICS_EXCEEDED_MAX_DATAPOINTS);
-                    throw new InvalidParameterException(
-                            String.format(
-                                    "requested data exceeds the %d datapoints limit",
-                                    DEFAULT_MAX_DATAPOINTS));
-                }
-                builder.append("\"");
-                builder.append(metric);
-                builder.append("\":");
-                builder.append(results.formatJSON());
-                for (metricIndex += 1; metricIndex < numMetrics; metricIndex++) {
-                    metric = metrics.get(metricIndex);
-                    results =
-                            db.queryMetric(
-                                    metric,
-                                    MetricsModel.ALL_METRICS.get(metric).dimensionNames,
-                                    maxDatapoints);
-                    if (results != null) {
-                        maxDatapoints -= results.size();
-                        if (maxDatapoints <= 0) {
-                            StatsCollector.instance()
-                                    .logException(
-                                            StatExceptionCode
-                                                    .BATCH_METRICS_EXCEEDED_MAX_DATAPOINTS);
-                            throw new InvalidParameterException(
-                                    String.format(
-                                            "requested data exceeds the %d datapoints limit",
-                                            DEFAULT_MAX_DATAPOINTS));
-                        }
-                        builder.append(",\"");
-                        builder.append(metric);
-                        builder.append("\":");
-                        builder.append(results.formatJSON());
-                    }
-                }
-            }
-        }
-        builder.append("}");
-        db.remove();
-        return maxDatapoints - 1;
+        return queryEngine.appendMetrics(timestamp, metrics, builder, maxDatapoints);
     }
 
     /**
@@ -314,25 +256,8 @@ public class QueryBatchRequestHandler extends MetricsHandler implements HttpHand
             long samplingPeriod,
             int maxDatapoints)
             throws Exception {
-        StringBuilder responseJson = new StringBuilder();
-        responseJson.append("{");
-        Long metricsTimestamp = batchMetrics.ceiling(startTime);
-        if (metricsTimestamp != null && metricsTimestamp < endTime) {
-            maxDatapoints = appendMetrics(metricsTimestamp, metrics, responseJson, maxDatapoints);
-            metricsTimestamp =
-                    metricsTimestamp - metricsTimestamp % samplingPeriod + samplingPeriod;
-            metricsTimestamp = batchMetrics.ceiling(metricsTimestamp);
-            while (metricsTimestamp != null && metricsTimestamp < endTime) {
-                responseJson.append(",");
-                maxDatapoints =
-                        appendMetrics(metricsTimestamp, metrics, responseJson, maxDatapoints);
-                metricsTimestamp =
-                        metricsTimestamp - metricsTimestamp % samplingPeriod + samplingPeriod;
-                metricsTimestamp = batchMetrics.ceiling(metricsTimestamp);
-            }
-        }
-        responseJson.append("}");
-        return responseJson.toString();
+        return queryEngine.query(
+                batchMetrics, metrics, startTime, endTime, samplingPeriod, maxDatapoints);
     }
 
     private void sendResponse(HttpExchange exchange, String response, int status)
@@ -8,30 +8,33 @@ package org.opensearch.performanceanalyzer.rest;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import io.grpc.stub.StreamObserver;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.logging.log4j.util.Supplier;
-import org.jooq.Record;
-import org.jooq.Result;
 import org.opensearch.performanceanalyzer.AppContext;
 import org.opensearch.performanceanalyzer.commons.collectors.StatsCollector;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
 import org.opensearch.performanceanalyzer.commons.stats.metrics.StatExceptionCode;
 import org.opensearch.performanceanalyzer.commons.util.JsonConverter;
 import org.opensearch.performanceanalyzer.commons.util.Util;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
 import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
 import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.metrics.MetricsQueryCache;
+import org.opensearch.performanceanalyzer.metrics.MetricsResponseCodec;
 import org.opensearch.performanceanalyzer.metrics.MetricsRestUtil;
 import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
 import org.opensearch.performanceanalyzer.model.MetricAttributes;
@@ -50,17 +53,41 @@ import org.opensearch.performanceanalyzer.reader.ReaderMetricsProcessor;
 public class QueryMetricsRequestHandler extends MetricsHandler implements HttpHandler {
 
     private static final Logger LOG = LogManager.getLogger(QueryMetricsRequestHandler.class);
-    private static final int TIME_OUT_VALUE = 2;
-    private static final TimeUnit TIME_OUT_UNIT = TimeUnit.SECONDS;
+    public static final String STREAMING_CONF_NAME = "metrics-fanout-streaming";
     private NetClient netClient;
     MetricsRestUtil metricsRestUtil;
     private final AppContext appContext;
+    // The encoding the other nodes are asked to respond in.
+    private final MetricsEncoding responseEncoding;
+    private final MetricsFanOut fanOut;
+    // Whether nodes=all responses are sent in chunks as the nodes answer.
+    private final boolean streaming;
 
     public QueryMetricsRequestHandler(
             NetClient netClient, MetricsRestUtil metricsRestUtil, final AppContext appContext) {
+        this(
+                netClient,
+                metricsRestUtil,
+                appContext,
+                MetricsResponseCodec.encodingFromSettings(),
+                new MetricsFanOut(netClient),
+                Boolean.parseBoolean(
+                        PluginSettings.instance().getSettingValue(STREAMING_CONF_NAME, "false")));
+    }
+
+    QueryMetricsRequestHandler(
+            NetClient netClient,
+            MetricsRestUtil metricsRestUtil,
+            final AppContext appContext,
+            MetricsEncoding responseEncoding,
+            MetricsFanOut fanOut,
+            boolean streaming) {
         this.netClient = netClient;
         this.metricsRestUtil = metricsRestUtil;
         this.appContext = appContext;
+        this.responseEncoding = responseEncoding;
+        this.fanOut = fanOut;
+        this.streaming = streaming;
     }
 
     @Override
@@ -127,58 +154,50 @@ public class QueryMetricsRequestHandler extends MetricsHandler implements HttpHa
                     return;
                 }
 
-                String localResponse;
-                if (db != null) {
-                    Result<Record> metricResult = db.queryMetric(metricList, aggList, dimList);
-                    if (metricResult == null) {
-                        localResponse = "{}";
-                    } else {
-                        localResponse = metricResult.formatJSON();
-                    }
-                } else {
-                    // Empty JSON.
-                    localResponse = "{}";
-                }
-
-                String localResponseWithTimestamp =
-                        String.format(
-                                "{\"timestamp\": %d, \"data\": %s}", dbTimestamp, localResponse);
-                ConcurrentHashMap<String, String> nodeResponses = new ConcurrentHashMap<>();
+                MetricsResponse localResponse =
+                        MetricsQueryCache.instance()
+                                .query(
+                                        dbTimestamp,
+                                        db,
+                                        metricList,
+                                        aggList,
+                                        dimList,
+                                        MetricsEncoding.JSON);
+                // The responses of all the nodes are rendered to JSON once, when sent.
+                ConcurrentHashMap<String, MetricsResponse> nodeResponses =
+                        new ConcurrentHashMap<>();
                 final List<InstanceDetails> allNodes = appContext.getAllClusterInstances();
                 String localNodeId = "local";
                 if (allNodes.size() != 0) {
                     localNodeId = allNodes.get(0).getInstanceId().toString();
                 }
-                nodeResponses.put(localNodeId, localResponseWithTimestamp);
-                String response = metricsRestUtil.nodeJsonBuilder(nodeResponses);
+                nodeResponses.put(localNodeId, localResponse);
 
                 if (nodes == null || !nodes.equals("all") || allNodes.size() <= 1) {
-                    sendResponse(exchange, response, HttpURLConnection.HTTP_OK);
+                    sendResponse(
+                            exchange,
+                            metricsRestUtil.nodeResponsesJsonBuilder(nodeResponses),
+                            HttpURLConnection.HTTP_OK);
                 } else if (nodes.equals("all")) {
-                    CountDownLatch doneSignal = new CountDownLatch(allNodes.size() - 1);
-                    for (int i = 1; i < allNodes.size(); i++) {
-                        InstanceDetails node = allNodes.get(i);
-                        LOG.debug("Collecting remote stats");
-                        try {
-                            collectRemoteStats(
-                                    node, metricList, aggList, dimList, nodeResponses, doneSignal);
-                        } catch (Exception e) {
-                            LOG.error(
-                                    "Unable to collect stats for node, addr:{}, exception: {} ExceptionCode: {}",
-                                    node.getInstanceIp(),
-                                    e,
-                                    StatExceptionCode.REQUEST_REMOTE_ERROR.toString());
-                            StatsCollector.instance()
-                                    .logException(StatExceptionCode.REQUEST_REMOTE_ERROR);
-                        }
-                    }
-                    boolean completed = doneSignal.await(TIME_OUT_VALUE, TIME_OUT_UNIT);
-                    if (!completed) {
-                        LOG.debug("Timeout while collecting remote stats");
-                        StatsCollector.instance()
-                                .logException(StatExceptionCode.REQUEST_REMOTE_ERROR);
+                    MetricsRequest request =
+                            MetricsRequest.newBuilder()
+                                    .addAllMetricList(metricList)
+                                    .addAllAggList(aggList)
+                                    .addAllDimList(dimList)
+                                    .setEncoding(responseEncoding)
+                                    .build();
+                    List<InstanceDetails> remoteNodes = allNodes.subList(1, allNodes.size());
+                    if (streaming) {
+                        streamResponses(
+                                localNodeId,
+                                nodeResponses.get(localNodeId),
+                                remoteNodes,
+                                request,
+                                exchange);
+                    } else {
+                        fanOut.collect(remoteNodes, request, nodeResponses::putIfAbsent);
+                        sendResponseWhenRequestCompleted(nodeResponses, exchange);
                     }
-                    sendResponseWhenRequestCompleted(nodeResponses, exchange);
                 }
             } catch (InvalidParameterException e) {
                 LOG.error("DB file path : {}", db.getDBFilePath());
@@ -213,28 +232,6 @@ public class QueryMetricsRequestHandler extends MetricsHandler implements HttpHa
         }
     }
 
-    void collectRemoteStats(
-            InstanceDetails node,
-            List<String> metricList,
-            List<String> aggList,
-            List<String> dimList,
-            final ConcurrentHashMap<String, String> nodeResponses,
-            final CountDownLatch doneSignal) {
-        MetricsRequest request =
-                MetricsRequest.newBuilder()
-                        .addAllMetricList(metricList)
-                        .addAllAggList(aggList)
-                        .addAllDimList(dimList)
-                        .build();
-        ThreadSafeStreamObserver responseObserver =
-                new ThreadSafeStreamObserver(node, nodeResponses, doneSignal);
-        try {
-            this.netClient.getMetrics(node, request, responseObserver);
-        } catch (Exception e) {
-            LOG.error("Metrics : Exception occurred while getting Metrics {}", e.getCause());
-        }
-    }
-
     private boolean isUnitLookUp(HttpExchange exchange) throws IOException {
         if (exchange.getRequestURI().toString().equals(Util.METRICS_QUERY_URL + "/units")) {
             return true;
@@ -294,18 +291,50 @@ public class QueryMetricsRequestHandler extends MetricsHandler implements HttpHa
     }
 
     private void sendResponseWhenRequestCompleted(
-            ConcurrentHashMap<String, String> nodeResponses, HttpExchange exchange) {
+            ConcurrentHashMap<String, MetricsResponse> nodeResponses, HttpExchange exchange) {
         if (nodeResponses.size() == 0) {
             return;
         }
-        String response = metricsRestUtil.nodeJsonBuilder(nodeResponses);
         try {
+            String response = metricsRestUtil.nodeResponsesJsonBuilder(nodeResponses);
             sendResponse(exchange, response, HttpURLConnection.HTTP_OK);
         } catch (Exception e) {
             LOG.error("Exception occurred while sending response {}", e.getCause());
         }
     }
 
+    /**
+     * Sends the response in chunks, the local node first and then the other nodes as they answer.
+     * The status is sent before the other nodes answer, so a later failure only ends the response.
+     */
+    private void streamResponses(
+            String localNodeId,
+            MetricsResponse localResponse,
+            List<InstanceDetails> remoteNodes,
+            MetricsRequest request,
+            HttpExchange exchange)
+            throws IOException, InterruptedException {
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        try (Writer out =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            out.write("{");
+            metricsRestUtil.writeNodeResponse(out, localNodeId, localResponse, true);
+            out.flush();
+            fanOut.collect(
+                    remoteNodes,
+                    request,
+                    (nodeId, response) -> {
+                        metricsRestUtil.writeNodeResponse(out, nodeId, response, false);
+                        out.flush();
+                    });
+            out.write("}");
+        } catch (IOException e) {
+            LOG.error("Exception occurred while streaming response {}", e.toString());
+        }
+    }
+
     private void sendResponse(HttpExchange exchange, String response, int status)
             throws IOException {
         try (OutputStream os = exchange.getResponseBody()) {
@@ -316,34 +345,4 @@ public class QueryMetricsRequestHandler extends MetricsHandler implements HttpHa
             exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, response.length());
         }
     }
-
-    private static class ThreadSafeStreamObserver implements StreamObserver<MetricsResponse> {
-        private final CountDownLatch doneSignal;
-        private final ConcurrentHashMap<String, String> nodeResponses;
-        private final InstanceDetails node;
-
-        ThreadSafeStreamObserver(
-                InstanceDetails node,
-                ConcurrentHashMap<String, String> nodeResponses,
-                CountDownLatch doneSignal) {
-            this.node = node;
-            this.doneSignal = doneSignal;
-            this.nodeResponses = nodeResponses;
-        }
-
-        public void onNext(MetricsResponse value) {
-            nodeResponses.putIfAbsent(node.getInstanceId().toString(), value.getMetricsResult());
-        }
-
-        @Override
-        public void onError(Throwable t) {
-            LOG.info("Metrics : Error occurred while getting Metrics for " + node.getInstanceIp());
-            doneSignal.countDown();
-        }
-
-        @Override
-        public void onCompleted() {
-            doneSignal.countDown();
-        }
-    }
 }
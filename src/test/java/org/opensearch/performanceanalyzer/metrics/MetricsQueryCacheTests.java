@@ -0,0 +1,162 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.metricsdb.Dimensions;
+import org.opensearch.performanceanalyzer.metricsdb.Metric;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+public class MetricsQueryCacheTests {
+    private static final long TIMESTAMP = 1553713380L;
+    private static final List<String> METRICS = Arrays.asList("cpu");
+    private static final List<String> AGGS = Arrays.asList("sum");
+    private static final List<String> DIMS = Arrays.asList("shard");
+
+    private CountingMetricsDB db;
+
+    public MetricsQueryCacheTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        System.setProperty("java.io.tmpdir", "/tmp");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        db = new CountingMetricsDB(TIMESTAMP);
+        db.createMetric(Metric.cpu(10D), Arrays.asList("shard"));
+        Dimensions dimensions = new Dimensions();
+        dimensions.put("shard", "1");
+        db.putMetric(Metric.cpu(4D), dimensions, 0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        db.remove();
+    }
+
+    @Test
+    public void testSameQueryCached() throws Exception {
+        MetricsQueryCache cache = new MetricsQueryCache(60000, 16);
+        MetricsResponse first = query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        MetricsResponse second = query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        assertSame(first, second);
+        assertEquals(1, db.queries.get());
+
+        // Another question, encoding or metricsdb is another query.
+        query(cache, TIMESTAMP, Arrays.asList(), MetricsEncoding.JSON);
+        query(cache, TIMESTAMP, DIMS, MetricsEncoding.COLUMNAR);
+        query(cache, TIMESTAMP + 5000, DIMS, MetricsEncoding.JSON);
+        assertEquals(4, db.queries.get());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        MetricsQueryCache cache = new MetricsQueryCache(0, 16);
+        MetricsResponse first = query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        MetricsResponse second = query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        assertEquals(first, second);
+        assertEquals(2, db.queries.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiredAndInvalidated() throws Exception {
+        MetricsQueryCache cache = new MetricsQueryCache(50, 16);
+        query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        Thread.sleep(100);
+        query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        assertEquals(2, db.queries.get());
+
+        query(cache, TIMESTAMP + 5000, DIMS, MetricsEncoding.JSON);
+        assertEquals(2, cache.size());
+        cache.invalidateBefore(TIMESTAMP + 5000);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConcurrentQueriesCoalesced() throws Exception {
+        MetricsQueryCache cache = new MetricsQueryCache(60000, 16);
+        db.release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MetricsResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(
+                        executor.submit(
+                                () -> query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON)));
+            }
+            // Wait for the queries to get to the cache, then let the first one finish.
+            Thread.sleep(200);
+            db.release.countDown();
+            MetricsResponse first = responses.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<MetricsResponse> response : responses) {
+                assertSame(first, response.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, db.queries.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureNotCached() throws Exception {
+        MetricsQueryCache cache = new MetricsQueryCache(60000, 16);
+        try {
+            cache.query(
+                    TIMESTAMP, db, METRICS, Arrays.asList("median"), DIMS, MetricsEncoding.JSON);
+            fail("The invalid aggregation was not rejected");
+        } catch (Exception expected) {
+            assertEquals(0, cache.size());
+        }
+        query(cache, TIMESTAMP, DIMS, MetricsEncoding.JSON);
+        assertEquals(1, cache.size());
+    }
+
+    private MetricsResponse query(
+            MetricsQueryCache cache, long dbTimestamp, List<String> dims, MetricsEncoding encoding)
+            throws Exception {
+        return cache.query(dbTimestamp, db, METRICS, AGGS, dims, encoding);
+    }
+
+    private static class CountingMetricsDB extends MetricsDB {
+        private final AtomicInteger queries = new AtomicInteger();
+        private volatile CountDownLatch release;
+
+        CountingMetricsDB(long windowStartTime) throws Exception {
+            super(windowStartTime);
+        }
+
+        @Override
+        public Result<Record> queryMetric(
+                List<String> metrics, List<String> aggregations, List<String> dimensions)
+                throws Exception {
+            queries.incrementAndGet();
+            if (release != null) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return super.queryMetric(metrics, aggregations, dimensions);
+        }
+    }
+}
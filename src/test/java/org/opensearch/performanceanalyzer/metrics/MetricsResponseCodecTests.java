@@ -0,0 +1,190 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.grpc.MetricsEncoding;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.metricsdb.Dimensions;
+import org.opensearch.performanceanalyzer.metricsdb.Metric;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+public class MetricsResponseCodecTests {
+    private static final DSLContext CONTEXT = DSL.using(SQLDialect.SQLITE);
+    private static final long TIMESTAMP = 1553713380L;
+
+    public MetricsResponseCodecTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        System.setProperty("java.io.tmpdir", "/tmp");
+    }
+
+    @Test
+    public void testColumnarRendersSameJson() throws Exception {
+        Result<Record> result = resultWithNulls();
+        MetricsResponse columnar =
+                MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.COLUMNAR);
+        assertTrue(columnar.hasColumnarResult());
+        String expected = MetricsResponseCodec.toJson(TIMESTAMP, result);
+        assertEquals(expected, render(columnar));
+        assertEquals(
+                result.formatJSON(),
+                MetricsResponseCodec.decode(columnar.getColumnarResult()).formatJSON());
+    }
+
+    @Test
+    public void testColumnarRendersSameJsonForQuery() throws Exception {
+        MetricsDB db = new MetricsDB(TIMESTAMP);
+        try {
+            db.createMetric(Metric.cpu(10D), Arrays.asList("shard", "index"));
+            for (int i = 0; i < 10; i++) {
+                Dimensions dimensions = new Dimensions();
+                dimensions.put("shard", String.valueOf(i % 3));
+                dimensions.put("index", "index" + (i % 2));
+                db.putMetric(Metric.cpu((double) i), dimensions, 0);
+            }
+            Result<Record> result =
+                    db.queryMetric(
+                            Arrays.asList("cpu"),
+                            Arrays.asList("sum"),
+                            Arrays.asList("shard", "index"));
+            MetricsResponse json =
+                    MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.JSON);
+            MetricsResponse columnar =
+                    MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.COLUMNAR);
+            assertTrue(columnar.hasColumnarResult());
+            assertEquals(json.getMetricsResult(), render(columnar));
+        } finally {
+            db.remove();
+        }
+    }
+
+    @Test
+    public void testNoResult() throws Exception {
+        MetricsResponse columnar =
+                MetricsResponseCodec.buildResponse(TIMESTAMP, null, MetricsEncoding.COLUMNAR);
+        assertTrue(columnar.hasColumnarResult());
+        assertFalse(columnar.getColumnarResult().getHasData());
+        assertEquals("{\"timestamp\": " + TIMESTAMP + ", \"data\": {}}", render(columnar));
+    }
+
+    @Test
+    public void testOtherColumnTypesSentAsJson() throws Exception {
+        Field<?>[] fields = {
+            DSL.field(DSL.name("ShardID"), String.class), DSL.field(DSL.name("Count"), Long.class)
+        };
+        Result<Record> result = CONTEXT.newResult(fields);
+        Record record = CONTEXT.newRecord(fields);
+        record.fromArray("1", 5L);
+        result.add(record);
+
+        MetricsResponse response =
+                MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.COLUMNAR);
+        assertFalse(response.hasColumnarResult());
+        assertEquals(MetricsResponseCodec.toJson(TIMESTAMP, result), response.getMetricsResult());
+    }
+
+    @Test
+    public void testNodeResponsesJsonBuilder() throws Exception {
+        Result<Record> result = resultWithNulls();
+        String json = MetricsResponseCodec.toJson(TIMESTAMP, result);
+        ConcurrentHashMap<String, String> jsonResponses = new ConcurrentHashMap<>();
+        jsonResponses.put("node1", json);
+        jsonResponses.put("node2", json);
+        // An old node answering in JSON, and a node answering in columns.
+        ConcurrentHashMap<String, MetricsResponse> nodeResponses = new ConcurrentHashMap<>();
+        nodeResponses.put(
+                "node1",
+                MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.JSON));
+        nodeResponses.put(
+                "node2",
+                MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.COLUMNAR));
+
+        MetricsRestUtil metricsRestUtil = new MetricsRestUtil();
+        assertEquals(
+                metricsRestUtil.nodeJsonBuilder(jsonResponses),
+                metricsRestUtil.nodeResponsesJsonBuilder(nodeResponses));
+    }
+
+    /** Serialized size and coordinator time of the JSON and the columnar responses. */
+    // @Test
+    public void perfTest() throws Exception {
+        System.out.println("GetMetrics response, json vs columnar");
+        for (int rows : new int[] {100, 1000, 10000}) {
+            Field<?>[] fields = {
+                DSL.field(DSL.name("ShardID"), String.class),
+                DSL.field(DSL.name("IndexName"), String.class),
+                DSL.field(DSL.name("Operation"), String.class),
+                DSL.field(DSL.name("CPU_Utilization"), Double.class)
+            };
+            Result<Record> result = CONTEXT.newResult(fields);
+            for (int i = 0; i < rows; i++) {
+                Record record = CONTEXT.newRecord(fields);
+                record.fromArray(
+                        String.valueOf(i % 50), "index" + (i % 10), "shardbulk", i * 0.25d);
+                result.add(record);
+            }
+            MetricsResponse json =
+                    MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.JSON);
+            MetricsResponse columnar =
+                    MetricsResponseCodec.buildResponse(TIMESTAMP, result, MetricsEncoding.COLUMNAR);
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                render(MetricsResponse.parseFrom(columnar.toByteArray()));
+            }
+            long columnarTime = (System.nanoTime() - start) / 10 / 1000;
+            System.out.println(
+                    rows
+                            + " rows: json "
+                            + json.getSerializedSize()
+                            + " bytes, columnar "
+                            + columnar.getSerializedSize()
+                            + " bytes, rendered in "
+                            + columnarTime
+                            + "us");
+        }
+    }
+
+    private static Result<Record> resultWithNulls() {
+        Field<?>[] fields = {
+            DSL.field(DSL.name("ShardID"), String.class),
+            DSL.field(DSL.name("Operation"), String.class),
+            DSL.field(DSL.name("CPU_Utilization"), Double.class),
+            DSL.field(DSL.name("Paging_RSS"), Double.class)
+        };
+        Result<Record> result = CONTEXT.newResult(fields);
+        Object[][] rows = {
+            {null, "GC", 0.0d, null},
+            {"1", "shardbulk", 12.5d, 3.0d},
+            {"1", "shardquery", null, 1.5d},
+            {"2", "shardbulk", 7.25d, 0.0d},
+        };
+        for (Object[] row : rows) {
+            Record record = CONTEXT.newRecord(fields);
+            record.fromArray(row);
+            result.add(record);
+        }
+        return result;
+    }
+
+    private static String render(MetricsResponse response) throws Exception {
+        StringWriter out = new StringWriter();
+        MetricsResponseCodec.writeJson(response, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.metricsdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+import org.jooq.BatchBindStep;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+
+public class PartitionedMetricsDBTests {
+    // Both windows fall into the same 10 minute partition.
+    private static final long FIRST_WINDOW = 1553713380000L;
+    private static final long SECOND_WINDOW = 1553713385000L;
+
+    public PartitionedMetricsDBTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+    }
+
+    @Before
+    public void setUp() {
+        System.setProperty("java.io.tmpdir", "/tmp");
+        PluginSettings.instance()
+                .overrideProperty(
+                        PartitionedMetricsDB.STORAGE_MODE_CONF_NAME,
+                        PartitionedMetricsDB.STORAGE_MODE_PARTITIONED);
+        deletePartitions();
+    }
+
+    @After
+    public void tearDown() {
+        deletePartitions();
+        PluginSettings.instance()
+                .overrideProperty(
+                        PartitionedMetricsDB.STORAGE_MODE_CONF_NAME,
+                        PartitionedMetricsDB.STORAGE_MODE_FILE_PER_WINDOW);
+    }
+
+    @Test
+    public void testWindowsShareOnePartition() throws Exception {
+        MetricsDB first = MetricsDB.createForWindow(FIRST_WINDOW);
+        writeCpu(first, 10D, 4D);
+        first.commit();
+        MetricsDB second = MetricsDB.createForWindow(SECOND_WINDOW);
+        writeCpu(second, 1D, 2D);
+        second.commit();
+
+        assertEquals(first.getDBFilePath(), second.getDBFilePath());
+        assertEquals(1, PartitionedMetricsDB.listPartitionFiles().size());
+        assertFalse(new File(MetricsDB.getDBFilePath(FIRST_WINDOW)).exists());
+
+        assertEquals(14D, sumCpu(first), 0);
+        assertEquals(3D, sumCpu(second), 0);
+        assertEquals(2, second.queryMetric("cpu").size());
+        // Only the window's own columns are exposed.
+        assertEquals(6, second.queryMetric("cpu").fields().length);
+        first.remove();
+        second.remove();
+    }
+
+    @Test
+    public void testFetchExisting() throws Exception {
+        MetricsDB db = MetricsDB.createForWindow(FIRST_WINDOW);
+        writeCpu(db, 10D, 4D);
+        BatchBindStep handle = db.startBatchPut(Metric.cpu(0D), Arrays.asList("shard", "index"));
+        handle.bind("3", "ac-test", 1D, 1D, 1D, 1D);
+        handle.execute();
+        db.commit();
+        db.remove();
+
+        assertEquals(
+                Arrays.asList(FIRST_WINDOW), Arrays.asList(MetricsDB.listOnDiskFiles().toArray()));
+        MetricsDB existing = MetricsDB.fetchExisting(FIRST_WINDOW);
+        assertTrue(existing.metricExists("cpu"));
+        assertFalse(existing.metricExists("rss"));
+        assertEquals(15D, sumCpu(existing), 0);
+        Result<Record> rows = existing.queryMetric("cpu", Arrays.asList("shard", "index"), 10);
+        assertEquals(3, rows.size());
+        assertNull(existing.queryMetric("rss", Arrays.asList("shard", "index"), 10));
+        existing.remove();
+    }
+
+    @Test(expected = Exception.class)
+    public void testFetchExistingUnknownWindow() throws Exception {
+        MetricsDB db = MetricsDB.createForWindow(FIRST_WINDOW);
+        db.commit();
+        db.remove();
+        MetricsDB.fetchExisting(SECOND_WINDOW);
+    }
+
+    @Test
+    public void testDeleteWindow() throws Exception {
+        MetricsDB first = MetricsDB.createForWindow(FIRST_WINDOW);
+        writeCpu(first, 10D, 4D);
+        first.commit();
+        first.remove();
+        MetricsDB second = MetricsDB.createForWindow(SECOND_WINDOW);
+        writeCpu(second, 1D, 2D);
+        second.commit();
+        second.remove();
+
+        MetricsDB.deleteOnDiskFile(FIRST_WINDOW);
+        assertEquals(
+                Arrays.asList(SECOND_WINDOW), Arrays.asList(MetricsDB.listOnDiskFiles().toArray()));
+        assertEquals(1, PartitionedMetricsDB.listPartitionFiles().size());
+        // The rows of the deleted window are gone as well.
+        PartitionedMetricsDB partition = PartitionedMetricsDB.fetchPartition(SECOND_WINDOW);
+        assertEquals(2, partition.getDSLContext().fetchCount(DSL.table(DSL.name("main", "cpu"))));
+        partition.remove();
+
+        // The partition is deleted with its last window.
+        MetricsDB.deleteOnDiskFile(SECOND_WINDOW);
+        assertTrue(MetricsDB.listOnDiskFiles().isEmpty());
+        assertTrue(PartitionedMetricsDB.listPartitionFiles().isEmpty());
+    }
+
+    @Test
+    public void testDeleteWindowShrinksPartition() throws Exception {
+        double[] values = new double[10000];
+        Arrays.fill(values, 1D);
+        MetricsDB first = MetricsDB.createForWindow(FIRST_WINDOW);
+        writeCpu(first, values);
+        first.commit();
+        first.remove();
+        MetricsDB second = MetricsDB.createForWindow(SECOND_WINDOW);
+        writeCpu(second, 1D, 2D);
+        second.commit();
+        second.remove();
+
+        File partitionFile = new File(PartitionedMetricsDB.getPartitionFilePath(FIRST_WINDOW));
+        long sizeBefore = partitionFile.length();
+        MetricsDB.deleteOnDiskFile(FIRST_WINDOW);
+        assertTrue(partitionFile.exists());
+        assertTrue(partitionFile.length() < sizeBefore / 2);
+    }
+
+    @Test
+    public void testOpenPartitionIsKeptUntilClosed() throws Exception {
+        long window = System.currentTimeMillis() / 5000 * 5000;
+        MetricsDB db = MetricsDB.createForWindow(window);
+        writeCpu(db, 1D);
+        db.commit();
+        db.remove();
+
+        // A new window may still be written to the partition.
+        MetricsDB.deleteOnDiskFile(window);
+        PartitionedMetricsDB.deleteEmptyPartitions();
+        assertTrue(MetricsDB.listOnDiskFiles().isEmpty());
+        assertEquals(1, PartitionedMetricsDB.listPartitionFiles().size());
+    }
+
+    @Test
+    public void testEmptyClosedPartitionIsSwept() throws Exception {
+        MetricsDB db = MetricsDB.createForWindow(FIRST_WINDOW);
+        writeCpu(db, 1D);
+        db.commit();
+        db.remove();
+        // Empty the partition without deleting its file, e.g. as left by a restart.
+        try (Connection conn =
+                DriverManager.getConnection(
+                        "jdbc:sqlite:" + PartitionedMetricsDB.getPartitionFilePath(FIRST_WINDOW))) {
+            DSL.using(conn, SQLDialect.SQLITE)
+                    .deleteFrom(DSL.table(DSL.name("main", PartitionedMetricsDB.WINDOWS_TABLE)))
+                    .execute();
+        }
+        assertEquals(1, PartitionedMetricsDB.listPartitionFiles().size());
+
+        assertTrue(MetricsDB.listOnDiskFiles().isEmpty());
+        assertTrue(PartitionedMetricsDB.listPartitionFiles().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncorrectDimensionNum() throws Exception {
+        MetricsDB db = MetricsDB.createForWindow(FIRST_WINDOW);
+        try {
+            db.createMetric(Metric.cpu(0D), Arrays.asList("shard", "index"));
+            db.startBatchPut("cpu", 3);
+        } finally {
+            db.remove();
+        }
+    }
+
+    private static void writeCpu(MetricsDB db, double... values) {
+        List<String> dims = Arrays.asList("shard", "index");
+        db.createMetric(Metric.cpu(0D), dims);
+        for (int i = 0; i < values.length; i++) {
+            Dimensions dimensions = new Dimensions();
+            dimensions.put("shard", String.valueOf(i));
+            dimensions.put("index", "ac-test");
+            db.putMetric(Metric.cpu(values[i]), dimensions, 0);
+        }
+    }
+
+    private static double sumCpu(MetricsDB db) throws Exception {
+        Result<Record> res =
+                db.queryMetric(Arrays.asList("cpu"), Arrays.asList("sum"), Arrays.asList());
+        return Double.parseDouble(res.get(0).get("cpu").toString());
+    }
+
+    private static void deletePartitions() {
+        for (Path path : PartitionedMetricsDB.listPartitionFiles()) {
+            for (String suffix : Arrays.asList("", "-wal", "-shm")) {
+                new File(path.toString() + suffix).delete();
+            }
+        }
+    }
+}
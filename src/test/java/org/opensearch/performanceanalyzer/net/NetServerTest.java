@@ -0,0 +1,50 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.net;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.PerformanceAnalyzerApp;
+
+public class NetServerTest {
+
+    @Before
+    public void setUp() {
+        PerformanceAnalyzerApp.initAggregators();
+    }
+
+    @Test
+    public void testFullExecutorRunsOnCaller() throws Exception {
+        ExecutorService executor = NetServer.buildRpcExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Occupy the thread and the queue.
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> {});
+            Thread caller = Thread.currentThread();
+            Thread[] ranOn = new Thread[1];
+            executor.execute(() -> ranOn[0] = Thread.currentThread());
+            assertSame(caller, ranOn[0]);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
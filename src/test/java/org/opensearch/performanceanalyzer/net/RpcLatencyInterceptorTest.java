@@ -0,0 +1,26 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class RpcLatencyInterceptorTest {
+
+    @Test
+    public void testBucketNames() {
+        RpcLatencyInterceptor interceptor = new RpcLatencyInterceptor();
+        assertEquals("publish_le_1ms", interceptor.bucketName("publish", 0));
+        assertEquals("publish_le_1ms", interceptor.bucketName("publish", 1));
+        assertEquals("publish_le_5ms", interceptor.bucketName("publish", 2));
+        assertEquals("getMetrics_le_1000ms", interceptor.bucketName("getMetrics", 1000));
+        assertEquals("getMetrics_gt_1000ms", interceptor.bucketName("getMetrics", 1001));
+        // The names are built once per method.
+        assertSame(interceptor.bucketName("publish", 7), interceptor.bucketName("publish", 8));
+    }
+}
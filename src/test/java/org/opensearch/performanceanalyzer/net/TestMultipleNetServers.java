@@ -168,6 +168,7 @@ public class TestMultipleNetServers {
                 new DataMsg(
                         gNode2, Lists.newArrayList(gNode1), Collections.singletonList(flowUnit));
         wireHopper2.sendData(dmsg);
+        wireHopper2.flush();
         wireHopper1
                 .getSubscriptionManager()
                 .setCurrentLocus(RcaConsts.RcaTagConstants.LOCUS_DATA_NODE);
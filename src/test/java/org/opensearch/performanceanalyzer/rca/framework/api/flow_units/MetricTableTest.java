@@ -0,0 +1,108 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.api.flow_units;
+
+
+import java.util.Arrays;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.rca.framework.api.persist.SQLParsingUtil;
+
+public class MetricTableTest {
+    @Test
+    public void testBuiltTable() {
+        MetricTable table =
+                new MetricTable.Builder(Arrays.asList("IndexName", "ShardID"), Arrays.asList("sum"))
+                        .addRow(new String[] {"logs", "0"}, new double[] {10.5})
+                        .addRow(new String[] {"logs", "1"}, new double[] {2.0})
+                        .addRow(new String[] {"metrics", "0"}, new double[] {Double.NaN})
+                        .build();
+
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(Arrays.asList("IndexName", "ShardID", "sum"), table.getColumnNames());
+        int index = table.getColumn("IndexName");
+        int shard = table.getColumn("ShardID");
+        int sum = table.getColumn("sum");
+        Assert.assertEquals(-1, table.getColumn("max"));
+
+        Assert.assertTrue(table.isDimensionColumn(index));
+        Assert.assertFalse(table.isValueColumn(index));
+        Assert.assertFalse(table.isDimensionColumn(sum));
+        Assert.assertTrue(table.isValueColumn(sum));
+
+        Assert.assertEquals(2, table.getCardinality(index));
+        Assert.assertArrayEquals(new int[] {0, 1}, table.getRows(index, "logs"));
+        Assert.assertArrayEquals(new int[0], table.getRows(index, "unknown"));
+        Assert.assertEquals(table.getCode(index, 0), table.getCode(index, 1));
+        Assert.assertEquals("metrics", table.decode(index, table.getCode(index, 2)));
+        Assert.assertEquals("1", table.getDimension(shard, 1));
+        Assert.assertEquals(10.5, table.getValue(sum, 0), 0);
+        Assert.assertTrue(Double.isNaN(table.getValue(sum, 2)));
+        Assert.assertEquals(10.5, table.getValue("IndexName", "logs", "sum"), 0);
+        Assert.assertTrue(Double.isNaN(table.getValue("IndexName", "logs", "max")));
+    }
+
+    @Test
+    public void testReadDataFromTable() {
+        Field<String> memType = AllMetrics.HeapDimension.MEM_TYPE.getField();
+        String heap = AllMetrics.GCType.HEAP.toString();
+        String eden = AllMetrics.GCType.EDEN.toString();
+        MetricTable table =
+                new MetricTable.Builder(
+                                Arrays.asList(memType.getName()), Arrays.asList(MetricsDB.MAX))
+                        .addRow(new String[] {heap}, new double[] {512})
+                        .addRow(new String[] {eden}, new double[] {64})
+                        .build();
+        Result<Record> result = table.toResult();
+
+        Assert.assertEquals(
+                512.0,
+                SQLParsingUtil.readDataFromTable(table, memType, heap, MetricsDB.MAX),
+                0);
+        Assert.assertEquals(
+                SQLParsingUtil.readDataFromSqlResult(result, memType, eden, MetricsDB.MAX),
+                SQLParsingUtil.readDataFromTable(table, memType, eden, MetricsDB.MAX),
+                0);
+        Assert.assertTrue(
+                Double.isNaN(
+                        SQLParsingUtil.readDataFromTable(
+                                table, memType, AllMetrics.GCType.OLD_GEN.toString(), "sum")));
+    }
+
+    @Test
+    public void testBuilderAndResultAdapter() {
+        MetricTable table =
+                new MetricTable.Builder(Arrays.asList("Operation"), Arrays.asList("sum", "max"))
+                        .addRow(new String[] {"shardbulk"}, new double[] {3, 2})
+                        .addRow(new String[] {"search"}, new double[] {5, Double.NaN})
+                        .build();
+        MetricFlowUnit flowUnit = new MetricFlowUnit(1234, table);
+        Assert.assertFalse(flowUnit.isEmpty());
+        Assert.assertSame(table, flowUnit.getTable());
+
+        Result<Record> result = flowUnit.getData();
+        Assert.assertSame(result, flowUnit.getData());
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("search", result.get(1).getValue("Operation", String.class));
+        Assert.assertEquals(5.0, result.get(1).getValue("sum", Double.class), 0);
+        Assert.assertNull(result.get(1).getValue("max"));
+
+        // A query result is not converted to a table.
+        Assert.assertNull(new MetricFlowUnit(1234, result).getTable());
+        Assert.assertNull(new MetricFlowUnit(1234).getTable());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderRejectsMismatchedRow() {
+        new MetricTable.Builder(Arrays.asList("Operation"), Arrays.asList("sum"))
+                .addRow(new String[] {"search"}, new double[] {1, 2});
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+public class MetricsDBQueryCacheTest {
+    private static final MetricQueryKey CPU_BY_SHARD =
+            new MetricQueryKey("CPU_Utilization", Arrays.asList("ShardID"), "sum");
+
+    private MetricsDBQueryCache cache;
+    private MetricsDB db;
+    private AtomicInteger queries;
+
+    @Before
+    public void setUp() {
+        cache = new MetricsDBQueryCache();
+        db = Mockito.mock(MetricsDB.class);
+        queries = new AtomicInteger();
+    }
+
+    @Test
+    public void testQueryRunsOncePerGeneration() {
+        cache.advance(1000L, db);
+        Result<Record> first = cache.get(db, CPU_BY_SHARD, this::query);
+        Result<Record> second =
+                cache.get(
+                        db,
+                        new MetricQueryKey("CPU_Utilization", Arrays.asList("ShardID"), "sum"),
+                        this::query);
+        assertSame(first, second);
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.get(db, MetricQueryKey.allRows("CPU_Utilization"), this::query);
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void testNewGenerationDropsResults() {
+        cache.advance(1000L, db);
+        Result<Record> first = cache.get(db, CPU_BY_SHARD, this::query);
+
+        MetricsDB published = Mockito.mock(MetricsDB.class);
+        cache.advance(6000L, published);
+        assertNotSame(first, cache.get(published, CPU_BY_SHARD, this::query));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void testOtherMetricsDBIsNotCached() {
+        cache.get(db, CPU_BY_SHARD, this::query);
+        cache.get(db, CPU_BY_SHARD, this::query);
+        assertEquals(2, queries.get());
+
+        cache.advance(1000L, Mockito.mock(MetricsDB.class));
+        cache.get(db, CPU_BY_SHARD, this::query);
+        assertEquals(3, queries.get());
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void testFailedQueryIsNotCached() throws Exception {
+        cache.advance(1000L, db);
+        try {
+            cache.get(
+                    db,
+                    CPU_BY_SHARD,
+                    () -> {
+                        throw new Exception("table does not exist");
+                    });
+            fail();
+        } catch (Exception expected) {
+            assertEquals("table does not exist", expected.getMessage());
+        }
+        cache.get(db, CPU_BY_SHARD, this::query);
+        assertEquals(1, queries.get());
+    }
+
+    private Result<Record> query() {
+        queries.incrementAndGet();
+        return DSL.using(SQLDialect.SQLITE).newResult();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.AppContext;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.reader.ClusterDetailsEventProcessor;
+import org.opensearch.performanceanalyzer.reader.ClusterDetailsEventProcessor.NodeDetails;
+
+public class ClusterMembershipTest {
+    private static final NodeDetails SELF =
+            new NodeDetails(
+                    AllMetrics.NodeRole.ELECTED_CLUSTER_MANAGER, "node0", "127.0.0.1", true);
+    private static final NodeDetails DATA_1 =
+            new NodeDetails(AllMetrics.NodeRole.DATA, "node1", "127.0.0.2", false);
+    private static final NodeDetails DATA_2 =
+            new NodeDetails(AllMetrics.NodeRole.DATA, "node2", "127.0.0.2", false);
+
+    @Test
+    public void testLookups() {
+        ClusterMembership membership =
+                new ClusterMembership(1, Arrays.asList(SELF, DATA_1, DATA_2));
+        assertEquals(3, membership.getAllInstances().size());
+        assertEquals(new InstanceDetails(SELF), membership.getAllInstances().get(0));
+        assertEquals(2, membership.getPeerInstances().size());
+        assertFalse(membership.getPeerInstances().contains(new InstanceDetails(SELF)));
+
+        assertTrue(membership.contains(new InstanceDetails.Id("node0")));
+        assertTrue(membership.contains(new InstanceDetails.Id("node2")));
+        assertFalse(membership.contains(new InstanceDetails.Id("node3")));
+
+        assertEquals(
+                new InstanceDetails(DATA_1),
+                membership.getPeerInstance(new InstanceDetails.Id("node1")));
+        // The current node and unknown nodes are not peers.
+        assertEquals(
+                AllMetrics.NodeRole.UNKNOWN,
+                membership.getPeerInstance(new InstanceDetails.Id("node0")).getRole());
+        assertEquals(
+                AllMetrics.NodeRole.UNKNOWN,
+                membership.getPeerInstance(new InstanceDetails.Id("node3")).getRole());
+
+        assertEquals(2, membership.getDataNodeInstances().size());
+        assertEquals(
+                1,
+                membership.getInstancesByRole(AllMetrics.NodeRole.ELECTED_CLUSTER_MANAGER).size());
+        assertEquals(2, membership.getInstancesByIp(new InstanceDetails.Ip("127.0.0.2")).size());
+        assertTrue(membership.getInstancesByIp(new InstanceDetails.Ip("127.0.0.3")).isEmpty());
+    }
+
+    @Test
+    public void testElectedClusterManagerWithDataRole() {
+        NodeDetails dataManager =
+                new NodeDetails(AllMetrics.NodeRole.DATA, "node0", "127.0.0.1", true);
+        ClusterMembership membership = new ClusterMembership(1, Arrays.asList(dataManager, DATA_1));
+        assertEquals(
+                AllMetrics.NodeRole.ELECTED_CLUSTER_MANAGER,
+                membership.getAllInstances().get(0).getRole());
+        // The elected cluster manager holds data, so it is still one of the data nodes.
+        assertEquals(
+                Arrays.asList(new InstanceDetails(dataManager), new InstanceDetails(DATA_1)),
+                membership.getDataNodeInstances());
+    }
+
+    @Test
+    public void testEmpty() {
+        AppContext appContext = new AppContext();
+        assertSame(ClusterMembership.EMPTY, appContext.getMembership());
+        assertTrue(appContext.getAllClusterInstances().isEmpty());
+        assertTrue(appContext.getPeerInstances().isEmpty());
+        assertEquals(AllMetrics.NodeRole.UNKNOWN, appContext.getMyInstanceDetails().getRole());
+    }
+
+    @Test
+    public void testNewSnapshotPublishedOnChange() {
+        ClusterDetailsEventProcessor processor = new ClusterDetailsEventProcessor();
+        AppContext appContext = new AppContext();
+        appContext.setClusterDetailsEventProcessor(processor);
+
+        processor.setNodesDetails(Arrays.asList(SELF, DATA_1));
+        ClusterMembership first = appContext.getMembership();
+        assertSame(first, appContext.getMembership());
+        assertEquals(new InstanceDetails(SELF), appContext.getMyInstanceDetails());
+        assertEquals(
+                new InstanceDetails(DATA_1),
+                appContext.getInstanceById(new InstanceDetails.Id("node1")));
+
+        processor.setNodesDetails(Arrays.asList(SELF, DATA_2));
+        ClusterMembership second = appContext.getMembership();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+        // The old snapshot is unchanged.
+        assertTrue(first.contains(new InstanceDetails.Id("node1")));
+        assertFalse(second.contains(new InstanceDetails.Id("node1")));
+
+        // A copy of the AppContext keeps the nodes and the version.
+        AppContext copy = new AppContext(appContext);
+        assertEquals(second.getVersion(), copy.getMembership().getVersion());
+        assertEquals(second.getAllInstances(), copy.getAllClusterInstances());
+    }
+
+    /** Looking up every node of a large cluster, by scanning the nodes vs from the snapshot. */
+    // @Test
+    public void perfTest() {
+        List<NodeDetails> nodes = new ArrayList<>();
+        nodes.add(SELF);
+        for (int i = 1; i < 400; i++) {
+            nodes.add(
+                    new NodeDetails(
+                            AllMetrics.NodeRole.DATA,
+                            "node" + i,
+                            "10.0." + i / 256 + "." + i % 256,
+                            false));
+        }
+        ClusterMembership membership = new ClusterMembership(1, nodes);
+        List<InstanceDetails.Id> ids = new ArrayList<>();
+        for (NodeDetails node : nodes) {
+            ids.add(new InstanceDetails.Id(node.getId()));
+        }
+
+        long start = System.nanoTime();
+        int found = 0;
+        for (InstanceDetails.Id id : ids) {
+            List<InstanceDetails> instances = new ArrayList<>();
+            for (NodeDetails node : nodes) {
+                instances.add(new InstanceDetails(node));
+            }
+            if (instances.stream().anyMatch(x -> id.equals(x.getInstanceId()))) {
+                found++;
+            }
+        }
+        long scanTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (InstanceDetails.Id id : ids) {
+            if (membership.contains(id)) {
+                found++;
+            }
+        }
+        long snapshotTime = System.nanoTime() - start;
+        assertEquals(2 * nodes.size(), found);
+        System.out.println(
+                "400 node lookups: scan "
+                        + scanTime / 1000
+                        + "us, snapshot "
+                        + snapshotTime / 1000
+                        + "us");
+    }
+}
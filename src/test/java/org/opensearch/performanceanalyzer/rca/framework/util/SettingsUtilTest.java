@@ -0,0 +1,32 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.framework.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+
+public class SettingsUtilTest {
+    private static final String SETTING = "settings-util-test-setting";
+
+    @Test
+    public void testReadLong() {
+        assertEquals(7L, SettingsUtil.readLong(SETTING, 7L));
+        PluginSettings.instance().overrideProperty(SETTING, " 42 ");
+        assertEquals(42L, SettingsUtil.readLong(SETTING, 7L));
+        PluginSettings.instance().overrideProperty(SETTING, "many");
+        assertEquals(7L, SettingsUtil.readLong(SETTING, 7L));
+    }
+
+    @Test
+    public void testReadInt() {
+        PluginSettings.instance().overrideProperty(SETTING, "42");
+        assertEquals(42, SettingsUtil.readInt(SETTING, 7));
+        PluginSettings.instance().overrideProperty(SETTING, String.valueOf(Long.MAX_VALUE));
+        assertEquals(7, SettingsUtil.readInt(SETTING, 7));
+    }
+}
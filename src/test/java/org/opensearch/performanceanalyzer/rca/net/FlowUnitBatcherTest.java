@@ -0,0 +1,218 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.opensearch.performanceanalyzer.AppContext;
+import org.opensearch.performanceanalyzer.PerformanceAnalyzerApp;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.grpc.PublishResponse;
+import org.opensearch.performanceanalyzer.grpc.PublishResponse.PublishResponseStatus;
+import org.opensearch.performanceanalyzer.net.NetClient;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+
+public class FlowUnitBatcherTest {
+    private static final InstanceDetails.Id HOST1 = new InstanceDetails.Id("host1");
+    private static final InstanceDetails.Id HOST2 = new InstanceDetails.Id("host2");
+
+    private NetClient client;
+    private SubscriptionManager subscriptionManager;
+    private FlowUnitDeltaTracker deltaTracker;
+    private QueuingExecutor executor;
+    private FlowUnitBatcher uut;
+
+    @Before
+    public void setup() {
+        PerformanceAnalyzerApp.initAggregators();
+        client = Mockito.mock(NetClient.class);
+        when(client.publish(any(), any(), any())).thenReturn(true);
+        when(client.publishBatch(any(), any(), any())).thenReturn(true);
+        subscriptionManager = Mockito.mock(SubscriptionManager.class);
+        deltaTracker = Mockito.mock(FlowUnitDeltaTracker.class);
+        when(subscriptionManager.getDeltaTracker()).thenReturn(deltaTracker);
+        AppContext appContext = Mockito.mock(AppContext.class);
+        when(appContext.getInstanceById(any()))
+                .thenAnswer(
+                        invocation ->
+                                new InstanceDetails(
+                                        AllMetrics.NodeRole.DATA,
+                                        invocation.getArgument(0),
+                                        new InstanceDetails.Ip("127.0.0.1"),
+                                        false));
+        executor = new QueuingExecutor();
+        uut =
+                new FlowUnitBatcher(
+                        client, subscriptionManager, new AtomicReference<>(executor), appContext);
+    }
+
+    @Test
+    public void testFlowUnitsAreCoalescedPerHost() {
+        uut.add(HOST1, message("node1"));
+        uut.add(HOST2, message("node1"));
+        uut.add(HOST1, message("node2"));
+        uut.add(HOST1, message("node3"));
+        // Nothing is sent before the end of the tick, then one flush per host.
+        Assert.assertEquals(0, executor.tasks.size());
+        uut.endTick();
+        Assert.assertEquals(2, executor.tasks.size());
+        executor.runAll();
+
+        ArgumentCaptor<FlowUnitBatchMessage> batches =
+                ArgumentCaptor.forClass(FlowUnitBatchMessage.class);
+        verify(client, times(2)).publishBatch(any(), batches.capture(), any());
+        Assert.assertEquals(3, batches.getAllValues().get(0).getFlowUnitsCount());
+        Assert.assertEquals("node3", batches.getAllValues().get(0).getFlowUnits(2).getGraphNode());
+        Assert.assertEquals(1, batches.getAllValues().get(1).getFlowUnitsCount());
+
+        uut.add(HOST1, message("node1"));
+        Assert.assertEquals(0, executor.tasks.size());
+        uut.endTick();
+        Assert.assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    public void testFlushWaitsForQueuedTasks() {
+        uut.taskQueued();
+        uut.taskQueued();
+        uut.add(HOST1, message("node1"));
+        uut.taskDone();
+        uut.endTick();
+        // A task queued in the tick is still to add its flow units.
+        Assert.assertEquals(0, executor.tasks.size());
+        uut.add(HOST1, message("node2"));
+        uut.taskDone();
+        Assert.assertEquals(1, executor.tasks.size());
+        executor.runAll();
+
+        ArgumentCaptor<FlowUnitBatchMessage> batch =
+                ArgumentCaptor.forClass(FlowUnitBatchMessage.class);
+        verify(client).publishBatch(any(), batch.capture(), any());
+        Assert.assertEquals(2, batch.getValue().getFlowUnitsCount());
+
+        // Tasks done after the flush do not flush again before the next tick ends.
+        uut.taskQueued();
+        uut.add(HOST1, message("node1"));
+        uut.taskDone();
+        Assert.assertEquals(0, executor.tasks.size());
+    }
+
+    @Test
+    public void testNodeShutdownUnsubscribesAllNodes() {
+        uut.add(HOST1, message("node1"));
+        uut.add(HOST1, message("node2"));
+        uut.endTick();
+        executor.runAll();
+
+        StreamObserver<PublishResponse> responseObserver = captureResponseObserver();
+        responseObserver.onNext(
+                PublishResponse.newBuilder()
+                        .setDataStatus(PublishResponseStatus.NODE_SHUTDOWN)
+                        .build());
+        verify(subscriptionManager).unsubscribeAndTerminateConnection("node1", HOST1);
+        verify(subscriptionManager).unsubscribeAndTerminateConnection("node2", HOST1);
+        verify(client).flushStream(HOST1);
+    }
+
+    @Test
+    public void testFailedPublishResendsInFull() {
+        when(client.publishBatch(any(), any(), any())).thenReturn(false);
+        uut.add(HOST1, message("node1"));
+        uut.add(HOST1, message("node2"));
+        uut.endTick();
+        executor.runAll();
+        verify(deltaTracker).forget("node1", HOST1);
+        verify(deltaTracker).forget("node2", HOST1);
+    }
+
+    @Test
+    public void testFallbackWhenBatchIsUnimplemented() {
+        uut.add(HOST1, message("node1"));
+        uut.endTick();
+        executor.runAll();
+        captureResponseObserver().onError(Status.UNIMPLEMENTED.asRuntimeException());
+        verify(subscriptionManager, never()).unsubscribeAndTerminateConnection(any(), any());
+        // The lost batch is sent again in full.
+        verify(deltaTracker).forget("node1", HOST1);
+
+        uut.add(HOST1, message("node1"));
+        uut.add(HOST1, message("node2"));
+        uut.endTick();
+        executor.runAll();
+        verify(client, times(1)).publishBatch(any(), any(), any());
+        verify(client).publish(any(), eq(message("node1")), any());
+        verify(client).publish(any(), eq(message("node2")), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private StreamObserver<PublishResponse> captureResponseObserver() {
+        ArgumentCaptor<StreamObserver> observer = ArgumentCaptor.forClass(StreamObserver.class);
+        verify(client).publishBatch(any(), any(), observer.capture());
+        return observer.getValue();
+    }
+
+    private static FlowUnitMessage message(String graphNode) {
+        return FlowUnitMessage.newBuilder().setGraphNode(graphNode).setNode("local").build();
+    }
+
+    /** Holds the submitted tasks until the test runs them. */
+    private static class QueuingExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        void runAll() {
+            List<Runnable> toRun = new ArrayList<>(tasks);
+            tasks.clear();
+            toRun.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {}
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.grpc.ResourceContextMessage;
+import org.opensearch.performanceanalyzer.rca.GradleTaskForRca;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+
+@Category(GradleTaskForRca.class)
+public class FlowUnitDeltaTrackerTest {
+    private static final String VERTEX = "vertex";
+    private static final InstanceDetails.Id HOST_1 = new InstanceDetails.Id("host1");
+    private static final InstanceDetails.Id HOST_2 = new InstanceDetails.Id("host2");
+    private static final long REFRESH_MILLIS = 1000;
+
+    private final FlowUnitDeltaTracker tracker = new FlowUnitDeltaTracker(true, REFRESH_MILLIS);
+
+    @Test
+    public void testUnchangedContent() {
+        FlowUnitMessage content = tracker.content(VERTEX, message(1, 100));
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 100));
+
+        // The same content at a later time is the same instance, and is sent as a marker.
+        FlowUnitMessage same = tracker.content(VERTEX, message(1, 200));
+        Assert.assertSame(content, same);
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_1, same, 200));
+        // Another subscriber gets it in full once.
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_2, same, 200));
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_2, same, 300));
+
+        // A changed content is sent in full.
+        FlowUnitMessage changed = tracker.content(VERTEX, message(2, 300));
+        Assert.assertNotSame(content, changed);
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, changed, 300));
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_1, changed, 400));
+    }
+
+    @Test
+    public void testFullRefreshAndForget() {
+        FlowUnitMessage content = tracker.content(VERTEX, message(1, 100));
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 100));
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_1, content, 100 + REFRESH_MILLIS - 1));
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 100 + REFRESH_MILLIS));
+
+        // A host subscribing again gets the next flow unit in full.
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_1, content, 200 + REFRESH_MILLIS));
+        tracker.forget(VERTEX, HOST_1);
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 200 + REFRESH_MILLIS));
+    }
+
+    @Test
+    public void testUnchangedMarker() {
+        FlowUnitMessage marker = FlowUnitDeltaTracker.unchangedMarker(message(1, 100));
+        Assert.assertTrue(marker.getUnchanged());
+        Assert.assertEquals(VERTEX, marker.getGraphNode());
+        Assert.assertEquals(HOST_1.toString(), marker.getNode());
+        Assert.assertEquals(100, marker.getTimeStamp());
+        Assert.assertFalse(marker.hasResourceContext());
+    }
+
+    @Test
+    public void testForgottenOnSubscribe() {
+        SubscriptionManager subscriptionManager = new SubscriptionManager(null, tracker);
+        subscriptionManager.setCurrentLocus("data-node");
+        FlowUnitMessage content = tracker.content(VERTEX, message(1, 100));
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 100));
+        Assert.assertTrue(tracker.isUnchanged(VERTEX, HOST_1, content, 200));
+
+        subscriptionManager.addSubscriber(VERTEX, HOST_1, "data-node");
+        Assert.assertFalse(tracker.isUnchanged(VERTEX, HOST_1, content, 300));
+    }
+
+    private static FlowUnitMessage message(int state, long timestamp) {
+        return FlowUnitMessage.newBuilder()
+                .setGraphNode(VERTEX)
+                .setNode(HOST_1.toString())
+                .setTimeStamp(timestamp)
+                .setResourceContext(ResourceContextMessage.newBuilder().setState(state))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.net;
+
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.opensearch.performanceanalyzer.PerformanceAnalyzerApp;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.rca.GradleTaskForRca;
+
+@Category(GradleTaskForRca.class)
+public class LatestFlowUnitStoreTest {
+
+    private static final String TEST_NODE = "testNode";
+    private static final String TEST_NODE_2 = "testNode2";
+
+    private LatestFlowUnitStore testFlowUnitStore;
+
+    @Before
+    public void setUp() {
+        PerformanceAnalyzerApp.initAggregators();
+        testFlowUnitStore = new LatestFlowUnitStore();
+    }
+
+    @Test
+    public void testLatestPerPublisher() {
+        FlowUnitMessage host1Old = message(TEST_NODE, "host1", 1);
+        FlowUnitMessage host1New = message(TEST_NODE, "host1", 2);
+        FlowUnitMessage host2 = message(TEST_NODE, "host2", 1);
+        FlowUnitMessage otherVertex = message(TEST_NODE_2, "host1", 1);
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE, host1Old));
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE, host2));
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE, host1New));
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE_2, otherVertex));
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(host1New, host2)),
+                new HashSet<>(testFlowUnitStore.drainNode(TEST_NODE)));
+        Assert.assertTrue(testFlowUnitStore.drainNode(TEST_NODE).isEmpty());
+        Assert.assertEquals(Arrays.asList(otherVertex), testFlowUnitStore.drainAll());
+    }
+
+    @Test
+    public void testDrainedListReused() {
+        testFlowUnitStore.enqueue(TEST_NODE, message(TEST_NODE, "host1", 1));
+        List<FlowUnitMessage> first = testFlowUnitStore.drainNode(TEST_NODE);
+        Assert.assertEquals(1, first.size());
+        testFlowUnitStore.enqueue(TEST_NODE, message(TEST_NODE, "host1", 2));
+        List<FlowUnitMessage> second = testFlowUnitStore.drainNode(TEST_NODE);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(2, second.get(0).getTimeStamp());
+        try {
+            second.clear();
+            Assert.fail("The drained list can be modified");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testNeverHeld() {
+        AtomicInteger enqueued = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(
+                    testFlowUnitStore.enqueue(
+                            TEST_NODE, message(TEST_NODE, "host1", i), enqueued::incrementAndGet));
+        }
+        Assert.assertEquals(10, enqueued.get());
+        Assert.assertEquals(9, testFlowUnitStore.drainNode(TEST_NODE).get(0).getTimeStamp());
+    }
+
+    @Test
+    public void testRemovePublisher() {
+        testFlowUnitStore.enqueue(TEST_NODE, message(TEST_NODE, "host1", 1));
+        testFlowUnitStore.enqueue(TEST_NODE, message(TEST_NODE, "host2", 1));
+        testFlowUnitStore.removePublisher(TEST_NODE, "host1");
+        List<FlowUnitMessage> drained = testFlowUnitStore.drainNode(TEST_NODE);
+        Assert.assertEquals(1, drained.size());
+        Assert.assertEquals("host2", drained.get(0).getNode());
+    }
+
+    @Test
+    public void testCreate() {
+        try {
+            Assert.assertEquals(
+                    ReceivedFlowUnitStore.class, ReceivedFlowUnitStore.create(10).getClass());
+            PluginSettings.instance()
+                    .overrideProperty(
+                            ReceivedFlowUnitStore.STORE_CONF_NAME,
+                            ReceivedFlowUnitStore.STORE_LATEST);
+            Assert.assertEquals(
+                    LatestFlowUnitStore.class, ReceivedFlowUnitStore.create(10).getClass());
+        } finally {
+            PluginSettings.instance()
+                    .overrideProperty(
+                            ReceivedFlowUnitStore.STORE_CONF_NAME,
+                            ReceivedFlowUnitStore.STORE_QUEUE);
+        }
+    }
+
+    private static FlowUnitMessage message(String graphNode, String host, long timestamp) {
+        return FlowUnitMessage.newBuilder()
+                .setGraphNode(graphNode)
+                .setNode(host)
+                .setTimeStamp(timestamp)
+                .build();
+    }
+}
@@ -9,7 +9,13 @@ package org.opensearch.performanceanalyzer.rca.net;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Before;
@@ -168,4 +174,117 @@ public class NodeStateManagerTest {
         Assert.assertTrue(expectedIs.contains(TEST_HOST_1));
         Assert.assertTrue(expectedIs.contains(TEST_HOST_3));
     }
+
+    @Test
+    public void testManyHostsAndVertices() {
+        final int hosts = 300;
+        testNodeStateManager.registerGraphNodes(Lists.newArrayList(TEST_NODE_1, "node2"));
+        for (int i = 0; i < hosts; i++) {
+            testNodeStateManager.updateReceiveTime("host" + i, TEST_NODE_1, i + 1);
+            if (i % 2 == 0) {
+                testNodeStateManager.updateSubscriptionState(
+                        "node2",
+                        new InstanceDetails.Id("host" + i),
+                        SubscribeResponse.SubscriptionStatus.TAG_MISMATCH);
+            }
+        }
+        for (int i = 0; i < hosts; i++) {
+            InstanceDetails.Id host = new InstanceDetails.Id("host" + i);
+            Assert.assertEquals(
+                    i + 1, testNodeStateManager.getLastReceivedTimestamp(TEST_NODE_1, host));
+            Assert.assertEquals(0, testNodeStateManager.getLastReceivedTimestamp("node2", host));
+            Assert.assertNull(testNodeStateManager.getSubscriptionStatus(TEST_NODE_1, host));
+            Assert.assertEquals(
+                    i % 2 == 0 ? SubscribeResponse.SubscriptionStatus.TAG_MISMATCH : null,
+                    testNodeStateManager.getSubscriptionStatus("node2", host));
+        }
+    }
+
+    /**
+     * Updates the receive time of many publishers for many vertices, as the flow unit receive path
+     * does, with the composite String keys the state used to be kept by vs the interned handles.
+     */
+    // @Test
+    public void perfTest() {
+        final int publishers = 400;
+        final int vertices = 20;
+        final int rounds = 20;
+        List<String> hostIds = new ArrayList<>();
+        for (int i = 0; i < publishers; i++) {
+            hostIds.add("host" + i);
+        }
+        List<String> graphNodes = new ArrayList<>();
+        for (int i = 0; i < vertices; i++) {
+            graphNodes.add("vertex" + i);
+        }
+        testNodeStateManager.registerGraphNodes(graphNodes);
+
+        ConcurrentMap<String, Long> compositeKeyMap = new ConcurrentHashMap<>();
+        long[] compositeKeyCost =
+                measure(
+                        rounds,
+                        hostIds,
+                        graphNodes,
+                        (host, graphNode, time) ->
+                                compositeKeyMap.put(graphNode + "." + host, time));
+        long[] handleCost =
+                measure(rounds, hostIds, graphNodes, testNodeStateManager::updateReceiveTime);
+        Assert.assertEquals(
+                rounds,
+                testNodeStateManager.getLastReceivedTimestamp(
+                        "vertex0", new InstanceDetails.Id("host0")));
+
+        int updates = rounds * publishers * vertices;
+        System.out.println(
+                updates
+                        + " receive time updates: composite keys "
+                        + compositeKeyCost[0] / 1000
+                        + "us, "
+                        + compositeKeyCost[1] / updates
+                        + " bytes/update; handles "
+                        + handleCost[0] / 1000
+                        + "us, "
+                        + handleCost[1] / updates
+                        + " bytes/update");
+    }
+
+    private interface ReceiveTimeUpdate {
+        void update(String host, String graphNode, long time);
+    }
+
+    /** Returns the time taken in nanoseconds and the bytes allocated by the last rounds. */
+    private static long[] measure(
+            int rounds, List<String> hostIds, List<String> graphNodes, ReceiveTimeUpdate update) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        boolean allocationSupported =
+                threadBean instanceof com.sun.management.ThreadMXBean
+                        && ((com.sun.management.ThreadMXBean) threadBean)
+                                .isThreadAllocatedMemorySupported();
+        // The first round warms up and creates the state.
+        for (String graphNode : graphNodes) {
+            for (String host : hostIds) {
+                update.update(host, graphNode, 0);
+            }
+        }
+        long allocatedBefore = allocatedBytes(allocationSupported, threadBean);
+        long start = System.nanoTime();
+        for (int round = 1; round <= rounds; round++) {
+            for (String graphNode : graphNodes) {
+                for (String host : hostIds) {
+                    update.update(host, graphNode, round);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes(allocationSupported, threadBean) - allocatedBefore;
+        return new long[] {elapsed, allocated};
+    }
+
+    private static long allocatedBytes(boolean allocationSupported, ThreadMXBean threadBean) {
+        if (!allocationSupported) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) threadBean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
 }
@@ -12,11 +12,13 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
+import org.opensearch.performanceanalyzer.grpc.ResourceContextMessage;
 import org.opensearch.performanceanalyzer.rca.GradleTaskForRca;
 
 @Category(GradleTaskForRca.class)
@@ -77,6 +79,84 @@ public class ReceivedFlowUnitStoreTest {
         Assert.assertTrue(drained.contains(msg3));
     }
 
+    @Test
+    public void testResolveUnchangedMarker() {
+        testFlowUnitStore = new ReceivedFlowUnitStore(Q_SIZE, true);
+        FlowUnitMessage marker =
+                FlowUnitMessage.newBuilder()
+                        .setGraphNode(TEST_NODE)
+                        .setNode("host1")
+                        .setTimeStamp(TIMESTAMP_2)
+                        .setUnchanged(true)
+                        .build();
+        // Nothing was received in full from the host yet.
+        Assert.assertNull(testFlowUnitStore.resolve(marker));
+
+        FlowUnitMessage full =
+                FlowUnitMessage.newBuilder()
+                        .setGraphNode(TEST_NODE)
+                        .setNode("host1")
+                        .setTimeStamp(TIMESTAMP_1)
+                        .setResourceContext(ResourceContextMessage.newBuilder().setState(1))
+                        .build();
+        Assert.assertSame(full, testFlowUnitStore.resolve(full));
+        FlowUnitMessage replayed = testFlowUnitStore.resolve(marker);
+        Assert.assertEquals(TIMESTAMP_2, replayed.getTimeStamp());
+        Assert.assertEquals(full.getResourceContext(), replayed.getResourceContext());
+        Assert.assertFalse(replayed.getUnchanged());
+
+        // The last flow unit is per publisher and vertex.
+        Assert.assertNull(testFlowUnitStore.resolve(marker.toBuilder().setNode("host2").build()));
+        Assert.assertNull(
+                testFlowUnitStore.resolve(marker.toBuilder().setGraphNode(TEST_NODE_2).build()));
+
+        testFlowUnitStore.removePublisher(TEST_NODE, "host1");
+        Assert.assertNull(testFlowUnitStore.resolve(marker));
+
+        // In the full publish mode no flow unit is kept, so a marker is never resolved.
+        testFlowUnitStore = new ReceivedFlowUnitStore(Q_SIZE, false);
+        Assert.assertSame(full, testFlowUnitStore.resolve(full));
+        Assert.assertNull(testFlowUnitStore.resolve(marker));
+    }
+
+    @Test
+    public void testFullQueueHoldsUntilDrained() {
+        testFlowUnitStore = new ReceivedFlowUnitStore(2);
+        AtomicInteger enqueued = new AtomicInteger();
+        Runnable onEnqueued = enqueued::incrementAndGet;
+        FlowUnitMessage msg1 = FlowUnitMessage.newBuilder().setTimeStamp(TIMESTAMP_1).build();
+        FlowUnitMessage msg2 = FlowUnitMessage.newBuilder().setTimeStamp(TIMESTAMP_2).build();
+        FlowUnitMessage msg3 = FlowUnitMessage.newBuilder().setTimeStamp(TIMESTAMP_3).build();
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE, msg1, onEnqueued));
+        Assert.assertTrue(testFlowUnitStore.enqueue(TEST_NODE, msg2, onEnqueued));
+        Assert.assertFalse(testFlowUnitStore.enqueue(TEST_NODE, msg3, onEnqueued));
+        Assert.assertEquals(2, enqueued.get());
+
+        // The held flow unit is handed out with the others, and its sender let go on.
+        Assert.assertEquals(
+                Arrays.asList(msg1, msg2, msg3), testFlowUnitStore.drainNode(TEST_NODE));
+        Assert.assertEquals(3, enqueued.get());
+        Assert.assertTrue(testFlowUnitStore.drainNode(TEST_NODE).isEmpty());
+    }
+
+    @Test
+    public void testHeldFlowUnitsBounded() {
+        testFlowUnitStore = new ReceivedFlowUnitStore(1);
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            testFlowUnitStore.enqueue(
+                    TEST_NODE,
+                    FlowUnitMessage.newBuilder().setTimeStamp(i).build(),
+                    done::incrementAndGet);
+        }
+        // One enqueued, one held, and the senders of the ones dropped let go on.
+        Assert.assertEquals(4, done.get());
+        List<FlowUnitMessage> drained = testFlowUnitStore.drainNode(TEST_NODE);
+        Assert.assertEquals(2, drained.size());
+        Assert.assertEquals(4, drained.get(1).getTimeStamp());
+        Assert.assertEquals(5, done.get());
+    }
+
     private FlowUnitMessage buildTestFlowUnitMessage() {
         return FlowUnitMessage.newBuilder().build();
     }
@@ -180,6 +180,7 @@ public class WireHopperTest {
         uut.getAppContext().setClusterDetailsEventProcessor(clusterDetailsEventProcessor);
 
         uut.sendData(msg);
+        uut.flush();
         WaitFor.waitFor(
                 () ->
                         nodeStateManager.getLastReceivedTimestamp(
@@ -6,11 +6,16 @@
 package org.opensearch.performanceanalyzer.rca.net.handler;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -23,8 +28,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.opensearch.performanceanalyzer.PerformanceAnalyzerApp;
+import org.opensearch.performanceanalyzer.grpc.FlowUnitBatchMessage;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.grpc.PublishResponse;
 import org.opensearch.performanceanalyzer.rca.net.NodeStateManager;
@@ -58,6 +65,8 @@ public class PublishRequestHandlerTest {
                 (AtomicReference<ExecutorService>) PowerMockito.mock(AtomicReference.class);
         PowerMockito.when(atomicReference.get()).thenReturn(executorService);
         doNothing().when(executorService).execute(any(FlowUnitRxTask.class));
+        when(receivedFlowUnitStore.resolve(any(FlowUnitMessage.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
         this.publishRequestHandler =
                 new PublishRequestHandler(nodeStateManager, receivedFlowUnitStore, atomicReference);
     }
@@ -80,6 +89,59 @@ public class PublishRequestHandlerTest {
                 .execute(any(FlowUnitRxTask.class));
     }
 
+    @Test
+    public void testBatchIsHandledInOneTask() {
+        StreamObserver<FlowUnitBatchMessage> batchStream =
+                publishRequestHandler.getBatchClientStream(serviceResponse);
+        FlowUnitBatchMessage.Builder batch = FlowUnitBatchMessage.newBuilder();
+        DUMMY_GRAPH_NODES.forEach(
+                node -> batch.addFlowUnits(FlowUnitMessage.newBuilder().setGraphNode(node)));
+        batchStream.onNext(batch.build());
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService, times(1)).execute(task.capture());
+        task.getValue().run();
+        DUMMY_GRAPH_NODES.forEach(
+                node ->
+                        verify(receivedFlowUnitStore)
+                                .enqueue(eq(node), any(FlowUnitMessage.class)));
+
+        // The batch stream is terminated along with the other streams.
+        publishRequestHandler.terminateUpstreamConnections();
+        verify(serviceResponse).onCompleted();
+    }
+
+    @Test
+    public void testFlowControlledStream() {
+        publishRequestHandler =
+                new PublishRequestHandler(
+                        nodeStateManager, receivedFlowUnitStore, atomicReference, 2);
+        ServerCallStreamObserver<PublishResponse> call = mock(ServerCallStreamObserver.class);
+        StreamObserver<FlowUnitMessage> stream = publishRequestHandler.getClientStream(call);
+        verify(call).disableAutoRequest();
+        verify(call).request(2);
+
+        FlowUnitMessage flowUnitMessage =
+                FlowUnitMessage.newBuilder().setGraphNode(DUMMY_GRAPH_NODES.get(0)).build();
+        stream.onNext(flowUnitMessage);
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService).execute(task.capture());
+        ArgumentCaptor<Runnable> onEnqueued = ArgumentCaptor.forClass(Runnable.class);
+        task.getValue().run();
+        verify(receivedFlowUnitStore)
+                .enqueue(eq(DUMMY_GRAPH_NODES.get(0)), eq(flowUnitMessage), onEnqueued.capture());
+        // The next message is asked for only once the flow unit is buffered.
+        verify(call, never()).request(1);
+        onEnqueued.getValue().run();
+        verify(call).request(1);
+
+        // Without a stream window, gRPC controls the flow.
+        ServerCallStreamObserver<PublishResponse> autoCall = mock(ServerCallStreamObserver.class);
+        new PublishRequestHandler(nodeStateManager, receivedFlowUnitStore, atomicReference, 0)
+                .getClientStream(autoCall);
+        verify(autoCall, never()).disableAutoRequest();
+    }
+
     @Test
     public void testTerminateUpstreamConnsWithFewResponseStreamCompleted() {
         List<StreamObserver<FlowUnitMessage>> flowUnitList = getClientStreamTestData(3, 6);
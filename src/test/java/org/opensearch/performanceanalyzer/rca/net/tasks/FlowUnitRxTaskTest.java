@@ -5,8 +5,11 @@
 
 package org.opensearch.performanceanalyzer.rca.net.tasks;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -17,7 +20,6 @@ import org.junit.experimental.categories.Category;
 import org.mockito.Mock;
 import org.opensearch.performanceanalyzer.grpc.FlowUnitMessage;
 import org.opensearch.performanceanalyzer.rca.GradleTaskForRca;
-import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
 import org.opensearch.performanceanalyzer.rca.net.NodeStateManager;
 import org.opensearch.performanceanalyzer.rca.net.ReceivedFlowUnitStore;
 
@@ -48,15 +50,26 @@ public class FlowUnitRxTaskTest {
 
     @Test
     public void testEnqueueSuccess() {
+        when(mockReceivedFlowUnitStore.resolve(testFlowUnitMessage))
+                .thenReturn(testFlowUnitMessage);
         when(mockReceivedFlowUnitStore.enqueue(TEST_GRAPH_NODE, testFlowUnitMessage))
                 .thenReturn(true);
 
         testFlowUnitRxTask.run();
 
         verify(mockNodeStateManager)
-                .updateReceiveTime(
-                        eq(new InstanceDetails.Id(TEST_OPEN_SEARCH_NODE)),
-                        eq(TEST_GRAPH_NODE),
-                        anyLong());
+                .updateReceiveTime(eq(TEST_OPEN_SEARCH_NODE), eq(TEST_GRAPH_NODE), anyLong());
+    }
+
+    @Test
+    public void testUnresolvedUnchangedMarkerDropped() {
+        when(mockReceivedFlowUnitStore.resolve(testFlowUnitMessage)).thenReturn(null);
+
+        testFlowUnitRxTask.run();
+
+        // The host is left to turn stale, so that it is subscribed to again.
+        verify(mockNodeStateManager, never())
+                .updateReceiveTime(anyString(), anyString(), anyLong());
+        verify(mockReceivedFlowUnitStore, never()).enqueue(anyString(), any());
     }
 }
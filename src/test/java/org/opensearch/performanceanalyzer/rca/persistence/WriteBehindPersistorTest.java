@@ -0,0 +1,184 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.persistence;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opensearch.performanceanalyzer.PerformanceAnalyzerApp;
+import org.opensearch.performanceanalyzer.rca.framework.api.Rca;
+import org.opensearch.performanceanalyzer.rca.framework.api.Resources;
+import org.opensearch.performanceanalyzer.rca.framework.api.contexts.ResourceContext;
+import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.ResourceFlowUnit;
+import org.opensearch.performanceanalyzer.rca.framework.api.summaries.HotResourceSummary;
+import org.opensearch.performanceanalyzer.rca.framework.api.summaries.ResourceUtil;
+import org.opensearch.performanceanalyzer.rca.scheduler.FlowUnitOperationArgWrapper;
+
+public class WriteBehindPersistorTest {
+    private Path testLocation;
+
+    @Before
+    public void init() throws IOException {
+        PerformanceAnalyzerApp.initAggregators();
+        String cwd = System.getProperty("user.dir");
+        testLocation = Paths.get(cwd, "src", "test", "resources", "tmp", "write_behind");
+        Files.createDirectories(testLocation);
+        FileUtils.cleanDirectory(testLocation.toFile());
+    }
+
+    @Test
+    public void testReadsSeeQueuedFlowUnits() throws Exception {
+        SQLitePersistor sqlite =
+                new SQLitePersistor(
+                        testLocation.toString(), "rca.test.file", "1", TimeUnit.HOURS, 1);
+        WriteBehindPersistor persistor =
+                new WriteBehindPersistor(
+                        sqlite, 1024, 16, WriteBehindPersistor.QueueFullPolicy.BLOCK);
+        TestRca rca = new TestRca();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(
+                    new Thread(
+                            () -> {
+                                for (int j = 0; j < 25; j++) {
+                                    persistor.write(rca, flowUnit());
+                                }
+                            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(
+                200,
+                persistor
+                        .getRecordsForAllTables()
+                        .get(ResourceFlowUnit.RCA_TABLE_NAME)
+                        .size());
+        Assert.assertEquals(
+                200,
+                persistor
+                        .getRecordsForAllTables()
+                        .get(HotResourceSummary.class.getSimpleName())
+                        .size());
+        Assert.assertTrue(persistor.getAllPersistedRcas().contains(rca.name()));
+        persistor.close();
+    }
+
+    @Test
+    public void testFlowUnitsAreDroppedWhenQueueIsFull() throws Exception {
+        PersistorBase delegate = Mockito.mock(PersistorBase.class);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(
+                        invocation -> {
+                            List<?> batch = invocation.getArgument(0);
+                            synchronized (batchSizes) {
+                                batchSizes.add(batch.size());
+                            }
+                            writerBlocked.countDown();
+                            release.await();
+                            return null;
+                        })
+                .when(delegate)
+                .writeBatch(any());
+        WriteBehindPersistor persistor =
+                new WriteBehindPersistor(
+                        delegate, 2, 16, WriteBehindPersistor.QueueFullPolicy.DROP);
+        TestRca rca = new TestRca();
+
+        // The writer takes the first flow unit and blocks on it.
+        persistor.write(rca, flowUnit());
+        Assert.assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        persistor.write(rca, flowUnit());
+        persistor.write(rca, flowUnit());
+        persistor.write(rca, flowUnit());
+        Assert.assertEquals(2, persistor.getQueueDepth());
+
+        release.countDown();
+        persistor.flush();
+        Assert.assertEquals(0, persistor.getQueueDepth());
+        synchronized (batchSizes) {
+            Assert.assertEquals(3, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        }
+        persistor.close();
+    }
+
+    @Test
+    public void testFlowUnitsAreOnlyWrittenByTheWriterThread() throws Exception {
+        PersistorBase delegate = Mockito.mock(PersistorBase.class);
+        List<String> writingThreads = new ArrayList<>();
+        doAnswer(
+                        invocation -> {
+                            synchronized (writingThreads) {
+                                writingThreads.add(Thread.currentThread().getName());
+                            }
+                            return null;
+                        })
+                .when(delegate)
+                .writeBatch(any());
+        WriteBehindPersistor persistor =
+                new WriteBehindPersistor(
+                        delegate, 1024, 16, WriteBehindPersistor.QueueFullPolicy.BLOCK);
+        TestRca rca = new TestRca();
+
+        // Nothing is queued, the read does not wait for the writer.
+        persistor.getAllPersistedRcas();
+        for (int i = 0; i < 100; i++) {
+            persistor.write(rca, flowUnit());
+            if (i % 10 == 0) {
+                persistor.getAllPersistedRcas();
+            }
+        }
+        persistor.close();
+        synchronized (writingThreads) {
+            Assert.assertFalse(writingThreads.isEmpty());
+            for (String thread : writingThreads) {
+                Assert.assertEquals("rca-persistor-writer", thread);
+            }
+        }
+        Assert.assertEquals(0, persistor.getQueueDepth());
+    }
+
+    private static ResourceFlowUnit flowUnit() {
+        return new ResourceFlowUnit(
+                System.currentTimeMillis(),
+                new ResourceContext(Resources.State.UNHEALTHY),
+                new HotResourceSummary(ResourceUtil.OLD_GEN_HEAP_USAGE, 70, 71, 60),
+                true);
+    }
+
+    private static class TestRca extends Rca<ResourceFlowUnit> {
+        TestRca() {
+            super(5);
+        }
+
+        @Override
+        public ResourceFlowUnit operate() {
+            return null;
+        }
+
+        @Override
+        public void generateFlowUnitListFromWire(FlowUnitOperationArgWrapper args) {}
+    }
+}
@@ -10,8 +10,10 @@ import static org.junit.Assert.assertEquals;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -296,6 +298,121 @@ public class RCASchedulerTaskTests {
         skyLabsTask.run();
     }
 
+    /**
+     * Reconfiguring a task for another locus keeps the tasklets of the connected components whose
+     * locally executable nodes did not change, and plans the others again.
+     */
+    @Test
+    public void reconfigureReplansOnlyChangedComponents() {
+        final String LOCUS_KEY = "locus";
+        final String EARTH_KEY = "earth";
+        final String MOON_KEY = "moon";
+        final List<RcaConf> confsRead = new ArrayList<>();
+        AnalysisGraph graph =
+                new AnalysisGraph() {
+                    @Override
+                    public void construct() {
+                        // Runs on both loci.
+                        Metric sharedCpu = new CPU_Utilization(1);
+                        Symptom sharedSymptom =
+                                new Symptom(1) {
+                                    @Override
+                                    public SymptomFlowUnit operate() {
+                                        return SymptomFlowUnit.generic();
+                                    }
+
+                                    @Override
+                                    public void readRcaConf(RcaConf conf) {
+                                        confsRead.add(conf);
+                                    }
+                                };
+                        sharedSymptom.addAllUpstreams(Collections.singletonList(sharedCpu));
+                        sharedCpu.addTag(LOCUS_KEY, EARTH_KEY + "," + MOON_KEY);
+                        sharedSymptom.addTag(LOCUS_KEY, EARTH_KEY + "," + MOON_KEY);
+
+                        // The metric is gathered on earth and the symptom evaluated on the moon.
+                        Metric earthCpu = new CPU_Utilization(1);
+                        Symptom moonSymptom =
+                                new Symptom(1) {
+                                    @Override
+                                    public SymptomFlowUnit operate() {
+                                        return SymptomFlowUnit.generic();
+                                    }
+                                };
+                        moonSymptom.addAllUpstreams(Collections.singletonList(earthCpu));
+                        earthCpu.addTag(LOCUS_KEY, EARTH_KEY);
+                        moonSymptom.addTag(LOCUS_KEY, MOON_KEY);
+
+                        addLeaf(sharedCpu);
+                        addLeaf(earthCpu);
+                    }
+                };
+        List<ConnectedComponent> connectedComponents = RcaUtil.getAnalysisGraphComponents(graph);
+        assertEquals(2, connectedComponents.size());
+
+        RcaConf earthConf =
+                new RcaConf() {
+                    @Override
+                    public Map<String, String> getTagMap() {
+                        return Collections.singletonMap(LOCUS_KEY, EARTH_KEY);
+                    }
+                };
+        RcaConf moonConf =
+                new RcaConf() {
+                    @Override
+                    public Map<String, String> getTagMap() {
+                        return Collections.singletonMap(LOCUS_KEY, MOON_KEY);
+                    }
+                };
+        List<IntentMsg> intents = new ArrayList<>();
+        WireHopper hopper =
+                new WireHopper(null, null, null, null, null, new AppContext()) {
+                    @Override
+                    public void sendIntent(IntentMsg msg) {
+                        intents.add(msg);
+                    }
+                };
+
+        RCASchedulerTask earthTask =
+                new RCASchedulerTask(
+                        100,
+                        Executors.newFixedThreadPool(2),
+                        connectedComponents,
+                        null,
+                        null,
+                        earthConf,
+                        hopper,
+                        new AppContext());
+        assertEquals(0, intents.size());
+        assertEquals(Collections.singletonList(earthConf), confsRead);
+
+        RCASchedulerTask moonTask =
+                new RCASchedulerTask(
+                        100,
+                        Executors.newFixedThreadPool(2),
+                        connectedComponents,
+                        null,
+                        null,
+                        moonConf,
+                        hopper,
+                        new AppContext(),
+                        earthTask);
+
+        // Only the moon symptom needs the data of another node.
+        assertEquals(1, intents.size());
+        assertEquals(moonConf, confsRead.get(1));
+
+        // The tasklets of the shared component are kept.
+        Set<Tasklet> earthTasklets = new HashSet<>();
+        earthTask.getLocallyExecutableTasklets().forEach(earthTasklets::addAll);
+        Set<Tasklet> moonTasklets = new HashSet<>();
+        moonTask.getLocallyExecutableTasklets().forEach(moonTasklets::addAll);
+        assertEquals(3, earthTasklets.size());
+        assertEquals(4, moonTasklets.size());
+        moonTasklets.retainAll(earthTasklets);
+        assertEquals(2, moonTasklets.size());
+    }
+
     @Test
     public void mergeLists() {
         List<List<String>> l1 =
@@ -0,0 +1,61 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.opensearch.performanceanalyzer.AppContext;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.rca.GradleTaskForRca;
+import org.opensearch.performanceanalyzer.rca.framework.core.RcaConf;
+import org.opensearch.performanceanalyzer.rca.framework.util.RcaConsts;
+import org.opensearch.performanceanalyzer.rca.net.WireHopper;
+import org.opensearch.performanceanalyzer.reader.ClusterDetailsEventProcessor;
+
+@Category(GradleTaskForRca.class)
+public class RCASchedulerTest {
+
+    /**
+     * The scheduler reconfigures its graph with a copy of the AppContext, which freezes the cluster
+     * membership. The WireHopper has to keep the live AppContext to see nodes join afterwards.
+     */
+    @Test
+    public void testNetworkSeesMembershipChangesAfterReconfigure() {
+        List<ClusterDetailsEventProcessor.NodeDetails> nodes = new ArrayList<>();
+        nodes.add(
+                new ClusterDetailsEventProcessor.NodeDetails(
+                        AllMetrics.NodeRole.DATA, "node1", "127.0.0.1", false));
+        ClusterDetailsEventProcessor clusterDetailsEventProcessor =
+                new ClusterDetailsEventProcessor();
+        clusterDetailsEventProcessor.setNodesDetails(new ArrayList<>(nodes));
+        AppContext appContext = new AppContext();
+        appContext.setClusterDetailsEventProcessor(clusterDetailsEventProcessor);
+
+        RcaConf rcaConf = new RcaConf(Paths.get(RcaConsts.TEST_CONFIG_PATH, "rca.conf").toString());
+        WireHopper net = new WireHopper(null, null, null, null, null, appContext);
+        RCAScheduler scheduler =
+                new RCAScheduler(
+                        Collections.emptyList(), null, rcaConf, null, null, net, appContext);
+        scheduler.reconfigure(rcaConf, new AppContext(appContext));
+        scheduler.applyPendingReconfiguration();
+
+        nodes.add(
+                new ClusterDetailsEventProcessor.NodeDetails(
+                        AllMetrics.NodeRole.DATA, "node2", "127.0.0.2", false));
+        clusterDetailsEventProcessor.setNodesDetails(nodes);
+
+        assertSame(appContext, net.getAppContext());
+        assertEquals(2, net.getAppContext().getAllClusterInstances().size());
+        assertEquals(1, net.getAppContext().getPeerInstances().size());
+    }
+}
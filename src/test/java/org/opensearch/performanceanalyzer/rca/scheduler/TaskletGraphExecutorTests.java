@@ -0,0 +1,154 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.rca.framework.api.Metric;
+import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.MetricFlowUnit;
+import org.opensearch.performanceanalyzer.rca.framework.core.Queryable;
+
+public class TaskletGraphExecutorTests {
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCriticalPathFirst() {
+        // a -> b
+        // a -> c -> d -> e
+        Tasklet a = tasklet("a", 1);
+        Tasklet b = tasklet("b", 1).addPredecessor(a);
+        Tasklet c = tasklet("c", 1).addPredecessor(a);
+        Tasklet d = tasklet("d", 1).addPredecessor(c);
+        Tasklet e = tasklet("e", 1).addPredecessor(d);
+        TaskletGraphExecutor graph =
+                new TaskletGraphExecutor(
+                        executor,
+                        Arrays.asList(
+                                Arrays.asList(a),
+                                Arrays.asList(b, c),
+                                Arrays.asList(d),
+                                Arrays.asList(e)));
+
+        graph.start(1).await();
+        assertEquals(Arrays.asList("a", "c", "d", "e", "b"), executed);
+    }
+
+    @Test
+    public void testSkippedTaskletsAreNotRun() {
+        Tasklet everyTick = tasklet("everyTick", 1);
+        Tasklet everyFiveTicks = tasklet("everyFiveTicks", 5).addPredecessor(everyTick);
+        Tasklet downstream = tasklet("downstream", 1).addPredecessor(everyFiveTicks);
+        TaskletGraphExecutor graph =
+                new TaskletGraphExecutor(
+                        executor,
+                        Arrays.asList(
+                                Arrays.asList(everyTick),
+                                Arrays.asList(everyFiveTicks),
+                                Arrays.asList(downstream)));
+
+        for (int i = 0; i < 5; i++) {
+            graph.start(1).await();
+        }
+        assertEquals(5, Collections.frequency(executed, "everyTick"));
+        assertEquals(1, Collections.frequency(executed, "everyFiveTicks"));
+        assertEquals(5, Collections.frequency(executed, "downstream"));
+    }
+
+    @Test
+    public void testFailureSkipsDownstream() {
+        Tasklet failing =
+                new Tasklet(
+                        metric("failing", 1),
+                        null,
+                        null,
+                        Collections.emptyMap(),
+                        null,
+                        args -> {
+                            throw new IllegalStateException("failed");
+                        });
+        Tasklet independent = tasklet("independent", 1);
+        Tasklet downstream = tasklet("downstream", 1).addPredecessor(failing);
+        TaskletGraphExecutor graph =
+                new TaskletGraphExecutor(
+                        executor,
+                        Arrays.asList(
+                                Arrays.asList(failing, independent), Arrays.asList(downstream)));
+        try {
+            graph.start(1).await();
+            fail();
+        } catch (CompletionException expected) {
+            assertEquals(IllegalStateException.class, expected.getCause().getClass());
+        }
+        assertEquals(Arrays.asList("independent"), executed);
+    }
+
+    @Test
+    public void testWorkStealingPool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<List<Tasklet>> levels = new ArrayList<>();
+            Tasklet root = tasklet("root", 1);
+            levels.add(Arrays.asList(root));
+            List<Tasklet> fanOut = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                fanOut.add(tasklet("leaf" + i, 1).addPredecessor(root));
+            }
+            levels.add(fanOut);
+            Tasklet sink = tasklet("sink", 1);
+            fanOut.forEach(sink::addPredecessor);
+            levels.add(Arrays.asList(sink));
+
+            new TaskletGraphExecutor(pool, levels).start(1).await();
+            assertEquals(18, executed.size());
+            assertEquals("root", executed.get(0));
+            assertEquals("sink", executed.get(17));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Tasklet tasklet(String name, long intervalSeconds) {
+        return new Tasklet(
+                metric(name, intervalSeconds),
+                null,
+                null,
+                Collections.emptyMap(),
+                null,
+                args -> executed.add(name));
+    }
+
+    private static Metric metric(String name, long intervalSeconds) {
+        return new Metric(name, intervalSeconds) {
+            @Override
+            public MetricFlowUnit gather(Queryable queryable) {
+                return MetricFlowUnit.generic();
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rca.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.rca.framework.api.flow_units.MetricFlowUnit;
+import org.opensearch.performanceanalyzer.rca.framework.api.metrics.CPU_Utilization;
+import org.opensearch.performanceanalyzer.rca.framework.core.Queryable;
+
+public class TaskletTests {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOneTickPerRun() {
+        assertEquals(4, countEvaluations(5, 1, 20));
+        assertEquals(20, countEvaluations(1, 1, 20));
+    }
+
+    @Test
+    public void testRunPerWindow() {
+        // With a run per 5 second window, every node is evaluated at most once per run and nodes
+        // with longer intervals keep their periodicity.
+        assertEquals(20, countEvaluations(1, 5, 20));
+        assertEquals(20, countEvaluations(5, 5, 20));
+        assertEquals(1, countEvaluations(60, 5, 12));
+        assertEquals(2, countEvaluations(60, 10, 12));
+    }
+
+    private int countEvaluations(long intervalSeconds, int elapsedTicks, int runs) {
+        AtomicInteger evaluations = new AtomicInteger();
+        Tasklet tasklet =
+                new Tasklet(
+                        new CPU_Utilization(intervalSeconds) {
+                            @Override
+                            public MetricFlowUnit gather(Queryable queryable) {
+                                return MetricFlowUnit.generic();
+                            }
+                        },
+                        null,
+                        null,
+                        Collections.emptyMap(),
+                        null,
+                        args -> evaluations.incrementAndGet());
+        for (int i = 0; i < runs; i++) {
+            tasklet.execute(executor, new HashMap<>(), elapsedTicks).join();
+        }
+        return evaluations.get();
+    }
+}
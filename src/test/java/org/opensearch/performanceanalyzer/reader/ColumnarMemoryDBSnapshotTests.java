@@ -0,0 +1,159 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+
+public class ColumnarMemoryDBSnapshotTests extends AbstractReaderTests {
+
+    public ColumnarMemoryDBSnapshotTests() throws SQLException, ClassNotFoundException {
+        super();
+    }
+
+    @Test
+    public void testInsertAndFetchAll() {
+        ColumnarMemoryDBSnapshot snap =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 1L);
+        assertEquals(0, snap.fetchAll().size());
+
+        // more rows than the initial capacity to exercise growing the columns
+        Object[][] values = new Object[100][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new Object[] {"type" + (i % 5), (double) i, null, 10L};
+        }
+        snap.insertMultiRows(values);
+
+        Result<Record> res = snap.fetchAll();
+        assertEquals(100, res.size());
+        assertEquals("type3", res.get(3).get(0));
+        assertEquals(3d, (Double) res.get(3).get(1), 0.001);
+        assertNull(res.get(3).get(2));
+        assertEquals(10d, (Double) res.get(3).get(3), 0.001);
+
+        snap.remove();
+        assertEquals(0, snap.size());
+    }
+
+    @Test
+    public void testRowBatch() {
+        ColumnarMemoryDBSnapshot snap =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 1L);
+        RowBatch batch = snap.startRowBatch();
+        batch.bind("request", 1d, 2d, 3d);
+        batch.bind("parent", 4d, 5d, 6d);
+        assertEquals(2, batch.size());
+        batch.execute();
+        assertEquals(0, batch.size());
+        assertEquals(2, snap.size());
+    }
+
+    @Test
+    public void testAggregationMatchesSqlite() {
+        MemoryDBSnapshot sqlSnap =
+                new MemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 2L);
+        ColumnarMemoryDBSnapshot columnarSnap =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 2L);
+
+        Object[][] values = {
+            {"request", 1d, 10d, null},
+            {"request", 3d, 20d, 5d},
+            {"fielddata", null, 7d, 8d},
+            {null, 2d, 2d, 2d}
+        };
+        sqlSnap.insertMultiRows(values);
+        columnarSnap.insertMultiRows(values);
+
+        for (String table : sqlSnap.getTableSelectFieldsMap().keySet()) {
+            assertSameRows(
+                    sqlSnap.fetchAggregatedMetadata(table),
+                    columnarSnap.fetchAggregatedMetadata(table));
+        }
+    }
+
+    @Test
+    public void testAlignWindowMatchesSqlite() {
+        MemoryDBSnapshot sqlLeft =
+                new MemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 6000L);
+        MemoryDBSnapshot sqlRight =
+                new MemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 11000L);
+        MemoryDBSnapshot sqlAligned =
+                new MemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 10000L, true);
+
+        ColumnarMemoryDBSnapshot left =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 6000L);
+        ColumnarMemoryDBSnapshot right =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 11000L);
+        ColumnarMemoryDBSnapshot aligned =
+                new ColumnarMemoryDBSnapshot(
+                        conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 10000L, true);
+
+        Object[][] leftValues = {{"fielddata", 0d, 1d, 19607637196d}, {"request", 2d, null, 4d}};
+        Object[][] rightValues = {{"fielddata", 0d, 2d, 19607637196d}, {"parent", 1d, 1d, 1d}};
+        sqlLeft.insertMultiRows(leftValues);
+        sqlRight.insertMultiRows(rightValues);
+        left.insertMultiRows(leftValues);
+        right.insertMultiRows(rightValues);
+
+        sqlAligned.alignWindow(sqlLeft, sqlRight, 7000L, 5000L, 10000L);
+        aligned.alignWindow(left, right, 7000L, 5000L, 10000L);
+
+        assertSameRows(sqlAligned.fetchAll(), aligned.fetchAll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAlignWithSqliteSnapshotFails() {
+        MemoryDBSnapshot sqlSnap =
+                new MemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 3L);
+        ColumnarMemoryDBSnapshot columnarSnap =
+                new ColumnarMemoryDBSnapshot(conn, AllMetrics.MetricName.CIRCUIT_BREAKER, 3L);
+        columnarSnap.alignWindow(sqlSnap, columnarSnap, 2L, 1L, 3L);
+    }
+
+    @Test
+    public void testBackendFromString() {
+        assertEquals(SnapshotBackend.COLUMNAR, SnapshotBackend.fromString("columnar"));
+        assertEquals(SnapshotBackend.SQLITE, SnapshotBackend.fromString("SQLite"));
+        assertEquals(SnapshotBackend.SQLITE, SnapshotBackend.fromString("unknown"));
+        assertEquals(SnapshotBackend.SQLITE, SnapshotBackend.fromString(null));
+    }
+
+    private static void assertSameRows(Result<Record> expected, Result<Record> actual) {
+        List<String> expectedRows = toSortedRows(expected);
+        List<String> actualRows = toSortedRows(actual);
+        assertEquals(expectedRows.size(), actualRows.size());
+        for (int i = 0; i < expectedRows.size(); i++) {
+            assertEquals(expectedRows.get(i), actualRows.get(i));
+        }
+    }
+
+    private static List<String> toSortedRows(Result<Record> result) {
+        return result.stream()
+                .map(
+                        r -> {
+                            StringBuilder sb = new StringBuilder();
+                            for (int i = 0; i < r.size(); i++) {
+                                Object value = r.get(i);
+                                if (value instanceof Number) {
+                                    value = String.format("%.3f", ((Number) value).doubleValue());
+                                }
+                                sb.append(value).append('|');
+                            }
+                            return sb.toString();
+                        })
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+import org.opensearch.performanceanalyzer.commons.event_process.EventLog;
+import org.opensearch.performanceanalyzer.commons.event_process.EventLogFileHandler;
+import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
+
+public class MappedEventLogReaderTests {
+    private static final String DB_URL = "jdbc:sqlite:";
+    private static final String ROOT_LOCATION = "src/test/resources/reader";
+    private static final long FILE_TIMESTAMP = 1566413960000L;
+    // The OS events of the file are from this window.
+    private static final long WINDOW_START = 1566413935000L;
+
+    public MappedEventLogReaderTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        System.setProperty("java.io.tmpdir", "/tmp");
+    }
+
+    @Test
+    public void testSameEventsAsBuffered() {
+        RecordingProcessor buffered = new RecordingProcessor();
+        RoutingEventDispatcher bufferedDispatcher = new RoutingEventDispatcher();
+        bufferedDispatcher.registerEventProcessor(buffered);
+        new EventLogFileHandler(new EventLog(), ROOT_LOCATION)
+                .read(FILE_TIMESTAMP, bufferedDispatcher);
+
+        RecordingProcessor mapped = new RecordingProcessor();
+        RoutingEventDispatcher mappedDispatcher = new RoutingEventDispatcher();
+        mappedDispatcher.registerEventProcessor(mapped);
+        assertTrue(
+                new MappedEventLogReader(ROOT_LOCATION).read(FILE_TIMESTAMP, mappedDispatcher));
+
+        assertTrue(buffered.events.size() > 0);
+        assertEquals(buffered.events.size(), mapped.events.size());
+        for (int i = 0; i < buffered.events.size(); i++) {
+            assertEquals(buffered.events.get(i).key, mapped.events.get(i).key);
+            assertEquals(buffered.events.get(i).value, mapped.events.get(i).value);
+        }
+    }
+
+    @Test
+    public void testMissingFile() {
+        RoutingEventDispatcher dispatcher = new RoutingEventDispatcher();
+        assertFalse(new MappedEventLogReader(ROOT_LOCATION).read(1L, dispatcher));
+    }
+
+    @Test
+    public void testSameOSMetricsAsBuffered() throws Exception {
+        Result<Record> buffered = readOSMetrics(false);
+        Result<Record> mapped = readOSMetrics(true);
+        assertTrue(buffered.size() > 0);
+        assertEquals(buffered.size(), mapped.size());
+        for (int i = 0; i < buffered.size(); i++) {
+            assertArrayEquals(buffered.get(i).intoArray(), mapped.get(i).intoArray());
+        }
+    }
+
+    @Test
+    public void testParseNumbers() {
+        String[] doubles = {
+            "0.0", "-0.0", "4582198.0", "0.1", "123.456", "5.", ".5", "+2.5", "1e3", "NaN",
+            "0.30000000000000004", "12345678901234567890", "9007199254740993"
+        };
+        for (String number : doubles) {
+            EventView view = view(number);
+            assertEquals(
+                    number,
+                    Double.doubleToLongBits(Double.parseDouble(number)),
+                    Double.doubleToLongBits(view.parseDouble(0, number.length())));
+        }
+        String[] longs = {"0", "1566413936561", "-42", "+7", "-9223372036854775808"};
+        for (String number : longs) {
+            assertEquals(
+                    number, Long.parseLong(number), view(number).parseLong(0, number.length()));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalidDouble() {
+        view("").parseDouble(0, 0);
+    }
+
+    private Result<Record> readOSMetrics(boolean mapped) throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        NavigableMap<Long, OSMetricsSnapshot> osMetricsMap = new TreeMap<>();
+        EventProcessor processor =
+                OSEventProcessor.buildOSMetricEventsProcessor(
+                        WINDOW_START, WINDOW_START + 5000, conn, osMetricsMap);
+        RoutingEventDispatcher dispatcher = new RoutingEventDispatcher();
+        dispatcher.registerEventProcessor(processor);
+        dispatcher.initializeProcessing(WINDOW_START, WINDOW_START + 5000);
+        if (mapped) {
+            assertTrue(new MappedEventLogReader(ROOT_LOCATION).read(FILE_TIMESTAMP, dispatcher));
+        } else {
+            new EventLogFileHandler(new EventLog(), ROOT_LOCATION)
+                    .read(FILE_TIMESTAMP, dispatcher);
+        }
+        dispatcher.finalizeProcessing();
+        return osMetricsMap.get(WINDOW_START + 5000).fetchAll();
+    }
+
+    private static EventView view(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        EventView view = new EventView();
+        view.set(ByteBuffer.wrap(bytes), 0, 0, 0, bytes.length, 0);
+        return view;
+    }
+
+    private static class RecordingProcessor implements EventProcessor {
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public void initializeProcessing(long startTime, long endTime) {}
+
+        @Override
+        public void finalizeProcessing() {}
+
+        @Override
+        public void processEvent(Event event) {
+            events.add(event);
+        }
+
+        @Override
+        public boolean shouldProcessEvent(Event event) {
+            return true;
+        }
+
+        @Override
+        public void commitBatchIfRequired() {}
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+public class MetricsDBPublisherTests {
+
+    @Test
+    public void testAwaitNewerWakesUpOnPublish() throws Exception {
+        MetricsDBPublisher publisher = new MetricsDBPublisher();
+        MetricsDB db = Mockito.mock(MetricsDB.class);
+        CompletableFuture<MetricsDBPublisher.Publication> waiter =
+                CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return publisher.awaitNewer(0, 10000);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+        publisher.publish(5000L, db);
+
+        MetricsDBPublisher.Publication publication = waiter.get(10, TimeUnit.SECONDS);
+        assertEquals(1, publication.getGeneration());
+        assertEquals(5000L, publication.getWindowStartTime());
+        assertSame(db, publication.getMetricsDB());
+    }
+
+    @Test
+    public void testAwaitNewerSkipsSeenGenerations() throws Exception {
+        MetricsDBPublisher publisher = new MetricsDBPublisher();
+        publisher.publish(5000L, Mockito.mock(MetricsDB.class));
+        publisher.publish(10000L, Mockito.mock(MetricsDB.class));
+
+        // Only the latest window is handed out.
+        MetricsDBPublisher.Publication latest = publisher.awaitNewer(0, 0);
+        assertEquals(2, latest.getGeneration());
+        assertEquals(10000L, latest.getWindowStartTime());
+        assertNull(publisher.awaitNewer(latest.getGeneration(), 10));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jooq.BatchBindStep;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+
+public class OSMetricsAlignerTests {
+    private static final String DB_URL = "jdbc:sqlite:";
+    private static final String CPU = AllMetrics.OSMetrics.CPU_UTILIZATION.toString();
+
+    public OSMetricsAlignerTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        System.setProperty("java.io.tmpdir", "/tmp");
+    }
+
+    @Test
+    public void testAlignWindow() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        OSMetricsSnapshot left = new OSMetricsSnapshot(conn, 5000L);
+        put(left, "1", 10d, 7000L);
+        put(left, "2", 20d, 8000L);
+        OSMetricsSnapshot right = new OSMetricsSnapshot(conn, 10000L);
+        put(right, "1", 20d, 13000L);
+        put(right, "3", 30d, 12000L);
+
+        OSMetricsSnapshot aligned = new OSMetricsSnapshot(conn, 3L);
+        OSMetricsAligner.alignWindow(left, right, aligned, 5000L, 10000L);
+        Result<Record> res = aligned.fetchAll();
+        assertEquals(3, res.size());
+        assertEquals("1", res.get(0).get("tid"));
+        assertEquals(16d, res.get(0).get(CPU, Double.class), 0);
+        assertEquals(7000L, (long) res.get(0).get("lastUpdateTime", Long.class));
+        assertEquals("2", res.get(1).get("tid"));
+        assertEquals(20d, res.get(1).get(CPU, Double.class), 0);
+        assertEquals("3", res.get(2).get("tid"));
+        assertEquals(30d, res.get(2).get(CPU, Double.class), 0);
+        assertNull(res.get(2).get("lastUpdateTime"));
+    }
+
+    @Test
+    public void testSameOutputAsSql() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        Random random = new Random(42);
+        OSMetricsSnapshot left = new OSMetricsSnapshot(conn, 5000L);
+        OSMetricsSnapshot right = new OSMetricsSnapshot(conn, 10000L);
+        fill(left, random, 200, 2000L);
+        fill(right, random, 200, 7000L);
+
+        OSMetricsSnapshot sqlAligned = new OSMetricsSnapshot(conn, 3L);
+        OSMetricsSnapshot.alignWindow(left, right, sqlAligned.getTableName(), 5000L, 10000L);
+        OSMetricsSnapshot jvmAligned = new OSMetricsSnapshot(conn, 4L);
+        OSMetricsAligner.alignWindow(left, right, jvmAligned, 5000L, 10000L);
+
+        Result<Record> expected = sqlAligned.fetchAll();
+        Result<Record> actual = jvmAligned.fetchAll();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).get("tid"), actual.get(i).get("tid"));
+            for (String metric : left.getMetricColumns()) {
+                assertEquals(
+                        expected.get(i).get(metric, Double.class),
+                        actual.get(i).get(metric, Double.class));
+            }
+            assertEquals(
+                    expected.get(i).get("lastUpdateTime", Long.class),
+                    actual.get(i).get("lastUpdateTime", Long.class));
+        }
+    }
+
+    // @Test
+    public void perfTest() throws Exception {
+        System.out.println("Align window, SQL vs in-JVM");
+        for (int threads : new int[] {100, 1000, 10000}) {
+            Connection conn = DriverManager.getConnection(DB_URL);
+            Random random = new Random(threads);
+            OSMetricsSnapshot left = new OSMetricsSnapshot(conn, 5000L);
+            OSMetricsSnapshot right = new OSMetricsSnapshot(conn, 10000L);
+            fill(left, random, threads, 2000L);
+            fill(right, random, threads, 7000L);
+
+            long sqlTime = 0;
+            long jvmTime = 0;
+            for (int i = 0; i < 5; i++) {
+                OSMetricsSnapshot sqlAligned = new OSMetricsSnapshot(conn, 100L + i);
+                long start = System.nanoTime();
+                OSMetricsSnapshot.alignWindow(
+                        left, right, sqlAligned.getTableName(), 5000L, 10000L);
+                sqlTime += System.nanoTime() - start;
+                sqlAligned.remove();
+
+                OSMetricsSnapshot jvmAligned = new OSMetricsSnapshot(conn, 200L + i);
+                start = System.nanoTime();
+                OSMetricsAligner.alignWindow(left, right, jvmAligned, 5000L, 10000L);
+                jvmTime += System.nanoTime() - start;
+                jvmAligned.remove();
+            }
+            System.out.println(
+                    threads + ": sql " + sqlTime / 5_000 + "us, jvm " + jvmTime / 5_000 + "us");
+            conn.close();
+        }
+    }
+
+    private static void put(OSMetricsSnapshot snap, String tid, double cpu, long updateTime) {
+        Map<String, Double> metrics = new HashMap<>();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("tid", tid);
+        dimensions.put("tName", "thread " + tid);
+        metrics.put(CPU, cpu);
+        snap.putMetric(metrics, dimensions, updateTime);
+    }
+
+    /**
+     * Writes rows for a random subset of the threads, with some null metrics, a few threads without
+     * an update time and a few threads with two rows.
+     */
+    private static void fill(OSMetricsSnapshot snap, Random random, int threads, long baseTime) {
+        List<Object[]> rows = new ArrayList<>();
+        int numMetrics = snap.getMetricColumns().size();
+        for (int t = 0; t < threads; t++) {
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            int copies = random.nextInt(10) == 0 ? 2 : 1;
+            for (int c = 0; c < copies; c++) {
+                Object[] row = new Object[numMetrics + 3];
+                row[0] = String.valueOf(t);
+                row[1] = "thread " + t;
+                for (int m = 0; m < numMetrics; m++) {
+                    row[2 + m] = random.nextInt(8) == 0 ? null : random.nextDouble() * 1000;
+                }
+                row[numMetrics + 2] =
+                        random.nextInt(20) == 0 ? null : baseTime + random.nextInt(5000);
+                rows.add(row);
+            }
+        }
+        BatchBindStep batch = snap.startBatchPut();
+        for (Object[] row : rows) {
+            batch.bind(row);
+        }
+        batch.execute();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+
+public class ReaderPipelineTests {
+    private static final int EVENTS = 3 * ReaderPipeline.BATCH_SIZE + 5;
+
+    /** Records the events dispatched to it and the threads they were dispatched on. */
+    private static class RecordingDispatcher extends RoutingEventDispatcher {
+        private final List<String> keys = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+
+        @Override
+        public void processEvent(Event event) {
+            keys.add(event.key);
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    private static void readEvents(long windowStartTime, RoutingEventDispatcher dispatcher) {
+        for (int i = 0; i < EVENTS; i++) {
+            dispatcher.processEvent(new Event(windowStartTime + "/" + i, "value", windowStartTime));
+        }
+    }
+
+    @Test
+    public void testEventsDispatchedInOrderOnTheCallingThread() throws Exception {
+        List<Thread> readThreads = new ArrayList<>();
+        try (ReaderPipeline pipeline =
+                new ReaderPipeline(
+                        1,
+                        (windowStartTime, dispatcher) -> {
+                            readThreads.add(Thread.currentThread());
+                            readEvents(windowStartTime, dispatcher);
+                        })) {
+            for (long window = 5000; window <= 10000; window += 5000) {
+                RecordingDispatcher dispatcher = new RecordingDispatcher();
+                pipeline.dispatch(window, dispatcher);
+                assertEquals(EVENTS, dispatcher.keys.size());
+                for (int i = 0; i < EVENTS; i++) {
+                    assertEquals(window + "/" + i, dispatcher.keys.get(i));
+                    assertSame(Thread.currentThread(), dispatcher.threads.get(i));
+                }
+            }
+        }
+        assertEquals(2, readThreads.size());
+        assertNotEquals(Thread.currentThread(), readThreads.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReadFailureRethrown() throws Exception {
+        try (ReaderPipeline pipeline =
+                new ReaderPipeline(
+                        1,
+                        (windowStartTime, dispatcher) -> {
+                            readEvents(windowStartTime, dispatcher);
+                            throw new IllegalStateException("read failed");
+                        })) {
+            pipeline.dispatch(5000, new RecordingDispatcher());
+            fail("The read failure was not rethrown");
+        }
+    }
+
+    @Test
+    public void testReadStageFreedWhenDispatchFails() throws Exception {
+        try (ReaderPipeline pipeline = new ReaderPipeline(1, ReaderPipelineTests::readEvents)) {
+            RoutingEventDispatcher failing =
+                    new RoutingEventDispatcher() {
+                        @Override
+                        public void processEvent(Event event) {
+                            throw new IllegalStateException("dispatch failed");
+                        }
+                    };
+            try {
+                pipeline.dispatch(5000, failing);
+                fail("The dispatch failure was not thrown");
+            } catch (IllegalStateException expected) {
+                // The read stage, blocked on the full hand-off, gives up on the window.
+            }
+            RecordingDispatcher dispatcher = new RecordingDispatcher();
+            pipeline.dispatch(10000, dispatcher);
+            assertEquals(EVENTS, dispatcher.keys.size());
+        }
+    }
+}
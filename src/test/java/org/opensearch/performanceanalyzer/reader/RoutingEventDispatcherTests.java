@@ -0,0 +1,197 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.event_process.Event;
+import org.opensearch.performanceanalyzer.commons.event_process.EventProcessor;
+import org.opensearch.performanceanalyzer.commons.metrics.PerformanceAnalyzerMetrics;
+
+public class RoutingEventDispatcherTests {
+
+    @Test
+    public void testRoutesByContainedPath() {
+        RoutingEventDispatcher dispatcher = new RoutingEventDispatcher();
+        RecordingProcessor os = new RecordingProcessor(PerformanceAnalyzerMetrics.sOSPath);
+        RecordingProcessor request =
+                new RecordingProcessor(
+                        PerformanceAnalyzerMetrics.sShardBulkPath,
+                        PerformanceAnalyzerMetrics.sShardFetchPath,
+                        PerformanceAnalyzerMetrics.sShardQueryPath);
+        RecordingProcessor http = new RecordingProcessor(PerformanceAnalyzerMetrics.sHttpPath);
+        dispatcher.registerEventProcessor(os);
+        dispatcher.registerEventProcessor(request);
+        dispatcher.registerEventProcessor(http);
+        dispatcher.initializeProcessing(0, 5000);
+
+        dispatcher.processEvent(event(key("threads", "7462", PerformanceAnalyzerMetrics.sOSPath)));
+        dispatcher.processEvent(
+                event(key("threads", "7462", PerformanceAnalyzerMetrics.sShardQueryPath, "1")));
+        dispatcher.processEvent(event(key("threads", "http", "bulk", "43369", "start")));
+        dispatcher.processEvent(event(key("unknown", "7462")));
+        dispatcher.finalizeProcessing();
+
+        assertEquals(1, os.events.size());
+        assertEquals(1, request.events.size());
+        assertEquals(1, http.events.size());
+        assertEquals(1, dispatcher.getUnroutedEvents());
+        assertTrue(os.initialized && os.finalized);
+    }
+
+    @Test
+    public void testSameRoutingAsShouldProcessEvent() {
+        // Overlapping paths, paths inside other paths and a processor without paths.
+        List<RecordingProcessor> routed =
+                Arrays.asList(
+                        new RecordingProcessor("ab"),
+                        new RecordingProcessor("b"),
+                        new RecordingProcessor("abc", "cab"),
+                        new RecordingProcessor("bcbc"),
+                        new RecordingProcessor("ca"));
+        UnroutedProcessor unrouted = new UnroutedProcessor("cc");
+        RoutingEventDispatcher dispatcher = new RoutingEventDispatcher();
+        for (RecordingProcessor processor : routed) {
+            dispatcher.registerEventProcessor(processor);
+        }
+        dispatcher.registerEventProcessor(unrouted);
+        dispatcher.initializeProcessing(0, 5000);
+
+        Random random = new Random(7);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder key = new StringBuilder();
+            int length = random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                key.append("abcd/".charAt(random.nextInt(5)));
+            }
+            Event event = event(key.toString());
+            events.add(event);
+            dispatcher.processEvent(event);
+        }
+
+        long unroutedEvents = 0;
+        for (Event event : events) {
+            boolean taken = unrouted.shouldProcessEvent(event);
+            for (RecordingProcessor processor : routed) {
+                taken |= processor.shouldProcessEvent(event);
+            }
+            if (!taken) {
+                unroutedEvents++;
+            }
+        }
+        for (RecordingProcessor processor : routed) {
+            List<Event> expected = new ArrayList<>();
+            for (Event event : events) {
+                if (processor.shouldProcessEvent(event)) {
+                    expected.add(event);
+                }
+            }
+            assertEquals(expected, processor.events);
+        }
+        assertEquals(unroutedEvents, dispatcher.getUnroutedEvents());
+    }
+
+    @Test
+    public void testProcessorRegisteredAfterInitialize() {
+        RoutingEventDispatcher dispatcher = new RoutingEventDispatcher();
+        RecordingProcessor os = new RecordingProcessor(PerformanceAnalyzerMetrics.sOSPath);
+        dispatcher.registerEventProcessor(os);
+        dispatcher.initializeProcessing(0, 5000);
+        RecordingProcessor http = new RecordingProcessor(PerformanceAnalyzerMetrics.sHttpPath);
+        dispatcher.registerEventProcessor(http);
+
+        dispatcher.processEvent(event(key("threads", "http", "bulk", "43369", "start")));
+        assertEquals(0, os.events.size());
+        assertEquals(1, http.events.size());
+    }
+
+    private static String key(String... segments) {
+        return String.join(File.separator, segments);
+    }
+
+    private static Event event(String key) {
+        return new Event(key, "", 0);
+    }
+
+    private static class UnroutedProcessor implements EventProcessor {
+        private final String path;
+
+        UnroutedProcessor(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public void initializeProcessing(long startTime, long endTime) {}
+
+        @Override
+        public void finalizeProcessing() {}
+
+        @Override
+        public void processEvent(Event event) {}
+
+        @Override
+        public boolean shouldProcessEvent(Event event) {
+            return event.key.contains(path);
+        }
+
+        @Override
+        public void commitBatchIfRequired() {}
+    }
+
+    private static class RecordingProcessor implements KeyRoutedEventProcessor {
+        private final List<String> paths;
+        private final List<Event> events = new ArrayList<>();
+        private boolean initialized;
+        private boolean finalized;
+
+        RecordingProcessor(String... paths) {
+            this.paths = Arrays.asList(paths);
+        }
+
+        @Override
+        public Collection<String> getEventKeyPaths() {
+            return Collections.unmodifiableList(paths);
+        }
+
+        @Override
+        public void initializeProcessing(long startTime, long endTime) {
+            initialized = true;
+        }
+
+        @Override
+        public void finalizeProcessing() {
+            finalized = true;
+        }
+
+        @Override
+        public void processEvent(Event event) {
+            events.add(event);
+        }
+
+        @Override
+        public boolean shouldProcessEvent(Event event) {
+            for (String path : paths) {
+                if (event.key.contains(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void commitBatchIfRequired() {}
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.DBUtils;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+
+public class ShardRequestAggregatorTests {
+    private static final String DB_URL = "jdbc:sqlite:";
+    private static final long WINDOW = 1535065195000L;
+
+    private Connection sqlConn;
+    private Connection streamingConn;
+
+    public ShardRequestAggregatorTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        System.setProperty("java.io.tmpdir", "/tmp");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        sqlConn = DriverManager.getConnection(DB_URL);
+        streamingConn = DriverManager.getConnection(DB_URL);
+    }
+
+    @Test
+    public void testSameLatencyAsSql() throws Exception {
+        ShardRequestMetricsSnapshot sql = new ShardRequestMetricsSnapshot(sqlConn, WINDOW);
+        ShardRequestMetricsSnapshot streaming =
+                new ShardRequestMetricsSnapshot(streamingConn, WINDOW, true);
+        putRequests(sql);
+        putRequests(streaming);
+
+        Map<String, Record> expected = byGroup(sql.fetchLatencyByOp());
+        Map<String, Record> actual = byGroup(streaming.fetchLatencyByOp());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Record> entry : expected.entrySet()) {
+            assertSameValues(entry.getValue(), actual.get(entry.getKey()));
+        }
+        // The events were not stored, the table was not even created.
+        DSLContext create = DSL.using(streamingConn, SQLDialect.SQLITE);
+        assertFalse(DBUtils.checkIfTableExists(create, streaming.getTableName()));
+        streaming.remove();
+    }
+
+    @Test
+    public void testSameOSMetricsAsSql() throws Exception {
+        ShardRequestMetricsSnapshot sql = new ShardRequestMetricsSnapshot(sqlConn, WINDOW);
+        ShardRequestMetricsSnapshot streaming =
+                new ShardRequestMetricsSnapshot(streamingConn, WINDOW, true);
+        putRequests(sql);
+        putRequests(streaming);
+
+        OSMetricsSnapshot os = new OSMetricsSnapshot(sqlConn, 1L);
+        putOSMetrics(os, "1", "opensearch[search][T#1]", 2.5d, 100d);
+        putOSMetrics(os, "2", "opensearch[write][T#1]", 4d, 200d);
+
+        DSLContext create = DSL.using(sqlConn, SQLDialect.SQLITE);
+        Map<String, Record> expected =
+                byGroup(MetricsEmitter.correlateOSMetrics(create, os, sql));
+        Map<String, Record> actual = byGroup(streaming.fetchAggregatedOSMetrics(os));
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Record> entry : expected.entrySet()) {
+            assertSameValues(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testRolloverInflightRequests() throws Exception {
+        ShardRequestMetricsSnapshot sql = new ShardRequestMetricsSnapshot(sqlConn, WINDOW);
+        ShardRequestMetricsSnapshot streaming =
+                new ShardRequestMetricsSnapshot(streamingConn, WINDOW, true);
+        for (ShardRequestMetricsSnapshot snap : Arrays.asList(sql, streaming)) {
+            // Superseded by a later request on the same thread.
+            putStart(snap, "a", "1", WINDOW - 1000);
+            putStart(snap, "b", "1", WINDOW + 100);
+            // The latest request of its thread.
+            putStart(snap, "c", "2", WINDOW - 2000);
+            // Finished.
+            putStart(snap, "d", "3", WINDOW + 200);
+            putEnd(snap, "d", "3", WINDOW + 300);
+        }
+
+        long next = WINDOW + 5000;
+        ShardRequestMetricsSnapshot nextSql = new ShardRequestMetricsSnapshot(sqlConn, next);
+        nextSql.rolloverInflightRequests(sql);
+        ShardRequestMetricsSnapshot nextStreaming =
+                new ShardRequestMetricsSnapshot(streamingConn, next, true);
+        nextStreaming.rolloverInflightRequests(streaming);
+        assertEquals(nextSql.fetchAll().size(), nextStreaming.getAggregator().size());
+        assertEquals(2, nextStreaming.getAggregator().size());
+
+        putEnd(nextSql, "c", "2", next + 1000);
+        putEnd(nextStreaming, "c", "2", next + 1000);
+        Map<String, Record> expected = byGroup(nextSql.fetchLatencyByOp());
+        Map<String, Record> actual = byGroup(nextStreaming.fetchLatencyByOp());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, Record> entry : expected.entrySet()) {
+            assertSameValues(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testRequestEventsInAnyOrder() {
+        ShardRequestAggregator aggregator = new ShardRequestAggregator(WINDOW, WINDOW + 5000);
+        aggregator.finish("0", "logs", "1", "7", "shardbulk", "primary", WINDOW + 300);
+        aggregator.start("0", "logs", "1", "7", "shardbulk", "primary", WINDOW + 100, 12L);
+        // Ignored, the request is already paired.
+        aggregator.finish("0", "logs", "1", "7", "shardbulk", "primary", WINDOW + 900);
+
+        Result<Record> res = aggregator.fetchLatencyByOp();
+        assertEquals(1, res.size());
+        String sumLatency =
+                DBUtils.getAggFieldName(
+                        ShardRequestMetricsSnapshot.Fields.LAT.toString(), MetricsDB.SUM);
+        assertEquals(200d, res.get(0).get(sumLatency, Double.class), 0);
+        assertEquals(
+                1,
+                (int)
+                        res.get(0)
+                                .get(
+                                        AllMetrics.ShardOperationMetric.SHARD_OP_COUNT.toString(),
+                                        Integer.class));
+        assertEquals(
+                12d,
+                res.get(0).get(AllMetrics.ShardBulkMetric.DOC_COUNT.toString(), Double.class),
+                0);
+    }
+
+    private static void putRequests(ShardRequestMetricsSnapshot snap) {
+        // Paired on thread 1.
+        putStart(snap, "1", "1", WINDOW + 1120);
+        putEnd(snap, "1", "1", WINDOW + 1323);
+        // Still running on thread 1.
+        putStart(snap, "2", "1", WINDOW + 2323);
+        // Paired on thread 2, and a request whose start was in an earlier window.
+        putStart(snap, "3", "2", WINDOW + 3323);
+        putEnd(snap, "3", "2", WINDOW + 4923);
+        putEnd(snap, "4", "2", WINDOW + 500);
+        // A thread without OS metrics.
+        putStart(snap, "5", "3", WINDOW + 100);
+        putEnd(snap, "5", "3", WINDOW + 200);
+        // Another group on thread 2.
+        Map<String, String> dimensions = dimensions("6", "2");
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.OPERATION.toString(), "shardquery");
+        snap.putStartMetric(WINDOW + 10, dimensions);
+        snap.putEndMetric(WINDOW + 3000, dimensions);
+    }
+
+    private static void putStart(ShardRequestMetricsSnapshot snap, String rid, String tid, long t) {
+        snap.putStartMetric(t, dimensions(rid, tid));
+    }
+
+    private static void putEnd(ShardRequestMetricsSnapshot snap, String rid, String tid, long t) {
+        snap.putEndMetric(t, dimensions(rid, tid));
+    }
+
+    private static Map<String, String> dimensions(String rid, String tid) {
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.INDEX_NAME.toString(), "logs");
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.SHARD_ID.toString(), "1");
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.OPERATION.toString(), "shardbulk");
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.SHARD_ROLE.toString(), "primary");
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.TID.toString(), tid);
+        dimensions.put(ShardRequestMetricsSnapshot.Fields.RID.toString(), rid);
+        return dimensions;
+    }
+
+    private static void putOSMetrics(
+            OSMetricsSnapshot os, String tid, String tName, double cpu, double rss) {
+        Map<String, Double> metrics = new HashMap<>();
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put(OSMetricsSnapshot.Fields.tid.toString(), tid);
+        dimensions.put(OSMetricsSnapshot.Fields.tName.toString(), tName);
+        metrics.put(AllMetrics.OSMetrics.CPU_UTILIZATION.toString(), cpu);
+        metrics.put(AllMetrics.OSMetrics.PAGING_RSS.toString(), rss);
+        os.putMetric(metrics, dimensions, 1L);
+    }
+
+    private static Map<String, Record> byGroup(Result<Record> result) {
+        Map<String, Record> byGroup = new HashMap<>();
+        for (Record record : result) {
+            byGroup.put(
+                    record.get(ShardRequestMetricsSnapshot.Fields.SHARD_ID.toString())
+                            + "|"
+                            + record.get(ShardRequestMetricsSnapshot.Fields.INDEX_NAME.toString())
+                            + "|"
+                            + record.get(ShardRequestMetricsSnapshot.Fields.OPERATION.toString())
+                            + "|"
+                            + record.get(ShardRequestMetricsSnapshot.Fields.SHARD_ROLE.toString()),
+                    record);
+        }
+        return byGroup;
+    }
+
+    private static void assertSameValues(Record expected, Record actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Field<?> field : expected.fields()) {
+            Object expectedValue = expected.get(field.getName());
+            Object actualValue = actual.get(field.getName());
+            if (expectedValue == null) {
+                assertNull(field.getName(), actualValue);
+            } else if (expectedValue instanceof Number) {
+                assertEquals(
+                        field.getName(),
+                        ((Number) expectedValue).doubleValue(),
+                        ((Number) actualValue).doubleValue(),
+                        1e-9);
+            } else {
+                assertEquals(field.getName(), expectedValue, actualValue);
+            }
+        }
+    }
+}
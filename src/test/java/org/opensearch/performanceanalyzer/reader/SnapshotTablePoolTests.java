@@ -0,0 +1,231 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.DBUtils;
+import org.opensearch.performanceanalyzer.commons.metrics.AllMetrics;
+
+public class SnapshotTablePoolTests extends AbstractReaderTests {
+    private static final AllMetrics.MetricName CB = AllMetrics.MetricName.CIRCUIT_BREAKER;
+
+    public SnapshotTablePoolTests() throws SQLException, ClassNotFoundException {
+        super();
+    }
+
+    @Test
+    public void testTablesReused() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        SnapshotTablePool pool = SnapshotTablePool.register(conn, 2, 0.25);
+        try {
+            MemoryDBSnapshot first = new MemoryDBSnapshot(conn, CB, 5000L);
+            MemoryDBSnapshot aligned = new MemoryDBSnapshot(conn, CB, 5000L, true);
+            first.insertMultiRows(circuitBreakerRows());
+            assertEquals(2, first.fetchAll().size());
+            assertEquals(0, aligned.fetchAll().size());
+
+            String firstTable = first.getTableName();
+            first.remove();
+            // Removing twice does not give the table back twice.
+            first.remove();
+            aligned.remove();
+
+            MemoryDBSnapshot next = new MemoryDBSnapshot(conn, CB, 10000L);
+            assertEquals(firstTable, next.getTableName());
+            assertEquals(0, next.fetchAll().size());
+            assertEquals(2, countTables(conn));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testTableAddedPastRingDropped() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        DSLContext create = DSL.using(conn, SQLDialect.SQLITE);
+        SnapshotTablePool pool = SnapshotTablePool.register(conn, 1, 0.25);
+        try {
+            MemoryDBSnapshot inRing = new MemoryDBSnapshot(conn, CB, 5000L);
+            MemoryDBSnapshot added = new MemoryDBSnapshot(conn, CB, 10000L);
+            added.insertMultiRows(circuitBreakerRows());
+
+            added.remove();
+            assertFalse(DBUtils.checkIfTableExists(create, added.getTableName()));
+            inRing.remove();
+            assertTrue(DBUtils.checkIfTableExists(create, inRing.getTableName()));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testOSSnapshotsShareRing() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        SnapshotTablePool pool = SnapshotTablePool.register(conn, 3, 0.25);
+        try {
+            OSMetricsSnapshot left = new OSMetricsSnapshot(conn, 5000L);
+            OSMetricsSnapshot right = new OSMetricsSnapshot(conn, 10000L);
+            fill(left, new Random(1), 10, 2000L);
+            fill(right, new Random(2), 10, 7000L);
+
+            OSMetricsSnapshot sqlAligned = new OSMetricsSnapshot(conn, "os_aligned_", 10000L);
+            OSMetricsSnapshot.alignWindow(left, right, sqlAligned.getTableName(), 5000L, 10000L);
+            Map<String, Long> expected = sqlAligned.getLastUpdateTimePerTid();
+            assertEquals(10, expected.size());
+            sqlAligned.remove();
+
+            OSMetricsSnapshot jvmAligned = new OSMetricsSnapshot(conn, "os_aligned_", 10000L);
+            assertEquals(sqlAligned.getTableName(), jvmAligned.getTableName());
+            assertEquals(0, jvmAligned.fetchAll().size());
+            OSMetricsAligner.alignWindow(left, right, jvmAligned, 5000L, 10000L);
+            assertEquals(expected, jvmAligned.getLastUpdateTimePerTid());
+            assertEquals(3, countTables(conn));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testVacuumPastThreshold() throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        SnapshotTablePool pool = SnapshotTablePool.register(conn, 1, 0.25);
+        try {
+            OSMetricsSnapshot snap = new OSMetricsSnapshot(conn, 5000L);
+            fill(snap, new Random(1), 5000, 2000L);
+            assertFalse(pool.isVacuumNeeded());
+
+            snap.remove();
+            assertTrue(pool.getFragmentation() > 0.25);
+            assertTrue(pool.isVacuumNeeded());
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("VACUUM");
+            }
+            assertEquals(0, pool.getFragmentation(), 0);
+            assertFalse(pool.isVacuumNeeded());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /** Per window reader time with a table per snapshot and with pooled tables. */
+    // @Test
+    public void perfTest() throws Exception {
+        System.out.println("Reader window, table per snapshot vs pooled tables");
+        for (int threads : new int[] {100, 1000, 5000}) {
+            long perSnapshot = runWindows(false, threads, 20);
+            long pooled = runWindows(true, threads, 20);
+            System.out.println(
+                    threads
+                            + ": table per snapshot "
+                            + perSnapshot
+                            + "us, pooled "
+                            + pooled
+                            + "us");
+        }
+    }
+
+    /**
+     * Creates, fills and aligns the OS and a node metric snapshot of each window, trims the older
+     * snapshots and vacuums as the reader does.
+     *
+     * @return the mean time per window, in micro seconds
+     */
+    private long runWindows(boolean pooled, int threads, int windows) throws Exception {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        SnapshotTablePool pool = pooled ? SnapshotTablePool.register(conn, 8, 0.25) : null;
+        NavigableMap<Long, OSMetricsSnapshot> osSnapshots = new TreeMap<>();
+        NavigableMap<Long, MemoryDBSnapshot> cbSnapshots = new TreeMap<>();
+        Random random = new Random(threads);
+        long total = 0;
+        for (int w = 1; w <= windows; w++) {
+            long windowEnd = w * 5000L;
+            long start = System.nanoTime();
+            OSMetricsSnapshot os = new OSMetricsSnapshot(conn, windowEnd);
+            fill(os, random, threads, windowEnd - 3000L);
+            MemoryDBSnapshot cb = new MemoryDBSnapshot(conn, CB, windowEnd);
+            cb.insertMultiRows(circuitBreakerRows());
+            if (osSnapshots.size() > 0) {
+                OSMetricsSnapshot osAligned = new OSMetricsSnapshot(conn, "os_aligned_", windowEnd);
+                OSMetricsSnapshot.alignWindow(
+                        osSnapshots.lastEntry().getValue(),
+                        os,
+                        osAligned.getTableName(),
+                        windowEnd - 5000L,
+                        windowEnd);
+                osAligned.remove();
+                MemoryDBSnapshot cbAligned = new MemoryDBSnapshot(conn, CB, windowEnd, true);
+                cbAligned.alignWindow(
+                        cbSnapshots.lastEntry().getValue(),
+                        cb,
+                        windowEnd - 2000L,
+                        windowEnd - 5000L,
+                        windowEnd);
+                cbAligned.remove();
+            }
+            osSnapshots.put(windowEnd, os);
+            cbSnapshots.put(windowEnd, cb);
+            while (osSnapshots.size() > 4) {
+                osSnapshots.pollFirstEntry().getValue().remove();
+                cbSnapshots.pollFirstEntry().getValue().remove();
+            }
+            if (pool == null || pool.isVacuumNeeded()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("VACUUM");
+                }
+            }
+            total += System.nanoTime() - start;
+        }
+        if (pool != null) {
+            pool.close();
+        }
+        conn.close();
+        return total / windows / 1000;
+    }
+
+    private static Object[][] circuitBreakerRows() {
+        return new Object[][] {
+            {"request", 0d, 0d, 19607637196d},
+            {"fielddata", 0d, 0d, 19607637196d},
+        };
+    }
+
+    private static void fill(OSMetricsSnapshot snap, Random random, int threads, long baseTime) {
+        int numMetrics = snap.getMetricColumns().size();
+        RowBatch batch = snap.startRowBatch();
+        for (int t = 0; t < threads; t++) {
+            Object[] row = new Object[numMetrics + 3];
+            row[0] = String.valueOf(t);
+            row[1] = "thread " + t;
+            for (int m = 0; m < numMetrics; m++) {
+                row[2 + m] = random.nextDouble() * 1000;
+            }
+            row[numMetrics + 2] = baseTime + random.nextInt(5000);
+            batch.bind(row);
+        }
+        batch.execute();
+    }
+
+    private static int countTables(Connection conn) {
+        return DSL.using(conn, SQLDialect.SQLITE)
+                .fetchCount(DSL.table("sqlite_master"), DSL.field("type").eq("table"));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.commons.config.PluginSettings;
+import org.opensearch.performanceanalyzer.metricsdb.Dimensions;
+import org.opensearch.performanceanalyzer.metricsdb.Metric;
+import org.opensearch.performanceanalyzer.metricsdb.MetricsDB;
+import org.opensearch.performanceanalyzer.metricsdb.PartitionedMetricsDB;
+import org.opensearch.performanceanalyzer.model.MetricsModel;
+
+public class BatchMetricsQueryEngineTests {
+    // All the windows fall into the same 10 minute partition.
+    private static final long FIRST_WINDOW = 1553713380000L;
+    private static final List<String> METRICS = Arrays.asList("CPU_Utilization", "Paging_RSS");
+
+    private BatchMetricsQueryEngine engine;
+    private NavigableSet<Long> windows;
+
+    public BatchMetricsQueryEngineTests() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+    }
+
+    @Before
+    public void setUp() {
+        System.setProperty("java.io.tmpdir", "/tmp");
+        setStorageMode(PartitionedMetricsDB.STORAGE_MODE_FILE_PER_WINDOW);
+        engine = new BatchMetricsQueryEngine(2);
+        windows = new TreeSet<>();
+        for (int i = 0; i < 4; i++) {
+            windows.add(FIRST_WINDOW + i * 5000L);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        engine.close();
+        for (Long window : windows) {
+            new File(MetricsDB.getDBFilePath(window)).delete();
+        }
+        deletePartitions();
+        setStorageMode(PartitionedMetricsDB.STORAGE_MODE_FILE_PER_WINDOW);
+    }
+
+    @Test
+    public void testPooledHandlesAreReused() throws Exception {
+        writeWindows();
+        String expected =
+                engine.query(windows, METRICS, FIRST_WINDOW, FIRST_WINDOW + 10000, 5000, 10);
+        assertEquals(2, engine.getPool().getMisses());
+        assertEquals(2, engine.getPool().size());
+
+        assertEquals(
+                expected,
+                engine.query(windows, METRICS, FIRST_WINDOW, FIRST_WINDOW + 10000, 5000, 10));
+        assertEquals(2, engine.getPool().getMisses());
+        assertEquals(2, engine.getPool().getHits());
+
+        // Handles of windows that are gone are released.
+        windows.remove(FIRST_WINDOW);
+        engine.query(windows, METRICS, FIRST_WINDOW + 5000, FIRST_WINDOW + 10000, 5000, 10);
+        assertEquals(1, engine.getPool().size());
+    }
+
+    @Test
+    public void testPoolHoldsTheRetainedWindows() throws Exception {
+        engine.close();
+        engine = new BatchMetricsQueryEngine(1);
+        writeWindows();
+        long end = FIRST_WINDOW + 20000;
+        String expected = engine.query(windows, METRICS, FIRST_WINDOW, end, 5000, 20);
+        assertEquals(4, engine.getPool().getCapacity());
+        assertEquals(4, engine.getPool().size());
+
+        assertEquals(expected, engine.query(windows, METRICS, FIRST_WINDOW, end, 5000, 20));
+        assertEquals(4, engine.getPool().getMisses());
+        assertEquals(4, engine.getPool().getHits());
+    }
+
+    @Test
+    public void testPooledPartitionSeesNewWindows() throws Exception {
+        setStorageMode(PartitionedMetricsDB.STORAGE_MODE_PARTITIONED);
+        long end = FIRST_WINDOW + 20000;
+        NavigableSet<Long> written = new TreeSet<>();
+        double value = 1D;
+        for (Long window : windows) {
+            if (written.size() == 2) {
+                engine.query(written, METRICS, FIRST_WINDOW, end, 5000, 20);
+            }
+            writeWindow(window, MetricsDB.createForWindow(window), value++);
+            written.add(window);
+        }
+
+        String response = engine.query(written, METRICS, FIRST_WINDOW, end, 5000, 20);
+        assertEquals(1, engine.getPool().getMisses());
+        assertTrue(response.contains("4.0"));
+    }
+
+    @Test
+    public void testRewrittenWindowIsReloaded() throws Exception {
+        writeWindows();
+        engine.query(windows, METRICS, FIRST_WINDOW, FIRST_WINDOW + 5000, 5000, 10);
+        new File(MetricsDB.getDBFilePath(FIRST_WINDOW)).delete();
+        writeWindow(FIRST_WINDOW, MetricsDB.createForWindow(FIRST_WINDOW), 42D);
+
+        String response =
+                engine.query(windows, METRICS, FIRST_WINDOW, FIRST_WINDOW + 5000, 5000, 10);
+        assertEquals(2, engine.getPool().getMisses());
+        assertTrue(response.contains("42.0"));
+    }
+
+    @Test
+    public void testPartitionedRangeScanMatchesFileWindows() throws Exception {
+        writeWindows();
+        long end = FIRST_WINDOW + 20000;
+        String perFile = engine.query(windows, METRICS, FIRST_WINDOW, end, 5000, 20);
+        String downsampled = engine.query(windows, METRICS, FIRST_WINDOW, end, 10000, 20);
+
+        setStorageMode(PartitionedMetricsDB.STORAGE_MODE_PARTITIONED);
+        writeWindows();
+        assertEquals(perFile, engine.query(windows, METRICS, FIRST_WINDOW, end, 5000, 20));
+        assertEquals(downsampled, engine.query(windows, METRICS, FIRST_WINDOW, end, 10000, 20));
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void testPartitionedDatapointsLimit() throws Exception {
+        setStorageMode(PartitionedMetricsDB.STORAGE_MODE_PARTITIONED);
+        writeWindows();
+        engine.query(windows, METRICS, FIRST_WINDOW, FIRST_WINDOW + 20000, 5000, 7);
+    }
+
+    private void writeWindows() throws Exception {
+        double value = 1D;
+        for (Long window : windows) {
+            writeWindow(window, MetricsDB.createForWindow(window), value++);
+        }
+    }
+
+    private static void writeWindow(long window, MetricsDB db, double value) throws Exception {
+        for (String metricName : METRICS) {
+            List<String> dimensions =
+                    new ArrayList<>(MetricsModel.ALL_METRICS.get(metricName).dimensionNames);
+            Metric<Double> metric = new Metric<>(metricName, value);
+            db.createMetric(metric, dimensions);
+            for (String suffix : Arrays.asList("A", "B")) {
+                Dimensions dimensionData = new Dimensions();
+                for (String dimension : dimensions) {
+                    dimensionData.put(dimension, dimension + suffix);
+                }
+                db.putMetric(metric, dimensionData, window);
+            }
+        }
+        db.commit();
+        db.remove();
+    }
+
+    private static void setStorageMode(String mode) {
+        PluginSettings.instance()
+                .overrideProperty(PartitionedMetricsDB.STORAGE_MODE_CONF_NAME, mode);
+    }
+
+    private static void deletePartitions() {
+        for (Path path : PartitionedMetricsDB.listPartitionFiles()) {
+            for (String suffix : Arrays.asList("", "-wal", "-shm")) {
+                new File(path.toString() + suffix).delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.performanceanalyzer.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.opensearch.performanceanalyzer.grpc.MetricsRequest;
+import org.opensearch.performanceanalyzer.grpc.MetricsResponse;
+import org.opensearch.performanceanalyzer.net.NetClient;
+import org.opensearch.performanceanalyzer.rca.framework.util.InstanceDetails;
+
+public class MetricsFanOutTests {
+    private static final MetricsRequest REQUEST = MetricsRequest.newBuilder().build();
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrencyLimited() throws Exception {
+        FakeNetClient client = new FakeNetClient();
+        List<InstanceDetails> nodes = nodes(10);
+        for (InstanceDetails node : nodes) {
+            client.answerAfter(node, 20, 20);
+        }
+        MetricsFanOut fanOut = new MetricsFanOut(client, 3, 64, 5000, 0);
+        Map<String, MetricsResponse> responses = new HashMap<>();
+        assertEquals(10, fanOut.collect(nodes, REQUEST, responses::put));
+        assertEquals(10, responses.size());
+        assertEquals(3, client.maxConcurrent.get());
+
+        // The calls of all the queries are limited too.
+        client.maxConcurrent.set(0);
+        fanOut = new MetricsFanOut(client, 3, 2, 5000, 0);
+        assertEquals(10, fanOut.collect(nodes, REQUEST, (nodeId, response) -> {}));
+        assertEquals(2, client.maxConcurrent.get());
+    }
+
+    @Test
+    public void testSlowNodeLeftOutAtDeadline() throws Exception {
+        FakeNetClient client = new FakeNetClient();
+        List<InstanceDetails> nodes = nodes(3);
+        client.answerAfter(nodes.get(0), 10, 10);
+        client.answerAfter(nodes.get(1), 10, 10);
+        client.answerAfter(nodes.get(2), 60000, 60000);
+        MetricsFanOut fanOut = new MetricsFanOut(client, 16, 64, 300, 0);
+
+        Map<String, MetricsResponse> responses = new HashMap<>();
+        long start = System.currentTimeMillis();
+        assertEquals(2, fanOut.collect(nodes, REQUEST, responses::put));
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue("Took " + elapsed + "ms", elapsed < 2000);
+        assertEquals(2, responses.size());
+        assertTrue(responses.containsKey("node0"));
+        assertTrue(responses.containsKey("node1"));
+    }
+
+    @Test
+    public void testFailedNodeDoesNotWait() throws Exception {
+        FakeNetClient client = new FakeNetClient();
+        List<InstanceDetails> nodes = nodes(2);
+        client.answerAfter(nodes.get(0), 10, 10);
+        client.failAfter(nodes.get(1), 10);
+        MetricsFanOut fanOut = new MetricsFanOut(client, 16, 64, 5000, 0);
+
+        long start = System.currentTimeMillis();
+        assertEquals(1, fanOut.collect(nodes, REQUEST, (nodeId, response) -> {}));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testHedgedCallAnswers() throws Exception {
+        FakeNetClient client = new FakeNetClient();
+        List<InstanceDetails> nodes = nodes(1);
+        // The first call hangs, the second answers at once.
+        client.answerAfter(nodes.get(0), 60000, 0);
+        MetricsFanOut fanOut = new MetricsFanOut(client, 16, 64, 5000, 50);
+
+        Map<String, MetricsResponse> responses = new HashMap<>();
+        long start = System.currentTimeMillis();
+        assertEquals(1, fanOut.collect(nodes, REQUEST, responses::put));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(2, client.calls.get());
+        assertEquals(1, responses.size());
+        // The first call is cancelled once the second answered.
+        assertEquals(1, client.cancelled.get());
+    }
+
+    @Test
+    public void testCancelledHedgedCallFreesPermit() throws Exception {
+        FakeNetClient client = new FakeNetClient();
+        List<InstanceDetails> nodes = nodes(2);
+        // The first call to each node hangs, the second answers at once.
+        client.answerAfter(nodes.get(0), 60000, 0);
+        client.answerAfter(nodes.get(1), 60000, 0);
+        MetricsFanOut fanOut = new MetricsFanOut(client, 16, 2, 5000, 50);
+
+        long start = System.currentTimeMillis();
+        assertEquals(1, fanOut.collect(nodes.subList(0, 1), REQUEST, (nodeId, response) -> {}));
+        assertEquals(1, client.cancelled.get());
+        assertEquals(0, client.concurrent.get());
+        // The hedged call to the next node only gets a permit if the hung call gave its back.
+        assertEquals(1, fanOut.collect(nodes.subList(1, 2), REQUEST, (nodeId, response) -> {}));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    private static List<InstanceDetails> nodes(int count) {
+        List<InstanceDetails> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(
+                    new InstanceDetails(
+                            new InstanceDetails.Id("node" + i),
+                            new InstanceDetails.Ip("127.0.0." + (i + 1)),
+                            9650));
+        }
+        return nodes;
+    }
+
+    /** Answers each call to a node after the delay of the call, and fails it at its deadline. */
+    private class FakeNetClient extends NetClient {
+        private final Map<String, List<Long>> delays = new ConcurrentHashMap<>();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger cancelled = new AtomicInteger();
+        private final Set<String> calledNodes = ConcurrentHashMap.newKeySet();
+
+        FakeNetClient() {
+            super(null);
+        }
+
+        /** The delays of the first and the next calls to the node. */
+        void answerAfter(InstanceDetails node, long firstDelay, long nextDelay) {
+            delays.put(node.getInstanceId().toString(), Arrays.asList(firstDelay, nextDelay));
+        }
+
+        void failAfter(InstanceDetails node, long delay) {
+            delays.put(node.getInstanceId().toString(), Arrays.asList(-delay, -delay));
+        }
+
+        @Override
+        public void getMetrics(
+                InstanceDetails remoteNodeIP,
+                MetricsRequest request,
+                long deadlineMillis,
+                StreamObserver<MetricsResponse> responseObserver) {
+            String nodeId = remoteNodeIP.getInstanceId().toString();
+            calls.incrementAndGet();
+            boolean first = calledNodes.add(nodeId);
+            long delay = delays.get(nodeId).get(first ? 0 : 1);
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            FakeRequestStream requestStream = new FakeRequestStream(responseObserver);
+            if (responseObserver instanceof ClientResponseObserver) {
+                ((ClientResponseObserver<MetricsRequest, MetricsResponse>) responseObserver)
+                        .beforeStart(requestStream);
+            }
+            if (delay < 0 || delay >= deadlineMillis) {
+                requestStream.finish(
+                        scheduler.schedule(
+                                () -> {
+                                    concurrent.decrementAndGet();
+                                    responseObserver.onError(
+                                            Status.DEADLINE_EXCEEDED.asException());
+                                },
+                                delay < 0 ? -delay : deadlineMillis,
+                                TimeUnit.MILLISECONDS));
+                return;
+            }
+            requestStream.finish(
+                    scheduler.schedule(
+                            () -> {
+                                concurrent.decrementAndGet();
+                                responseObserver.onNext(
+                                        MetricsResponse.newBuilder()
+                                                .setMetricsResult(nodeId)
+                                                .build());
+                                responseObserver.onCompleted();
+                            },
+                            delay,
+                            TimeUnit.MILLISECONDS));
+        }
+
+        /** Cancels the scheduled answer of a call, and fails the call like gRPC does. */
+        private class FakeRequestStream extends ClientCallStreamObserver<MetricsRequest> {
+            private final StreamObserver<MetricsResponse> responseObserver;
+            private volatile ScheduledFuture<?> answer;
+
+            FakeRequestStream(StreamObserver<MetricsResponse> responseObserver) {
+                this.responseObserver = responseObserver;
+            }
+
+            void finish(ScheduledFuture<?> answer) {
+                this.answer = answer;
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                if (answer.cancel(false)) {
+                    cancelled.incrementAndGet();
+                    concurrent.decrementAndGet();
+                    responseObserver.onError(Status.CANCELLED.asException());
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setOnReadyHandler(Runnable onReadyHandler) {}
+
+            @Override
+            public void disableAutoInboundFlowControl() {}
+
+            @Override
+            public void request(int count) {}
+
+            @Override
+            public void setMessageCompression(boolean enable) {}
+
+            @Override
+            public void onNext(MetricsRequest value) {}
+
+            @Override
+            public void onError(Throwable t) {}
+
+            @Override
+            public void onCompleted() {}
+        }
+    }
+}